@@ -17,12 +17,18 @@
 package com.hazelcast.jet;
 
 import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.core.WatermarkEmissionPolicy;
+import com.hazelcast.jet.core.WatermarkPolicy;
+import com.hazelcast.jet.core.WindowDefinition;
 import com.hazelcast.jet.aggregate.AggregateOperation1;
 import com.hazelcast.jet.aggregate.AggregateOperation2;
 import com.hazelcast.jet.aggregate.AggregateOperation3;
+import com.hazelcast.jet.datamodel.Session;
+import com.hazelcast.jet.datamodel.TimestampedEntry;
 import com.hazelcast.jet.function.DistributedFunction;
 import com.hazelcast.jet.function.DistributedPredicate;
 import com.hazelcast.jet.function.DistributedSupplier;
+import com.hazelcast.jet.function.DistributedToLongFunction;
 import com.hazelcast.jet.datamodel.Tuple2;
 import com.hazelcast.jet.datamodel.Tuple3;
 
@@ -203,6 +209,162 @@ public interface ComputeStage<E> extends Stage {
         return new CoGroupBuilder<>(this, thisKeyFn);
     }
 
+    /**
+     * Attaches to this stage a stage that inserts {@link
+     * com.hazelcast.jet.core.Watermark watermarks} into the stream, which
+     * is a prerequisite for all the windowing stages downstream of it. The
+     * stage extracts the event timestamp from each item using {@code
+     * timestampFn}, reports it to the watermark policy and emits a watermark
+     * whenever the emission policy allows it. It drops the items that are
+     * late with respect to an already emitted watermark.
+     * <p>
+     * The watermarks are generated independently in each parallel processor
+     * of this stage, so it should be attached as close to the source as
+     * possible, where the event timestamps are still in good order.
+     *
+     * @param timestampFn  a function that extracts the event timestamp from an item
+     * @param wmPolicyFn   a supplier of the watermark policy, see {@link
+     *                     com.hazelcast.jet.core.WatermarkPolicies}
+     * @param wmEmitPolicy the policy that decides when to emit the watermark
+     */
+    default ComputeStage<E> insertWatermarks(
+            @Nonnull DistributedToLongFunction<? super E> timestampFn,
+            @Nonnull DistributedSupplier<WatermarkPolicy> wmPolicyFn,
+            @Nonnull WatermarkEmissionPolicy wmEmitPolicy
+    ) {
+        return insertWatermarks(timestampFn, wmPolicyFn, wmEmitPolicy, 0);
+    }
+
+    /**
+     * Attaches to this stage a stage that inserts {@link
+     * com.hazelcast.jet.core.Watermark watermarks} into the stream and lets
+     * through the items that are at most {@code allowedLateness} behind the
+     * current watermark. It drops the items that are later than that. A
+     * downstream {@link #slidingWindow slidingWindow()} stage whose window
+     * definition has the same {@link WindowDefinition#withAllowedLateness(long)
+     * allowed lateness} emits corrected results for the windows such items
+     * belong to.
+     *
+     * @param timestampFn     a function that extracts the event timestamp from an item
+     * @param wmPolicyFn      a supplier of the watermark policy, see {@link
+     *                        com.hazelcast.jet.core.WatermarkPolicies}
+     * @param wmEmitPolicy    the policy that decides when to emit the watermark
+     * @param allowedLateness how far behind the watermark an item may be
+     */
+    ComputeStage<E> insertWatermarks(
+            @Nonnull DistributedToLongFunction<? super E> timestampFn,
+            @Nonnull DistributedSupplier<WatermarkPolicy> wmPolicyFn,
+            @Nonnull WatermarkEmissionPolicy wmEmitPolicy,
+            long allowedLateness
+    );
+
+    /**
+     * Attaches to this stage a stage that groups the items by key and by a
+     * sliding window over their event timestamps and applies the supplied
+     * aggregate operation to each group. For each key and each position of
+     * the sliding window it emits a {@link TimestampedEntry} labeled with the
+     * window's end timestamp. A window is emitted when the watermark passes
+     * its end, therefore some upstream stage must {@link
+     * #insertWatermarks insert watermarks} into the stream.
+     * <p>
+     * Jet implements this stage as a two-stage aggregation: the first
+     * vertex accumulates the items of each frame locally and only the
+     * per-frame partial results travel over the network to be combined into
+     * sliding windows.
+     *
+     * @param keyFn       a function that extracts the grouping key from an item
+     * @param timestampFn a function that extracts the event timestamp from an item
+     * @param wDef        the definition of the sliding window
+     * @param aggrOp      the aggregate operation to perform on the items in the window
+     * @param <K> the type of key
+     * @param <A> the type of the accumulator
+     * @param <R> the type of the aggregation result
+     */
+    <K, A, R> ComputeStage<TimestampedEntry<K, R>> slidingWindow(
+            @Nonnull DistributedFunction<? super E, ? extends K> keyFn,
+            @Nonnull DistributedToLongFunction<? super E> timestampFn,
+            @Nonnull WindowDefinition wDef,
+            @Nonnull AggregateOperation1<? super E, A, R> aggrOp
+    );
+
+    /**
+     * Attaches to this stage a stage that groups the items by key and by a
+     * tumbling window of the given length and applies the supplied aggregate
+     * operation to each group. This is a special case of {@link
+     * #slidingWindow slidingWindow()} where the sliding step is equal to the
+     * window length.
+     *
+     * @param keyFn        a function that extracts the grouping key from an item
+     * @param timestampFn  a function that extracts the event timestamp from an item
+     * @param windowLength the length of the tumbling window
+     * @param aggrOp       the aggregate operation to perform on the items in the window
+     * @param <K> the type of key
+     * @param <A> the type of the accumulator
+     * @param <R> the type of the aggregation result
+     */
+    default <K, A, R> ComputeStage<TimestampedEntry<K, R>> tumblingWindow(
+            @Nonnull DistributedFunction<? super E, ? extends K> keyFn,
+            @Nonnull DistributedToLongFunction<? super E> timestampFn,
+            long windowLength,
+            @Nonnull AggregateOperation1<? super E, A, R> aggrOp
+    ) {
+        return slidingWindow(keyFn, timestampFn, WindowDefinition.tumblingWindowDef(windowLength), aggrOp);
+    }
+
+    /**
+     * Attaches to this stage a stage that groups the items by key into
+     * session windows and applies the supplied aggregate operation to each
+     * session. A session window for a given key covers a burst of events
+     * where no two consecutive events are further apart than {@code
+     * sessionTimeout}. The stage emits a {@link Session} when the watermark
+     * passes its end, therefore some upstream stage must {@link
+     * #insertWatermarks insert watermarks} into the stream.
+     *
+     * @param keyFn          a function that extracts the grouping key from an item
+     * @param timestampFn    a function that extracts the event timestamp from an item
+     * @param sessionTimeout the maximum gap between consecutive events in the same session
+     * @param aggrOp         the aggregate operation to perform on the items in the session
+     * @param <K> the type of key
+     * @param <A> the type of the accumulator
+     * @param <R> the type of the aggregation result
+     */
+    <K, A, R> ComputeStage<Session<K, R>> sessionWindow(
+            @Nonnull DistributedFunction<? super E, ? extends K> keyFn,
+            @Nonnull DistributedToLongFunction<? super E> timestampFn,
+            long sessionTimeout,
+            @Nonnull AggregateOperation1<? super E, A, R> aggrOp
+    );
+
+    /**
+     * Attaches to this and the supplied stage a stage that co-groups their
+     * items by a common key and by a sliding window over their event
+     * timestamps and applies the supplied aggregate operation to the
+     * co-grouped items. For each key and each position of the sliding window
+     * it emits a {@link TimestampedEntry} labeled with the window's end
+     * timestamp. Both upstream stages must carry watermarks.
+     *
+     * @param thisKeyFn       a function that extracts the grouping key from this stage's items
+     * @param thisTimestampFn a function that extracts the event timestamp from this stage's items
+     * @param stage1          the stage to co-group with this one
+     * @param key1Fn          a function that extracts the grouping key from {@code stage1} items
+     * @param timestamp1Fn    a function that extracts the event timestamp from {@code stage1} items
+     * @param wDef            the definition of the sliding window
+     * @param aggrOp          the aggregate operation to perform on co-grouped items
+     * @param <K>  the type of the grouping key
+     * @param <A>  the type of the accumulator
+     * @param <E1> the type of {@code stage1} items
+     * @param <R>  the result type of the aggregate operation
+     */
+    <K, A, E1, R> ComputeStage<TimestampedEntry<K, R>> windowCoGroup(
+            @Nonnull DistributedFunction<? super E, ? extends K> thisKeyFn,
+            @Nonnull DistributedToLongFunction<? super E> thisTimestampFn,
+            @Nonnull ComputeStage<E1> stage1,
+            @Nonnull DistributedFunction<? super E1, ? extends K> key1Fn,
+            @Nonnull DistributedToLongFunction<? super E1> timestamp1Fn,
+            @Nonnull WindowDefinition wDef,
+            @Nonnull AggregateOperation2<? super E, ? super E1, A, R> aggrOp
+    );
+
     /**
      * Adds a peeking layer to this compute stage which logs its output. For
      * each item the stage emits, it:
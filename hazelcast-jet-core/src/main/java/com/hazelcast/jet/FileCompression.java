@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet;
+
+/**
+ * The compression of the files read by {@link Sources#files(String,
+ * java.nio.charset.Charset, String, FileCompression)} and written by
+ * {@link Sinks#files(String, com.hazelcast.jet.function.DistributedFunction,
+ * java.nio.charset.Charset, boolean, FileCompression)}.
+ */
+public enum FileCompression {
+
+    /**
+     * Detect the compression from the file name: the files with the {@code
+     * .gz} extension are decompressed, the others are read as they are.
+     * Only valid for the sources.
+     */
+    AUTO,
+
+    /**
+     * The files aren't compressed.
+     */
+    NONE,
+
+    /**
+     * The files are compressed with gzip. The sinks add the {@code .gz}
+     * extension to the file names.
+     */
+    GZIP,
+
+    /**
+     * The files are compressed with gzip in independent blocks of at most
+     * 64 KB, in the BGZF format. Each block is a complete gzip member with
+     * its compressed size in the header, so the file can be split at the
+     * block boundaries and the parts decompressed in parallel. The file is
+     * still a valid gzip file, any gzip reader can decompress it. The
+     * sinks add the {@code .gz} extension to the file names.
+     * <p>
+     * For sources, it's the same as {@link #GZIP}.
+     */
+    BLOCK_GZIP
+}
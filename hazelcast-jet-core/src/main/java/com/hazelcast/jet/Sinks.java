@@ -19,9 +19,11 @@ package com.hazelcast.jet;
 import com.hazelcast.client.config.ClientConfig;
 import com.hazelcast.core.Offloadable;
 import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.datamodel.Schema;
 import com.hazelcast.jet.function.DistributedBiFunction;
 import com.hazelcast.jet.function.DistributedBinaryOperator;
 import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.jet.function.DistributedToLongFunction;
 import com.hazelcast.jet.impl.SinkImpl;
 import com.hazelcast.map.EntryProcessor;
 
@@ -35,12 +37,19 @@ import static com.hazelcast.jet.core.processor.SinkProcessors.mergeRemoteMapP;
 import static com.hazelcast.jet.core.processor.SinkProcessors.updateMapP;
 import static com.hazelcast.jet.core.processor.SinkProcessors.updateRemoteMapP;
 import static com.hazelcast.jet.core.processor.SinkProcessors.writeCacheP;
+import static com.hazelcast.jet.core.processor.SinkProcessors.writeColumnChunkFileP;
+import static com.hazelcast.jet.core.processor.SinkProcessors.writeCsvFileP;
 import static com.hazelcast.jet.core.processor.SinkProcessors.writeFileP;
+import static com.hazelcast.jet.core.processor.SinkProcessors.writeFileTransactionalP;
 import static com.hazelcast.jet.core.processor.SinkProcessors.writeListP;
 import static com.hazelcast.jet.core.processor.SinkProcessors.writeMapP;
+import static com.hazelcast.jet.core.processor.SinkProcessors.writeMapTransactionalP;
 import static com.hazelcast.jet.core.processor.SinkProcessors.writeRemoteCacheP;
 import static com.hazelcast.jet.core.processor.SinkProcessors.writeRemoteListP;
 import static com.hazelcast.jet.core.processor.SinkProcessors.writeRemoteMapP;
+import static com.hazelcast.jet.core.processor.SinkProcessors.writeRemoteMapTransactionalP;
+import static com.hazelcast.jet.core.processor.SinkProcessors.writeRollingFileP;
+import static com.hazelcast.jet.core.processor.SinkProcessors.writeSocketChannelP;
 import static com.hazelcast.jet.core.processor.SinkProcessors.writeSocketP;
 import static com.hazelcast.jet.function.DistributedFunctions.entryKey;
 import static com.hazelcast.jet.function.DistributedFunctions.entryValue;
@@ -54,6 +63,8 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  */
 public final class Sinks {
 
+    private static final int DEFAULT_ROW_GROUP_SIZE = 10_000;
+
     private Sinks() {
     }
 
@@ -95,6 +106,37 @@ public final class Sinks {
         return fromProcessor("remoteMapSink(" + mapName + ')', writeRemoteMapP(mapName, clientConfig));
     }
 
+    /**
+     * Returns a sink that puts {@code Map.Entry}s it receives into a Hazelcast
+     * {@code IMap} with the specified name, in transactions tied to the job's
+     * snapshots.
+     * <p>
+     * The entries are first put into staging maps and copied to the target
+     * map when the snapshot is successfully completed. With the exactly-once
+     * guarantee the target map never contains the entries written after the
+     * snapshot the job was restarted from, which the {@link #map(String)}
+     * sink does until the entries are overwritten. The entries only become
+     * visible after the next snapshot, which delays the output by up to the
+     * {@link com.hazelcast.jet.config.JobConfig#setSnapshotIntervalMillis
+     * snapshot interval}. Without snapshots the entries are copied after each
+     * batch of input.
+     *
+     * @see com.hazelcast.jet.core.TwoPhaseCommitProcessor
+     */
+    public static <E extends Map.Entry> Sink<E> mapTransactional(String mapName) {
+        return fromProcessor("mapTransactionalSink(" + mapName + ')', writeMapTransactionalP(mapName));
+    }
+
+    /**
+     * Returns a sink equivalent to {@link #mapTransactional(String)}, but for
+     * a map in a remote Hazelcast cluster identified by the supplied {@code
+     * ClientConfig}.
+     */
+    public static <E extends Map.Entry> Sink<E> remoteMapTransactional(String mapName, ClientConfig clientConfig) {
+        return fromProcessor("remoteMapTransactionalSink(" + mapName + ')',
+                writeRemoteMapTransactionalP(mapName, clientConfig));
+    }
+
     /**
      * Returns a sink that uses the supplied functions to extract the key
      * and value with which to update a Hazelcast {@code IMap}. If the map
@@ -427,6 +469,47 @@ public final class Sinks {
                 writeSocketP(host, port, Object::toString, UTF_8));
     }
 
+    /**
+     * Returns a sink that connects to the specified TCP socket and writes to
+     * it the items it receives, each in one frame as specified by the {@code
+     * framing}. The item is serialized to the frame content by {@code
+     * toBytesFn}.
+     * <p>
+     * Each processor opens its own connection, so there will be {@code
+     * clusterSize * localParallelism} open connections to the server. The
+     * frames are batched in direct buffers and written with non-blocking
+     * gathering writes. When the server doesn't keep up and the socket's
+     * send buffer is full, the processor stops taking items until the
+     * batch is written, which applies backpressure to the upstream
+     * vertices. The processor is cooperative.
+     * <p>
+     * An item serialized to more than {@link SocketFraming#maxFrameLength()}
+     * bytes or any {@code IOException} will cause the job to fail. For
+     * delimited framing, the serialized item must not contain the
+     * delimiter.
+     * <p>
+     * No state is saved to snapshot for this sink, but the buffered frames
+     * are written before the snapshot is taken. After the job is restarted,
+     * the items will likely be duplicated, providing an <i>at-least-once</i>
+     * guarantee.
+     *
+     * @param host the host to connect to
+     * @param port the port to connect to
+     * @param framing the framing of the items in the byte stream
+     * @param toBytesFn the function serializing the item
+     * @param <E> the type of the items
+     */
+    @Nonnull
+    public static <E> Sink<E> socket(
+            @Nonnull String host,
+            int port,
+            @Nonnull SocketFraming framing,
+            @Nonnull DistributedFunction<? super E, byte[]> toBytesFn
+    ) {
+        return fromProcessor("socketSink(" + host + ':' + port + ')',
+                writeSocketChannelP(host, port, framing, toBytesFn));
+    }
+
     /**
      * Returns a sink that that writes the items it receives to files. Each
      * processor will write to its own file whose name is equal to the
@@ -461,6 +544,44 @@ public final class Sinks {
                 writeFileP(directoryName, toStringFn, charset, append));
     }
 
+    /**
+     * Returns a sink that writes the items it receives to compressed files.
+     * Otherwise it's the same as {@link #files(String, DistributedFunction,
+     * Charset, boolean)}. With a compression other than {@link
+     * FileCompression#NONE NONE}, the file names have the {@code .gz}
+     * extension.
+     * <p>
+     * With {@link FileCompression#BLOCK_GZIP BLOCK_GZIP} the output is
+     * compressed in independent blocks of 64 KB in the BGZF format, so the
+     * file can be split and decompressed in parallel by readers supporting
+     * it; with {@link FileCompression#GZIP GZIP} the file is one compressed
+     * stream and compresses slightly better. The compressed data is written out when a block is full or,
+     * for {@code GZIP}, when the compressor's buffer is full, so the end of
+     * the output becomes readable only when the job completes. When
+     * appending, the new output is added as a new gzip member, which gzip
+     * readers read as a continuation of the file.
+     *
+     * @param directoryName directory to create the files in. Will be created
+     *                      if it doesn't exist. Must be the same on all members.
+     * @param toStringFn a function to convert items to String (a formatter)
+     * @param charset charset used to encode the file output
+     * @param append whether to append ({@code true}) or overwrite ({@code false})
+     *               an existing file
+     * @param compression the compression of the files, {@link
+     *                    FileCompression#AUTO AUTO} isn't allowed
+     */
+    @Nonnull
+    public static <E> Sink<E> files(
+            @Nonnull String directoryName,
+            @Nonnull DistributedFunction<E, String> toStringFn,
+            @Nonnull Charset charset,
+            boolean append,
+            @Nonnull FileCompression compression
+    ) {
+        return fromProcessor("filesSink(" + directoryName + ')',
+                writeFileP(directoryName, toStringFn, charset, append, compression));
+    }
+
     /**
      * Convenience for {@link #files(String, DistributedFunction, Charset,
      * boolean)} with the UTF-8 charset and with overwriting of existing files.
@@ -481,6 +602,178 @@ public final class Sinks {
         return files(directoryName, Object::toString, UTF_8, false);
     }
 
+    /**
+     * Returns a sink that writes the items it receives to a series of files,
+     * starting a new file when the current one would exceed the given size.
+     * Each processor writes its own files named {@code
+     * <globalProcessorIndex>_<sequence>}, with the {@code .gz} extension if
+     * compressed. The sequence continues after the files the processor
+     * wrote before, so a restarted job doesn't overwrite them.
+     * <p>
+     * A file being written has the {@code .inprogress} suffix. When the
+     * file is rolled or the job completes, it is synced to the disk and
+     * atomically renamed, so a file without the suffix is complete. If the
+     * job fails or is cancelled, the in-progress files are left behind.
+     * <p>
+     * The file IO is done by a background thread, one for each processor.
+     * The processor encodes the items into one of two buffers while the
+     * background thread writes the other one, so it never waits for the disk
+     * and the sink is cooperative.
+     * <p>
+     * No state is saved to snapshot for this sink, but the buffered items are
+     * written to the files before the snapshot completes. After the job is
+     * restarted, the items will likely be duplicated, providing an
+     * <i>at-least-once</i> guarantee.
+     *
+     * @param directoryName directory to create the files in. Will be created
+     *                      if it doesn't exist. Must be the same on all members.
+     * @param toStringFn a function to convert items to String (a formatter)
+     * @param charset charset used to encode the file output
+     * @param maxFileSize the maximum uncompressed size of a file in bytes. A
+     *                    file can be larger, if it contains a single item
+     *                    larger than this
+     * @param compression the compression of the files, {@link
+     *                    FileCompression#AUTO AUTO} isn't allowed
+     */
+    @Nonnull
+    public static <E> Sink<E> rollingFiles(
+            @Nonnull String directoryName,
+            @Nonnull DistributedFunction<? super E, String> toStringFn,
+            @Nonnull Charset charset,
+            long maxFileSize,
+            @Nonnull FileCompression compression
+    ) {
+        return fromProcessor("rollingFilesSink(" + directoryName + ')',
+                writeRollingFileP(directoryName, toStringFn, charset, maxFileSize, null, 0, compression));
+    }
+
+    /**
+     * Returns a sink that writes the items it receives to a series of files,
+     * with a separate file for each event-time bucket of the given size.
+     * The file names are prefixed with the start of the bucket in UTC, for
+     * example {@code 2017-10-18T12-00-00Z_<globalProcessorIndex>_<sequence>}.
+     * A new file is also started when the current one would exceed the
+     * given size. Otherwise it's the same as {@link #rollingFiles(String,
+     * DistributedFunction, Charset, long, FileCompression)}.
+     * <p>
+     * When the watermark passes the end of the current bucket, its file is
+     * completed. The sink keeps only one file open: an item from another
+     * bucket than the previous item starts a new file, so the items should
+     * arrive mostly ordered by their timestamps. Late items get their own
+     * files in their bucket.
+     *
+     * @param directoryName directory to create the files in. Will be created
+     *                      if it doesn't exist. Must be the same on all members.
+     * @param toStringFn a function to convert items to String (a formatter)
+     * @param charset charset used to encode the file output
+     * @param maxFileSize the maximum uncompressed size of a file in bytes
+     * @param timestampFn a function to extract the event timestamp from the
+     *                    item, in milliseconds since the epoch
+     * @param bucketSize the length of the time bucket in milliseconds
+     * @param compression the compression of the files, {@link
+     *                    FileCompression#AUTO AUTO} isn't allowed
+     */
+    @Nonnull
+    public static <E> Sink<E> rollingFiles(
+            @Nonnull String directoryName,
+            @Nonnull DistributedFunction<? super E, String> toStringFn,
+            @Nonnull Charset charset,
+            long maxFileSize,
+            @Nonnull DistributedToLongFunction<? super E> timestampFn,
+            long bucketSize,
+            @Nonnull FileCompression compression
+    ) {
+        return fromProcessor("rollingFilesSink(" + directoryName + ')',
+                writeRollingFileP(directoryName, toStringFn, charset, maxFileSize, timestampFn, bucketSize,
+                        compression));
+    }
+
+    /**
+     * Returns a sink that writes the items it receives to files, in
+     * transactions tied to the job's snapshots. Each processor writes the
+     * items since the previous snapshot to a new file named {@code
+     * <globalProcessorIndex>.<sequence>}. The file is first written with
+     * the {@code .tmp} suffix and atomically renamed when the snapshot is
+     * successfully completed. After the job is restarted, the temporary
+     * files written after the snapshot are deleted, so with the exactly-once
+     * guarantee no items are duplicated.
+     * <p>
+     * Without snapshots a new file is committed after each batch of input,
+     * use {@link #files(String, DistributedFunction, Charset, boolean)}
+     * instead.
+     *
+     * @param directoryName directory to create the files in. Will be created
+     *                      if it doesn't exist. Must be the same on all members.
+     * @param toStringFn a function to convert items to String (a formatter)
+     * @param charset charset used to encode the file output
+     *
+     * @see com.hazelcast.jet.core.TwoPhaseCommitProcessor
+     */
+    @Nonnull
+    public static <E> Sink<E> filesTransactional(
+            @Nonnull String directoryName,
+            @Nonnull DistributedFunction<E, String> toStringFn,
+            @Nonnull Charset charset
+    ) {
+        return fromProcessor("filesTransactionalSink(" + directoryName + ')',
+                writeFileTransactionalP(directoryName, toStringFn, charset));
+    }
+
+    /**
+     * Returns a sink that writes {@code Object[]} rows to CSV files, one
+     * file per processor named after its global index, see {@link
+     * #files(String, DistributedFunction, Charset, boolean)}. The values
+     * are written using {@code toString()}, {@code null} as an empty field.
+     * Fields containing a comma, quote or line terminator, as well as empty
+     * strings, are quoted. No header is written. The files can be read
+     * with {@link Sources#csvFiles}.
+     *
+     * @param directoryName directory to create the files in. Will be created
+     *                      if it doesn't exist. Must be the same on all members.
+     * @param schema the columns of the rows
+     * @param charset charset used to encode the file output
+     */
+    @Nonnull
+    public static Sink<Object[]> csvFiles(
+            @Nonnull String directoryName, @Nonnull Schema schema, @Nonnull Charset charset
+    ) {
+        return fromProcessor("csvFilesSink(" + directoryName + ')',
+                writeCsvFileP(directoryName, schema, charset));
+    }
+
+    /**
+     * Returns a sink that writes {@code Object[]} rows to files in a binary
+     * columnar format, one file per processor named after its global index.
+     * The file contains the schema, followed by groups of rows. In a group
+     * the values of each column are stored together, so {@link
+     * Sources#columnChunkFiles} can skip the columns it doesn't need.
+     * <p>
+     * A group is written when it has {@code rowGroupSize} rows and when the
+     * job completes, the rows of a partial group are held in memory. The
+     * file isn't readable until the job completes.
+     *
+     * @param directoryName directory to create the files in. Will be created
+     *                      if it doesn't exist. Must be the same on all members.
+     * @param schema the columns of the rows
+     * @param rowGroupSize the number of rows in a group
+     */
+    @Nonnull
+    public static Sink<Object[]> columnChunkFiles(
+            @Nonnull String directoryName, @Nonnull Schema schema, int rowGroupSize
+    ) {
+        return fromProcessor("columnChunkFilesSink(" + directoryName + ')',
+                writeColumnChunkFileP(directoryName, schema, rowGroupSize));
+    }
+
+    /**
+     * Convenience for {@link #columnChunkFiles(String, Schema, int)} with
+     * 10 000 rows in a group.
+     */
+    @Nonnull
+    public static Sink<Object[]> columnChunkFiles(@Nonnull String directoryName, @Nonnull Schema schema) {
+        return columnChunkFiles(directoryName, schema, DEFAULT_ROW_GROUP_SIZE);
+    }
+
     /**
      * Returns a sink that logs all the data items it receives, at the INFO
      * level to the log category {@link
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet;
+
+import javax.annotation.Nonnull;
+import java.io.Serializable;
+
+import static com.hazelcast.util.Preconditions.checkPositive;
+
+/**
+ * How the items are delimited in the byte stream of a TCP connection, used
+ * by the sources such as {@link Sources#sockets} and by the {@link
+ * Sinks#socket(String, int, SocketFraming,
+ * com.hazelcast.jet.function.DistributedFunction) socket sink}. Each item is
+ * carried in one frame, the frame is either terminated by a delimiter byte
+ * or prefixed with its length.
+ */
+public final class SocketFraming implements Serializable {
+
+    /**
+     * The default maximum length of a frame in bytes.
+     */
+    public static final int DEFAULT_MAX_FRAME_LENGTH = 1 << 16;
+
+    /**
+     * The length of the prefix of the length-prefixed frames in bytes.
+     */
+    public static final int LENGTH_PREFIX_SIZE = Integer.BYTES;
+
+    private static final long serialVersionUID = 1L;
+
+    private final boolean lengthPrefixed;
+    private final byte delimiter;
+    private final int maxFrameLength;
+
+    private SocketFraming(boolean lengthPrefixed, byte delimiter, int maxFrameLength) {
+        checkPositive(maxFrameLength, "maxFrameLength must be positive");
+        this.lengthPrefixed = lengthPrefixed;
+        this.delimiter = delimiter;
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    /**
+     * Returns the framing where each frame is terminated by the given byte.
+     * The delimiter isn't a part of the frame, the frame must not contain
+     * it.
+     *
+     * @param delimiter the byte terminating each frame
+     * @param maxFrameLength the maximum frame length in bytes, without the
+     *                       delimiter
+     */
+    @Nonnull
+    public static SocketFraming delimited(byte delimiter, int maxFrameLength) {
+        return new SocketFraming(false, delimiter, maxFrameLength);
+    }
+
+    /**
+     * Convenience for {@link #delimited(byte, int)} with the {@value
+     * #DEFAULT_MAX_FRAME_LENGTH} bytes maximum frame length.
+     */
+    @Nonnull
+    public static SocketFraming delimited(byte delimiter) {
+        return delimited(delimiter, DEFAULT_MAX_FRAME_LENGTH);
+    }
+
+    /**
+     * Returns the framing where each frame is preceded by its length: a
+     * 4-byte big-endian integer.
+     *
+     * @param maxFrameLength the maximum frame length in bytes, without the
+     *                       prefix
+     */
+    @Nonnull
+    public static SocketFraming lengthPrefixed(int maxFrameLength) {
+        return new SocketFraming(true, (byte) 0, maxFrameLength);
+    }
+
+    /**
+     * Convenience for {@link #lengthPrefixed(int)} with the {@value
+     * #DEFAULT_MAX_FRAME_LENGTH} bytes maximum frame length.
+     */
+    @Nonnull
+    public static SocketFraming lengthPrefixed() {
+        return lengthPrefixed(DEFAULT_MAX_FRAME_LENGTH);
+    }
+
+    /**
+     * Returns {@code true} if the frames are prefixed with their length,
+     * {@code false} if they are delimited.
+     */
+    public boolean isLengthPrefixed() {
+        return lengthPrefixed;
+    }
+
+    /**
+     * Returns the byte terminating the frames. Only meaningful if the
+     * frames aren't {@linkplain #isLengthPrefixed() length-prefixed}.
+     */
+    public byte delimiter() {
+        return delimiter;
+    }
+
+    /**
+     * Returns the maximum length of a frame in bytes, without the delimiter
+     * or the length prefix.
+     */
+    public int maxFrameLength() {
+        return maxFrameLength;
+    }
+
+    /**
+     * Returns the number of bytes the frame takes in addition to its
+     * content: the delimiter or the length prefix.
+     */
+    public int overhead() {
+        return lengthPrefixed ? LENGTH_PREFIX_SIZE : 1;
+    }
+
+    @Override
+    public String toString() {
+        return lengthPrefixed
+                ? "SocketFraming{lengthPrefixed, maxFrameLength=" + maxFrameLength + '}'
+                : "SocketFraming{delimiter=" + delimiter + ", maxFrameLength=" + maxFrameLength + '}';
+    }
+}
@@ -19,6 +19,7 @@ package com.hazelcast.jet;
 import com.hazelcast.cache.journal.EventJournalCacheEvent;
 import com.hazelcast.client.config.ClientConfig;
 import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.datamodel.Schema;
 import com.hazelcast.jet.function.DistributedFunction;
 import com.hazelcast.jet.function.DistributedPredicate;
 import com.hazelcast.jet.impl.SourceImpl;
@@ -29,7 +30,10 @@ import com.hazelcast.query.Predicate;
 
 import javax.annotation.Nonnull;
 import java.io.File;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -38,9 +42,14 @@ import static com.hazelcast.jet.Util.cachePutEvents;
 import static com.hazelcast.jet.Util.mapEventToEntry;
 import static com.hazelcast.jet.Util.mapPutEvents;
 import static com.hazelcast.jet.core.processor.SourceProcessors.readCacheP;
+import static com.hazelcast.jet.core.processor.SourceProcessors.readColumnChunkFilesP;
+import static com.hazelcast.jet.core.processor.SourceProcessors.readCsvFilesP;
+import static com.hazelcast.jet.core.processor.SourceProcessors.readFileRangesP;
 import static com.hazelcast.jet.core.processor.SourceProcessors.readFilesP;
 import static com.hazelcast.jet.core.processor.SourceProcessors.readListP;
+import static com.hazelcast.jet.core.processor.SourceProcessors.readMapIndexedP;
 import static com.hazelcast.jet.core.processor.SourceProcessors.readMapP;
+import static com.hazelcast.jet.core.processor.SourceProcessors.readMappedFilesP;
 import static com.hazelcast.jet.core.processor.SourceProcessors.readRemoteCacheP;
 import static com.hazelcast.jet.core.processor.SourceProcessors.readRemoteListP;
 import static com.hazelcast.jet.core.processor.SourceProcessors.readRemoteMapP;
@@ -49,7 +58,9 @@ import static com.hazelcast.jet.core.processor.SourceProcessors.streamFilesP;
 import static com.hazelcast.jet.core.processor.SourceProcessors.streamMapP;
 import static com.hazelcast.jet.core.processor.SourceProcessors.streamRemoteCacheP;
 import static com.hazelcast.jet.core.processor.SourceProcessors.streamRemoteMapP;
+import static com.hazelcast.jet.core.processor.SourceProcessors.streamServerSocketP;
 import static com.hazelcast.jet.core.processor.SourceProcessors.streamSocketP;
+import static com.hazelcast.jet.core.processor.SourceProcessors.streamSocketsP;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
@@ -100,6 +111,23 @@ public final class Sources {
         return fromProcessor("mapSource(" + mapName + ')', readMapP(mapName));
     }
 
+    /**
+     * Returns a source equivalent to {@link #map(String)}, except that the
+     * {@code filter} and {@code map} stages directly following it are merged
+     * into it: they are applied as the {@code predicate} and {@code
+     * projection} of {@link #map(String, Predicate, Projection)}, so the
+     * entries which don't pass are dropped before they leave the partition.
+     * <p>
+     * The member deserializes the merged functions with its own classloader,
+     * not with the job's one. Use this source only if the classes of the
+     * functions are on the members' classpath, not if the job adds them
+     * using {@link com.hazelcast.jet.config.JobConfig#addClass JobConfig.addClass()}.
+     */
+    public static <K, V> Source<Map.Entry<K, V>> mapWithPushdown(@Nonnull String mapName) {
+        return new SourceImpl<>("mapSource(" + mapName + ')', readMapP(mapName),
+                (predicate, projectionFn) -> readMapP(mapName, predicate, projectionFn));
+    }
+
     /**
      * Returns a source that fetches entries from a local Hazelcast {@code
      * IMap} with the specified name. By supplying a {@code predicate} and
@@ -160,6 +188,56 @@ public final class Sources {
         return fromProcessor("mapSource(" + mapName + ')', readMapP(mapName, predicate, projectionFn));
     }
 
+    /**
+     * Returns a source that fetches the entries matching the {@code
+     * predicate} from a local Hazelcast {@code IMap} with the specified name,
+     * using the map's indexes. If an index of the map can evaluate the
+     * predicate (for example, a {@link com.hazelcast.query.Predicates
+     * Predicates.equal()} or {@code between()} predicate on an indexed
+     * attribute), each member looks the matching entries up in its index
+     * instead of scanning all its partitions. Otherwise the source behaves
+     * like {@link #map(String, Predicate, Projection)}.
+     * <p>
+     * Use this source for selective predicates: the entries found in the
+     * index are held in memory until they are emitted.
+     * <p>
+     * The source leverages data locality by making each of the underlying
+     * processors fetch only those entries that are stored on the member where
+     * it is running.
+     * <p>
+     * The source does not save any state to snapshot. If the job is restarted,
+     * it will re-emit all entries.
+     * <p>
+     * If the {@code IMap} is modified while being read, or if there is a
+     * cluster topology change (triggering data migration), the source may
+     * miss and/or duplicate some entries.
+     *
+     * @param mapName the name of the map
+     * @param predicate the predicate to select the entries
+     * @param projection the projection to map the entries. If the projection
+     *     returns a {@code null} for an item, that item will be filtered out.
+     * @param <T> type of emitted item
+     */
+    public static <K, V, T> Source<T> mapIndexed(
+            @Nonnull String mapName,
+            @Nonnull Predicate<K, V> predicate,
+            @Nonnull Projection<Entry<K, V>, T> projection
+    ) {
+        return fromProcessor("mapIndexedSource(" + mapName + ')', readMapIndexedP(mapName, predicate, projection));
+    }
+
+    /**
+     * Convenience for {@link #mapIndexed(String, Predicate, Projection)}
+     * which uses a {@link DistributedFunction} as the projection function.
+     */
+    public static <K, V, T> Source<T> mapIndexed(
+            @Nonnull String mapName,
+            @Nonnull Predicate<K, V> predicate,
+            @Nonnull DistributedFunction<Map.Entry<K, V>, T> projectionFn
+    ) {
+        return fromProcessor("mapIndexedSource(" + mapName + ')', readMapIndexedP(mapName, predicate, projectionFn));
+    }
+
     /**
      * Returns a source that will stream {@link EventJournalMapEvent}s of the
      * Hazelcast {@code IMap} with the specified name. By supplying a {@code
@@ -562,11 +640,86 @@ public final class Sources {
         return fromProcessor("socketSourceSource(" + host + ':' + port + ')', streamSocketP(host, port, charset));
     }
 
+    /**
+     * Returns a source which connects to all the given sockets and emits the
+     * items received from them. The bytes received on each connection are
+     * split into frames as specified by the {@code framing} and each frame
+     * is passed to {@code parseFn}, which returns the item to emit or {@code
+     * null} to skip the frame.
+     * <p>
+     * The {@code ByteBuffer} passed to {@code parseFn} is a read-only view
+     * of the frame: its position and limit are the start and end of the
+     * frame. It's backed by the direct buffer of the connection and it's
+     * only valid during the call, {@code parseFn} must not keep a
+     * reference to it.
+     * <p>
+     * The addresses are distributed among all the processors in the
+     * cluster, each address is connected to once. Each processor handles
+     * its connections with a single non-blocking selector, so many
+     * connections don't need many threads. The processor is cooperative.
+     * <p>
+     * The source completes when the servers close all the connections. It
+     * never attempts to reconnect. A frame longer than {@link
+     * SocketFraming#maxFrameLength()} or any {@code IOException} will cause
+     * the job to fail.
+     * <p>
+     * The source does not save any state to snapshot. On job restart, it will
+     * emit whichever items the servers send.
+     *
+     * @param addresses the addresses to connect to, unresolved addresses are
+     *                  resolved on the members
+     * @param framing the framing of the items in the byte stream
+     * @param parseFn the function creating the item from the frame
+     * @param <T> the type of the emitted items
+     */
+    @Nonnull
+    public static <T> Source<T> sockets(
+            @Nonnull List<InetSocketAddress> addresses,
+            @Nonnull SocketFraming framing,
+            @Nonnull DistributedFunction<? super ByteBuffer, T> parseFn
+    ) {
+        return fromProcessor("socketsSource(" + addresses + ')', streamSocketsP(addresses, framing, parseFn));
+    }
+
+    /**
+     * Returns a source which listens on the given port on each member and
+     * emits the items received on the accepted connections. The producers
+     * connect to the members and send the items framed as specified by the
+     * {@code framing}. The frames are parsed as in {@link #sockets(List,
+     * SocketFraming, DistributedFunction) sockets()}.
+     * <p>
+     * All the processors on a member accept connections from the same
+     * server socket and each of them handles its connections with a single
+     * non-blocking selector. The processor is cooperative.
+     * <p>
+     * The source never completes, a connection closed by the producer is
+     * just dropped. A frame longer than {@link SocketFraming#maxFrameLength()}
+     * or any {@code IOException} will cause the job to fail.
+     * <p>
+     * The source does not save any state to snapshot. On job restart, it will
+     * emit whichever items the producers send after they reconnect.
+     *
+     * @param port the port to listen on
+     * @param framing the framing of the items in the byte stream
+     * @param parseFn the function creating the item from the frame
+     * @param <T> the type of the emitted items
+     */
+    @Nonnull
+    public static <T> Source<T> serverSocket(
+            int port,
+            @Nonnull SocketFraming framing,
+            @Nonnull DistributedFunction<? super ByteBuffer, T> parseFn
+    ) {
+        return fromProcessor("serverSocketSource(" + port + ')', streamServerSocketP(port, framing, parseFn));
+    }
+
     /**
      * A source that emits lines from files in a directory (but not its
      * subdirectories. The files must not change while being read; if they do,
      * the behavior is unspecified.
      * <p>
+     * The files with the {@code .gz} extension are decompressed with gzip.
+     * <p>
      * To be useful, the source should be configured to read data local to each
      * member. For example, if the pathname resolves to a shared network
      * filesystem visible by multiple members, they will emit duplicate data.
@@ -589,6 +742,33 @@ public final class Sources {
         return fromProcessor("filesSource(" + new File(directory, glob) + ')', readFilesP(directory, charset, glob));
     }
 
+    /**
+     * A source that emits lines from files in a directory (but not its
+     * subdirectories), decompressing them according to the given {@link
+     * FileCompression}. Otherwise it's the same as {@link #files(String,
+     * Charset, String)}, which uses {@link FileCompression#AUTO AUTO}.
+     * <p>
+     * Files written by {@link Sinks#files(String, DistributedFunction,
+     * Charset, boolean, FileCompression) Sinks.files()} with any compression
+     * are read with {@code AUTO}, as well as files compressed with the
+     * {@code gzip} tool.
+     *
+     * @param directory parent directory of the files
+     * @param charset charset to use to decode the files
+     * @param glob the globbing mask, see {@link
+     *             java.nio.file.FileSystem#getPathMatcher(String) getPathMatcher()}.
+     *             Use {@code "*"} for all files.
+     * @param compression the compression of the files
+     */
+    @Nonnull
+    public static Source<String> files(
+            @Nonnull String directory, @Nonnull Charset charset, @Nonnull String glob,
+            @Nonnull FileCompression compression
+    ) {
+        return fromProcessor("filesSource(" + new File(directory, glob) + ')',
+                readFilesP(directory, charset, glob, compression));
+    }
+
     /**
      * Convenience for {@link #files(String, Charset, String) readFiles(directory, UTF_8, "*")}.
      */
@@ -596,6 +776,165 @@ public final class Sources {
         return files(directory, UTF_8, GLOB_WILDCARD);
     }
 
+    /**
+     * A source that emits lines from files in a directory (but not its
+     * subdirectories), reading each file in parallel. The files must not
+     * change while being read; if they do, the behavior is unspecified.
+     * <p>
+     * Unlike {@link #files(String, Charset, String) files()}, which reads
+     * each file with a single processor, this source splits the contents of
+     * all the files into equal byte ranges, one for each processor. The
+     * ranges are aligned to line boundaries, so each line is emitted once.
+     * Use it to read a few large files.
+     * <p>
+     * If {@code sharedFileSystem} is {@code false}, each member reads the
+     * files local to it, split among its processors. If it's {@code true},
+     * the directory must have the same contents on all members, for example
+     * on a shared network filesystem, and the ranges are split among the
+     * processors of all members.
+     * <p>
+     * The lines are split on {@code '\n'}, optionally preceded by {@code
+     * '\r'}. The charset must encode these characters as single bytes, like
+     * UTF-8 or ISO-8859-1 do.
+     * <p>
+     * The source does not save any state to snapshot. If the job is restarted,
+     * it will re-emit all entries.
+     * <p>
+     * Any {@code IOException} will cause the job to fail.
+     *
+     * @param directory parent directory of the files
+     * @param charset charset to use to decode the files
+     * @param glob the globbing mask, see {@link
+     *             java.nio.file.FileSystem#getPathMatcher(String) getPathMatcher()}.
+     *             Use {@code "*"} for all files.
+     * @param sharedFileSystem whether all members see the same files
+     */
+    @Nonnull
+    public static Source<String> fileRanges(
+            @Nonnull String directory, @Nonnull Charset charset, @Nonnull String glob, boolean sharedFileSystem
+    ) {
+        return fromProcessor("fileRangesSource(" + new File(directory, glob) + ')',
+                readFileRangesP(directory, charset, glob, sharedFileSystem));
+    }
+
+    /**
+     * A source that emits binary records from files in a directory (but not
+     * its subdirectories). Each file is memory-mapped and the records are
+     * parsed directly from the mapped bytes by the given function, without
+     * decoding the contents to strings. The files must not change while
+     * being read; if they do, the behavior is unspecified.
+     * <p>
+     * The function receives the mapped buffer positioned at the start of the
+     * next record. It must read the record, leaving the buffer positioned
+     * after it, and return the item to emit, or {@code null} to skip the
+     * record. If the record isn't complete in the buffer, the function must
+     * fail with a {@link java.nio.BufferUnderflowException}, the relative
+     * {@code get} methods of the buffer do so. The buffer is big-endian, the
+     * function can change its byte order. {@link
+     * Util#fixedLengthRecords(int)} and {@link Util#lengthPrefixedRecords()}
+     * return functions which emit the records as slices of the buffer. The
+     * slices aren't serializable, so convert them to your type before
+     * sending them over a distributed edge.
+     * <p>
+     * To be useful, the source should be configured to read data local to each
+     * member. For example, if the pathname resolves to a shared network
+     * filesystem visible by multiple members, they will emit duplicate data.
+     * <p>
+     * The source does not save any state to snapshot. If the job is restarted,
+     * it will re-emit all entries.
+     * <p>
+     * Any {@code IOException} will cause the job to fail.
+     *
+     * @param directory parent directory of the files
+     * @param glob the globbing mask, see {@link
+     *             java.nio.file.FileSystem#getPathMatcher(String) getPathMatcher()}.
+     *             Use {@code "*"} for all files.
+     * @param parseFn the function to read a record from the buffer
+     */
+    @Nonnull
+    public static <T> Source<T> mappedFiles(
+            @Nonnull String directory, @Nonnull String glob,
+            @Nonnull DistributedFunction<? super ByteBuffer, T> parseFn
+    ) {
+        return fromProcessor("mappedFilesSource(" + new File(directory, glob) + ')',
+                readMappedFilesP(directory, glob, parseFn));
+    }
+
+    /**
+     * A source that emits the rows of CSV files in a directory (but not its
+     * subdirectories) as {@code Object[]}. The values are converted to the
+     * types declared in the schema, an empty unquoted field is {@code null}.
+     * Fields can be quoted with {@code "}, a quote inside a quoted field is
+     * written as {@code ""}. A quoted field can't span multiple lines. Empty
+     * lines are skipped.
+     * <p>
+     * If {@code columns} are given, the emitted rows contain only their
+     * values, in the given order. The other fields are skipped without
+     * conversion and the fields after the last needed column aren't
+     * scanned at all, so it pays off to only request the columns the
+     * pipeline uses. If no columns are given, all columns are emitted.
+     * <p>
+     * To be useful, the source should be configured to read data local to each
+     * member. For example, if the pathname resolves to a shared network
+     * filesystem visible by multiple members, they will emit duplicate data.
+     * <p>
+     * The source does not save any state to snapshot. If the job is restarted,
+     * it will re-emit all entries.
+     * <p>
+     * Any {@code IOException} will cause the job to fail.
+     *
+     * @param directory parent directory of the files
+     * @param charset charset to use to decode the files
+     * @param glob the globbing mask, see {@link
+     *             java.nio.file.FileSystem#getPathMatcher(String) getPathMatcher()}.
+     *             Use {@code "*"} for all files.
+     * @param schema the columns of the files
+     * @param hasHeader whether the first line of each file is a header to skip
+     * @param columns names of the columns to emit, all columns if empty
+     */
+    @Nonnull
+    public static Source<Object[]> csvFiles(
+            @Nonnull String directory, @Nonnull Charset charset, @Nonnull String glob,
+            @Nonnull Schema schema, boolean hasHeader, @Nonnull String... columns
+    ) {
+        return fromProcessor("csvFilesSource(" + new File(directory, glob) + ')',
+                readCsvFilesP(directory, charset, glob, schema, hasHeader, columns));
+    }
+
+    /**
+     * A source that emits the rows of files written by {@link
+     * Sinks#columnChunkFiles(String, Schema, int)} as {@code Object[]}. The
+     * files are self-describing, they contain their schema. The values of
+     * each column are stored together in chunks of rows; the chunks of the
+     * columns that aren't requested are skipped without reading them.
+     * <p>
+     * If {@code columns} are given, the emitted rows contain only their
+     * values, in the given order. If no columns are given, all columns are
+     * emitted in the order of the file's schema.
+     * <p>
+     * To be useful, the source should be configured to read data local to each
+     * member. For example, if the pathname resolves to a shared network
+     * filesystem visible by multiple members, they will emit duplicate data.
+     * <p>
+     * The source does not save any state to snapshot. If the job is restarted,
+     * it will re-emit all entries.
+     * <p>
+     * Any {@code IOException} will cause the job to fail.
+     *
+     * @param directory parent directory of the files
+     * @param glob the globbing mask, see {@link
+     *             java.nio.file.FileSystem#getPathMatcher(String) getPathMatcher()}.
+     *             Use {@code "*"} for all files.
+     * @param columns names of the columns to emit, all columns if empty
+     */
+    @Nonnull
+    public static Source<Object[]> columnChunkFiles(
+            @Nonnull String directory, @Nonnull String glob, @Nonnull String... columns
+    ) {
+        return fromProcessor("columnChunkFilesSource(" + new File(directory, glob) + ')',
+                readColumnChunkFilesP(directory, glob, columns));
+    }
+
     /**
      * A source that emits a stream of lines of text coming from files in
      * the watched directory (but not its subdirectories). It will emit only
@@ -617,9 +956,16 @@ public final class Sources {
      * <p>
      * Any {@code IOException} will cause the job to fail.
      * <p>
-     * The source does not save any state to snapshot. If the job is restarted,
-     * lines added after the restart will be emitted, which gives at-most-once
-     * behavior.
+     * The source saves the offsets of the emitted lines in each file to the
+     * snapshot. When the job is restarted, it continues from the saved
+     * offsets and reads the files created since the snapshot from the
+     * beginning, which gives exactly-once behavior if the files are only
+     * appended to. If a file is truncated, it is read again from the
+     * beginning.
+     * <p>
+     * The lines are split on the {@code '\r'} and {@code '\n'} bytes, so the
+     * charset must encode them in a single byte, like UTF-8 and the ISO-8859
+     * charsets do.
      *
      * <h3>Limitation on Windows</h3>
      * On Windows the {@code WatchService} is not notified of appended lines
@@ -23,9 +23,13 @@ import com.hazelcast.jet.function.DistributedFunction;
 import com.hazelcast.jet.function.DistributedPredicate;
 import com.hazelcast.map.journal.EventJournalMapEvent;
 
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.Map.Entry;
 
+import static com.hazelcast.util.Preconditions.checkPositive;
+
 /**
  * Miscellaneous utility methods useful in DAG building logic.
  */
@@ -81,4 +85,36 @@ public final class Util {
     public static <K, V> DistributedFunction<EventJournalCacheEvent<K, V>, Entry<K, V>> cacheEventToEntry() {
         return e -> entry(e.getKey(), e.getNewValue());
     }
+
+    /**
+     * Returns a record parser for {@link Sources#mappedFiles} which splits
+     * the files into records of the given length. The records are returned
+     * as read-only slices of the mapped file, no bytes are copied.
+     *
+     * @param recordLength the length of each record in bytes
+     */
+    public static DistributedFunction<ByteBuffer, ByteBuffer> fixedLengthRecords(int recordLength) {
+        checkPositive(recordLength, "recordLength must be positive");
+        return buffer -> nextRecord(buffer, recordLength);
+    }
+
+    /**
+     * Returns a record parser for {@link Sources#mappedFiles} for files where
+     * each record is preceded by its length in bytes, written as a big-endian
+     * {@code int}. The records are returned as read-only slices of the mapped
+     * file without the length, no bytes are copied.
+     */
+    public static DistributedFunction<ByteBuffer, ByteBuffer> lengthPrefixedRecords() {
+        return buffer -> nextRecord(buffer, buffer.getInt());
+    }
+
+    private static ByteBuffer nextRecord(ByteBuffer buffer, int length) {
+        if (buffer.remaining() < length) {
+            throw new BufferUnderflowException();
+        }
+        ByteBuffer record = buffer.slice();
+        record.limit(length);
+        buffer.position(buffer.position() + length);
+        return record.asReadOnlyBuffer();
+    }
 }
@@ -25,6 +25,9 @@ import com.hazelcast.nio.serialization.StreamSerializer;
 
 import java.io.IOException;
 import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
 
 /**
  * Hazelcast serializer hooks for the classes in the {@code
@@ -266,4 +269,141 @@ class AccumulatorSerializerHooks {
             return true;
         }
     }
+
+    public static final class HyperLogLogAccHook implements SerializerHook<HyperLogLogAccumulator> {
+
+        @Override
+        public Class<HyperLogLogAccumulator> getSerializationType() {
+            return HyperLogLogAccumulator.class;
+        }
+
+        @Override
+        public Serializer createSerializer() {
+            return new StreamSerializer<HyperLogLogAccumulator>() {
+                @Override
+                public int getTypeId() {
+                    return SerializerHookConstants.HYPER_LOG_LOG_ACC;
+                }
+
+                @Override
+                public void destroy() {
+                }
+
+                @Override
+                public void write(ObjectDataOutput out, HyperLogLogAccumulator object) throws IOException {
+                    out.writeByte(object.precision());
+                    out.write(object.registers());
+                }
+
+                @Override
+                public HyperLogLogAccumulator read(ObjectDataInput in) throws IOException {
+                    int precision = in.readByte();
+                    byte[] registers = new byte[1 << precision];
+                    in.readFully(registers);
+                    return new HyperLogLogAccumulator(precision, registers);
+                }
+            };
+        }
+
+        @Override
+        public boolean isOverwritable() {
+            return true;
+        }
+    }
+
+    public static final class TopKAccHook implements SerializerHook<TopKAccumulator> {
+
+        @Override
+        public Class<TopKAccumulator> getSerializationType() {
+            return TopKAccumulator.class;
+        }
+
+        @Override
+        public Serializer createSerializer() {
+            return new StreamSerializer<TopKAccumulator<Object>>() {
+                @Override
+                public int getTypeId() {
+                    return SerializerHookConstants.TOP_K_ACC;
+                }
+
+                @Override
+                public void destroy() {
+                }
+
+                @Override
+                public void write(ObjectDataOutput out, TopKAccumulator<Object> object) throws IOException {
+                    out.writeInt(object.k());
+                    out.writeInt(object.width());
+                    out.writeInt(object.depth());
+                    out.writeLongArray(object.counters());
+                    out.writeInt(object.candidates().size());
+                    for (Entry<Object, Long> e : object.candidates().entrySet()) {
+                        out.writeObject(e.getKey());
+                        out.writeLong(e.getValue());
+                    }
+                }
+
+                @Override
+                public TopKAccumulator<Object> read(ObjectDataInput in) throws IOException {
+                    int k = in.readInt();
+                    int width = in.readInt();
+                    int depth = in.readInt();
+                    long[] counters = in.readLongArray();
+                    int candidateCount = in.readInt();
+                    Map<Object, Long> candidates = new HashMap<>();
+                    for (int i = 0; i < candidateCount; i++) {
+                        candidates.put(in.readObject(), in.readLong());
+                    }
+                    return new TopKAccumulator<>(k, width, depth, counters, candidates);
+                }
+            };
+        }
+
+        @Override
+        public boolean isOverwritable() {
+            return true;
+        }
+    }
+
+    public static final class TDigestAccHook implements SerializerHook<TDigestAccumulator> {
+
+        @Override
+        public Class<TDigestAccumulator> getSerializationType() {
+            return TDigestAccumulator.class;
+        }
+
+        @Override
+        public Serializer createSerializer() {
+            return new StreamSerializer<TDigestAccumulator>() {
+                @Override
+                public int getTypeId() {
+                    return SerializerHookConstants.T_DIGEST_ACC;
+                }
+
+                @Override
+                public void destroy() {
+                }
+
+                @Override
+                public void write(ObjectDataOutput out, TDigestAccumulator object) throws IOException {
+                    out.writeDouble(object.compression());
+                    out.writeDoubleArray(object.means());
+                    out.writeDoubleArray(object.weights());
+                    out.writeDouble(object.min());
+                    out.writeDouble(object.max());
+                }
+
+                @Override
+                public TDigestAccumulator read(ObjectDataInput in) throws IOException {
+                    return new TDigestAccumulator(
+                            in.readDouble(), in.readDoubleArray(), in.readDoubleArray(), in.readDouble(), in.readDouble());
+                }
+            };
+        }
+
+        @Override
+        public boolean isOverwritable() {
+            return true;
+        }
+    }
 }
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.accumulator;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.util.Arrays;
+
+import static com.hazelcast.util.Preconditions.checkTrue;
+
+/**
+ * Estimates the number of distinct items using the HyperLogLog algorithm.
+ * The accumulator keeps {@code 2^precision} one-byte registers, regardless
+ * of the number of items it has seen. The relative standard error of the
+ * estimate is about {@code 1.04 / sqrt(2^precision)}, for example 0.8% for
+ * the {@link #DEFAULT_PRECISION default precision} of 14, which takes
+ * 16 kB.
+ * <p>
+ * The accumulator works with 64-bit hashes of the items. Accumulators can
+ * only be combined if they have the same precision and their items were
+ * hashed with the same function.
+ */
+public final class HyperLogLogAccumulator {
+
+    /**
+     * The default precision: 2^14 registers, relative standard error
+     * about 0.8%.
+     */
+    public static final int DEFAULT_PRECISION = 14;
+
+    private static final int MIN_PRECISION = 4;
+    private static final int MAX_PRECISION = 18;
+
+    // bias correction constants from the HyperLogLog paper: the values for
+    // 16, 32 and 64 registers and the formula for larger register counts
+    private static final double[] SMALL_ALPHAS = {0.673, 0.697, 0.709};
+    private static final double ALPHA_NUMERATOR = 0.7213;
+    private static final double ALPHA_M_FACTOR = 1.079;
+
+    // below this multiple of the register count linear counting is more accurate
+    private static final double LINEAR_COUNTING_THRESHOLD = 2.5;
+
+    private final byte[] registers;
+    private final int precision;
+
+    /**
+     * Creates a new accumulator with the {@link #DEFAULT_PRECISION default
+     * precision}.
+     */
+    public HyperLogLogAccumulator() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * Creates a new accumulator with {@code 2^precision} registers.
+     *
+     * @param precision between 4 and 18, inclusive
+     */
+    public HyperLogLogAccumulator(int precision) {
+        checkTrue(precision >= MIN_PRECISION && precision <= MAX_PRECISION,
+                "precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION);
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Creates a new accumulator with the given registers. Intended only for
+     * testing and deserialization.
+     */
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "used only for testing and deserialization")
+    public HyperLogLogAccumulator(int precision, byte[] registers) {
+        checkTrue(registers.length == 1 << precision, "registers.length must be 2^precision");
+        this.precision = precision;
+        this.registers = registers;
+    }
+
+    /**
+     * Accumulates an item given its 64-bit hash. The hash function should
+     * spread the values over all the 64 bits.
+     */
+    public HyperLogLogAccumulator accumulate(long hash) {
+        int index = (int) (hash >>> (Long.SIZE - precision));
+        // the sentinel bit limits the rank to the number of remaining bits + 1
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+        return this;
+    }
+
+    /**
+     * Combines this accumulator with the supplied one.
+     *
+     * @throws IllegalArgumentException if the accumulators have different precision
+     */
+    public HyperLogLogAccumulator combine(HyperLogLogAccumulator that) {
+        if (this.precision != that.precision) {
+            throw new IllegalArgumentException("Can't combine HyperLogLog accumulators of different precision: "
+                    + this.precision + " and " + that.precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (that.registers[i] > registers[i]) {
+                registers[i] = that.registers[i];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Returns the estimated number of distinct items.
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeroRegisters = 0;
+        for (byte r : registers) {
+            sum += 1.0 / (1L << r);
+            if (r == 0) {
+                zeroRegisters++;
+            }
+        }
+        double estimate = alpha() * m * m / sum;
+        if (estimate <= LINEAR_COUNTING_THRESHOLD * m && zeroRegisters > 0) {
+            // small range correction: linear counting
+            estimate = m * Math.log((double) m / zeroRegisters);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Returns the precision: the base-2 logarithm of the number of registers.
+     */
+    public int precision() {
+        return precision;
+    }
+
+    /**
+     * Returns the registers. Intended only for serialization, the returned
+     * array must not be modified.
+     */
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "used only for serialization")
+    public byte[] registers() {
+        return registers;
+    }
+
+    private double alpha() {
+        int smallIndex = precision - MIN_PRECISION;
+        return smallIndex < SMALL_ALPHAS.length
+                ? SMALL_ALPHAS[smallIndex]
+                : ALPHA_NUMERATOR / (1 + ALPHA_M_FACTOR / registers.length);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o ||
+                o instanceof HyperLogLogAccumulator
+                && this.precision == ((HyperLogLogAccumulator) o).precision
+                && Arrays.equals(this.registers, ((HyperLogLogAccumulator) o).registers);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * precision + Arrays.hashCode(registers);
+    }
+
+    @Override
+    public String toString() {
+        return "HyperLogLogAccumulator(precision=" + precision + ", estimate=" + estimate() + ')';
+    }
+}
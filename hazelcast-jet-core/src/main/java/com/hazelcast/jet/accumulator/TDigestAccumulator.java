@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.accumulator;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.util.Arrays;
+
+import static com.hazelcast.util.Preconditions.checkTrue;
+
+/**
+ * Estimates quantiles of a distribution of {@code double} values using the
+ * merging variant of the t-digest algorithm. The values are summarized by
+ * a sorted list of centroids (mean and weight) whose number is bounded by
+ * the {@code compression} parameter, regardless of the number of values.
+ * The centroids are smaller near the ends of the distribution so the
+ * estimates of extreme quantiles such as p99 are especially accurate.
+ * <p>
+ * The accumulated values are first collected in a buffer which is merged
+ * into the centroids when it gets full or when the quantiles are queried.
+ */
+public final class TDigestAccumulator {
+
+    /**
+     * The default compression, which keeps at most about 100 centroids.
+     */
+    public static final double DEFAULT_COMPRESSION = 100;
+
+    private static final int BUFFER_SIZE_FACTOR = 5;
+    // the scale function ranges from -compression / 4 to compression / 4
+    private static final double K_BOUND_DIVISOR = 4;
+    private static final double MEDIAN = 0.5;
+
+    private final double compression;
+    private double[] means;
+    private double[] weights;
+    private int centroidCount;
+    private final double[] bufferMeans;
+    private final double[] bufferWeights;
+    private int bufferSize;
+    private double totalWeight;
+    private double min;
+    private double max;
+
+    /**
+     * Creates a new accumulator with the {@link #DEFAULT_COMPRESSION default
+     * compression}.
+     */
+    public TDigestAccumulator() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Creates a new accumulator with the given compression. Higher values
+     * give more accurate estimates and use more memory.
+     */
+    public TDigestAccumulator(double compression) {
+        this(compression, new double[0], new double[0], Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Creates a new accumulator with the given centroids. Intended only for
+     * testing and deserialization.
+     */
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "used only for testing and deserialization")
+    public TDigestAccumulator(double compression, double[] means, double[] weights, double min, double max) {
+        checkTrue(compression >= 1, "compression must be at least 1");
+        checkTrue(means.length == weights.length, "means.length != weights.length");
+        this.compression = compression;
+        this.means = means;
+        this.weights = weights;
+        this.centroidCount = means.length;
+        this.min = min;
+        this.max = max;
+        int bufferCapacity = (int) Math.ceil(BUFFER_SIZE_FACTOR * compression);
+        this.bufferMeans = new double[bufferCapacity];
+        this.bufferWeights = new double[bufferCapacity];
+        for (double w : weights) {
+            totalWeight += w;
+        }
+    }
+
+    /**
+     * Accumulates a value.
+     */
+    public TDigestAccumulator accumulate(double value) {
+        add(value, 1);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        return this;
+    }
+
+    /**
+     * Combines this accumulator with the supplied one.
+     */
+    public TDigestAccumulator combine(TDigestAccumulator that) {
+        for (int i = 0; i < that.centroidCount; i++) {
+            add(that.means[i], that.weights[i]);
+        }
+        for (int i = 0; i < that.bufferSize; i++) {
+            add(that.bufferMeans[i], that.bufferWeights[i]);
+        }
+        min = Math.min(min, that.min);
+        max = Math.max(max, that.max);
+        return this;
+    }
+
+    /**
+     * Returns the estimated value at the given quantile, or {@code NaN} if
+     * no values were accumulated.
+     *
+     * @param quantile the quantile, between 0 and 1 inclusive
+     */
+    public double quantile(double quantile) {
+        checkTrue(quantile >= 0 && quantile <= 1, "quantile must be between 0 and 1");
+        // don't compress this accumulator: it can be serialized by another thread at the same time
+        TDigestAccumulator c = compressedCopy();
+        if (c.centroidCount == 0) {
+            return Double.NaN;
+        }
+        double[] means = c.means;
+        double[] weights = c.weights;
+        double target = quantile * c.totalWeight;
+        // each centroid's weight is centered at its mean
+        double leftCenter = weights[0] / 2;
+        if (target <= leftCenter) {
+            return interpolate(min, means[0], target / leftCenter);
+        }
+        double cumulative = weights[0];
+        for (int i = 1; i < c.centroidCount; i++) {
+            double rightCenter = cumulative + weights[i] / 2;
+            if (target <= rightCenter) {
+                return interpolate(means[i - 1], means[i], (target - leftCenter) / (rightCenter - leftCenter));
+            }
+            leftCenter = rightCenter;
+            cumulative += weights[i];
+        }
+        return interpolate(means[c.centroidCount - 1], max, (target - leftCenter) / (c.totalWeight - leftCenter));
+    }
+
+    /**
+     * Returns the number of accumulated values.
+     */
+    public long count() {
+        return Math.round(totalWeight);
+    }
+
+    /**
+     * Returns the compression.
+     */
+    public double compression() {
+        return compression;
+    }
+
+    /**
+     * Returns the smallest accumulated value.
+     */
+    public double min() {
+        return min;
+    }
+
+    /**
+     * Returns the largest accumulated value.
+     */
+    public double max() {
+        return max;
+    }
+
+    /**
+     * Returns a copy of the means of the centroids, with the buffered values
+     * merged in. This accumulator isn't modified, so it can be serialized
+     * while another thread reads it. Intended only for serialization.
+     */
+    public double[] means() {
+        TDigestAccumulator compressed = compressedCopy();
+        return Arrays.copyOf(compressed.means, compressed.centroidCount);
+    }
+
+    /**
+     * Returns a copy of the weights of the centroids, with the buffered
+     * values merged in. This accumulator isn't modified, so it can be
+     * serialized while another thread reads it. Intended only for
+     * serialization.
+     */
+    public double[] weights() {
+        TDigestAccumulator compressed = compressedCopy();
+        return Arrays.copyOf(compressed.weights, compressed.centroidCount);
+    }
+
+    private void add(double mean, double weight) {
+        if (bufferSize == bufferMeans.length) {
+            compress();
+        }
+        bufferMeans[bufferSize] = mean;
+        bufferWeights[bufferSize] = weight;
+        bufferSize++;
+        totalWeight += weight;
+    }
+
+    /**
+     * Merges the buffer into the centroids. Adjacent centroids are merged as
+     * long as the merged centroid spans at most one unit of the scale
+     * function {@code k(q) = compression / (2 * PI) * asin(2q - 1)}.
+     */
+    private void compress() {
+        if (bufferSize == 0) {
+            return;
+        }
+        int n = centroidCount + bufferSize;
+        Integer[] order = new Integer[n];
+        double[] allMeans = Arrays.copyOf(means, n);
+        double[] allWeights = Arrays.copyOf(weights, n);
+        System.arraycopy(bufferMeans, 0, allMeans, centroidCount, bufferSize);
+        System.arraycopy(bufferWeights, 0, allWeights, centroidCount, bufferSize);
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(allMeans[a], allMeans[b]));
+
+        double[] newMeans = new double[n];
+        double[] newWeights = new double[n];
+        int count = 0;
+        double weightSoFar = 0;
+        double weightLimit = weightLimit(0);
+        newMeans[0] = allMeans[order[0]];
+        newWeights[0] = allWeights[order[0]];
+        for (int j = 1; j < n; j++) {
+            double mean = allMeans[order[j]];
+            double weight = allWeights[order[j]];
+            if (weightSoFar + newWeights[count] + weight <= weightLimit) {
+                newWeights[count] += weight;
+                newMeans[count] += (mean - newMeans[count]) * weight / newWeights[count];
+            } else {
+                weightSoFar += newWeights[count];
+                weightLimit = weightLimit(weightSoFar);
+                count++;
+                newMeans[count] = mean;
+                newWeights[count] = weight;
+            }
+        }
+        centroidCount = count + 1;
+        means = Arrays.copyOf(newMeans, centroidCount);
+        weights = Arrays.copyOf(newWeights, centroidCount);
+        bufferSize = 0;
+    }
+
+    /**
+     * Returns the cumulative weight up to which a centroid starting at
+     * {@code weightSoFar} may grow.
+     */
+    private double weightLimit(double weightSoFar) {
+        double k = compression / (2 * Math.PI) * Math.asin(2 * weightSoFar / totalWeight - 1);
+        double nextK = k + 1;
+        if (nextK >= compression / K_BOUND_DIVISOR) {
+            return totalWeight;
+        }
+        return (Math.sin(nextK * 2 * Math.PI / compression) + 1) / 2 * totalWeight;
+    }
+
+    /**
+     * Returns an accumulator with the buffered values merged into the
+     * centroids, leaving this one unchanged.
+     */
+    private TDigestAccumulator compressedCopy() {
+        if (bufferSize == 0) {
+            return this;
+        }
+        // compress() replaces the centroid arrays, so the copy can share them
+        TDigestAccumulator copy = new TDigestAccumulator(compression, means, weights, min, max);
+        for (int i = 0; i < bufferSize; i++) {
+            copy.add(bufferMeans[i], bufferWeights[i]);
+        }
+        copy.compress();
+        return copy;
+    }
+
+    private static double interpolate(double from, double to, double fraction) {
+        return from + (to - from) * fraction;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TDigestAccumulator)) {
+            return false;
+        }
+        TDigestAccumulator self = compressedCopy();
+        TDigestAccumulator that = ((TDigestAccumulator) o).compressedCopy();
+        return self.compression == that.compression
+                && self.min == that.min
+                && self.max == that.max
+                && Arrays.equals(self.means, that.means)
+                && Arrays.equals(self.weights, that.weights);
+    }
+
+    @Override
+    public int hashCode() {
+        TDigestAccumulator self = compressedCopy();
+        int hc = 17;
+        hc = 73 * hc + Double.hashCode(compression);
+        hc = 73 * hc + Arrays.hashCode(self.means);
+        hc = 73 * hc + Arrays.hashCode(self.weights);
+        return hc;
+    }
+
+    @Override
+    public String toString() {
+        return "TDigestAccumulator(count=" + count() + ", median=" + quantile(MEDIAN) + ')';
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.accumulator;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.util.HashUtil.MurmurHash3_fmix;
+import static com.hazelcast.util.Preconditions.checkPositive;
+import static java.util.Map.Entry.comparingByValue;
+
+/**
+ * Estimates the most frequent items. Item frequencies are counted in a
+ * Count-Min sketch, a {@code depth x width} table of counters, and the
+ * accumulator keeps the {@code k} items with the highest estimated
+ * frequency as candidates. The memory used is independent of the number
+ * of distinct items.
+ * <p>
+ * The estimated frequency is never lower than the true one. With a width
+ * of {@code w} and a depth of {@code d} it overestimates by more than
+ * {@code e/w} of the total number of items with probability at most
+ * {@code e^-d}.
+ * <p>
+ * Items are hashed using their {@code hashCode()}, which therefore must be
+ * stable across JVM processes so that the accumulators from different
+ * cluster members can be combined.
+ *
+ * @param <T> the type of the counted items
+ */
+public final class TopKAccumulator<T> {
+
+    /**
+     * The default width of the Count-Min sketch.
+     */
+    public static final int DEFAULT_WIDTH = 2048;
+
+    /**
+     * The default depth of the Count-Min sketch.
+     */
+    public static final int DEFAULT_DEPTH = 5;
+
+    private final int k;
+    private final int width;
+    private final int depth;
+    private final long[] counters;
+    private final Map<T, Long> candidates;
+    // a lower bound of the smallest count among full candidates
+    private long minCandidateCount;
+
+    /**
+     * Creates a new accumulator that keeps {@code k} candidates and uses a
+     * sketch of the {@link #DEFAULT_WIDTH default width} and {@link
+     * #DEFAULT_DEPTH depth}.
+     */
+    public TopKAccumulator(int k) {
+        this(k, DEFAULT_WIDTH, DEFAULT_DEPTH);
+    }
+
+    /**
+     * Creates a new accumulator that keeps {@code k} candidates and uses a
+     * sketch of the given dimensions.
+     */
+    public TopKAccumulator(int k, int width, int depth) {
+        this(checkPositive(k, "k must be positive"), width, depth,
+                new long[checkPositive(width, "width must be positive") * checkPositive(depth, "depth must be positive")],
+                new HashMap<>());
+    }
+
+    /**
+     * Creates a new accumulator with the given state. Intended only for
+     * testing and deserialization.
+     */
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "used only for testing and deserialization")
+    public TopKAccumulator(int k, int width, int depth, long[] counters, Map<T, Long> candidates) {
+        this.k = k;
+        this.width = width;
+        this.depth = depth;
+        this.counters = counters;
+        this.candidates = candidates;
+    }
+
+    /**
+     * Accumulates an occurrence of the given item.
+     */
+    public TopKAccumulator<T> accumulate(T item) {
+        long hash = MurmurHash3_fmix((long) item.hashCode());
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int i = index(hash, row);
+            counters[i]++;
+            estimate = Math.min(estimate, counters[i]);
+        }
+        offerCandidate(item, estimate);
+        return this;
+    }
+
+    /**
+     * Combines this accumulator with the supplied one. The candidates of both
+     * accumulators are re-estimated using the combined sketch.
+     *
+     * @throws IllegalArgumentException if the sketches have different dimensions
+     */
+    public TopKAccumulator<T> combine(TopKAccumulator<T> that) {
+        if (this.width != that.width || this.depth != that.depth) {
+            throw new IllegalArgumentException("Can't combine Count-Min sketches of different dimensions");
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += that.counters[i];
+        }
+        List<T> allCandidates = new ArrayList<>(candidates.keySet());
+        allCandidates.addAll(that.candidates.keySet());
+        candidates.clear();
+        minCandidateCount = 0;
+        for (T item : allCandidates) {
+            offerCandidate(item, estimateCount(item));
+        }
+        return this;
+    }
+
+    /**
+     * Returns the estimated number of occurrences of the given item.
+     */
+    public long estimateCount(T item) {
+        long hash = MurmurHash3_fmix((long) item.hashCode());
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[index(hash, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Returns the top {@code k} items with their estimated counts, the most
+     * frequent first. The returned list and its entries are serializable.
+     */
+    public List<Entry<T, Long>> topK() {
+        List<Entry<T, Long>> result = new ArrayList<>(candidates.size());
+        for (Entry<T, Long> e : candidates.entrySet()) {
+            result.add(entry(e.getKey(), e.getValue()));
+        }
+        result.sort(comparingByValue((Long a, Long b) -> Long.compare(b, a)));
+        // subList() isn't serializable, copy it
+        return result.size() <= k ? result : new ArrayList<>(result.subList(0, k));
+    }
+
+    /**
+     * Returns the number of candidates this accumulator keeps.
+     */
+    public int k() {
+        return k;
+    }
+
+    /**
+     * Returns the width of the sketch.
+     */
+    public int width() {
+        return width;
+    }
+
+    /**
+     * Returns the depth of the sketch.
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * Returns the sketch's counters, row by row. Intended only for
+     * serialization, the returned array must not be modified.
+     */
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "used only for serialization")
+    public long[] counters() {
+        return counters;
+    }
+
+    /**
+     * Returns the candidates with their estimated counts. Intended only for
+     * serialization, the returned map must not be modified.
+     */
+    public Map<T, Long> candidates() {
+        return candidates;
+    }
+
+    private void offerCandidate(T item, long estimate) {
+        if (candidates.containsKey(item) || candidates.size() < k) {
+            candidates.put(item, estimate);
+            return;
+        }
+        if (estimate <= minCandidateCount) {
+            return;
+        }
+        Entry<T, Long> min = null;
+        for (Entry<T, Long> e : candidates.entrySet()) {
+            if (min == null || e.getValue() < min.getValue()) {
+                min = e;
+            }
+        }
+        if (min.getValue() >= estimate) {
+            minCandidateCount = min.getValue();
+            return;
+        }
+        candidates.remove(min.getKey());
+        candidates.put(item, estimate);
+    }
+
+    private int index(long hash, int row) {
+        // derive the row hashes from the two halves of the 64-bit hash
+        int rowHash = (int) hash + row * (int) (hash >>> Integer.SIZE);
+        return row * width + (rowHash & Integer.MAX_VALUE) % width;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        TopKAccumulator that;
+        return this == o ||
+                o instanceof TopKAccumulator
+                && this.k == (that = (TopKAccumulator) o).k
+                && this.width == that.width
+                && this.depth == that.depth
+                && Arrays.equals(this.counters, that.counters)
+                && this.candidates.equals(that.candidates);
+    }
+
+    @Override
+    public int hashCode() {
+        int hc = 17;
+        hc = 73 * hc + k;
+        hc = 73 * hc + Arrays.hashCode(counters);
+        hc = 73 * hc + candidates.hashCode();
+        return hc;
+    }
+
+    @Override
+    public String toString() {
+        return "TopKAccumulator(" + topK() + ')';
+    }
+}
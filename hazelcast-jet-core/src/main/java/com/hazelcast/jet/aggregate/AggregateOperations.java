@@ -17,11 +17,14 @@
 package com.hazelcast.jet.aggregate;
 
 import com.hazelcast.jet.accumulator.DoubleAccumulator;
+import com.hazelcast.jet.accumulator.HyperLogLogAccumulator;
 import com.hazelcast.jet.accumulator.LinTrendAccumulator;
 import com.hazelcast.jet.accumulator.LongAccumulator;
 import com.hazelcast.jet.accumulator.LongDoubleAccumulator;
 import com.hazelcast.jet.accumulator.LongLongAccumulator;
 import com.hazelcast.jet.accumulator.MutableReference;
+import com.hazelcast.jet.accumulator.TDigestAccumulator;
+import com.hazelcast.jet.accumulator.TopKAccumulator;
 import com.hazelcast.jet.function.DistributedBiConsumer;
 import com.hazelcast.jet.function.DistributedBinaryOperator;
 import com.hazelcast.jet.function.DistributedComparator;
@@ -38,9 +41,14 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.stream.Stream;
 
+import static com.hazelcast.util.HashUtil.MurmurHash3_fmix;
+import static com.hazelcast.util.Preconditions.checkPositive;
+import static com.hazelcast.util.Preconditions.checkTrue;
+
 /**
  * Utility class with factory methods for several useful aggregate
  * operations.
@@ -232,6 +240,119 @@ public final class AggregateOperations {
                 .andFinish(LinTrendAccumulator::finish);
     }
 
+    /**
+     * Returns an aggregate operation that estimates the number of distinct
+     * items using the HyperLogLog algorithm with the {@link
+     * HyperLogLogAccumulator#DEFAULT_PRECISION default precision}. Unlike
+     * counting the items of {@link #toSet()}, it uses a fixed amount of
+     * memory (16 kB) regardless of the number of distinct items, at the cost
+     * of a relative standard error of about 0.8%.
+     * <p>
+     * Items are hashed using their {@code hashCode()}, which therefore must
+     * be stable across JVM processes. Since it is a 32-bit value, the
+     * estimate loses accuracy for more than several hundred million
+     * distinct items. Use {@link #approximateCountDistinct(int,
+     * DistributedToLongFunction)} with a 64-bit hash function in that case.
+     * <p>
+     * This aggregate operation does not implement the {@link
+     * AggregateOperation1#deductFn() deduct} primitive.
+     *
+     * @param <T> input item type
+     */
+    @Nonnull
+    public static <T> AggregateOperation1<T, HyperLogLogAccumulator, Long> approximateCountDistinct() {
+        return approximateCountDistinct(HyperLogLogAccumulator.DEFAULT_PRECISION,
+                item -> MurmurHash3_fmix((long) item.hashCode()));
+    }
+
+    /**
+     * Returns an aggregate operation that estimates the number of distinct
+     * items using the HyperLogLog algorithm. It keeps {@code 2^precision}
+     * one-byte registers and its relative standard error is about {@code
+     * 1.04 / sqrt(2^precision)}.
+     * <p>
+     * This aggregate operation does not implement the {@link
+     * AggregateOperation1#deductFn() deduct} primitive.
+     *
+     * @param precision between 4 and 18, inclusive
+     * @param hashFn a function that computes a 64-bit hash of an item. It
+     *               must spread the values over all the 64 bits and give
+     *               the same result on all cluster members.
+     * @param <T> input item type
+     */
+    @Nonnull
+    public static <T> AggregateOperation1<T, HyperLogLogAccumulator, Long> approximateCountDistinct(
+            int precision,
+            @Nonnull DistributedToLongFunction<? super T> hashFn
+    ) {
+        return AggregateOperation
+                .withCreate(() -> new HyperLogLogAccumulator(precision))
+                .andAccumulate((HyperLogLogAccumulator a, T item) -> a.accumulate(hashFn.applyAsLong(item)))
+                .andCombine(HyperLogLogAccumulator::combine)
+                .andFinish(HyperLogLogAccumulator::estimate);
+    }
+
+    /**
+     * Returns an aggregate operation that estimates the {@code k} most
+     * frequent items and their number of occurrences. The item frequencies
+     * are counted in a Count-Min sketch of fixed size and only {@code k}
+     * candidate items are kept, see {@link TopKAccumulator}. The result is a
+     * list of at most {@code k} entries of item and its estimated count,
+     * the most frequent item first. The estimated counts are never lower
+     * than the true ones.
+     * <p>
+     * Items are hashed using their {@code hashCode()}, which therefore must
+     * be stable across JVM processes.
+     * <p>
+     * This aggregate operation does not implement the {@link
+     * AggregateOperation1#deductFn() deduct} primitive.
+     *
+     * @param k the number of most frequent items to find
+     * @param <T> input item type
+     */
+    @Nonnull
+    public static <T> AggregateOperation1<T, TopKAccumulator<T>, List<Entry<T, Long>>> approximateTopK(int k) {
+        checkPositive(k, "k must be positive");
+        return AggregateOperation
+                .withCreate(() -> new TopKAccumulator<T>(k))
+                .andAccumulate((TopKAccumulator<T> a, T item) -> a.accumulate(item))
+                .andCombine(TopKAccumulator::combine)
+                .andFinish(TopKAccumulator::topK);
+    }
+
+    /**
+     * Returns an aggregate operation that estimates the given quantile of
+     * the {@code double} values it obtains by applying {@code
+     * getDoubleValueFn} to each item. It uses the t-digest algorithm with
+     * the {@link TDigestAccumulator#DEFAULT_COMPRESSION default compression},
+     * which keeps a bounded number of centroids instead of all the values,
+     * and is most accurate for the extreme quantiles like 0.99.
+     * <p>
+     * To compute several quantiles of the same values, use {@link
+     * #allOf(AggregateOperation1[]) allOf()} or create an operation that
+     * finishes the {@link TDigestAccumulator} with several calls to {@link
+     * TDigestAccumulator#quantile(double)}.
+     * <p>
+     * This aggregate operation does not implement the {@link
+     * AggregateOperation1#deductFn() deduct} primitive.
+     *
+     * @param getDoubleValueFn a function that extracts the value from an item
+     * @param quantile the quantile to estimate, between 0 and 1 inclusive
+     * @param <T> input item type
+     */
+    @Nonnull
+    public static <T> AggregateOperation1<T, TDigestAccumulator, Double> approximateQuantile(
+            @Nonnull DistributedToDoubleFunction<? super T> getDoubleValueFn,
+            double quantile
+    ) {
+        checkTrue(quantile >= 0 && quantile <= 1, "quantile must be between 0 and 1");
+        return AggregateOperation
+                .withCreate(TDigestAccumulator::new)
+                .andAccumulate((TDigestAccumulator a, T item) -> a.accumulate(getDoubleValueFn.applyAsDouble(item)))
+                .andCombine(TDigestAccumulator::combine)
+                .andFinish(a -> a.quantile(quantile));
+    }
+
     /**
      * Returns a composite operation that computes multiple aggregate
      * operations and returns their results in a {@code List<Object>}.
@@ -40,11 +40,20 @@ public class JobConfig implements Serializable {
     private String name;
     private ProcessingGuarantee processingGuarantee = ProcessingGuarantee.NONE;
     private long snapshotIntervalMillis = SNAPSHOT_INTERVAL_MILLIS_DEFAULT;
+    private double maxSnapshotTimeFraction;
+    private long maxRecoveryWindowMillis;
 
     private boolean splitBrainProtectionEnabled;
     private final List<ResourceConfig> resourceConfigs = new ArrayList<>();
     private boolean autoRestartEnabled = true;
     private int maxWatermarkRetainMillis = -1;
+    private int maxIncrementalSnapshots;
+    private SnapshotStorage snapshotStorage = SnapshotStorage.IMAP;
+    private boolean asyncSnapshotsEnabled;
+    private boolean unalignedSnapshotsEnabled;
+    private boolean snapshotCompressionEnabled;
+    private String savepointName;
+    private String initialSavepointName;
 
     /**
      * Returns the name of the job or {@code null} if no name was given.
@@ -173,6 +182,9 @@ public class JobConfig implements Serializable {
      * Must be set to a positive value. This setting is only relevant when
      * <i>>at-least-once</i> or <i>exactly-once</i> processing guarantees are used.
      * <p>
+     * With the {@link #setMaxSnapshotTimeFraction(double) adaptive snapshot
+     * interval} this value is only used before the first snapshot completes.
+     * <p>
      * Default value is set to 10 seconds.
      *
      * @return {@code this} instance for fluent API
@@ -184,6 +196,310 @@ public class JobConfig implements Serializable {
         return this;
     }
 
+    /**
+     * Enables the adaptive snapshot interval and sets the maximum fraction of
+     * time the job should spend taking snapshots. After each successful
+     * snapshot, the interval before the next one is derived from the average
+     * duration of the recent snapshots so that the time spent snapshotting is
+     * at most the given fraction of the total time: jobs with a large state
+     * take snapshots less often, jobs with a small state more often. The
+     * interval is limited by the {@link #setMaxRecoveryWindowMillis(long)
+     * maximum recovery window}, if set.
+     * <p>
+     * The value must be in the range {@code [0, 1)}. This setting is only
+     * relevant when <i>at-least-once</i> or <i>exactly-once</i> processing
+     * guarantees are used.
+     * <p>
+     * The default value is 0: the adaptive interval is disabled and the
+     * {@link #setSnapshotIntervalMillis(long) fixed interval} is used.
+     *
+     * @return {@code this} instance for fluent API
+     */
+    @Nonnull
+    public JobConfig setMaxSnapshotTimeFraction(double maxSnapshotTimeFraction) {
+        Preconditions.checkTrue(maxSnapshotTimeFraction >= 0 && maxSnapshotTimeFraction < 1,
+                "maxSnapshotTimeFraction must be in the range [0, 1)");
+        this.maxSnapshotTimeFraction = maxSnapshotTimeFraction;
+        return this;
+    }
+
+    /**
+     * Returns the maximum fraction of time spent taking snapshots, see {@link
+     * #setMaxSnapshotTimeFraction(double)}.
+     */
+    public double getMaxSnapshotTimeFraction() {
+        return maxSnapshotTimeFraction;
+    }
+
+    /**
+     * Returns true, if the job adapts the snapshot interval to the snapshot
+     * duration, see {@link #setMaxSnapshotTimeFraction(double)}.
+     */
+    public boolean isAdaptiveSnapshotIntervalEnabled() {
+        return maxSnapshotTimeFraction > 0;
+    }
+
+    /**
+     * Sets the maximum time span of the input the job replays after it
+     * restarts from a snapshot, in milliseconds. When the job restarts, the
+     * sources rewind to the start of the last successful snapshot, so the
+     * replayed span is at most the snapshot interval plus the snapshot
+     * duration. The {@link #setMaxSnapshotTimeFraction(double) adaptive
+     * snapshot interval} is shortened to keep this span within the limit,
+     * even if the job then spends more time snapshotting than targeted.
+     * <p>
+     * The default value is 0: the recovery window is not limited.
+     *
+     * @return {@code this} instance for fluent API
+     */
+    @Nonnull
+    public JobConfig setMaxRecoveryWindowMillis(long maxRecoveryWindowMillis) {
+        Preconditions.checkNotNegative(maxRecoveryWindowMillis, "maxRecoveryWindowMillis can't be negative");
+        this.maxRecoveryWindowMillis = maxRecoveryWindowMillis;
+        return this;
+    }
+
+    /**
+     * Returns the maximum recovery window, see {@link
+     * #setMaxRecoveryWindowMillis(long)}.
+     */
+    public long getMaxRecoveryWindowMillis() {
+        return maxRecoveryWindowMillis;
+    }
+
+    /**
+     * Sets the number of incremental snapshots the job takes after each full
+     * snapshot. An incremental snapshot only contains the state that
+     * changed since the previous snapshot, which makes it much cheaper than a
+     * full one for processors with large, slowly changing state. The job is
+     * restored from the latest full snapshot with all the following
+     * incremental snapshots applied on top of it. Each full snapshot compacts
+     * this chain: after it completes, the older snapshots are deleted.
+     * <p>
+     * Only the processors which {@link
+     * com.hazelcast.jet.core.Processor#supportsIncrementalSnapshot() support
+     * incremental snapshots} take advantage of this setting, the others save
+     * their full state to every snapshot. The first snapshot of each job
+     * execution and the snapshot after a failed one are always full. This
+     * setting is only relevant when <i>at-least-once</i> or
+     * <i>exactly-once</i> processing guarantees are used.
+     * <p>
+     * Incremental snapshots are not supported with {@link
+     * SnapshotStorage#LOCAL_DISK} snapshot storage, this setting is ignored
+     * in that case.
+     * <p>
+     * The default value is 0: every snapshot is a full snapshot.
+     *
+     * @return {@code this} instance for fluent API
+     */
+    @Nonnull
+    public JobConfig setMaxIncrementalSnapshots(int maxIncrementalSnapshots) {
+        Preconditions.checkNotNegative(maxIncrementalSnapshots, "maxIncrementalSnapshots can't be negative");
+        this.maxIncrementalSnapshots = maxIncrementalSnapshots;
+        return this;
+    }
+
+    /**
+     * Returns the number of incremental snapshots taken after each full
+     * snapshot, see {@link #setMaxIncrementalSnapshots(int)}.
+     */
+    public int getMaxIncrementalSnapshots() {
+        return maxIncrementalSnapshots;
+    }
+
+    /**
+     * Sets where the data of the job's snapshots is stored, see {@link
+     * SnapshotStorage}. This setting is only relevant when
+     * <i>at-least-once</i> or <i>exactly-once</i> processing guarantees are
+     * used.
+     * <p>
+     * The default value is {@link SnapshotStorage#IMAP}.
+     *
+     * @return {@code this} instance for fluent API
+     */
+    @Nonnull
+    public JobConfig setSnapshotStorage(@Nonnull SnapshotStorage snapshotStorage) {
+        Preconditions.checkNotNull(snapshotStorage, "snapshotStorage");
+        this.snapshotStorage = snapshotStorage;
+        return this;
+    }
+
+    /**
+     * Returns where the data of the job's snapshots is stored, see {@link
+     * #setSnapshotStorage(SnapshotStorage)}.
+     */
+    @Nonnull
+    public SnapshotStorage getSnapshotStorage() {
+        return snapshotStorage;
+    }
+
+    /**
+     * Returns true, if the job takes {@link #setMaxIncrementalSnapshots(int)
+     * incremental snapshots}. They are only supported with {@link
+     * SnapshotStorage#IMAP}.
+     */
+    public boolean isIncrementalSnapshotsEnabled() {
+        return maxIncrementalSnapshots > 0 && snapshotStorage == SnapshotStorage.IMAP;
+    }
+
+    /**
+     * Sets whether the processors that support it save their state to the
+     * snapshot asynchronously. Such a processor doesn't stall while its state
+     * is written: it hands a frozen view of the state over to be serialized
+     * in the background and resumes processing immediately, copying the parts
+     * of the state it modifies while the view is being saved. This reduces
+     * the latency spikes caused by snapshots of large state at the cost of
+     * the extra memory for the copies. This setting is only relevant when
+     * <i>at-least-once</i> or <i>exactly-once</i> processing guarantees are
+     * used.
+     * <p>
+     * Currently only the windowed aggregation processors with the combine
+     * primitive support asynchronous snapshots, the others always save their
+     * state synchronously.
+     * <p>
+     * Asynchronous snapshots are disabled by default.
+     *
+     * @return {@code this} instance for fluent API
+     */
+    @Nonnull
+    public JobConfig setAsyncSnapshotsEnabled(boolean asyncSnapshotsEnabled) {
+        this.asyncSnapshotsEnabled = asyncSnapshotsEnabled;
+        return this;
+    }
+
+    /**
+     * Tells whether the processors save their state to the snapshot
+     * asynchronously, see {@link #setAsyncSnapshotsEnabled(boolean)}.
+     */
+    public boolean isAsyncSnapshotsEnabled() {
+        return asyncSnapshotsEnabled;
+    }
+
+    /**
+     * Sets whether the job takes unaligned snapshots. With aligned snapshots,
+     * a processor with multiple inputs stops receiving from an input after
+     * the snapshot barrier arrives on it, until the barrier arrives on all
+     * inputs. Under backpressure or with skewed inputs this can stall the
+     * processing for a long time. With unaligned snapshots, the processor
+     * saves its state as soon as the first barrier arrives and keeps
+     * receiving from all inputs: the items received on the other inputs
+     * before their barrier are saved to the snapshot too and processed again
+     * after the restore. The exactly-once guarantee is kept at the cost of a
+     * larger snapshot. This setting is only relevant with the
+     * <i>exactly-once</i> processing guarantee.
+     * <p>
+     * The vertices with a broadcast or an isolated input edge, or with input
+     * edges of different priorities, always take aligned snapshots.
+     * <p>
+     * Unaligned snapshots are disabled by default.
+     *
+     * @return {@code this} instance for fluent API
+     */
+    @Nonnull
+    public JobConfig setUnalignedSnapshotsEnabled(boolean unalignedSnapshotsEnabled) {
+        this.unalignedSnapshotsEnabled = unalignedSnapshotsEnabled;
+        return this;
+    }
+
+    /**
+     * Tells whether the job takes unaligned snapshots, see {@link
+     * #setUnalignedSnapshotsEnabled(boolean)}.
+     */
+    public boolean isUnalignedSnapshotsEnabled() {
+        return unalignedSnapshotsEnabled;
+    }
+
+    /**
+     * Sets whether the snapshot data is stored compressed. The entries saved
+     * by the processors are batched per partition into binary chunks of about
+     * 64 kB, each chunk is compressed and stored as a single map entry. This
+     * reduces the number of entries written to and read from the snapshot
+     * map and the amount of data sent to the backups, at the cost of the CPU
+     * time spent on compression. The chunks are decoded in bulk on restore.
+     * This setting is only relevant with the <i>at-least-once</i> or
+     * <i>exactly-once</i> processing guarantee and the {@link
+     * SnapshotStorage#IMAP IMAP} snapshot storage.
+     * <p>
+     * Snapshot compression is disabled by default.
+     *
+     * @return {@code this} instance for fluent API
+     */
+    @Nonnull
+    public JobConfig setSnapshotCompressionEnabled(boolean snapshotCompressionEnabled) {
+        this.snapshotCompressionEnabled = snapshotCompressionEnabled;
+        return this;
+    }
+
+    /**
+     * Tells whether the snapshot data is stored compressed, see {@link
+     * #setSnapshotCompressionEnabled(boolean)}.
+     */
+    public boolean isSnapshotCompressionEnabled() {
+        return snapshotCompressionEnabled;
+    }
+
+    /**
+     * Sets the name under which the job exports its state when it terminates.
+     * When the job completes, fails or is cancelled, its latest complete
+     * snapshot is kept as a <em>savepoint</em> with this name instead of
+     * being deleted with the rest of the job's data. A new job can then
+     * start from it, see {@link #setInitialSavepointName(String)}. An
+     * existing savepoint with the same name is replaced.
+     * <p>
+     * This setting is only relevant with the <i>at-least-once</i> or
+     * <i>exactly-once</i> processing guarantee. If the job has no complete
+     * snapshot when it terminates, no savepoint is exported.
+     * <p>
+     * The default value is {@code null}: no savepoint is exported.
+     *
+     * @return {@code this} instance for fluent API
+     */
+    @Nonnull
+    public JobConfig setSavepointName(@Nullable String savepointName) {
+        this.savepointName = savepointName;
+        return this;
+    }
+
+    /**
+     * Returns the name of the savepoint the job exports when it terminates,
+     * see {@link #setSavepointName(String)}.
+     */
+    @Nullable
+    public String getSavepointName() {
+        return savepointName;
+    }
+
+    /**
+     * Sets the name of the savepoint the job starts from. The state saved
+     * by each vertex of the job which exported the savepoint is restored to
+     * the vertex with the same name in this job. Vertices with no state in
+     * the savepoint start empty and the state of vertices no longer present
+     * is ignored, so the DAG can change between the jobs as long as the
+     * vertices keeping their name keep a compatible state. The job fails to
+     * start if the savepoint doesn't exist.
+     * <p>
+     * The savepoint is only used until the job takes its own first snapshot:
+     * after a restart the job is restored from its own snapshot as usual.
+     * <p>
+     * The default value is {@code null}: the job starts with empty state.
+     *
+     * @return {@code this} instance for fluent API
+     */
+    @Nonnull
+    public JobConfig setInitialSavepointName(@Nullable String initialSavepointName) {
+        this.initialSavepointName = initialSavepointName;
+        return this;
+    }
+
+    /**
+     * Returns the name of the savepoint the job starts from, see {@link
+     * #setInitialSavepointName(String)}.
+     */
+    @Nullable
+    public String getInitialSavepointName() {
+        return initialSavepointName;
+    }
+
     /**
      * Sets the maximum time to retain the watermarks while coalescing them.
      * A negative value disables the limit and Jet will retain the watermark
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.config;
+
+/**
+ * Defines where the data of the job's snapshots is stored. The snapshot
+ * metadata, used to find the snapshot to restore from, is always stored
+ * in an {@code IMap}.
+ *
+ * @see JobConfig#setSnapshotStorage(SnapshotStorage)
+ */
+public enum SnapshotStorage {
+
+    /**
+     * The snapshot data is stored in internal {@code IMap}s, one map for
+     * each vertex and snapshot. The state is partitioned across the cluster
+     * and backed up according to {@link InstanceConfig#setBackupCount(int)}.
+     * <p>
+     * The snapshot data is kept on the heap, in addition to the state held
+     * by the processors themselves.
+     */
+    IMAP,
+
+    /**
+     * The snapshot data is written to memory-mapped files in the {@link
+     * InstanceConfig#setTempDir(String) temp directory} of the member which
+     * took it and copied to as many other members as set by {@link
+     * InstanceConfig#setBackupCount(int)}. When the job is restored, each
+     * member reads the files it holds, the data isn't routed through {@code
+     * IMap} partitions.
+     * <p>
+     * This option keeps the snapshot data off the heap. It doesn't support
+     * {@link JobConfig#setMaxIncrementalSnapshots(int) incremental
+     * snapshots}, all snapshots are full.
+     */
+    LOCAL_DISK
+}
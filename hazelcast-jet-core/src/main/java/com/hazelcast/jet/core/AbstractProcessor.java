@@ -300,6 +300,13 @@ public abstract class AbstractProcessor implements Processor {
         return logger;
     }
 
+    /**
+     * Returns the outbox received in the {@code init()} method call.
+     */
+    protected final Outbox getOutbox() {
+        return outbox;
+    }
+
     /**
      * Offers the item to the outbox bucket at the supplied ordinal.
      *
@@ -16,8 +16,11 @@
 
 package com.hazelcast.jet.core;
 
+import com.hazelcast.jet.Traverser;
+
 import javax.annotation.CheckReturnValue;
 import javax.annotation.Nonnull;
+import java.util.Map.Entry;
 
 /**
  * Data sink for a {@link Processor}. The outbox consists of individual
@@ -88,6 +91,60 @@ public interface Outbox {
     @CheckReturnValue
     boolean offerToSnapshot(@Nonnull Object key, @Nonnull Object value);
 
+    /**
+     * Offers the removal of the given key to the processor's snapshot
+     * storage. Only needed in an incremental snapshot, see {@link
+     * Processor#supportsIncrementalSnapshot()}: the key will be absent from
+     * the state restored from the snapshot even if a previous snapshot
+     * contains it.
+     * <p>
+     * This method may only be called from the {@link
+     * Processor#saveToSnapshot()} method.
+     *
+     * @return {@code true} if the outbox accepted the item
+     */
+    @CheckReturnValue
+    boolean offerRemovalToSnapshot(@Nonnull Object key);
+
+    /**
+     * Returns {@code true}, if the snapshot currently being saved is
+     * incremental. It's always {@code false} for processors which don't
+     * {@link Processor#supportsIncrementalSnapshot() support incremental
+     * snapshots}. The value doesn't change during one snapshot.
+     */
+    default boolean isSnapshotIncremental() {
+        return false;
+    }
+
+    /**
+     * Returns the ID of the snapshot currently being saved. The IDs increase
+     * with each snapshot of the job, see {@link
+     * Processor#onSnapshotCommitted(long)}. The value is only meaningful
+     * during the {@link Processor#saveToSnapshot()} calls.
+     */
+    long snapshotId();
+
+    /**
+     * Offers a view of the processor's state to be saved to the current
+     * snapshot asynchronously. Once this method returns {@code true}, the
+     * entries of the view are traversed and serialized on another thread,
+     * concurrently with the processor, which can resume processing right
+     * away. The entries are restored the same way as those offered by {@link
+     * #offerToSnapshot(Object, Object)}.
+     * <p>
+     * The processor must not modify the view, nor the keys and values it
+     * returns, after offering it. Typically the processor hands over its
+     * current state and copies the parts it modifies later (copy-on-write).
+     * <p>
+     * This method may only be called from the {@link
+     * Processor#saveToSnapshot()} method and only if {@link
+     * Processor.Context#asyncSnapshotsEnabled()} returns {@code true}.
+     *
+     * @return {@code true} if the outbox accepted the view
+     */
+    @CheckReturnValue
+    boolean offerSnapshotView(@Nonnull Traverser<? extends Entry<?, ?>> view);
+
     /**
      * Offers the item to all edges. See {@link #offer(int, Object)} for more
      * details.
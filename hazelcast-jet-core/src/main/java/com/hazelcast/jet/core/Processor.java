@@ -230,6 +230,45 @@ public interface Processor {
         return true;
     }
 
+    /**
+     * Tells whether this processor saves its state incrementally. If it
+     * returns {@code true}, then in a snapshot for which {@link
+     * Outbox#isSnapshotIncremental()} returns {@code true} the processor must
+     * only offer the entries that changed since the previous snapshot and
+     * call {@link Outbox#offerRemovalToSnapshot(Object)} for the keys it
+     * removed since then. See {@link
+     * com.hazelcast.jet.config.JobConfig#setMaxIncrementalSnapshots(int)}.
+     * <p>
+     * The processor can use {@link Context#incrementalSnapshotsEnabled()} to
+     * decide whether it needs to track the changes to its state.
+     * <p>
+     * The default implementation returns {@code false}: the processor saves
+     * its full state to every snapshot.
+     */
+    default boolean supportsIncrementalSnapshot() {
+        return false;
+    }
+
+    /**
+     * Called after the snapshot with the given ID was successfully stored on
+     * all members. All the snapshots the processor saved up to and including
+     * that one are complete: a sink that prepared its output in {@link
+     * #saveToSnapshot()} can make it visible now, because the job will never
+     * be restored to a state before it. The ID can be compared to the {@link
+     * Outbox#snapshotId() ID of the snapshot} the processor saved. A call may
+     * be skipped, if the next snapshot completes before it's delivered.
+     * <p>
+     * It's called between the {@link #process(int, Inbox) process()} calls,
+     * when the inbox is empty, or between the {@link #complete()} calls. If it
+     * returns {@code false}, it will be called again before proceeding to call
+     * any other method.
+     * <p>
+     * The default implementation takes no action and returns {@code true}.
+     */
+    default boolean onSnapshotCommitted(long snapshotId) {
+        return true;
+    }
+
     /**
      * Context passed to the processor in the
      * {@link #init(Outbox, Context) init()} call.
@@ -271,5 +310,23 @@ public interface Processor {
          * Returns the guarantee for current job.
          */
         ProcessingGuarantee processingGuarantee();
+
+        /**
+         * Returns true, if the job takes incremental snapshots, see {@link
+         * com.hazelcast.jet.config.JobConfig#setMaxIncrementalSnapshots(int)}.
+         */
+        default boolean incrementalSnapshotsEnabled() {
+            return false;
+        }
+
+        /**
+         * Returns true, if the processor may save its state asynchronously
+         * using {@link Outbox#offerSnapshotView(com.hazelcast.jet.Traverser)},
+         * see {@link
+         * com.hazelcast.jet.config.JobConfig#setAsyncSnapshotsEnabled(boolean)}.
+         */
+        default boolean asyncSnapshotsEnabled() {
+            return false;
+        }
     }
 }
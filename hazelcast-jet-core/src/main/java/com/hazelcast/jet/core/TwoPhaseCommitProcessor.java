@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.core;
+
+import com.hazelcast.jet.Traverser;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map.Entry;
+
+import static com.hazelcast.jet.Traversers.traverseIterable;
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.core.BroadcastKey.broadcastKey;
+import static com.hazelcast.jet.impl.util.ExceptionUtil.sneakyThrow;
+
+/**
+ * Base class for sinks that write their output in transactions tied to the
+ * job's snapshots, so that with the {@link
+ * com.hazelcast.jet.config.ProcessingGuarantee#EXACTLY_ONCE exactly-once}
+ * guarantee no output is duplicated after the job restarts.
+ * <p>
+ * The items are written to the current transaction, which isn't visible
+ * to the readers of the output. When the processor saves its state to a
+ * snapshot, it <em>pre-commits</em> the transaction: its output must
+ * become durable, but stay invisible. The pre-committed transactions are
+ * saved to the snapshot and committed when the master marks the snapshot
+ * as successful, see {@link Processor#onSnapshotCommitted(long)}. A
+ * snapshot that fails to complete is covered by the next successful one.
+ * <p>
+ * When the job restarts from a snapshot, the transactions saved to it are
+ * committed again: they were pre-committed, but the job might have stopped
+ * before committing them. Each transaction is committed by one processor,
+ * the one whose index is equal to the index of the processor which saved
+ * it modulo the {@link Context#totalParallelism() total parallelism}, in
+ * the order of the snapshots. Therefore {@link #commit} must be idempotent.
+ * Then the processor calls {@link #abortStaleTransactions()} to roll back
+ * the transactions of the previous executions which weren't saved to the
+ * snapshot, their input will be processed again.
+ * <p>
+ * When the input completes, the processor commits all its transactions.
+ * If the job is restarted after that because another vertex fails, the
+ * output written since the last snapshot will be duplicated. Without
+ * snapshots, there's nothing to tie the transactions to and each batch of
+ * input is committed after it's written.
+ *
+ * @param <T> type of the input items
+ * @param <TXN> type of the transaction handle. It's saved to the snapshot,
+ *             so it must be serializable.
+ */
+public abstract class TwoPhaseCommitProcessor<T, TXN> extends AbstractProcessor {
+
+    // the pre-committed transactions with the ID of the snapshot they were
+    // saved to, oldest first
+    private final Deque<Entry<Long, TXN>> preCommitted = new ArrayDeque<>();
+    // the restored transactions this processor commits, with their snapshot IDs
+    private final List<Entry<Long, TXN>> restored = new ArrayList<>();
+    private TXN currentTxn;
+    private boolean snapshotsEnabled;
+    private int processorIndex;
+    private int totalParallelism;
+    private boolean staleTransactionsAborted;
+    private Traverser<Entry<BroadcastKey<Entry<Integer, Long>>, TXN>> snapshotTraverser;
+
+    /**
+     * Subclasses overriding this method must call the super method.
+     */
+    @Override
+    protected void init(@Nonnull Context context) throws Exception {
+        snapshotsEnabled = context.snapshottingEnabled();
+        processorIndex = context.globalProcessorIndex();
+        totalParallelism = context.totalParallelism();
+    }
+
+    /**
+     * Starts a new transaction. It's called before writing the first item
+     * after the previous transaction was pre-committed.
+     */
+    @Nonnull
+    protected abstract TXN beginTransaction() throws Exception;
+
+    /**
+     * Writes the item to the transaction.
+     */
+    protected abstract void write(@Nonnull TXN txn, @Nonnull T item) throws Exception;
+
+    /**
+     * Makes the output written to the transaction durable, but not yet
+     * visible. No more items are written to it.
+     */
+    protected abstract void preCommit(@Nonnull TXN txn) throws Exception;
+
+    /**
+     * Makes the output of a pre-committed transaction visible. It must be
+     * idempotent: it may be called again for a transaction that is already
+     * committed, also from another processor after the job restarts.
+     */
+    protected abstract void commit(@Nonnull TXN txn) throws Exception;
+
+    /**
+     * Rolls back the transactions started by the previous executions of the
+     * job which are not going to be committed. It's called once, after the
+     * transactions from the restored snapshot were committed and before any
+     * other transaction method. An implementation can only abort the
+     * transactions started by the processors whose index is equal to its
+     * own {@link Context#globalProcessorIndex() processor index} modulo the
+     * {@link Context#totalParallelism() total parallelism}: the other
+     * processors could still be using or committing theirs.
+     */
+    protected abstract void abortStaleTransactions() throws Exception;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected final boolean tryProcess(int ordinal, @Nonnull Object item) throws Exception {
+        ensureStaleTransactionsAborted();
+        if (currentTxn == null) {
+            currentTxn = beginTransaction();
+        }
+        write(currentTxn, (T) item);
+        return true;
+    }
+
+    @Override
+    public boolean tryProcess() {
+        if (!snapshotsEnabled && currentTxn != null) {
+            try {
+                preCommit(currentTxn);
+                commit(currentTxn);
+            } catch (Exception e) {
+                throw sneakyThrow(e);
+            }
+            currentTxn = null;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean saveToSnapshot() {
+        if (snapshotTraverser == null) {
+            try {
+                ensureStaleTransactionsAborted();
+                if (currentTxn != null) {
+                    preCommit(currentTxn);
+                    preCommitted.add(entry(getOutbox().snapshotId(), currentTxn));
+                    currentTxn = null;
+                }
+            } catch (Exception e) {
+                throw sneakyThrow(e);
+            }
+            // the key is unique, as each snapshot pre-commits at most one transaction of this processor
+            snapshotTraverser = traverseIterable(preCommitted)
+                    .map(e -> entry(broadcastKey(entry(processorIndex, e.getKey())), e.getValue()));
+        }
+        if (!emitFromTraverserToSnapshot(snapshotTraverser)) {
+            return false;
+        }
+        snapshotTraverser = null;
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void restoreFromSnapshot(@Nonnull Object key, @Nonnull Object value) {
+        Entry<Integer, Long> txnKey = ((BroadcastKey<Entry<Integer, Long>>) key).key();
+        if (txnKey.getKey() % totalParallelism == processorIndex) {
+            restored.add(entry(txnKey.getValue(), (TXN) value));
+        }
+    }
+
+    @Override
+    public boolean finishSnapshotRestore() {
+        // the snapshot is complete, so its transactions can be committed
+        restored.sort(Entry.comparingByKey());
+        try {
+            for (Entry<Long, TXN> e : restored) {
+                commit(e.getValue());
+            }
+        } catch (Exception e) {
+            throw sneakyThrow(e);
+        }
+        restored.clear();
+        return true;
+    }
+
+    @Override
+    public boolean onSnapshotCommitted(long snapshotId) {
+        try {
+            while (!preCommitted.isEmpty() && preCommitted.peek().getKey() <= snapshotId) {
+                commit(preCommitted.peek().getValue());
+                preCommitted.remove();
+            }
+        } catch (Exception e) {
+            throw sneakyThrow(e);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean complete() {
+        try {
+            ensureStaleTransactionsAborted();
+            if (currentTxn != null) {
+                preCommit(currentTxn);
+                preCommitted.add(entry(Long.MAX_VALUE, currentTxn));
+                currentTxn = null;
+            }
+        } catch (Exception e) {
+            throw sneakyThrow(e);
+        }
+        return onSnapshotCommitted(Long.MAX_VALUE);
+    }
+
+    private void ensureStaleTransactionsAborted() throws Exception {
+        if (!staleTransactionsAborted) {
+            abortStaleTransactions();
+            staleTransactionsAborted = true;
+        }
+    }
+}
@@ -43,6 +43,15 @@ import static java.lang.Math.floorMod;
  * A frame is labelled with its timestamp, which is the first timestamp
  * value beyond the range covered by the frame. That timestamp denotes the
  * exact moment on the event timeline where the frame was closed.
+ * <p>
+ * By default a window is emitted only once, when the watermark passes its
+ * end. The definition can additionally request <em>early results</em>:
+ * periodic partial results for the windows that are still open, emitted
+ * either after a period of processing time or after a number of received
+ * items. Each subsequent result for the same window and key supersedes the
+ * previous one, the last one being the final result emitted on watermark.
+ * Early results are computed from the same frames that make up the final
+ * result, so they don't require any additional accumulator state.
  */
 public class WindowDefinition implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -50,16 +59,32 @@ public class WindowDefinition implements Serializable {
     private final long frameLength;
     private final long frameOffset;
     private final long windowLength;
+    private final long earlyResultsPeriod;
+    private final long earlyResultsItemCount;
+    private final long allowedLateness;
 
     WindowDefinition(long frameLength, long frameOffset, long framesPerWindow) {
+        this(frameLength, frameOffset, framesPerWindow, 0, 0, 0);
+    }
+
+    private WindowDefinition(
+            long frameLength, long frameOffset, long framesPerWindow,
+            long earlyResultsPeriod, long earlyResultsItemCount, long allowedLateness
+    ) {
         checkPositive(frameLength, "frameLength must be positive");
         checkNotNegative(frameOffset, "frameOffset must not be negative");
         checkTrue(frameOffset < frameLength, "frameOffset must be less than frameLength");
         checkPositive(framesPerWindow, "framesPerWindow must be positive");
+        checkNotNegative(earlyResultsPeriod, "earlyResultsPeriod must not be negative");
+        checkNotNegative(earlyResultsItemCount, "earlyResultsItemCount must not be negative");
+        checkNotNegative(allowedLateness, "allowedLateness must not be negative");
 
         this.frameLength = frameLength;
         this.frameOffset = frameOffset;
         this.windowLength = frameLength * framesPerWindow;
+        this.earlyResultsPeriod = earlyResultsPeriod;
+        this.earlyResultsItemCount = earlyResultsItemCount;
+        this.allowedLateness = allowedLateness;
     }
 
     /**
@@ -94,6 +119,41 @@ public class WindowDefinition implements Serializable {
         return windowLength == frameLength;
     }
 
+    /**
+     * Returns the period in milliseconds of processing time after which the
+     * windowing processor emits early results for the windows that are
+     * still open. Zero means that no time-based early results are emitted.
+     */
+    public long earlyResultsPeriod() {
+        return earlyResultsPeriod;
+    }
+
+    /**
+     * Returns the number of received items after which the windowing
+     * processor emits early results for the windows that are still open.
+     * Zero means that no count-based early results are emitted.
+     */
+    public long earlyResultsItemCount() {
+        return earlyResultsItemCount;
+    }
+
+    /**
+     * Returns the allowed lateness: how far behind the watermark an event
+     * may be and still update the windows it belongs to. See {@link
+     * #withAllowedLateness(long)}.
+     */
+    public long allowedLateness() {
+        return allowedLateness;
+    }
+
+    /**
+     * Tells whether this definition requests early results by either
+     * processing time or item count.
+     */
+    public boolean hasEarlyResults() {
+        return earlyResultsPeriod > 0 || earlyResultsItemCount > 0;
+    }
+
     /**
      * Returns the highest frame timestamp less than or equal to the given
      * timestamp. If there is no such {@code long} value, returns {@code
@@ -128,15 +188,61 @@ public class WindowDefinition implements Serializable {
      * ...}
      */
     public WindowDefinition withOffset(long offset) {
-        return new WindowDefinition(frameLength, offset, windowLength / frameLength);
+        return new WindowDefinition(frameLength, offset, windowLength / frameLength,
+                earlyResultsPeriod, earlyResultsItemCount, allowedLateness);
+    }
+
+    /**
+     * Returns a new window definition that additionally requests early
+     * results for the still-open windows every {@code periodMillis}
+     * milliseconds of processing time. The processor only emits early
+     * results if it received some items since the previous emission.
+     *
+     * @param periodMillis the period of early results, zero disables them
+     */
+    public WindowDefinition withEarlyResultsPeriod(long periodMillis) {
+        return new WindowDefinition(frameLength, frameOffset, windowLength / frameLength,
+                periodMillis, earlyResultsItemCount, allowedLateness);
+    }
+
+    /**
+     * Returns a new window definition that additionally requests early
+     * results for the still-open windows after every {@code itemCount}
+     * received items.
+     *
+     * @param itemCount the number of items between early results, zero disables them
+     */
+    public WindowDefinition withEarlyResultsItemCount(long itemCount) {
+        return new WindowDefinition(frameLength, frameOffset, windowLength / frameLength,
+                earlyResultsPeriod, itemCount, allowedLateness);
+    }
+
+    /**
+     * Returns a new window definition with the given allowed lateness. The
+     * windowing processor keeps the frames of an already emitted window for
+     * {@code allowedLateness} past the window's end. If an event for such a
+     * window arrives, the processor emits a corrected result of the affected
+     * windows for the event's key. Events later than that are dropped.
+     * <p>
+     * The processor that inserts the watermarks must be configured with at
+     * least the same allowed lateness, otherwise it drops the late events
+     * before they can reach the windowing processor.
+     *
+     * @param allowedLateness the allowed lateness, zero means that no late events are accepted
+     */
+    public WindowDefinition withAllowedLateness(long allowedLateness) {
+        return new WindowDefinition(frameLength, frameOffset, windowLength / frameLength,
+                earlyResultsPeriod, earlyResultsItemCount, allowedLateness);
     }
 
     /**
      * Converts this definition to one defining a tumbling window of the
-     * same length as this definition's frame.
+     * same length as this definition's frame. The early results and allowed
+     * lateness settings are retained.
      */
     public WindowDefinition toTumblingByFrame() {
-        return new WindowDefinition(frameLength, frameOffset, 1);
+        return new WindowDefinition(frameLength, frameOffset, 1,
+                earlyResultsPeriod, earlyResultsItemCount, allowedLateness);
     }
 
     /**
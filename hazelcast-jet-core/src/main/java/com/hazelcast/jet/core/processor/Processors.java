@@ -44,12 +44,15 @@ import com.hazelcast.jet.impl.util.WrappingProcessorMetaSupplier;
 import com.hazelcast.jet.impl.util.WrappingProcessorSupplier;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map.Entry;
 
 import static com.hazelcast.jet.core.TimestampKind.EVENT;
 import static com.hazelcast.jet.function.DistributedFunction.identity;
 import static com.hazelcast.jet.function.DistributedFunctions.noopConsumer;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
 
 /**
  * Static utility class with factory methods for Jet processors. These
@@ -175,7 +178,18 @@ import static com.hazelcast.jet.function.DistributedFunctions.noopConsumer;
  *     <td>{@link #accumulateByFrameP(DistributedFunction, DistributedToLongFunction,
  *          TimestampKind, WindowDefinition, AggregateOperation1)
  *          accumulateByFrame()}</td>
- *     <td>{@link #combineToSlidingWindowP(WindowDefinition, AggregateOperation1)
+ *     <td>{@link #combineToSlidingWindowP(WindowDefinition, AggregateOperation)
+ *          combineToSlidingWindow()}</td>
+ * </tr><tr>
+ *     <th>stream, co-group by key<br>and aligned window</th>
+ *
+ *     <td>{@link #coAggregateToSlidingWindowP(List, List, TimestampKind,
+ *          WindowDefinition, AggregateOperation)
+ *          coAggregateToSlidingWindow()}</td>
+ *     <td>{@link #coAccumulateByFrameP(List, List, TimestampKind,
+ *          WindowDefinition, AggregateOperation)
+ *          coAccumulateByFrame()}</td>
+ *     <td>{@link #combineToSlidingWindowP(WindowDefinition, AggregateOperation)
  *          combineToSlidingWindow()}</td>
  * </tr><tr>
  *     <th>stream, group by key<br>and session window</th>
@@ -428,6 +442,12 @@ public final class Processors {
      * windows. The type of emitted items is {@link TimestampedEntry
      * TimestampedEntry&lt;K, A>} so there is one item per key per window position.
      * <p>
+     * If the window definition {@link WindowDefinition#hasEarlyResults()
+     * requests early results}, the processor additionally emits the current
+     * result of all the windows that are still open whenever the configured
+     * period elapses or the configured number of items is received. Later
+     * results for the same window and key supersede the earlier ones.
+     * <p>
      * <i>Behavior on job restart</i><br>
      * This processor saves its state to snapshot. After restart, it can
      * continue accumulating where it left off.
@@ -446,10 +466,46 @@ public final class Processors {
             @Nonnull WindowDefinition windowDef,
             @Nonnull AggregateOperation1<? super T, A, R> aggrOp
     ) {
-        return Processors.<T, K, A, R>aggregateByKeyAndWindowP(getKeyFn, getTimestampFn, timestampKind,
+        return aggregateByKeyAndWindowP(singletonList(getKeyFn), singletonList(getTimestampFn), timestampKind,
                 windowDef, aggrOp, true);
     }
 
+    /**
+     * Returns a supplier of processors for a vertex that co-groups events from
+     * several inbound edges into a sliding window in a single stage. This is
+     * the multi-input variant of {@link #aggregateToSlidingWindowP(
+     *      DistributedFunction, DistributedToLongFunction, TimestampKind,
+     *      WindowDefinition, AggregateOperation1)
+     * aggregateToSlidingWindow()}: the key-extracting and timestamp-extracting
+     * functions at index {@code i} apply to the items received on ordinal
+     * {@code i}, as does the accumulate primitive {@code
+     * aggrOp.accumulateFn(i)}.
+     * <p>
+     * <i>Behavior on job restart</i><br>
+     * This processor saves its state to snapshot. After restart, it can
+     * continue accumulating where it left off.
+     *
+     * @param getKeyFs functions that extract the grouping key, one per inbound edge
+     * @param getTimestampFs functions that extract the timestamp, one per inbound edge
+     * @param timestampKind the kind of timestamp extracted by {@code getTimestampFs}
+     * @param windowDef definition of the window to compute
+     * @param aggrOp the aggregate operation to perform
+     * @param <K> type of the grouping key
+     * @param <A> type of the accumulator
+     * @param <R> type of the finished result returned from {@code aggrOp.
+     *            finishAccumulationFn()}
+     */
+    @Nonnull
+    public static <K, A, R> DistributedSupplier<Processor> coAggregateToSlidingWindowP(
+            @Nonnull List<DistributedFunction<?, ? extends K>> getKeyFs,
+            @Nonnull List<DistributedToLongFunction<?>> getTimestampFs,
+            @Nonnull TimestampKind timestampKind,
+            @Nonnull WindowDefinition windowDef,
+            @Nonnull AggregateOperation<A, R> aggrOp
+    ) {
+        return aggregateByKeyAndWindowP(getKeyFs, getTimestampFs, timestampKind, windowDef, aggrOp, true);
+    }
+
     /**
      * Returns a supplier of processors for the first-stage vertex in a
      * two-stage sliding window aggregation setup (see the {@link Processors
@@ -471,6 +527,11 @@ public final class Processors {
      * The type of emitted items is {@link TimestampedEntry
      * TimestampedEntry&lt;K, A>} so there is one item per key per frame.
      * <p>
+     * If the window definition {@link WindowDefinition#hasEarlyResults()
+     * requests early results}, the processor also flushes the current state
+     * of all its frames to the second stage whenever the configured period
+     * elapses or the configured number of items is received.
+     * <p>
      * When a state snapshot is requested, the state is flushed to second-stage
      * processor and nothing is saved to snapshot.
      *
@@ -486,9 +547,46 @@ public final class Processors {
             @Nonnull TimestampKind timestampKind,
             @Nonnull WindowDefinition windowDef,
             @Nonnull AggregateOperation1<? super T, A, ?> aggrOp
+    ) {
+        return coAccumulateByFrameP(singletonList(getKeyFn), singletonList(getTimestampFn), timestampKind,
+                windowDef, aggrOp);
+    }
+
+    /**
+     * Returns a supplier of processors for the first-stage vertex in a
+     * two-stage sliding window co-grouping setup. This is the multi-input
+     * variant of {@link #accumulateByFrameP(
+     *      DistributedFunction, DistributedToLongFunction,
+     *      TimestampKind, WindowDefinition, AggregateOperation1)
+     * accumulateByFrame()}: the key-extracting and timestamp-extracting
+     * functions at index {@code i} apply to the items received on ordinal
+     * {@code i}, as does the accumulate primitive {@code
+     * aggrOp.accumulateFn(i)}. The second stage is the same {@link
+     * #combineToSlidingWindowP(WindowDefinition, AggregateOperation)
+     * combineToSlidingWindow()} as in the single-input case.
+     * <p>
+     * When a state snapshot is requested, the state is flushed to second-stage
+     * processor and nothing is saved to snapshot.
+     *
+     * @param getKeyFs functions that extract the grouping key, one per inbound edge
+     * @param getTimestampFs functions that extract the timestamp, one per inbound edge
+     * @param timestampKind the kind of timestamp extracted by {@code getTimestampFs}
+     * @param windowDef definition of the window to compute
+     * @param aggrOp the aggregate operation to perform
+     * @param <K> type of the grouping key
+     * @param <A> type of accumulator returned from {@code aggrOp.
+     *            createAccumulatorFn()}
+     */
+    @Nonnull
+    public static <K, A> DistributedSupplier<Processor> coAccumulateByFrameP(
+            @Nonnull List<DistributedFunction<?, ? extends K>> getKeyFs,
+            @Nonnull List<DistributedToLongFunction<?>> getTimestampFs,
+            @Nonnull TimestampKind timestampKind,
+            @Nonnull WindowDefinition windowDef,
+            @Nonnull AggregateOperation<A, ?> aggrOp
     ) {
         WindowDefinition tumblingByFrame = windowDef.toTumblingByFrame();
-        return Processors.<T, K, A, A>aggregateByKeyAndWindowP(getKeyFn, getTimestampFn, timestampKind, tumblingByFrame,
+        return aggregateByKeyAndWindowP(getKeyFs, getTimestampFs, timestampKind, tumblingByFrame,
                 aggrOp.withFinishFn(identity()), false
         );
     }
@@ -515,6 +613,12 @@ public final class Processors {
      * windows. The type of emitted items is {@link TimestampedEntry
      * TimestampedEntry&lt;K, A>} so there is one item per key per window position.
      * <p>
+     * If the window definition {@link WindowDefinition#hasEarlyResults()
+     * requests early results}, the processor additionally emits the current
+     * result of all the windows that are still open whenever the configured
+     * period elapses or the configured number of items is received. Later
+     * results for the same window and key supersede the earlier ones.
+     * <p>
      * <i>Behavior on job restart</i><br>
      * This processor saves its state to snapshot. After restart, it can
      * continue accumulating where it left off.
@@ -532,10 +636,12 @@ public final class Processors {
     @Nonnull
     public static <K, A, R> DistributedSupplier<Processor> combineToSlidingWindowP(
             @Nonnull WindowDefinition windowDef,
-            @Nonnull AggregateOperation1<?, A, R> aggrOp
+            @Nonnull AggregateOperation<A, R> aggrOp
     ) {
         return aggregateByKeyAndWindowP(
-                TimestampedEntry::getKey, TimestampedEntry::getTimestamp, TimestampKind.FRAME,
+                singletonList((DistributedFunction<TimestampedEntry<K, A>, K>) TimestampedEntry::getKey),
+                singletonList((DistributedToLongFunction<TimestampedEntry<K, A>>) TimestampedEntry::getTimestamp),
+                TimestampKind.FRAME,
                 windowDef, aggrOp.withCombiningAccumulateFn(TimestampedEntry<K, A>::getValue), true
         );
     }
@@ -545,38 +651,51 @@ public final class Processors {
      * group-by-key-and-window operation and applies the provided aggregate
      * operation on groups.
      *
-     * @param getKeyFn function that extracts the grouping key from the input item
-     * @param getTimestampFn function that extracts the timestamp from the input item
-     * @param timestampKind the kind of timestamp extracted by {@code getTimestampFn}: either the
+     * @param getKeyFs functions that extract the grouping key from the input item,
+     *                 one per inbound edge
+     * @param getTimestampFs functions that extract the timestamp from the input item,
+     *                       one per inbound edge
+     * @param timestampKind the kind of timestamp extracted by {@code getTimestampFs}: either the
      *                      event timestamp or the frame timestamp
      * @param windowDef definition of the window to compute
      * @param aggrOp aggregate operation to perform on each group in a window
      * @param isLastStage if this is the last stage of multi-stage setup
      *
-     * @param <T> type of stream item
      * @param <K> type of grouping key
      * @param <A> type of the aggregate operation's accumulator
      * @param <R> type of the aggregated result
      */
     @Nonnull
-    private static <T, K, A, R> DistributedSupplier<Processor> aggregateByKeyAndWindowP(
-            @Nonnull DistributedFunction<? super T, K> getKeyFn,
-            @Nonnull DistributedToLongFunction<? super T> getTimestampFn,
+    private static <K, A, R> DistributedSupplier<Processor> aggregateByKeyAndWindowP(
+            @Nonnull List<? extends DistributedFunction<?, ? extends K>> getKeyFs,
+            @Nonnull List<? extends DistributedToLongFunction<?>> getTimestampFs,
             @Nonnull TimestampKind timestampKind,
             @Nonnull WindowDefinition windowDef,
-            @Nonnull AggregateOperation1<? super T, A, R> aggrOp,
+            @Nonnull AggregateOperation<A, R> aggrOp,
             boolean isLastStage
     ) {
-        return () -> new SlidingWindowP<T, A, R>(
-                getKeyFn,
-                timestampKind == EVENT
-                        ? item -> windowDef.higherFrameTs(getTimestampFn.applyAsLong(item))
-                        : getTimestampFn,
+        List<DistributedToLongFunction<?>> getFrameTsFs = timestampKind == EVENT
+                ? getTimestampFs.stream()
+                                .map(f -> toFrameTimestampFn(windowDef, f))
+                                .collect(toList())
+                : new ArrayList<>(getTimestampFs);
+        return () -> new SlidingWindowP<Object, A, R>(
+                getKeyFs,
+                getFrameTsFs,
                 windowDef,
                 aggrOp,
                 isLastStage);
     }
 
+    @SuppressWarnings("unchecked")
+    private static DistributedToLongFunction<?> toFrameTimestampFn(
+            @Nonnull WindowDefinition windowDef,
+            @Nonnull DistributedToLongFunction<?> getTimestampFn
+    ) {
+        DistributedToLongFunction<Object> getTsFn = (DistributedToLongFunction<Object>) getTimestampFn;
+        return item -> windowDef.higherFrameTs(getTsFn.applyAsLong(item));
+    }
+
     /**
      * Returns a supplier of processors for a vertex that aggregates events into
      * session windows. Events and windows under different grouping keys are
@@ -629,7 +748,10 @@ public final class Processors {
      * WatermarkPolicy} instance.
      * <p>
      * This processor also drops late items. It never allows an event, which is
-     * late with regard to already emitted watermark to pass.
+     * late with regard to already emitted watermark to pass. See {@link
+     * #insertWatermarksP(DistributedToLongFunction, DistributedSupplier,
+     * WatermarkEmissionPolicy, long, boolean)} for a variant that lets
+     * slightly late events pass and can route the rest to a separate edge.
      * <p>
      * The processor saves value of the last emitted watermark to snapshot.
      * Different instances of this processor can be at different watermark at
@@ -653,6 +775,40 @@ public final class Processors {
         return () -> new InsertWatermarksP<>(getTimestampF, newWmPolicyF.get(), wmEmitPolicy);
     }
 
+    /**
+     * Returns a supplier of processors for a vertex that inserts {@link
+     * com.hazelcast.jet.core.Watermark watermark items} into the stream and
+     * tolerates late events. It behaves like {@link
+     * #insertWatermarksP(DistributedToLongFunction, DistributedSupplier,
+     * WatermarkEmissionPolicy) insertWatermarksP()}, but lets an event pass
+     * if its timestamp is at most {@code allowedLateness} behind the current
+     * watermark. Use it together with a {@link
+     * WindowDefinition#withAllowedLateness(long) window definition} with the
+     * same allowed lateness.
+     * <p>
+     * If {@code emitLateEvents} is {@code false}, the events that are later
+     * than allowed are dropped. If it is {@code true}, the vertex must have
+     * two outbound edges: the stream items and watermarks are emitted to
+     * ordinal 0 and the events that are later than allowed to ordinal 1.
+     *
+     * @param allowedLateness how far behind the watermark an event may be
+     * @param emitLateEvents whether to emit the events that are later than
+     *                       allowed to ordinal 1 instead of dropping them
+     * @param <T> the type of the stream item
+     */
+    @Nonnull
+    public static <T> DistributedSupplier<Processor> insertWatermarksP(
+            @Nonnull DistributedToLongFunction<T> getTimestampF,
+            @Nonnull DistributedSupplier<WatermarkPolicy> newWmPolicyF,
+            @Nonnull WatermarkEmissionPolicy wmEmitPolicy,
+            long allowedLateness,
+            boolean emitLateEvents
+    ) {
+        int lateEventsOrdinal = emitLateEvents ? 1 : InsertWatermarksP.DROP_LATE_EVENTS;
+        return () -> new InsertWatermarksP<>(getTimestampF, newWmPolicyF.get(), wmEmitPolicy,
+                allowedLateness, lateEventsOrdinal);
+    }
+
     /**
      * Returns a supplier of processors for a vertex which, for each received
      * item, emits the result of applying the given mapping function to it. If
@@ -17,17 +17,23 @@
 package com.hazelcast.jet.core.processor;
 
 import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.jet.FileCompression;
+import com.hazelcast.jet.SocketFraming;
 import com.hazelcast.jet.core.ProcessorMetaSupplier;
 import com.hazelcast.jet.core.ProcessorSupplier;
+import com.hazelcast.jet.datamodel.Schema;
 import com.hazelcast.jet.function.DistributedBiConsumer;
 import com.hazelcast.jet.function.DistributedBiFunction;
 import com.hazelcast.jet.function.DistributedBinaryOperator;
 import com.hazelcast.jet.function.DistributedConsumer;
 import com.hazelcast.jet.function.DistributedFunction;
 import com.hazelcast.jet.function.DistributedIntFunction;
+import com.hazelcast.jet.function.DistributedToLongFunction;
 import com.hazelcast.jet.impl.connector.HazelcastWriters;
 import com.hazelcast.jet.impl.connector.WriteBufferedP;
 import com.hazelcast.jet.impl.connector.WriteFileP;
+import com.hazelcast.jet.impl.connector.WriteRollingFileP;
+import com.hazelcast.jet.impl.connector.WriteSocketChannelP;
 import com.hazelcast.map.EntryProcessor;
 import java.io.BufferedWriter;
 import java.io.IOException;
@@ -35,12 +41,14 @@ import java.io.OutputStreamWriter;
 import java.net.Socket;
 import java.nio.charset.Charset;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import static com.hazelcast.jet.core.ProcessorMetaSupplier.dontParallelize;
 import static com.hazelcast.jet.function.DistributedFunctions.noopConsumer;
 import static com.hazelcast.jet.impl.util.ExceptionUtil.sneakyThrow;
 import static com.hazelcast.jet.impl.util.Util.uncheckCall;
 import static com.hazelcast.jet.impl.util.Util.uncheckRun;
+import static com.hazelcast.util.Preconditions.checkPositive;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
@@ -70,6 +78,26 @@ public final class SinkProcessors {
         return HazelcastWriters.writeMapP(mapName, clientConfig);
     }
 
+    /**
+     * Returns a supplier of processors for
+     * {@link com.hazelcast.jet.Sinks#mapTransactional(String)}.
+     */
+    @Nonnull
+    public static ProcessorMetaSupplier writeMapTransactionalP(@Nonnull String mapName) {
+        return HazelcastWriters.writeMapTransactionalP(mapName, null);
+    }
+
+    /**
+     * Returns a supplier of processors for
+     * {@link com.hazelcast.jet.Sinks#remoteMapTransactional(String, ClientConfig)}.
+     */
+    @Nonnull
+    public static ProcessorMetaSupplier writeRemoteMapTransactionalP(
+            @Nonnull String mapName, @Nonnull ClientConfig clientConfig
+    ) {
+        return HazelcastWriters.writeMapTransactionalP(mapName, clientConfig);
+    }
+
     /**
      * Returns a supplier of processors for
      * {@link com.hazelcast.jet.Sinks#mapWithMerging(String, DistributedFunction, DistributedFunction,
@@ -224,6 +252,20 @@ public final class SinkProcessors {
         ));
     }
 
+    /**
+     * Returns a supplier of processors for
+     * {@link com.hazelcast.jet.Sinks#socket(String, int, SocketFraming, DistributedFunction)}.
+     */
+    @Nonnull
+    public static <T> ProcessorMetaSupplier writeSocketChannelP(
+            @Nonnull String host,
+            int port,
+            @Nonnull SocketFraming framing,
+            @Nonnull DistributedFunction<? super T, byte[]> toBytesFn
+    ) {
+        return WriteSocketChannelP.metaSupplier(host, port, framing, toBytesFn);
+    }
+
     /**
      * Returns a supplier of processors for
      * {@link com.hazelcast.jet.Sinks#files(String, DistributedFunction, Charset, boolean)}.
@@ -235,7 +277,22 @@ public final class SinkProcessors {
             @Nonnull Charset charset,
             boolean append
     ) {
-        return WriteFileP.metaSupplier(directoryName, toStringFn, charset.name(), append);
+        return writeFileP(directoryName, toStringFn, charset, append, FileCompression.NONE);
+    }
+
+    /**
+     * Returns a supplier of processors for
+     * {@link com.hazelcast.jet.Sinks#files(String, DistributedFunction, Charset, boolean, FileCompression)}.
+     */
+    @Nonnull
+    public static <T> ProcessorMetaSupplier writeFileP(
+            @Nonnull String directoryName,
+            @Nonnull DistributedFunction<T, String> toStringFn,
+            @Nonnull Charset charset,
+            boolean append,
+            @Nonnull FileCompression compression
+    ) {
+        return WriteFileP.metaSupplier(directoryName, toStringFn, charset.name(), append, compression);
     }
 
     /**
@@ -258,6 +315,66 @@ public final class SinkProcessors {
         return writeFileP(directoryName, Object::toString, UTF_8, false);
     }
 
+    /**
+     * Returns a supplier of processors for {@link
+     * com.hazelcast.jet.Sinks#rollingFiles(String, DistributedFunction, Charset, long,
+     * DistributedToLongFunction, long, FileCompression)}. If {@code timestampFn}
+     * is {@code null}, the files are only rolled by size.
+     */
+    @Nonnull
+    public static <T> ProcessorMetaSupplier writeRollingFileP(
+            @Nonnull String directoryName,
+            @Nonnull DistributedFunction<? super T, String> toStringFn,
+            @Nonnull Charset charset,
+            long maxFileSize,
+            @Nullable DistributedToLongFunction<? super T> timestampFn,
+            long bucketSize,
+            @Nonnull FileCompression compression
+    ) {
+        checkPositive(maxFileSize, "maxFileSize must be positive");
+        if (timestampFn != null) {
+            checkPositive(bucketSize, "bucketSize must be positive");
+        }
+        return WriteRollingFileP.metaSupplier(directoryName, toStringFn, charset.name(), maxFileSize,
+                timestampFn, bucketSize, compression);
+    }
+
+    /**
+     * Returns a supplier of processors for
+     * {@link com.hazelcast.jet.Sinks#filesTransactional(String, DistributedFunction, Charset)}.
+     */
+    @Nonnull
+    public static <T> ProcessorMetaSupplier writeFileTransactionalP(
+            @Nonnull String directoryName,
+            @Nonnull DistributedFunction<T, String> toStringFn,
+            @Nonnull Charset charset
+    ) {
+        return WriteFileP.transactionalMetaSupplier(directoryName, toStringFn, charset.name());
+    }
+
+    /**
+     * Returns a supplier of processors for
+     * {@link com.hazelcast.jet.Sinks#csvFiles(String, Schema, Charset)}.
+     */
+    @Nonnull
+    public static ProcessorMetaSupplier writeCsvFileP(
+            @Nonnull String directoryName, @Nonnull Schema schema, @Nonnull Charset charset
+    ) {
+        return WriteFileP.csvMetaSupplier(directoryName, schema, charset.name());
+    }
+
+    /**
+     * Returns a supplier of processors for
+     * {@link com.hazelcast.jet.Sinks#columnChunkFiles(String, Schema, int)}.
+     */
+    @Nonnull
+    public static ProcessorMetaSupplier writeColumnChunkFileP(
+            @Nonnull String directoryName, @Nonnull Schema schema, int rowGroupSize
+    ) {
+        checkPositive(rowGroupSize, "rowGroupSize must be positive");
+        return WriteFileP.columnChunkMetaSupplier(directoryName, schema, rowGroupSize);
+    }
+
     /**
      * Returns a supplier of processors for a vertex that drains all the items
      * from its inbox to an intermediate buffer and then flushes the buffer.
@@ -18,22 +18,32 @@ package com.hazelcast.jet.core.processor;
 
 import com.hazelcast.cache.journal.EventJournalCacheEvent;
 import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.jet.FileCompression;
 import com.hazelcast.jet.JournalInitialPosition;
+import com.hazelcast.jet.SocketFraming;
 import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.datamodel.Schema;
 import com.hazelcast.jet.function.DistributedFunction;
 import com.hazelcast.jet.function.DistributedPredicate;
+import com.hazelcast.jet.impl.connector.ReadColumnarFilesP;
+import com.hazelcast.jet.impl.connector.ReadFileRangesP;
 import com.hazelcast.jet.impl.connector.ReadFilesP;
 import com.hazelcast.jet.impl.connector.ReadIListP;
+import com.hazelcast.jet.impl.connector.ReadMappedFilesP;
 import com.hazelcast.jet.impl.connector.ReadWithPartitionIteratorP;
 import com.hazelcast.jet.impl.connector.StreamEventJournalP;
 import com.hazelcast.jet.impl.connector.StreamFilesP;
 import com.hazelcast.jet.impl.connector.StreamSocketP;
+import com.hazelcast.jet.impl.connector.StreamSocketsP;
 import com.hazelcast.map.journal.EventJournalMapEvent;
 import com.hazelcast.projection.Projection;
 import com.hazelcast.query.Predicate;
 
 import javax.annotation.Nonnull;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.util.List;
 import java.util.Map.Entry;
 
 import static com.hazelcast.jet.Util.cacheEventToEntry;
@@ -86,6 +96,32 @@ public final class SourceProcessors {
         return ReadWithPartitionIteratorP.readMapP(mapName, predicate, toProjection(projectionFn));
     }
 
+    /**
+     * Returns a supplier of processors for
+     * {@link com.hazelcast.jet.Sources#mapIndexed(String, Predicate, Projection)}.
+     */
+    @Nonnull
+    public static <K, V, T> ProcessorMetaSupplier readMapIndexedP(
+            @Nonnull String mapName,
+            @Nonnull Predicate<K, V> predicate,
+            @Nonnull Projection<Entry<K, V>, T> projection
+    ) {
+        return ReadWithPartitionIteratorP.readMapIndexedP(mapName, predicate, projection);
+    }
+
+    /**
+     * Returns a supplier of processors for
+     * {@link com.hazelcast.jet.Sources#mapIndexed(String, Predicate, DistributedFunction)}.
+     */
+    @Nonnull
+    public static <K, V, T> ProcessorMetaSupplier readMapIndexedP(
+            @Nonnull String mapName,
+            @Nonnull Predicate<K, V> predicate,
+            @Nonnull DistributedFunction<Entry<K, V>, T> projectionFn
+    ) {
+        return ReadWithPartitionIteratorP.readMapIndexedP(mapName, predicate, toProjection(projectionFn));
+    }
+
 
     /**
      * Returns a supplier of processors for
@@ -286,6 +322,32 @@ public final class SourceProcessors {
         return StreamSocketP.supplier(host, port, charset.name());
     }
 
+    /**
+     * Returns a supplier of processors for
+     * {@link com.hazelcast.jet.Sources#sockets(List, SocketFraming, DistributedFunction)}.
+     */
+    @Nonnull
+    public static <T> ProcessorMetaSupplier streamSocketsP(
+            @Nonnull List<InetSocketAddress> addresses,
+            @Nonnull SocketFraming framing,
+            @Nonnull DistributedFunction<? super ByteBuffer, T> parseFn
+    ) {
+        return StreamSocketsP.connectingSupplier(addresses, framing, parseFn);
+    }
+
+    /**
+     * Returns a supplier of processors for
+     * {@link com.hazelcast.jet.Sources#serverSocket(int, SocketFraming, DistributedFunction)}.
+     */
+    @Nonnull
+    public static <T> ProcessorMetaSupplier streamServerSocketP(
+            int port,
+            @Nonnull SocketFraming framing,
+            @Nonnull DistributedFunction<? super ByteBuffer, T> parseFn
+    ) {
+        return StreamSocketsP.listeningSupplier(port, framing, parseFn);
+    }
+
     /**
      * Returns a supplier of processors for
      * {@link com.hazelcast.jet.Sources#files(String, Charset, String)}.
@@ -294,7 +356,65 @@ public final class SourceProcessors {
     public static ProcessorMetaSupplier readFilesP(
             @Nonnull String directory, @Nonnull Charset charset, @Nonnull String glob
     ) {
-        return ReadFilesP.metaSupplier(directory, charset.name(), glob);
+        return readFilesP(directory, charset, glob, FileCompression.AUTO);
+    }
+
+    /**
+     * Returns a supplier of processors for
+     * {@link com.hazelcast.jet.Sources#files(String, Charset, String, FileCompression)}.
+     */
+    @Nonnull
+    public static ProcessorMetaSupplier readFilesP(
+            @Nonnull String directory, @Nonnull Charset charset, @Nonnull String glob,
+            @Nonnull FileCompression compression
+    ) {
+        return ReadFilesP.metaSupplier(directory, charset.name(), glob, compression);
+    }
+
+    /**
+     * Returns a supplier of processors for
+     * {@link com.hazelcast.jet.Sources#fileRanges(String, Charset, String, boolean)}.
+     */
+    @Nonnull
+    public static ProcessorMetaSupplier readFileRangesP(
+            @Nonnull String directory, @Nonnull Charset charset, @Nonnull String glob, boolean sharedFileSystem
+    ) {
+        return ReadFileRangesP.metaSupplier(directory, charset.name(), glob, sharedFileSystem);
+    }
+
+    /**
+     * Returns a supplier of processors for
+     * {@link com.hazelcast.jet.Sources#mappedFiles(String, String, DistributedFunction)}.
+     */
+    @Nonnull
+    public static <T> ProcessorMetaSupplier readMappedFilesP(
+            @Nonnull String directory, @Nonnull String glob,
+            @Nonnull DistributedFunction<? super ByteBuffer, T> parseFn
+    ) {
+        return ReadMappedFilesP.metaSupplier(directory, glob, parseFn);
+    }
+
+    /**
+     * Returns a supplier of processors for
+     * {@link com.hazelcast.jet.Sources#csvFiles(String, Charset, String, Schema, boolean, String...)}.
+     */
+    @Nonnull
+    public static ProcessorMetaSupplier readCsvFilesP(
+            @Nonnull String directory, @Nonnull Charset charset, @Nonnull String glob,
+            @Nonnull Schema schema, boolean hasHeader, @Nonnull String... columns
+    ) {
+        return ReadColumnarFilesP.csvMetaSupplier(directory, charset.name(), glob, schema, hasHeader, columns);
+    }
+
+    /**
+     * Returns a supplier of processors for
+     * {@link com.hazelcast.jet.Sources#columnChunkFiles(String, String, String...)}.
+     */
+    @Nonnull
+    public static ProcessorMetaSupplier readColumnChunkFilesP(
+            @Nonnull String directory, @Nonnull String glob, @Nonnull String... columns
+    ) {
+        return ReadColumnarFilesP.columnChunkMetaSupplier(directory, glob, columns);
     }
 
     /**
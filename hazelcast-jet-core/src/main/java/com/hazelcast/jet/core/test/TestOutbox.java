@@ -18,6 +18,7 @@ package com.hazelcast.jet.core.test;
 
 import com.hazelcast.core.ManagedContext;
 import com.hazelcast.core.PartitioningStrategy;
+import com.hazelcast.jet.Traverser;
 import com.hazelcast.jet.core.Outbox;
 import com.hazelcast.jet.impl.execution.OutboundCollector;
 import com.hazelcast.jet.impl.execution.OutboxImpl;
@@ -32,6 +33,7 @@ import java.util.Arrays;
 import java.util.Map.Entry;
 import java.util.Queue;
 
+import static com.hazelcast.jet.Util.entry;
 import static com.hazelcast.util.Preconditions.checkNotNegative;
 
 /**
@@ -43,6 +45,7 @@ public final class TestOutbox implements Outbox {
 
     private final Queue<Object>[] buckets;
     private final Queue<Entry<MockData, MockData>> snapshotQueue = new ArrayDeque<>();
+    private final Queue<Traverser<? extends Entry<?, ?>>> snapshotViews = new ArrayDeque<>();
     private final OutboxImpl outbox;
 
     /**
@@ -116,6 +119,49 @@ public final class TestOutbox implements Outbox {
         return outbox.offerToSnapshot(key, value);
     }
 
+    @Override
+    public boolean offerRemovalToSnapshot(@Nonnull Object key) {
+        return outbox.offerRemovalToSnapshot(key);
+    }
+
+    /**
+     * Accepts the view without traversing it. Its entries are added to the
+     * {@link #snapshotQueue()} when the queue is accessed, so that the test
+     * can modify the processor's state in between, as if the view was saved
+     * asynchronously.
+     */
+    @Override
+    public boolean offerSnapshotView(@Nonnull Traverser<? extends Entry<?, ?>> view) {
+        snapshotViews.add(view);
+        return true;
+    }
+
+    @Override
+    public boolean isSnapshotIncremental() {
+        return outbox.isSnapshotIncremental();
+    }
+
+    /**
+     * Sets whether the snapshot the processor saves is incremental, see
+     * {@link Outbox#isSnapshotIncremental()}. The default is {@code false}.
+     */
+    public void setSnapshotIncremental(boolean snapshotIncremental) {
+        outbox.setSnapshotIncremental(snapshotIncremental);
+    }
+
+    @Override
+    public long snapshotId() {
+        return outbox.snapshotId();
+    }
+
+    /**
+     * Sets the ID of the snapshot the processor saves, see {@link
+     * Outbox#snapshotId()}. The default is -1.
+     */
+    public void setSnapshotId(long snapshotId) {
+        outbox.setSnapshotId(snapshotId);
+    }
+
     /**
      * Exposes individual buckets to the testing code.
      * @param ordinal ordinal of the bucket
@@ -128,6 +174,11 @@ public final class TestOutbox implements Outbox {
      * Returns the queue to which snapshot is written.
      */
     public Queue<Entry<MockData, MockData>> snapshotQueue() {
+        for (Traverser<? extends Entry<?, ?>> view; (view = snapshotViews.poll()) != null; ) {
+            for (Entry<?, ?> e; (e = view.next()) != null; ) {
+                snapshotQueue.add(entry(new MockData(e.getKey()), new MockData(e.getValue())));
+            }
+        }
         return snapshotQueue;
     }
 
@@ -34,6 +34,8 @@ public class TestProcessorContext implements Processor.Context {
     private String vertexName = "testVertex";
     private int globalProcessorIndex;
     private ProcessingGuarantee processingGuarantee = ProcessingGuarantee.NONE;
+    private boolean incrementalSnapshotsEnabled;
+    private boolean asyncSnapshotsEnabled;
 
     /**
      * Constructor with default values.
@@ -107,4 +109,30 @@ public class TestProcessorContext implements Processor.Context {
         this.processingGuarantee = processingGuarantee;
         return this;
     }
+
+    @Override
+    public boolean incrementalSnapshotsEnabled() {
+        return incrementalSnapshotsEnabled;
+    }
+
+    /**
+     * Sets whether the job takes incremental snapshots.
+     */
+    public TestProcessorContext setIncrementalSnapshotsEnabled(boolean incrementalSnapshotsEnabled) {
+        this.incrementalSnapshotsEnabled = incrementalSnapshotsEnabled;
+        return this;
+    }
+
+    @Override
+    public boolean asyncSnapshotsEnabled() {
+        return asyncSnapshotsEnabled;
+    }
+
+    /**
+     * Sets whether the processors may save their state asynchronously.
+     */
+    public TestProcessorContext setAsyncSnapshotsEnabled(boolean asyncSnapshotsEnabled) {
+        this.asyncSnapshotsEnabled = asyncSnapshotsEnabled;
+        return this;
+    }
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.datamodel;
+
+import javax.annotation.Nonnull;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.hazelcast.util.Preconditions.checkNotNull;
+
+/**
+ * The names and types of the columns of tabular data, used by the
+ * columnar file sources and sinks such as {@link
+ * com.hazelcast.jet.Sources#csvFiles}. A row is represented as an {@code
+ * Object[]} with one element for each column, in the order of the schema.
+ * A {@code null} element is a missing value.
+ */
+public final class Schema implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String[] names;
+    private final ColumnType[] types;
+
+    private Schema(String[] names, ColumnType[] types) {
+        this.names = names;
+        this.types = types;
+    }
+
+    /**
+     * Returns a builder of a new schema.
+     */
+    @Nonnull
+    public static Builder schemaBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the number of columns.
+     */
+    public int columnCount() {
+        return names.length;
+    }
+
+    /**
+     * Returns the name of the column at the given index.
+     */
+    @Nonnull
+    public String columnName(int index) {
+        return names[index];
+    }
+
+    /**
+     * Returns the type of the column at the given index.
+     */
+    @Nonnull
+    public ColumnType columnType(int index) {
+        return types[index];
+    }
+
+    /**
+     * Returns the index of the column with the given name.
+     *
+     * @throws IllegalArgumentException if there's no such column
+     */
+    public int columnIndex(@Nonnull String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Column '" + name + "' not found in " + this);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Schema)) {
+            return false;
+        }
+        Schema that = (Schema) obj;
+        return Arrays.equals(names, that.names) && Arrays.equals(types, that.types);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(names) + Arrays.hashCode(types);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Schema{");
+        for (int i = 0; i < names.length; i++) {
+            sb.append(i > 0 ? ", " : "").append(names[i]).append(' ').append(types[i]);
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * The type of a column. The values of the column in a row are instances
+     * of the corresponding Java class.
+     */
+    public enum ColumnType {
+        /** The values are {@code String}s. */
+        STRING,
+        /** The values are {@code Integer}s. */
+        INT,
+        /** The values are {@code Long}s. */
+        LONG,
+        /** The values are {@code Double}s. */
+        DOUBLE,
+        /** The values are {@code Boolean}s. */
+        BOOLEAN
+    }
+
+    /**
+     * A builder of {@link Schema}, see {@link #schemaBuilder()}.
+     */
+    public static final class Builder {
+
+        private final List<String> names = new ArrayList<>();
+        private final List<ColumnType> types = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a column with the given name and type after the previously
+         * added columns.
+         */
+        @Nonnull
+        public Builder addColumn(@Nonnull String name, @Nonnull ColumnType type) {
+            checkNotNull(name, "name");
+            checkNotNull(type, "type");
+            if (names.contains(name)) {
+                throw new IllegalArgumentException("Duplicate column '" + name + '\'');
+            }
+            names.add(name);
+            types.add(type);
+            return this;
+        }
+
+        /**
+         * Returns the schema with the added columns.
+         */
+        @Nonnull
+        public Schema build() {
+            return new Schema(names.toArray(new String[0]), types.toArray(new ColumnType[0]));
+        }
+    }
+}
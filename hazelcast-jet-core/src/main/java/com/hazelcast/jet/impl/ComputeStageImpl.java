@@ -17,6 +17,9 @@
 package com.hazelcast.jet.impl;
 
 import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.core.WatermarkEmissionPolicy;
+import com.hazelcast.jet.core.WatermarkPolicy;
+import com.hazelcast.jet.core.WindowDefinition;
 import com.hazelcast.jet.Traverser;
 import com.hazelcast.jet.aggregate.AggregateOperation1;
 import com.hazelcast.jet.aggregate.AggregateOperation2;
@@ -24,6 +27,7 @@ import com.hazelcast.jet.aggregate.AggregateOperation3;
 import com.hazelcast.jet.function.DistributedFunction;
 import com.hazelcast.jet.function.DistributedPredicate;
 import com.hazelcast.jet.function.DistributedSupplier;
+import com.hazelcast.jet.function.DistributedToLongFunction;
 import com.hazelcast.jet.ComputeStage;
 import com.hazelcast.jet.JoinClause;
 import com.hazelcast.jet.Sink;
@@ -31,6 +35,8 @@ import com.hazelcast.jet.SinkStage;
 import com.hazelcast.jet.Source;
 import com.hazelcast.jet.Stage;
 import com.hazelcast.jet.Transform;
+import com.hazelcast.jet.datamodel.Session;
+import com.hazelcast.jet.datamodel.TimestampedEntry;
 import com.hazelcast.jet.datamodel.Tuple2;
 import com.hazelcast.jet.datamodel.Tuple3;
 import com.hazelcast.jet.impl.transform.CoGroupTransform;
@@ -38,10 +44,13 @@ import com.hazelcast.jet.impl.transform.FilterTransform;
 import com.hazelcast.jet.impl.transform.FlatMapTransform;
 import com.hazelcast.jet.impl.transform.GroupByTransform;
 import com.hazelcast.jet.impl.transform.HashJoinTransform;
+import com.hazelcast.jet.impl.transform.InsertWatermarksTransform;
 import com.hazelcast.jet.impl.transform.MapTransform;
 import com.hazelcast.jet.impl.transform.MultiTransform;
 import com.hazelcast.jet.impl.transform.PeekTransform;
 import com.hazelcast.jet.impl.transform.ProcessorTransform;
+import com.hazelcast.jet.impl.transform.SessionWindowTransform;
+import com.hazelcast.jet.impl.transform.SlidingWindowTransform;
 import com.hazelcast.jet.impl.transform.UnaryTransform;
 
 import javax.annotation.Nonnull;
@@ -130,6 +139,54 @@ public class ComputeStageImpl<E> extends AbstractStage implements ComputeStage<E
         return attach(new CoGroupTransform<K, A, R>(asList(thisKeyFn, key1Fn, key2Fn), aggrOp), asList(stage1, stage2));
     }
 
+    @Override
+    public ComputeStage<E> insertWatermarks(
+            @Nonnull DistributedToLongFunction<? super E> timestampFn,
+            @Nonnull DistributedSupplier<WatermarkPolicy> wmPolicyFn,
+            @Nonnull WatermarkEmissionPolicy wmEmitPolicy,
+            long allowedLateness
+    ) {
+        return attach(new InsertWatermarksTransform<>(timestampFn, wmPolicyFn, wmEmitPolicy, allowedLateness));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, A, R> ComputeStage<TimestampedEntry<K, R>> slidingWindow(
+            @Nonnull DistributedFunction<? super E, ? extends K> keyFn,
+            @Nonnull DistributedToLongFunction<? super E> timestampFn,
+            @Nonnull WindowDefinition wDef,
+            @Nonnull AggregateOperation1<? super E, A, R> aggrOp
+    ) {
+        return attach(new SlidingWindowTransform<K, A, R>(
+                singletonList(keyFn), singletonList(timestampFn), wDef, aggrOp), emptyList());
+    }
+
+    @Override
+    public <K, A, R> ComputeStage<Session<K, R>> sessionWindow(
+            @Nonnull DistributedFunction<? super E, ? extends K> keyFn,
+            @Nonnull DistributedToLongFunction<? super E> timestampFn,
+            long sessionTimeout,
+            @Nonnull AggregateOperation1<? super E, A, R> aggrOp
+    ) {
+        return attach(new SessionWindowTransform<>(keyFn, timestampFn, sessionTimeout, aggrOp));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, A, E1, R> ComputeStage<TimestampedEntry<K, R>> windowCoGroup(
+            @Nonnull DistributedFunction<? super E, ? extends K> thisKeyFn,
+            @Nonnull DistributedToLongFunction<? super E> thisTimestampFn,
+            @Nonnull ComputeStage<E1> stage1,
+            @Nonnull DistributedFunction<? super E1, ? extends K> key1Fn,
+            @Nonnull DistributedToLongFunction<? super E1> timestamp1Fn,
+            @Nonnull WindowDefinition wDef,
+            @Nonnull AggregateOperation2<? super E, ? super E1, A, R> aggrOp
+    ) {
+        return attach(new SlidingWindowTransform<K, A, R>(
+                asList(thisKeyFn, key1Fn), asList(thisTimestampFn, timestamp1Fn), wDef, aggrOp),
+                singletonList(stage1));
+    }
+
     @Override
     public ComputeStage<E> peek(
             @Nonnull DistributedPredicate<? super E> shouldLogFn,
@@ -27,6 +27,7 @@ import com.hazelcast.jet.core.JobNotFoundException;
 import com.hazelcast.jet.core.JobStatus;
 import com.hazelcast.jet.impl.deployment.JetClassLoader;
 import com.hazelcast.jet.impl.execution.SnapshotRecord.SnapshotStatus;
+import com.hazelcast.jet.impl.execution.SnapshotStats;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.spi.exception.RetryableHazelcastException;
@@ -35,6 +36,7 @@ import com.hazelcast.spi.impl.executionservice.InternalExecutionService;
 import com.hazelcast.spi.properties.HazelcastProperties;
 import com.hazelcast.util.Clock;
 
+import javax.annotation.Nullable;
 import java.security.PrivilegedAction;
 import java.util.Collection;
 import java.util.HashMap;
@@ -43,6 +45,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -54,6 +57,7 @@ import static com.hazelcast.jet.core.JobStatus.RUNNING;
 import static com.hazelcast.jet.impl.execution.SnapshotRecord.SnapshotStatus.FAILED;
 import static com.hazelcast.jet.impl.execution.SnapshotRecord.SnapshotStatus.SUCCESSFUL;
 import static com.hazelcast.jet.impl.util.JetGroupProperty.JOB_SCAN_PERIOD;
+import static com.hazelcast.jet.impl.util.LoggingUtil.logFine;
 import static com.hazelcast.jet.impl.util.Util.idToString;
 import static com.hazelcast.jet.impl.util.Util.jobAndExecutionId;
 import static com.hazelcast.util.executor.ExecutorType.CACHED;
@@ -392,14 +396,27 @@ public class JobCoordinationService {
     }
 
     /**
-     * Completes the job which is coordinated with the given master context object.
+     * Completes the job which is coordinated with the given master context
+     * object. Returns the final failure of the job: the given error or, if
+     * the job otherwise succeeded or was cancelled, the failure to export its
+     * savepoint.
      */
-    void completeJob(MasterContext masterContext, long executionId, long completionTime, Throwable error) {
+    @Nullable
+    Throwable completeJob(MasterContext masterContext, long executionId, long completionTime, Throwable error) {
         // the order of operations is important.
 
         long jobId = masterContext.getJobId();
         String coordinator = nodeEngine.getNode().getThisUuid();
 
+        // export before the job's snapshots are deleted with the job
+        String savepointName = masterContext.getJobConfig().getSavepointName();
+        if (savepointName != null) {
+            Throwable exportFailure = exportSavepoint(jobId, savepointName);
+            if (exportFailure != null && (error == null || error instanceof CancellationException)) {
+                error = exportFailure;
+            }
+        }
+
         jobRepository.completeJob(jobId, coordinator, completionTime, error);
 
         if (masterContexts.remove(masterContext.getJobId(), masterContext)) {
@@ -413,6 +430,28 @@ public class JobCoordinationService {
                 logger.severe("No master context found to complete " + jobAndExecutionId(jobId, executionId));
             }
         }
+        return error;
+    }
+
+    /**
+     * Exports the latest snapshot of the job as a savepoint. Returns the
+     * failure to export it, or null.
+     */
+    @Nullable
+    private Throwable exportSavepoint(long jobId, String savepointName) {
+        try {
+            if (snapshotRepository.exportSavepoint(jobId, savepointName)) {
+                logger.info("State of job " + idToString(jobId) + " exported as savepoint '" + savepointName + '\'');
+            } else {
+                logger.warning("No complete snapshot of job " + idToString(jobId) + " to export as savepoint '"
+                        + savepointName + '\'');
+            }
+            return null;
+        } catch (Exception e) {
+            logger.severe("Exporting savepoint '" + savepointName + "' of job " + idToString(jobId) + " failed", e);
+            return new JetException("Exporting savepoint '" + savepointName + "' of job " + idToString(jobId)
+                    + " failed: " + e, e);
+        }
     }
 
     /**
@@ -432,7 +471,7 @@ public class JobCoordinationService {
     void scheduleSnapshot(long jobId, long executionId) {
         MasterContext masterContext = masterContexts.get(jobId);
         if (masterContext != null) {
-            long snapshotInterval = masterContext.getJobConfig().getSnapshotIntervalMillis();
+            long snapshotInterval = masterContext.snapshotIntervalPolicy().nextIntervalMillis();
             InternalExecutionService executionService = nodeEngine.getExecutionService();
             if (logger.isFineEnabled()) {
                 logger.fine(jobAndExecutionId(jobId, executionId) + " snapshot is scheduled in "
@@ -465,22 +504,32 @@ public class JobCoordinationService {
         }
     }
 
-    void completeSnapshot(long jobId, long executionId, long snapshotId, boolean isSuccess) {
+    void completeSnapshot(long jobId, long executionId, long snapshotId, boolean isSuccess, SnapshotStats stats) {
         MasterContext masterContext = masterContexts.get(jobId);
         if (masterContext != null) {
             try {
                 SnapshotStatus status = isSuccess ? SUCCESSFUL : FAILED;
-                long elapsed = snapshotRepository.setSnapshotStatus(jobId, snapshotId, status);
-                logger.info(String.format("Snapshot %s for job %s completed with status %s in %dms", snapshotId,
-                        idToString(jobId), status, elapsed));
+                long elapsed = snapshotRepository.setSnapshotStatus(jobId, snapshotId, status, stats);
+                logger.info(String.format("Snapshot %s for job %s completed with status %s in %dms, "
+                                + "%d entries, %d bytes", snapshotId, idToString(jobId), status, elapsed,
+                        stats.totalEntries(), stats.totalBytes()));
+                logFine(logger, "Snapshot %s for job %s: %s", snapshotId, idToString(jobId), stats);
+                if (isSuccess) {
+                    masterContext.snapshotIntervalPolicy().snapshotCompleted(elapsed);
+                }
             } catch (Exception e) {
                 logger.warning("Cannot update snapshot status for " + jobAndExecutionId(jobId, executionId) + " snapshot "
                         + snapshotId + " isSuccess: " + isSuccess);
                 return;
             }
+            if (isSuccess) {
+                masterContext.commitSnapshot(executionId, snapshotId);
+            }
             try {
                 if (isSuccess) {
-                    snapshotRepository.deleteAllSnapshotsExceptOne(jobId, snapshotId);
+                    // keep the snapshots the new one builds upon, a full snapshot compacts the chain
+                    List<Long> snapshotChain = snapshotRepository.snapshotChain(jobId, snapshotId);
+                    snapshotRepository.deleteAllSnapshotsExcept(jobId, snapshotChain);
                 } else {
                     snapshotRepository.deleteSingleSnapshot(jobId, snapshotId);
                 }
@@ -20,18 +20,28 @@ import com.hazelcast.core.ExecutionCallback;
 import com.hazelcast.internal.cluster.MemberInfo;
 import com.hazelcast.internal.cluster.impl.ClusterServiceImpl;
 import com.hazelcast.internal.cluster.impl.MembersView;
+import com.hazelcast.jet.JetException;
 import com.hazelcast.jet.config.JobConfig;
 import com.hazelcast.jet.config.ProcessingGuarantee;
+import com.hazelcast.jet.config.SnapshotStorage;
 import com.hazelcast.jet.core.BroadcastKey;
 import com.hazelcast.jet.core.DAG;
+import com.hazelcast.jet.core.DefaultPartitionStrategy;
 import com.hazelcast.jet.core.Edge;
 import com.hazelcast.jet.core.JobStatus;
+import com.hazelcast.jet.core.Partitioner;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
 import com.hazelcast.jet.core.TopologyChangedException;
 import com.hazelcast.jet.core.Vertex;
 import com.hazelcast.jet.function.DistributedFunction;
 import com.hazelcast.jet.impl.execution.BroadcastEntry;
+import com.hazelcast.jet.impl.execution.PartitionedEntry;
+import com.hazelcast.jet.impl.execution.SavepointRecord;
+import com.hazelcast.jet.impl.execution.SnapshotStats;
+import com.hazelcast.jet.impl.execution.SnapshotStore;
 import com.hazelcast.jet.impl.execution.init.ExecutionPlan;
 import com.hazelcast.jet.impl.operation.CancelExecutionOperation;
+import com.hazelcast.jet.impl.operation.CommitSnapshotOperation;
 import com.hazelcast.jet.impl.operation.CompleteExecutionOperation;
 import com.hazelcast.jet.impl.operation.InitExecutionOperation;
 import com.hazelcast.jet.impl.operation.SnapshotOperation;
@@ -45,6 +55,7 @@ import com.hazelcast.spi.InternalCompletableFuture;
 import com.hazelcast.spi.Operation;
 import com.hazelcast.spi.impl.NodeEngineImpl;
 
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.HashMap;
@@ -69,18 +80,17 @@ import static com.hazelcast.jet.core.JobStatus.NOT_STARTED;
 import static com.hazelcast.jet.core.JobStatus.RESTARTING;
 import static com.hazelcast.jet.core.JobStatus.RUNNING;
 import static com.hazelcast.jet.core.JobStatus.STARTING;
-import static com.hazelcast.jet.core.processor.SourceProcessors.readMapP;
-import static com.hazelcast.jet.function.DistributedFunctions.entryKey;
-import static com.hazelcast.jet.impl.SnapshotRepository.snapshotDataMapName;
+import static com.hazelcast.jet.function.DistributedFunctions.wholeItem;
 import static com.hazelcast.jet.impl.execution.SnapshotContext.NO_SNAPSHOT;
 import static com.hazelcast.jet.impl.execution.init.CustomClassLoadedObject.deserializeWithCustomClassLoader;
 import static com.hazelcast.jet.impl.execution.init.ExecutionPlanBuilder.createExecutionPlans;
+import static com.hazelcast.jet.impl.execution.init.ExecutionPlanBuilder.determineParallelism;
 import static com.hazelcast.jet.impl.util.ExceptionUtil.isTopologicalFailure;
 import static com.hazelcast.jet.impl.util.ExceptionUtil.peel;
 import static com.hazelcast.jet.impl.util.ExceptionUtil.withTryCatch;
+import static com.hazelcast.jet.impl.util.Util.getJetInstance;
 import static com.hazelcast.jet.impl.util.Util.idToString;
 import static com.hazelcast.jet.impl.util.Util.jobAndExecutionId;
-import static com.hazelcast.query.TruePredicate.truePredicate;
 import static java.util.Collections.emptyList;
 import static java.util.stream.Collectors.partitioningBy;
 import static java.util.stream.Collectors.toList;
@@ -102,12 +112,20 @@ public class MasterContext {
     private final CompletableFuture<Void> cancellationFuture = new CompletableFuture<>();
     private final AtomicReference<JobStatus> jobStatus = new AtomicReference<>(NOT_STARTED);
     private final SnapshotRepository snapshotRepository;
+    private final SnapshotIntervalPolicy snapshotIntervalPolicy;
     private volatile Set<Vertex> vertices;
 
     private volatile long executionId;
     private volatile long jobStartTime;
     private volatile Map<MemberInfo, ExecutionPlan> executionPlanMap;
 
+    // The full snapshot the next incremental snapshot builds upon and the
+    // number of incremental snapshots taken since it. NO_SNAPSHOT means the
+    // next snapshot must be full. Snapshots of a job are taken one after
+    // another, the scheduling of the next one publishes the updated values.
+    private long incrementalBaseSnapshotId = NO_SNAPSHOT;
+    private int incrementalSnapshotCount;
+
     MasterContext(NodeEngineImpl nodeEngine, JobCoordinationService coordinationService, JobRecord jobRecord) {
         this.nodeEngine = nodeEngine;
         this.coordinationService = coordinationService;
@@ -115,6 +133,7 @@ public class MasterContext {
         this.logger = nodeEngine.getLogger(getClass());
         this.jobRecord = jobRecord;
         this.jobId = jobRecord.getJobId();
+        this.snapshotIntervalPolicy = new SnapshotIntervalPolicy(jobRecord.getConfig(), logger, jobId);
     }
 
     public long getJobId() {
@@ -173,21 +192,40 @@ public class MasterContext {
 
         // last started snapshot complete or not complete. The next started snapshot must be greater than this number
         long lastSnapshotId = NO_SNAPSHOT;
+        String savepointName = getJobConfig().getInitialSavepointName();
+        boolean restoredFromSnapshot = false;
         if (isSnapshottingEnabled()) {
             Long snapshotIdToRestore = snapshotRepository.latestCompleteSnapshot(jobId);
-            snapshotRepository.deleteAllSnapshotsExceptOne(jobId, snapshotIdToRestore);
+            List<Long> snapshotChain = snapshotIdToRestore != null
+                    ? snapshotRepository.snapshotChain(jobId, snapshotIdToRestore) : emptyList();
+            snapshotRepository.deleteAllSnapshotsExcept(jobId, snapshotChain);
             Long lastStartedSnapshot = snapshotRepository.latestStartedSnapshot(jobId);
+            // the processors start with no record of changes, the first snapshot must be full
+            incrementalBaseSnapshotId = NO_SNAPSHOT;
             if (snapshotIdToRestore != null) {
                 logger.info("State of " + jobIdString() + " will be restored from snapshot "
                         + snapshotIdToRestore);
-                rewriteDagWithSnapshotRestore(dag, snapshotIdToRestore);
-            } else {
+                rewriteDagWithSnapshotRestore(dag, jobId, snapshotChain, getJobConfig().getSnapshotStorage(), null);
+                restoredFromSnapshot = true;
+            } else if (savepointName == null) {
                 logger.warning("No usable snapshot for " + jobIdString() + " found.");
             }
             if (lastStartedSnapshot != null) {
                 lastSnapshotId = lastStartedSnapshot;
             }
         }
+        if (!restoredFromSnapshot && savepointName != null) {
+            SavepointRecord savepoint = snapshotRepository.savepoint(savepointName);
+            if (savepoint == null) {
+                onCompleteStepCompleted(new JetException("Savepoint '" + savepointName + "' to start "
+                        + jobIdString() + " from not found"));
+                return;
+            }
+            logger.info("State of " + jobIdString() + " will be restored from savepoint '" + savepointName
+                    + "' exported by job " + idToString(savepoint.jobId()));
+            rewriteDagWithSnapshotRestore(dag, savepoint.jobId(), savepoint.snapshotChain(), savepoint.storage(),
+                    savepoint.vertices());
+        }
 
         MembersView membersView = getMembersView();
         ClassLoader previousCL = swapContextClassLoader(coordinationService.getClassLoader(jobId));
@@ -211,20 +249,47 @@ public class MasterContext {
         invoke(operationCtor, this::onInitStepCompleted, null);
     }
 
-    private void rewriteDagWithSnapshotRestore(DAG dag, long snapshotId) {
-        logger.info(jobIdString() + ": restoring state from snapshotId=" + snapshotId);
+    /**
+     * Adds a vertex reading the snapshot data to each vertex of the DAG. The
+     * state is looked up by the vertex name, so it can come from another job.
+     *
+     * @param snapshotJobId the ID of the job which took the snapshot
+     * @param snapshotChain the IDs of the snapshot to restore and the
+     *                      snapshots it builds upon, oldest first
+     * @param storage where the snapshot data is stored
+     * @param snapshotVertices the vertices which have state in the snapshot,
+     *                         or null to restore all vertices
+     */
+    private void rewriteDagWithSnapshotRestore(DAG dag, long snapshotJobId, List<Long> snapshotChain,
+                                               SnapshotStorage storage,
+                                               @Nullable Collection<String> snapshotVertices) {
+        long snapshotId = snapshotChain.get(snapshotChain.size() - 1);
+        logger.info(jobIdString() + ": restoring state from snapshotId=" + snapshotId
+                + (snapshotChain.size() > 1 ? ", applied on top of snapshots " + snapshotChain : ""));
+        SnapshotStore snapshotStore = SnapshotStore.forStorage(storage);
+        int defaultParallelism = getJetInstance(nodeEngine).getConfig().getInstanceConfig().getCooperativeThreadCount();
         for (Vertex vertex : dag) {
+            if (snapshotVertices != null && !snapshotVertices.contains(vertex.getName())) {
+                // a vertex added after the savepoint was exported starts with empty state. Reading
+                // it would create the data map of a vertex the savepoint doesn't have, which would
+                // never be deleted.
+                continue;
+            }
             // items with keys of type BroadcastKey need to be broadcast to all processors
             DistributedFunction<Entry<Object, Object>, ?> projection = (Entry<Object, Object> e) ->
                     (e.getKey() instanceof BroadcastKey) ? new BroadcastEntry<>(e) : e;
             // We add the vertex even in case when the map is empty: this ensures, that
             // Processor.finishSnapshotRestore() method is always called on all vertices in
             // a job which is restored from a snapshot.
-            String mapName = snapshotDataMapName(jobId, snapshotId, vertex.getName());
-            Vertex readSnapshotVertex = dag.newVertex("__read_snapshot." + vertex.getName(),
-                    readMapP(mapName, truePredicate(), projection));
+            ProcessorMetaSupplier readSnapshotP = snapshotStore.readSnapshotP(snapshotJobId, snapshotChain,
+                    vertex.getName(), projection);
+            Vertex readSnapshotVertex = dag.newVertex("__read_snapshot." + vertex.getName(), readSnapshotP);
 
-            readSnapshotVertex.localParallelism(vertex.getLocalParallelism());
+            // The readers get the local partitions assigned in the same way as
+            // the processors of the vertex, so with the same parallelism each
+            // processor has its own reader sending it all its entries.
+            readSnapshotVertex.localParallelism(determineParallelism(vertex,
+                    vertex.getMetaSupplier().preferredLocalParallelism(), defaultParallelism));
 
             int destOrdinal = dag.getInboundEdges(vertex.getName()).size();
             dag.edge(new SnapshotRestoreEdge(readSnapshotVertex, vertex, destOrdinal));
@@ -421,15 +486,41 @@ public class MasterContext {
         }
 
         List<String> vertexNames = vertices.stream().map(Vertex::getName).collect(Collectors.toList());
-        long newSnapshotId = snapshotRepository.registerSnapshot(jobId, vertexNames);
+        boolean isIncremental = getJobConfig().isIncrementalSnapshotsEnabled()
+                && incrementalBaseSnapshotId != NO_SNAPSHOT
+                && incrementalSnapshotCount < getJobConfig().getMaxIncrementalSnapshots();
+        long newSnapshotId = snapshotRepository.registerSnapshot(jobId, vertexNames,
+                isIncremental ? incrementalBaseSnapshotId : NO_SNAPSHOT, getJobConfig().getSnapshotStorage());
+        if (isIncremental) {
+            incrementalSnapshotCount++;
+        } else {
+            incrementalBaseSnapshotId = newSnapshotId;
+            incrementalSnapshotCount = 0;
+        }
 
-        logger.info(String.format("Starting snapshot %s for %s", newSnapshotId, jobAndExecutionId(jobId, executionId)));
+        logger.info(String.format("Starting %s snapshot %s for %s", isIncremental ? "incremental" : "full",
+                newSnapshotId, jobAndExecutionId(jobId, executionId)));
         Function<ExecutionPlan, Operation> factory =
-                plan -> new SnapshotOperation(jobId, executionId, newSnapshotId);
+                plan -> new SnapshotOperation(jobId, executionId, newSnapshotId, isIncremental);
 
         invoke(factory, responses -> onSnapshotCompleted(responses, executionId, newSnapshotId), null);
     }
 
+    /**
+     * Notifies the members that the snapshot is committed, see {@link
+     * com.hazelcast.jet.core.Processor#onSnapshotCommitted(long)}.
+     */
+    void commitSnapshot(long executionId, long snapshotId) {
+        if (executionId != this.executionId) {
+            return;
+        }
+        invoke(plan -> new CommitSnapshotOperation(jobId, executionId, snapshotId), responses -> { }, null);
+    }
+
+    SnapshotIntervalPolicy snapshotIntervalPolicy() {
+        return snapshotIntervalPolicy;
+    }
+
     private void onSnapshotCompleted(Map<MemberInfo, Object> responses, long executionId, long snapshotId) {
         Map<Address, Throwable> errors = responses.entrySet().stream()
             .filter(e -> e.getValue() instanceof Throwable)
@@ -440,8 +531,14 @@ public class MasterContext {
         if (!isSuccess) {
             logger.warning(jobAndExecutionId(jobId, executionId) + " snapshot " + snapshotId + " has failures: "
                     + errors);
+            // the failed snapshot is deleted, the next one can't build upon it
+            incrementalBaseSnapshotId = NO_SNAPSHOT;
         }
-        coordinationService.completeSnapshot(jobId, executionId, snapshotId, isSuccess);
+        SnapshotStats stats = new SnapshotStats();
+        responses.values().stream()
+                 .filter(r -> r instanceof SnapshotStats)
+                 .forEach(r -> stats.merge((SnapshotStats) r));
+        coordinationService.completeSnapshot(jobId, executionId, snapshotId, isSuccess, stats);
     }
 
     // Called as callback when all ExecuteOperation invocations are done
@@ -530,13 +627,14 @@ public class MasterContext {
                     + " failed in " + elapsed + " ms", failure);
         }
 
+        Throwable finalFailure = failure;
         try {
-            coordinationService.completeJob(this, executionId, completionTime, failure);
+            finalFailure = coordinationService.completeJob(this, executionId, completionTime, failure);
         } catch (RuntimeException e) {
             logger.warning("Completion of " + jobIdString()
                     + " failed in " + elapsed + " ms", failure);
         } finally {
-            setFinalResult(failure);
+            setFinalResult(finalFailure);
         }
     }
 
@@ -653,7 +751,7 @@ public class MasterContext {
         SnapshotRestoreEdge(Vertex source, Vertex destination, int destOrdinal) {
             super(source, 0, destination, destOrdinal);
             distributed();
-            partitioned(entryKey());
+            partitioned(wholeItem(), new SnapshotRestorePartitioner());
         }
 
         @Override
@@ -662,4 +760,28 @@ public class MasterContext {
         }
     }
 
+    /**
+     * Routes a {@link PartitionedEntry} to the partition it was read from,
+     * which is local to the reader. Other entries are routed by their key
+     * using the default partitioner.
+     */
+    private static class SnapshotRestorePartitioner implements Partitioner<Entry<Object, Object>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Partitioner<Object> defaultPartitioner = Partitioner.defaultPartitioner();
+
+        @Override
+        public void init(@Nonnull DefaultPartitionStrategy strat) {
+            defaultPartitioner.init(strat);
+        }
+
+        @Override
+        public int getPartition(@Nonnull Entry<Object, Object> entry, int partitionCount) {
+            return entry instanceof PartitionedEntry
+                    ? ((PartitionedEntry) entry).partitionId()
+                    : defaultPartitioner.getPartition(entry.getKey(), partitionCount);
+        }
+    }
+
 }
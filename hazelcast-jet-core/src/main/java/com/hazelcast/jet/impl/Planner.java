@@ -27,7 +27,9 @@ import com.hazelcast.jet.core.ProcessorMetaSupplier;
 import com.hazelcast.jet.core.Vertex;
 import com.hazelcast.jet.core.processor.DiagnosticProcessors;
 import com.hazelcast.jet.core.processor.Processors;
+import com.hazelcast.jet.datamodel.TimestampedEntry;
 import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.jet.function.DistributedPredicate;
 import com.hazelcast.jet.function.DistributedSupplier;
 import com.hazelcast.jet.impl.processor.HashJoinCollectP;
 import com.hazelcast.jet.impl.processor.HashJoinP;
@@ -36,9 +38,13 @@ import com.hazelcast.jet.impl.transform.FilterTransform;
 import com.hazelcast.jet.impl.transform.FlatMapTransform;
 import com.hazelcast.jet.impl.transform.GroupByTransform;
 import com.hazelcast.jet.impl.transform.HashJoinTransform;
+import com.hazelcast.jet.impl.transform.InsertWatermarksTransform;
 import com.hazelcast.jet.impl.transform.MapTransform;
 import com.hazelcast.jet.impl.transform.PeekTransform;
 import com.hazelcast.jet.impl.transform.ProcessorTransform;
+import com.hazelcast.jet.impl.transform.SessionWindowTransform;
+import com.hazelcast.jet.impl.transform.SlidingWindowTransform;
+import com.hazelcast.query.Predicate;
 
 import javax.annotation.Nonnull;
 import java.util.HashMap;
@@ -54,8 +60,10 @@ import java.util.function.Function;
 import static com.hazelcast.jet.core.Edge.between;
 import static com.hazelcast.jet.core.Edge.from;
 import static com.hazelcast.jet.core.Partitioner.HASH_CODE;
+import static com.hazelcast.jet.core.TimestampKind.EVENT;
 import static com.hazelcast.jet.function.DistributedFunctions.entryKey;
 import static com.hazelcast.jet.impl.TopologicalSorter.topologicalSort;
+import static com.hazelcast.query.TruePredicate.truePredicate;
 import static java.util.stream.Collectors.toList;
 
 @SuppressWarnings("unchecked")
@@ -64,15 +72,18 @@ class Planner {
     private final PipelineImpl pipeline;
     private final DAG dag = new DAG();
     private final Map<Stage, PlannerVertex> stage2vertex = new HashMap<>();
+    private final Map<Stage, Pushdown> stage2pushdown = new HashMap<>();
 
     private final Set<String> vertexNames = new HashSet<>();
 
+    private Map<Stage, List<Stage>> adjacencyMap;
+
     Planner(PipelineImpl pipeline) {
         this.pipeline = pipeline;
     }
 
     DAG createDag() {
-        Map<Stage, List<Stage>> adjacencyMap = pipeline.adjacencyMap();
+        adjacencyMap = pipeline.adjacencyMap();
         validateNoLeakage(adjacencyMap);
         Iterable<AbstractStage> sorted = (Iterable<AbstractStage>) (Iterable<? extends Stage>)
                 topologicalSort(adjacencyMap, Object::toString);
@@ -94,6 +105,12 @@ class Planner {
                 handleCoGroup(stage, (CoGroupTransform) transform);
             } else if (transform instanceof HashJoinTransform) {
                 handleHashJoin(stage, (HashJoinTransform) transform);
+            } else if (transform instanceof InsertWatermarksTransform) {
+                handleInsertWatermarks(stage, (InsertWatermarksTransform) transform);
+            } else if (transform instanceof SlidingWindowTransform) {
+                handleSlidingWindow(stage, (SlidingWindowTransform) transform);
+            } else if (transform instanceof SessionWindowTransform) {
+                handleSessionWindow(stage, (SessionWindowTransform) transform);
             } else if (transform instanceof PeekTransform) {
                 handlePeek(stage, (PeekTransform) transform);
             } else if (transform instanceof SinkImpl) {
@@ -120,6 +137,9 @@ class Planner {
 
     private void handleSource(AbstractStage stage, SourceImpl source) {
         addVertex(stage, vertexName(source.name(), ""), source.metaSupplier());
+        if (source.supportsPushdown()) {
+            stage2pushdown.put(stage, new Pushdown(source, null, null));
+        }
     }
 
     private void handleProcessorStage(AbstractStage stage, ProcessorTransform procTransform) {
@@ -128,16 +148,42 @@ class Planner {
     }
 
     private void handleMap(AbstractStage stage, MapTransform map) {
+        if (tryPushDown(stage, pushdown -> pushdown.withMap(map.mapFn))) {
+            return;
+        }
         PlannerVertex pv = addVertex(stage, vertexName(map.name(), ""), Processors.mapP(map.mapFn));
         addEdges(stage, pv.v);
     }
 
     private void handleFilter(AbstractStage stage, FilterTransform filter) {
+        if (tryPushDown(stage, pushdown -> pushdown.withFilter(filter.filterFn))) {
+            return;
+        }
         PlannerVertex pv = addVertex(stage, vertexName(filter.name(), ""),
                 Processors.filterP(filter.filterFn));
         addEdges(stage, pv.v);
     }
 
+    /**
+     * Merges the stage into the source vertex of its upstream stage, if the
+     * source supports it and the stage is the only consumer of the upstream
+     * stage. Returns {@code false} if the stage must get its own vertex.
+     */
+    private boolean tryPushDown(AbstractStage stage, Function<Pushdown, Pushdown> mergeFn) {
+        Stage upstream = stage.upstream.get(0);
+        Pushdown pushdown = stage2pushdown.get(upstream);
+        if (pushdown == null || adjacencyMap.get(upstream).size() != 1) {
+            return false;
+        }
+        Pushdown merged = mergeFn.apply(pushdown);
+        PlannerVertex sourcePv = stage2vertex.get(upstream);
+        // The merged stage doesn't add a vertex, so point to the source's vertex:
+        stage2vertex.put(stage, sourcePv);
+        stage2pushdown.put(stage, merged);
+        sourcePv.v.updateMetaSupplier(sup -> merged.metaSupplier());
+        return true;
+    }
+
     private void handleFlatMap(AbstractStage stage, FlatMapTransform flatMap) {
         PlannerVertex pv = addVertex(stage, vertexName(flatMap.name(), ""),
                 Processors.flatMapP(flatMap.flatMapFn()));
@@ -197,6 +243,60 @@ class Planner {
         dag.edge(between(v1, pv2.v).distributed().partitioned(entryKey()));
     }
 
+    private void handleInsertWatermarks(AbstractStage stage, InsertWatermarksTransform<Object> insertWms) {
+        PlannerVertex pv = addVertex(stage, vertexName(insertWms.name(), ""),
+                Processors.insertWatermarksP(insertWms.timestampFn(), insertWms.wmPolicyFn(),
+                        insertWms.wmEmitPolicy(), insertWms.allowedLateness(), false));
+        addEdges(stage, pv.v);
+    }
+
+    //       --------           --------
+    //      | up-1   |  ...    | up-n   |
+    //       --------           --------
+    //           |                  |
+    //      partitioned        partitioned
+    //            \------v  v------/
+    //             ---------------------
+    //            | accumulate-by-frame |
+    //             ---------------------
+    //                       |
+    //                  distributed
+    //                  partitioned
+    //                       v
+    //            ------------------------
+    //           | combine-to-sliding-win |
+    //            ------------------------
+    private void handleSlidingWindow(AbstractStage stage, SlidingWindowTransform<Object, Object, Object> wTransform) {
+        List<DistributedFunction<?, ?>> keyFns = (List) wTransform.keyFns();
+        String namePrefix = vertexName(wTransform.name(), "-stage");
+        Vertex v1 = dag.newVertex(namePrefix + '1',
+                Processors.coAccumulateByFrameP(keyFns, wTransform.timestampFns(), EVENT,
+                        wTransform.windowDefinition(), wTransform.aggregateOperation()));
+        PlannerVertex pv2 = addVertex(stage, namePrefix + '2',
+                Processors.combineToSlidingWindowP(wTransform.windowDefinition(), wTransform.aggregateOperation()));
+        addEdges(stage, v1, (e, ord) -> e.partitioned(keyFns.get(ord), HASH_CODE));
+        dag.edge(between(v1, pv2.v).distributed().partitioned(TimestampedEntry<Object, Object>::getKey));
+    }
+
+    //                       --------
+    //                      | source |
+    //                       --------
+    //                           |
+    //                      distributed
+    //                      partitioned
+    //                           v
+    //                   ----------------
+    //                  | session window |
+    //                   ----------------
+    private void handleSessionWindow(
+            AbstractStage stage, SessionWindowTransform<Object, Object, Object, Object> wTransform
+    ) {
+        PlannerVertex pv = addVertex(stage, vertexName(wTransform.name(), ""),
+                Processors.aggregateToSessionWindowP(wTransform.sessionTimeout(), wTransform.timestampFn(),
+                        wTransform.keyFn(), wTransform.aggregateOperation()));
+        addEdges(stage, pv.v, e -> e.distributed().partitioned(wTransform.keyFn()));
+    }
+
     //         ---------           ----------           ----------
     //        | primary |         | joined-1 |         | joined-2 |
     //         ---------           ----------           ----------
@@ -309,6 +409,55 @@ class Planner {
         return list.subList(1, list.size());
     }
 
+    /**
+     * The filter and map stages merged into a source. The filters preceding
+     * the first map are applied to the entries as a predicate, the rest of
+     * the stages become the projection. A {@code null} result of the
+     * projection means the entry is filtered out.
+     */
+    private static final class Pushdown {
+        final SourceImpl source;
+        final Predicate<Object, Object> predicate;
+        final DistributedFunction<Entry<Object, Object>, Object> projectionFn;
+
+        Pushdown(SourceImpl source, Predicate<Object, Object> predicate,
+                 DistributedFunction<Entry<Object, Object>, Object> projectionFn) {
+            this.source = source;
+            this.predicate = predicate;
+            this.projectionFn = projectionFn;
+        }
+
+        Pushdown withFilter(DistributedPredicate<Object> filterFn) {
+            Predicate<Object, Object> prevPredicate = predicate;
+            DistributedFunction<Entry<Object, Object>, Object> prevProjectionFn = projectionFn;
+            if (prevProjectionFn == null) {
+                return new Pushdown(source, prevPredicate == null
+                        ? entry -> filterFn.test(entry)
+                        : entry -> prevPredicate.apply(entry) && filterFn.test(entry), null);
+            }
+            return new Pushdown(source, prevPredicate, entry -> {
+                Object item = prevProjectionFn.apply(entry);
+                return item != null && filterFn.test(item) ? item : null;
+            });
+        }
+
+        Pushdown withMap(DistributedFunction<Object, Object> mapFn) {
+            DistributedFunction<Entry<Object, Object>, Object> prevProjectionFn = projectionFn;
+            return new Pushdown(source, predicate, prevProjectionFn == null
+                    ? entry -> mapFn.apply(entry)
+                    : entry -> {
+                        Object item = prevProjectionFn.apply(entry);
+                        return item != null ? mapFn.apply(item) : null;
+                    });
+        }
+
+        ProcessorMetaSupplier metaSupplier() {
+            return source.metaSupplier(
+                    predicate != null ? predicate : truePredicate(),
+                    projectionFn != null ? projectionFn : entry -> entry);
+        }
+    }
+
     private static class PlannerVertex {
         Vertex v;
 
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl;
+
+import com.hazelcast.jet.config.JobConfig;
+import com.hazelcast.logging.ILogger;
+
+import static com.hazelcast.jet.impl.util.Util.idToString;
+
+/**
+ * Computes the delay before the next snapshot of a job. With the {@link
+ * JobConfig#setMaxSnapshotTimeFraction(double) adaptive interval}, the
+ * delay follows the smoothed duration of the completed snapshots,
+ * otherwise it's the fixed {@link JobConfig#getSnapshotIntervalMillis()
+ * snapshot interval}.
+ * <p>
+ * Snapshots of a job are taken one after another, so the methods are not
+ * called concurrently.
+ */
+class SnapshotIntervalPolicy {
+
+    /**
+     * The shortest adaptive interval, it limits the snapshot rate of jobs
+     * with a tiny state or a recovery window shorter than their snapshots.
+     */
+    static final long MIN_ADAPTIVE_INTERVAL_MILLIS = 100;
+
+    /**
+     * The weight of the latest snapshot duration in the average.
+     */
+    private static final double SMOOTHING_FACTOR = 0.5;
+
+    private final long fixedIntervalMillis;
+    private final double maxTimeFraction;
+    private final long maxRecoveryWindowMillis;
+    private final ILogger logger;
+    private final long jobId;
+
+    private double avgDurationMillis = -1;
+    private boolean recoveryWindowMissed;
+
+    SnapshotIntervalPolicy(JobConfig config, ILogger logger, long jobId) {
+        this.fixedIntervalMillis = config.getSnapshotIntervalMillis();
+        this.maxTimeFraction = config.getMaxSnapshotTimeFraction();
+        this.maxRecoveryWindowMillis = config.getMaxRecoveryWindowMillis();
+        this.logger = logger;
+        this.jobId = jobId;
+    }
+
+    /**
+     * Records the duration of a successful snapshot.
+     */
+    void snapshotCompleted(long durationMillis) {
+        avgDurationMillis = avgDurationMillis < 0
+                ? durationMillis
+                : SMOOTHING_FACTOR * durationMillis + (1 - SMOOTHING_FACTOR) * avgDurationMillis;
+    }
+
+    /**
+     * Returns the time to wait after the completion of a snapshot before
+     * starting the next one.
+     */
+    long nextIntervalMillis() {
+        if (maxTimeFraction <= 0 || avgDurationMillis < 0) {
+            return fixedIntervalMillis;
+        }
+        // duration / (duration + interval) <= maxTimeFraction
+        long interval = Math.max(MIN_ADAPTIVE_INTERVAL_MILLIS,
+                (long) Math.ceil(avgDurationMillis * (1 - maxTimeFraction) / maxTimeFraction));
+        if (maxRecoveryWindowMillis > 0) {
+            // the input since the start of the last snapshot is replayed after a restart
+            long windowInterval = maxRecoveryWindowMillis - (long) avgDurationMillis;
+            boolean windowMissed = windowInterval < MIN_ADAPTIVE_INTERVAL_MILLIS;
+            if (windowMissed && !recoveryWindowMissed) {
+                logger.warning("Snapshots of job " + idToString(jobId) + " take " + (long) avgDurationMillis
+                        + " ms on average, the max recovery window of " + maxRecoveryWindowMillis
+                        + " ms can't be met. Taking snapshots every " + MIN_ADAPTIVE_INTERVAL_MILLIS + " ms");
+            }
+            recoveryWindowMissed = windowMissed;
+            interval = Math.min(interval, Math.max(MIN_ADAPTIVE_INTERVAL_MILLIS, windowInterval));
+        }
+        return interval;
+    }
+}
@@ -18,21 +18,31 @@ package com.hazelcast.jet.impl;
 
 import com.hazelcast.aggregation.impl.MaxByAggregator;
 import com.hazelcast.core.IMap;
+import com.hazelcast.instance.HazelcastInstanceImpl;
 import com.hazelcast.jet.JetInstance;
+import com.hazelcast.jet.config.SnapshotStorage;
+import com.hazelcast.jet.impl.execution.SavepointRecord;
 import com.hazelcast.jet.impl.execution.SnapshotRecord;
 import com.hazelcast.jet.impl.execution.SnapshotRecord.SnapshotStatus;
+import com.hazelcast.jet.impl.execution.SnapshotStats;
+import com.hazelcast.jet.impl.execution.SnapshotStore;
 import com.hazelcast.jet.stream.IStreamMap;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.query.Predicate;
 
 import javax.annotation.Nullable;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map.Entry;
 
+import static com.hazelcast.jet.Jet.INTERNAL_JET_OBJECTS_PREFIX;
+import static com.hazelcast.jet.impl.execution.SnapshotContext.NO_SNAPSHOT;
 import static com.hazelcast.jet.impl.util.LoggingUtil.logFine;
 import static com.hazelcast.jet.impl.util.LoggingUtil.logFinest;
 import static com.hazelcast.jet.impl.util.Util.compute;
 import static com.hazelcast.jet.impl.util.Util.idToString;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
 
 public class SnapshotRepository {
 
@@ -48,6 +58,13 @@ public class SnapshotRepository {
     public static final String SNAPSHOT_NAME_PREFIX = "__jet.snapshots.";
     public static final String SNAPSHOT_DATA_NAME_PREFIX = SNAPSHOT_NAME_PREFIX + "data.";
 
+    /**
+     * Name of the internal IMap which maps savepoint names to {@link
+     * SavepointRecord}s. The data of a savepoint stays in the snapshot data
+     * maps of the job which exported it.
+     */
+    public static final String SAVEPOINTS_MAP_NAME = INTERNAL_JET_OBJECTS_PREFIX + "savepoints";
+
     // key for the entry that points to the latest snapshot
     private static final long LATEST_STARTED_SNAPSHOT_ID_KEY = -1;
 
@@ -61,14 +78,20 @@ public class SnapshotRepository {
 
     /**
      * Registers a new snapshot. Returns the ID for the registered snapshot
+     *
+     * @param baseSnapshotId the full snapshot the new incremental snapshot
+     *                       builds upon or {@code NO_SNAPSHOT} to register a
+     *                       full snapshot
+     * @param storage where the snapshot data will be stored
      */
-    long registerSnapshot(long jobId, Collection<String> vertexNames) {
+    long registerSnapshot(long jobId, Collection<String> vertexNames, long baseSnapshotId, SnapshotStorage storage) {
         IStreamMap<Long, Object> snapshots = getSnapshotMap(jobId);
 
         SnapshotRecord record;
         do {
             long nextSnapshotId = generateNextSnapshotId(snapshots);
-            record = new SnapshotRecord(jobId, nextSnapshotId, vertexNames);
+            record = new SnapshotRecord(jobId, nextSnapshotId,
+                    baseSnapshotId == NO_SNAPSHOT ? nextSnapshotId : baseSnapshotId, vertexNames, storage);
         } while (snapshots.putIfAbsent(record.snapshotId(), record) != null);
         return record.snapshotId();
     }
@@ -99,14 +122,39 @@ public class SnapshotRepository {
      * Updates status of the given snapshot. Returns the elapsed time for the snapshot.
      */
     long setSnapshotStatus(long jobId, long snapshotId, SnapshotStatus status) {
+        return setSnapshotStatus(jobId, snapshotId, status, null);
+    }
+
+    /**
+     * Updates the status of the snapshot and stores its metrics, if not
+     * null. Returns the time elapsed since the snapshot started.
+     */
+    long setSnapshotStatus(long jobId, long snapshotId, SnapshotStatus status, @Nullable SnapshotStats stats) {
         IStreamMap<Long, SnapshotRecord> snapshots = getSnapshotMap(jobId);
         SnapshotRecord record = compute(snapshots, snapshotId, (k, r) -> {
             r.setStatus(status);
+            if (stats != null) {
+                r.setStats(stats);
+            }
             return r;
         });
         return System.currentTimeMillis() - record.startTime();
     }
 
+    /**
+     * Returns the metrics of the newest complete snapshot of the job, or null
+     * if the job has no complete snapshot.
+     */
+    @Nullable
+    public SnapshotStats latestSnapshotStats(long jobId) {
+        Long snapshotId = latestCompleteSnapshot(jobId);
+        if (snapshotId == null) {
+            return null;
+        }
+        SnapshotRecord record = this.<SnapshotRecord>getSnapshotMap(jobId).get(snapshotId);
+        return record != null ? record.stats() : null;
+    }
+
     /**
      * Return the newest complete snapshot ID for the specified job or null if no such snapshot is found.
      */
@@ -131,6 +179,29 @@ public class SnapshotRepository {
         return map.get(LATEST_STARTED_SNAPSHOT_ID_KEY);
     }
 
+    /**
+     * Returns the IDs of the snapshots needed to restore the given snapshot,
+     * in the order they were taken: the full snapshot followed by the
+     * successful incremental snapshots based on it, up to the given one. For
+     * a full snapshot it returns just the given ID.
+     */
+    List<Long> snapshotChain(long jobId, long snapshotId) {
+        IStreamMap<Long, Object> snapshotMap = getSnapshotMap(jobId);
+        Object record = snapshotMap.get(snapshotId);
+        if (!(record instanceof SnapshotRecord) || !((SnapshotRecord) record).isIncremental()) {
+            return singletonList(snapshotId);
+        }
+        long baseSnapshotId = ((SnapshotRecord) record).baseSnapshotId();
+        Predicate<Long, Object> chainPredicate = (Predicate<Long, Object>) e -> {
+            Object value = e.getValue();
+            return value instanceof SnapshotRecord
+                    && ((SnapshotRecord) value).baseSnapshotId() == baseSnapshotId
+                    && ((SnapshotRecord) value).isSuccessful()
+                    && e.getKey() <= snapshotId;
+        };
+        return snapshotMap.keySet(chainPredicate).stream().sorted().collect(toList());
+    }
+
     public <T> IStreamMap<Long, T> getSnapshotMap(long jobId) {
         return instance.getMap(snapshotsMapName(jobId));
     }
@@ -148,18 +219,20 @@ public class SnapshotRepository {
     }
 
     /**
-     * Deletes snapshot data and records from snapshotsMap except one.
+     * Deletes snapshot data and records from snapshotsMap except the given
+     * ones.
      * <p>
      * Method must be run when there's no ongoing snapshot, because it also
      * deletes the ongoing snapshots. If we omitted them, then interrupted
      * ongoing snapshots will never be deleted.
      *
-     * @param snapshotToKeep the current snapshot to keep
+     * @param snapshotsToKeep the current snapshot to keep with the snapshots
+     *                        it builds upon, see {@link #snapshotChain}
      */
-    void deleteAllSnapshotsExceptOne(long jobId, Long snapshotToKeep) {
+    void deleteAllSnapshotsExcept(long jobId, Collection<Long> snapshotsToKeep) {
         final IStreamMap<Long, SnapshotRecord> snapshotMap = getSnapshotMap(jobId);
         Predicate<Long, SnapshotRecord> predicate =
-                e -> !e.getKey().equals(LATEST_STARTED_SNAPSHOT_ID_KEY) && !e.getKey().equals(snapshotToKeep);
+                e -> !e.getKey().equals(LATEST_STARTED_SNAPSHOT_ID_KEY) && !snapshotsToKeep.contains(e.getKey());
 
         for (Entry<Long, SnapshotRecord> entry : snapshotMap.entrySet(predicate)) {
             deleteSnapshot(snapshotMap, entry.getValue());
@@ -190,6 +263,65 @@ public class SnapshotRepository {
         snapshotMap.destroy();
     }
 
+    /**
+     * Exports the latest complete snapshot of the job as a savepoint with the
+     * given name, replacing an existing savepoint with the same name. The
+     * records of the exported snapshots are removed from the job's snapshot
+     * map, so that {@link #deleteAllSnapshots} keeps their data. Returns
+     * false, if the job has no complete snapshot to export.
+     */
+    boolean exportSavepoint(long jobId, String name) {
+        Long snapshotId = latestCompleteSnapshot(jobId);
+        if (snapshotId == null) {
+            return false;
+        }
+        List<Long> snapshotChain = snapshotChain(jobId, snapshotId);
+        IStreamMap<Long, SnapshotRecord> snapshotMap = getSnapshotMap(jobId);
+        SavepointRecord savepoint = new SavepointRecord(name, snapshotChain, snapshotMap.get(snapshotId));
+        SavepointRecord previous = getSavepointMap().put(name, savepoint);
+        snapshotChain.forEach(snapshotMap::remove);
+        if (previous != null) {
+            deleteSavepointData(previous);
+        }
+        logFine(logger, "Exported snapshot %d of job %s as savepoint '%s'", snapshotId, idToString(jobId), name);
+        return true;
+    }
+
+    /**
+     * Returns the savepoint with the given name or null, if it doesn't exist.
+     */
+    @Nullable
+    public SavepointRecord savepoint(String name) {
+        return getSavepointMap().get(name);
+    }
+
+    /**
+     * Deletes the savepoint with the given name together with its data.
+     * Jobs started from it can no longer restart before taking their own
+     * snapshot. Returns false, if the savepoint doesn't exist.
+     */
+    public boolean deleteSavepoint(String name) {
+        SavepointRecord savepoint = getSavepointMap().remove(name);
+        if (savepoint == null) {
+            return false;
+        }
+        deleteSavepointData(savepoint);
+        logFine(logger, "Deleted savepoint '%s'", name);
+        return true;
+    }
+
+    private IMap<String, SavepointRecord> getSavepointMap() {
+        return instance.getMap(SAVEPOINTS_MAP_NAME);
+    }
+
+    private void deleteSavepointData(SavepointRecord savepoint) {
+        SnapshotStore store = SnapshotStore.forStorage(savepoint.storage());
+        for (long snapshotId : savepoint.snapshotChain()) {
+            store.deleteSnapshotData(((HazelcastInstanceImpl) instance.getHazelcastInstance()).node.nodeEngine,
+                    savepoint.jobId(), snapshotId, savepoint.vertices());
+        }
+    }
+
     private void deleteSnapshot(IStreamMap<Long, SnapshotRecord> map, SnapshotRecord record) {
         setSnapshotStatus(record.jobId(), record.snapshotId(), SnapshotStatus.TO_DELETE);
         deleteSnapshotData(record);
@@ -199,11 +331,8 @@ public class SnapshotRepository {
     }
 
     private void deleteSnapshotData(SnapshotRecord record) {
-        for (String vertexName : record.vertices()) {
-            String mapName = snapshotDataMapName(record.jobId(), record.snapshotId(), vertexName);
-            instance.getMap(mapName).destroy();
-            logFine(logger, "Deleted snapshot data for snapshot %d for job %s and vertex '%s'",
-                    record.snapshotId(), idToString(record.jobId()), vertexName);
-        }
+        SnapshotStore.forStorage(record.storage()).deleteSnapshotData(
+                ((HazelcastInstanceImpl) instance.getHazelcastInstance()).node.nodeEngine,
+                record.jobId(), record.snapshotId(), record.vertices());
     }
 }
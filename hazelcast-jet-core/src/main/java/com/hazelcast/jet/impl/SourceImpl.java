@@ -18,14 +18,33 @@ package com.hazelcast.jet.impl;
 
 import com.hazelcast.jet.core.ProcessorMetaSupplier;
 import com.hazelcast.jet.Source;
+import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.query.Predicate;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Map.Entry;
+import java.util.function.BiFunction;
 
 public class SourceImpl<E> implements Source<E> {
     private final String name;
     private final ProcessorMetaSupplier metaSupplier;
+    private final PushdownFn pushdownFn;
 
     public SourceImpl(String name, ProcessorMetaSupplier metaSupplier) {
+        this(name, metaSupplier, null);
+    }
+
+    /**
+     * @param pushdownFn creates the meta-supplier of a source which applies
+     *                   the given predicate and projection to the entries
+     *                   while reading them, or {@code null} if the source
+     *                   doesn't support it
+     */
+    public SourceImpl(String name, ProcessorMetaSupplier metaSupplier, @Nullable PushdownFn pushdownFn) {
         this.metaSupplier = metaSupplier;
         this.name = name;
+        this.pushdownFn = pushdownFn;
     }
 
     @Override
@@ -37,8 +56,40 @@ public class SourceImpl<E> implements Source<E> {
         return metaSupplier;
     }
 
+    /**
+     * Returns {@code true} if the {@link Planner} can merge the filter and
+     * map stages following this source into the source itself.
+     */
+    public boolean supportsPushdown() {
+        return pushdownFn != null;
+    }
+
+    /**
+     * Returns the meta-supplier of this source which emits only the entries
+     * matching the predicate, transformed by the projection function. The
+     * items for which the projection function returns {@code null} are
+     * skipped.
+     */
+    public ProcessorMetaSupplier metaSupplier(
+            @Nonnull Predicate<Object, Object> predicate,
+            @Nonnull DistributedFunction<Entry<Object, Object>, Object> projectionFn
+    ) {
+        return pushdownFn.apply(predicate, projectionFn);
+    }
+
     @Override
     public String toString() {
         return name;
     }
+
+    /**
+     * Creates the meta-supplier of a source with a pushed-down predicate
+     * and projection.
+     */
+    @FunctionalInterface
+    public interface PushdownFn extends BiFunction<
+            Predicate<Object, Object>,
+            DistributedFunction<Entry<Object, Object>, Object>,
+            ProcessorMetaSupplier> {
+    }
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.connector;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses the data in the BGZF format: a series of gzip members, each
+ * containing at most {@value #MAX_BLOCK_INPUT} bytes of the input, with the
+ * {@code BC} extra field holding the compressed size of the member. The
+ * stream ends with an empty block.
+ * <p>
+ * The data is compressed when a block is full. {@link #flush()} only
+ * flushes the compressed blocks, the partial block is written on close.
+ */
+final class BlockGzipOutputStream extends OutputStream {
+
+    private static final int MAX_BLOCK_INPUT = 0xff00;
+    private static final int MAX_BLOCK_SIZE = 0x10000;
+    private static final int HEADER_LENGTH = 18;
+    private static final int FOOTER_LENGTH = 8;
+    private static final byte[] HEADER = {
+            // magic, deflate, FEXTRA flag, mtime, extra flags, OS unknown
+            0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff,
+            // extra length 6, subfield 'BC' of length 2, block size - 1 follows
+            6, 0, 'B', 'C', 2, 0
+    };
+    private static final byte[] EOF_BLOCK = {
+            0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff, 6, 0, 'B', 'C', 2, 0,
+            0x1b, 0, 3, 0, 0, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    private final OutputStream out;
+    private final byte[] input = new byte[MAX_BLOCK_INPUT];
+    private final byte[] block = new byte[MAX_BLOCK_SIZE];
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final CRC32 crc = new CRC32();
+    private Deflater storer;
+    private int inputLength;
+    private boolean closed;
+
+    BlockGzipOutputStream(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        input[inputLength++] = (byte) b;
+        if (inputLength == MAX_BLOCK_INPUT) {
+            writeBlock();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            int count = Math.min(len, MAX_BLOCK_INPUT - inputLength);
+            System.arraycopy(b, off, input, inputLength, count);
+            inputLength += count;
+            off += count;
+            len -= count;
+            if (inputLength == MAX_BLOCK_INPUT) {
+                writeBlock();
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (inputLength > 0) {
+                writeBlock();
+            }
+            out.write(EOF_BLOCK);
+        } finally {
+            deflater.end();
+            if (storer != null) {
+                storer.end();
+            }
+            out.close();
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        int compressedLength = deflate(deflater);
+        if (compressedLength < 0) {
+            // incompressible data, stored blocks always fit
+            if (storer == null) {
+                storer = new Deflater(Deflater.NO_COMPRESSION, true);
+            }
+            compressedLength = deflate(storer);
+        }
+        int blockSize = HEADER_LENGTH + compressedLength + FOOTER_LENGTH;
+        System.arraycopy(HEADER, 0, block, 0, HEADER.length);
+        writeShortLE(block, HEADER.length, blockSize - 1);
+        crc.reset();
+        crc.update(input, 0, inputLength);
+        writeIntLE(block, HEADER_LENGTH + compressedLength, (int) crc.getValue());
+        writeIntLE(block, HEADER_LENGTH + compressedLength + 4, inputLength);
+        out.write(block, 0, blockSize);
+        inputLength = 0;
+    }
+
+    /**
+     * Compresses the input to the block after the header. Returns the
+     * compressed length or -1, if it doesn't fit into the block.
+     */
+    private int deflate(Deflater d) {
+        d.reset();
+        d.setInput(input, 0, inputLength);
+        d.finish();
+        int length = d.deflate(block, HEADER_LENGTH, MAX_BLOCK_SIZE - HEADER_LENGTH - FOOTER_LENGTH);
+        return d.finished() ? length : -1;
+    }
+
+    private static void writeShortLE(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >>> Byte.SIZE);
+    }
+
+    private static void writeIntLE(byte[] bytes, int offset, int value) {
+        writeShortLE(bytes, offset, value);
+        writeShortLE(bytes, offset + 2, value >>> Short.SIZE);
+    }
+}
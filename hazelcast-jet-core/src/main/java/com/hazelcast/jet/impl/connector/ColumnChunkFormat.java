@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.connector;
+
+import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.datamodel.Schema;
+import com.hazelcast.jet.datamodel.Schema.ColumnType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A binary file format which stores the rows in column chunks. The file
+ * starts with a header describing its {@link Schema}:
+ * <pre>
+ *     int magic, int columnCount, columnCount * (UTF name, byte type)
+ * </pre>
+ * It's followed by row groups. A row group starts with the number of rows
+ * and the byte length of each column chunk, followed by the chunks:
+ * <pre>
+ *     int rowCount, columnCount * int chunkLength, columnCount * chunk
+ * </pre>
+ * A chunk contains the values of one column for all the rows in the group.
+ * Each value is preceded by a byte which is 0 for {@code null}. The file
+ * ends with a row group with 0 rows.
+ * <p>
+ * Thanks to the chunk lengths, the reader skips the chunks of the columns
+ * it doesn't need without reading or decoding them.
+ */
+final class ColumnChunkFormat {
+
+    private static final int MAGIC = 0x4A43_4331;
+    private static final ColumnType[] COLUMN_TYPES = ColumnType.values();
+
+    private ColumnChunkFormat() {
+    }
+
+    /**
+     * Writes the rows to the output stream. A row group is written when it
+     * reaches the given size and when the writer is closed.
+     */
+    static final class Writer implements Closeable {
+
+        private final DataOutputStream out;
+        private final Schema schema;
+        private final int rowGroupSize;
+        private final ByteArrayOutputStream[] chunkBytes;
+        private final DataOutputStream[] chunks;
+        private int rowCount;
+
+        Writer(OutputStream out, Schema schema, int rowGroupSize) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(out));
+            this.schema = schema;
+            this.rowGroupSize = rowGroupSize;
+            int columnCount = schema.columnCount();
+            chunkBytes = new ByteArrayOutputStream[columnCount];
+            chunks = new DataOutputStream[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                chunkBytes[i] = new ByteArrayOutputStream();
+                chunks[i] = new DataOutputStream(chunkBytes[i]);
+            }
+            this.out.writeInt(MAGIC);
+            this.out.writeInt(columnCount);
+            for (int i = 0; i < columnCount; i++) {
+                this.out.writeUTF(schema.columnName(i));
+                this.out.writeByte(schema.columnType(i).ordinal());
+            }
+        }
+
+        void add(Object[] row) throws IOException {
+            if (row.length != schema.columnCount()) {
+                throw new JetException("Row has " + row.length + " values, but " + schema + " has "
+                        + schema.columnCount() + " columns");
+            }
+            for (int i = 0; i < row.length; i++) {
+                writeValue(chunks[i], schema.columnType(i), row[i]);
+            }
+            if (++rowCount == rowGroupSize) {
+                writeRowGroup();
+            }
+        }
+
+        void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                writeRowGroup();
+                out.writeInt(0);
+            } finally {
+                out.close();
+            }
+        }
+
+        private void writeRowGroup() throws IOException {
+            if (rowCount == 0) {
+                return;
+            }
+            out.writeInt(rowCount);
+            for (ByteArrayOutputStream chunk : chunkBytes) {
+                out.writeInt(chunk.size());
+            }
+            for (ByteArrayOutputStream chunk : chunkBytes) {
+                chunk.writeTo(out);
+                chunk.reset();
+            }
+            rowCount = 0;
+        }
+
+        private static void writeValue(DataOutputStream chunk, ColumnType type, Object value) throws IOException {
+            chunk.writeBoolean(value != null);
+            if (value == null) {
+                return;
+            }
+            switch (type) {
+                case STRING:
+                    byte[] bytes = ((String) value).getBytes(UTF_8);
+                    chunk.writeInt(bytes.length);
+                    chunk.write(bytes);
+                    break;
+                case INT:
+                    chunk.writeInt((Integer) value);
+                    break;
+                case LONG:
+                    chunk.writeLong((Long) value);
+                    break;
+                case DOUBLE:
+                    chunk.writeDouble((Double) value);
+                    break;
+                case BOOLEAN:
+                    chunk.writeBoolean((Boolean) value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown column type: " + type);
+            }
+        }
+    }
+
+    /**
+     * Reads the values of the projected columns from the input stream.
+     */
+    static final class Reader implements Closeable {
+
+        private final DataInputStream in;
+        private final Schema schema;
+        // for each column of the file, its index in the output row or -1
+        private final int[] outputIndexes;
+        private final Object[][] columnValues;
+        private int rowCount;
+        private int nextRow;
+
+        /**
+         * @param columns names of the columns to read, all columns if empty
+         */
+        Reader(InputStream in, String[] columns) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(in));
+            this.schema = readSchema(this.in);
+            outputIndexes = ReadColumnarFilesP.outputIndexes(schema, columns);
+            columnValues = new Object[columns.length == 0 ? schema.columnCount() : columns.length][];
+        }
+
+        /**
+         * Returns the next row or {@code null} at the end of the file.
+         */
+        Object[] next() throws IOException {
+            if (nextRow == rowCount) {
+                if (!readRowGroup()) {
+                    return null;
+                }
+            }
+            Object[] row = new Object[columnValues.length];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = columnValues[i][nextRow];
+            }
+            nextRow++;
+            return row;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private boolean readRowGroup() throws IOException {
+            rowCount = in.readInt();
+            nextRow = 0;
+            if (rowCount == 0) {
+                return false;
+            }
+            int[] chunkLengths = new int[schema.columnCount()];
+            for (int i = 0; i < chunkLengths.length; i++) {
+                chunkLengths[i] = in.readInt();
+            }
+            for (int i = 0; i < chunkLengths.length; i++) {
+                int outputIndex = outputIndexes[i];
+                if (outputIndex < 0) {
+                    skipFully(chunkLengths[i]);
+                    continue;
+                }
+                Object[] values = new Object[rowCount];
+                ColumnType type = schema.columnType(i);
+                for (int row = 0; row < rowCount; row++) {
+                    values[row] = readValue(type);
+                }
+                columnValues[outputIndex] = values;
+            }
+            return true;
+        }
+
+        private Object readValue(ColumnType type) throws IOException {
+            if (!in.readBoolean()) {
+                return null;
+            }
+            switch (type) {
+                case STRING:
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    return new String(bytes, UTF_8);
+                case INT:
+                    return in.readInt();
+                case LONG:
+                    return in.readLong();
+                case DOUBLE:
+                    return in.readDouble();
+                case BOOLEAN:
+                    return in.readBoolean();
+                default:
+                    throw new IllegalArgumentException("Unknown column type: " + type);
+            }
+        }
+
+        private void skipFully(int length) throws IOException {
+            int remaining = length;
+            while (remaining > 0) {
+                int skipped = in.skipBytes(remaining);
+                if (skipped <= 0) {
+                    throw new EOFException("Unexpected end of file while skipping a column chunk");
+                }
+                remaining -= skipped;
+            }
+        }
+
+        private static Schema readSchema(DataInputStream in) throws IOException {
+            if (in.readInt() != MAGIC) {
+                throw new JetException("Not a column-chunk file");
+            }
+            int columnCount = in.readInt();
+            Schema.Builder builder = Schema.schemaBuilder();
+            for (int i = 0; i < columnCount; i++) {
+                String name = in.readUTF();
+                int type = in.readByte();
+                if (type < 0 || type >= COLUMN_TYPES.length) {
+                    throw new JetException("Unknown type " + type + " of column '" + name + '\'');
+                }
+                builder.addColumn(name, COLUMN_TYPES[type]);
+            }
+            return builder.build();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.connector;
+
+import com.hazelcast.jet.FileCompression;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.hazelcast.jet.impl.util.Util.uncheckRun;
+
+/**
+ * Opens the files for the file sources and sinks with the configured
+ * {@link FileCompression}.
+ */
+final class CompressedFiles {
+
+    private static final String GZIP_EXTENSION = ".gz";
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private CompressedFiles() {
+    }
+
+    /**
+     * Returns the lines of the file, decompressing it if needed.
+     */
+    static Stream<String> lines(Path file, Charset charset, FileCompression compression) throws IOException {
+        if (!isCompressed(file, compression)) {
+            return Files.lines(file, charset);
+        }
+        InputStream in = Files.newInputStream(file);
+        try {
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(new GZIPInputStream(in, BUFFER_SIZE), charset), BUFFER_SIZE);
+            return reader.lines().onClose(() -> uncheckRun(reader::close));
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens the file for writing, compressing the written data with the
+     * given compression.
+     */
+    static OutputStream newOutputStream(Path file, FileCompression compression, OpenOption... options)
+            throws IOException {
+        return compress(Files.newOutputStream(file, options), compression);
+    }
+
+    /**
+     * Returns a stream compressing the written data to the given stream.
+     * Closing the returned stream closes the given stream.
+     */
+    static OutputStream compress(OutputStream out, FileCompression compression) throws IOException {
+        switch (compression) {
+            case NONE:
+                return out;
+            case GZIP:
+                return new GZIPOutputStream(out, BUFFER_SIZE);
+            case BLOCK_GZIP:
+                return new BlockGzipOutputStream(out);
+            default:
+                out.close();
+                throw new IllegalArgumentException("Unsupported compression for writing: " + compression);
+        }
+    }
+
+    /**
+     * Returns the name of the file written by the processor with the given
+     * global index.
+     */
+    static String fileName(int globalIndex, FileCompression compression) {
+        return globalIndex + extension(compression);
+    }
+
+    /**
+     * Returns the extension of the files written with the given
+     * compression, including the dot, or an empty string.
+     */
+    static String extension(FileCompression compression) {
+        return compression == FileCompression.NONE ? "" : GZIP_EXTENSION;
+    }
+
+    private static boolean isCompressed(Path file, FileCompression compression) {
+        switch (compression) {
+            case AUTO:
+                return file.getFileName().toString().endsWith(GZIP_EXTENSION);
+            case NONE:
+                return false;
+            default:
+                return true;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.connector;
+
+import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.datamodel.Schema;
+import com.hazelcast.jet.datamodel.Schema.ColumnType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Formats and parses the rows of {@link Schema typed} CSV files, one row
+ * per line. Fields containing the delimiter, quotes or line terminators
+ * are quoted, quotes in them are doubled. A row with a quoted line
+ * terminator spans several physical lines. An empty unquoted field is a
+ * {@code null} value, an empty string is written as {@code ""}.
+ */
+final class CsvFormat {
+
+    private static final char DELIMITER = ',';
+    private static final char QUOTE = '"';
+
+    private CsvFormat() {
+    }
+
+    static String formatRow(Schema schema, Object[] row) {
+        if (row.length != schema.columnCount()) {
+            throw new JetException("Row has " + row.length + " values, but " + schema + " has "
+                    + schema.columnCount() + " columns");
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                sb.append(DELIMITER);
+            }
+            if (row[i] == null) {
+                continue;
+            }
+            String text = row[i].toString();
+            if (text.isEmpty() || needsQuoting(text)) {
+                sb.append(QUOTE);
+                for (int j = 0; j < text.length(); j++) {
+                    char c = text.charAt(j);
+                    if (c == QUOTE) {
+                        sb.append(QUOTE);
+                    }
+                    sb.append(c);
+                }
+                sb.append(QUOTE);
+            } else {
+                sb.append(text);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean needsQuoting(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == DELIMITER || c == QUOTE || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the text of the next row, without the line terminator. The line
+     * terminators inside quoted fields are part of the row. Returns {@code
+     * null} at the end of the input.
+     */
+    static String readRow(BufferedReader reader) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        boolean inQuotes = false;
+        boolean fieldStart = true;
+        boolean afterClosingQuote = false;
+        int c;
+        while ((c = reader.read()) >= 0) {
+            if (c == QUOTE && (inQuotes || fieldStart || afterClosingQuote)) {
+                // a quote right after the closing one is an escaped quote and reopens the field
+                afterClosingQuote = inQuotes;
+                inQuotes = !inQuotes;
+            } else {
+                afterClosingQuote = false;
+                if (!inQuotes && (c == '\n' || c == '\r')) {
+                    if (c == '\r') {
+                        reader.mark(1);
+                        if (reader.read() != '\n') {
+                            reader.reset();
+                        }
+                    }
+                    return sb.toString();
+                }
+            }
+            fieldStart = !inQuotes && c == DELIMITER;
+            sb.append((char) c);
+        }
+        return sb.length() > 0 ? sb.toString() : null;
+    }
+
+    /**
+     * Parses the values of the projected columns from the line. The columns
+     * after the last projected one are not scanned, the values of the other
+     * columns are skipped without converting them.
+     *
+     * @param outputIndexes for each column of the schema, the index of its
+     *                      value in the returned row or -1 if it's not
+     *                      projected
+     * @param outputLength the number of projected columns
+     */
+    static Object[] parseRow(String line, Schema schema, int[] outputIndexes, int outputLength) {
+        Object[] row = new Object[outputLength];
+        int lastColumn = outputIndexes.length - 1;
+        while (lastColumn >= 0 && outputIndexes[lastColumn] < 0) {
+            lastColumn--;
+        }
+        int length = line.length();
+        int pos = 0;
+        for (int column = 0; column <= lastColumn; column++) {
+            if (pos > length) {
+                throw new JetException("Line has fewer than " + schema.columnCount() + " columns: " + line);
+            }
+            int outputIndex = outputIndexes[column];
+            String text;
+            boolean quoted = pos < length && line.charAt(pos) == QUOTE;
+            if (quoted) {
+                StringBuilder sb = outputIndex >= 0 ? new StringBuilder() : null;
+                int i = pos + 1;
+                for (; ; i++) {
+                    if (i >= length) {
+                        throw new JetException("Unterminated quoted field in line: " + line);
+                    }
+                    char c = line.charAt(i);
+                    if (c == QUOTE) {
+                        if (i + 1 < length && line.charAt(i + 1) == QUOTE) {
+                            i++;
+                        } else {
+                            break;
+                        }
+                    }
+                    if (sb != null) {
+                        sb.append(c);
+                    }
+                }
+                // skip the closing quote
+                i++;
+                if (i < length && line.charAt(i) != DELIMITER) {
+                    throw new JetException("Unexpected character after a quoted field at position " + i
+                            + " in line: " + line);
+                }
+                text = sb != null ? sb.toString() : null;
+                pos = i + 1;
+            } else {
+                int end = line.indexOf(DELIMITER, pos);
+                if (end < 0) {
+                    end = length;
+                }
+                text = outputIndex >= 0 ? line.substring(pos, end) : null;
+                pos = end + 1;
+            }
+            if (outputIndex >= 0) {
+                row[outputIndex] = toValue(text, quoted, schema, column);
+            }
+        }
+        return row;
+    }
+
+    private static Object toValue(String text, boolean quoted, Schema schema, int column) {
+        ColumnType type = schema.columnType(column);
+        if (text.isEmpty() && !quoted) {
+            return null;
+        }
+        try {
+            switch (type) {
+                case STRING:
+                    return text;
+                case INT:
+                    return Integer.valueOf(text);
+                case LONG:
+                    return Long.valueOf(text);
+                case DOUBLE:
+                    return Double.valueOf(text);
+                case BOOLEAN:
+                    if ("true".equalsIgnoreCase(text)) {
+                        return Boolean.TRUE;
+                    }
+                    if ("false".equalsIgnoreCase(text)) {
+                        return Boolean.FALSE;
+                    }
+                    throw new IllegalArgumentException("Not a boolean: " + text);
+                default:
+                    throw new IllegalArgumentException("Unknown column type: " + type);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new JetException("Invalid value of column '" + schema.columnName(column) + "': " + text, e);
+        }
+    }
+}
@@ -18,6 +18,7 @@ package com.hazelcast.jet.impl.connector;
 
 import com.hazelcast.cache.ICache;
 import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.core.DistributedObject;
 import com.hazelcast.core.ExecutionCallback;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.HazelcastInstanceNotActiveException;
@@ -27,6 +28,7 @@ import com.hazelcast.jet.core.AbstractProcessor;
 import com.hazelcast.jet.core.Processor;
 import com.hazelcast.jet.core.ProcessorMetaSupplier;
 import com.hazelcast.jet.core.ProcessorSupplier;
+import com.hazelcast.jet.core.TwoPhaseCommitProcessor;
 import com.hazelcast.jet.core.processor.SinkProcessors;
 import com.hazelcast.jet.function.DistributedBiConsumer;
 import com.hazelcast.jet.function.DistributedBiFunction;
@@ -52,16 +54,20 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import static com.hazelcast.client.HazelcastClient.newHazelcastClient;
+import static com.hazelcast.jet.Jet.INTERNAL_JET_OBJECTS_PREFIX;
 import static com.hazelcast.jet.core.ProcessorMetaSupplier.dontParallelize;
 import static com.hazelcast.jet.function.DistributedFunctions.noopConsumer;
 import static com.hazelcast.jet.impl.util.ExceptionUtil.sneakyThrow;
 import static com.hazelcast.jet.impl.util.Util.callbackOf;
 import static com.hazelcast.jet.impl.util.Util.tryIncrement;
+import static com.hazelcast.util.UuidUtil.newUnsecureUuidString;
 import static java.util.stream.Collectors.toList;
 
 /**
@@ -179,6 +185,13 @@ public final class HazelcastWriters {
         ));
     }
 
+    @Nonnull
+    public static ProcessorMetaSupplier writeMapTransactionalP(
+            @Nonnull String name, @Nullable ClientConfig clientConfig
+    ) {
+        return dontParallelize(new TransactionalMapWriterSupplier(name, serializableConfig(clientConfig)));
+    }
+
     @Nonnull
     public static ProcessorMetaSupplier writeCacheP(@Nonnull String name, @Nullable ClientConfig clientConfig) {
         boolean isLocal = clientConfig == null;
@@ -539,4 +552,133 @@ public final class HazelcastWriters {
         }
     }
 
+    /**
+     * A map writer with the two-phase commit. Each transaction puts the
+     * entries into its own staging {@code IMap}. The commit copies them to
+     * the target map and destroys the staging map.
+     */
+    private static final class TransactionalMapWriterP
+            extends TwoPhaseCommitProcessor<Entry<Object, Object>, String> {
+
+        private static final String STAGING_MAP_PREFIX = INTERNAL_JET_OBJECTS_PREFIX + "staging.";
+
+        private final HazelcastInstance instance;
+        private final IMap<Object, Object> map;
+        private final ArrayMap buffer = new ArrayMap();
+
+        // matches the names of the staging maps of all processors, the group is the processor index
+        private Pattern stagingMapNamePattern;
+        private String stagingMapPrefix;
+        private int processorIndex;
+        private int totalParallelism;
+        private String bufferedTxn;
+
+        private TransactionalMapWriterP(HazelcastInstance instance, String name) {
+            this.instance = instance;
+            this.map = instance.getMap(name);
+            setCooperative(false);
+        }
+
+        @Override
+        protected void init(@Nonnull Context context) throws Exception {
+            super.init(context);
+            processorIndex = context.globalProcessorIndex();
+            totalParallelism = context.totalParallelism();
+            String stagingMapsPrefix = STAGING_MAP_PREFIX + map.getName() + '.';
+            // the map name can contain dots, so match the whole name: "<prefix><index>.<uuid>"
+            stagingMapNamePattern = Pattern.compile(Pattern.quote(stagingMapsPrefix) + "(\\d{1,9})\\.[0-9a-f-]{36}");
+            stagingMapPrefix = stagingMapsPrefix + processorIndex + '.';
+        }
+
+        @Override
+        public boolean tryProcess() {
+            flushBuffer();
+            return super.tryProcess();
+        }
+
+        @Nonnull @Override
+        protected String beginTransaction() {
+            return stagingMapPrefix + newUnsecureUuidString();
+        }
+
+        @Override
+        protected void write(@Nonnull String txn, @Nonnull Entry<Object, Object> item) {
+            bufferedTxn = txn;
+            buffer.add(item);
+        }
+
+        @Override
+        protected void preCommit(@Nonnull String txn) {
+            flushBuffer();
+        }
+
+        @Override
+        protected void commit(@Nonnull String txn) {
+            // if the transaction was already committed, the staging map is empty
+            IMap<Object, Object> stagingMap = instance.getMap(txn);
+            map.putAll(stagingMap);
+            stagingMap.destroy();
+        }
+
+        @Override
+        protected void abortStaleTransactions() {
+            // with a lower parallelism than before, this processor also aborts the transactions of the
+            // processors that no longer exist and whose restored transactions it commits
+            for (DistributedObject object : instance.getDistributedObjects()) {
+                if (!(object instanceof IMap)) {
+                    continue;
+                }
+                Matcher matcher = stagingMapNamePattern.matcher(object.getName());
+                if (matcher.matches() && Integer.parseInt(matcher.group(1)) % totalParallelism == processorIndex) {
+                    object.destroy();
+                }
+            }
+        }
+
+        private void flushBuffer() {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            instance.getMap(bufferedTxn).putAll(buffer);
+            buffer.clear();
+        }
+    }
+
+    private static final class TransactionalMapWriterSupplier implements ProcessorSupplier {
+
+        static final long serialVersionUID = 1L;
+
+        private final String name;
+        private final SerializableClientConfig clientConfig;
+        private transient HazelcastInstance client;
+        private transient HazelcastInstance instance;
+
+        private TransactionalMapWriterSupplier(String name, SerializableClientConfig clientConfig) {
+            this.name = name;
+            this.clientConfig = clientConfig;
+        }
+
+        @Override
+        public void init(@Nonnull Context context) {
+            if (clientConfig != null) {
+                instance = client = newHazelcastClient(clientConfig.asClientConfig());
+            } else {
+                instance = context.jetInstance().getHazelcastInstance();
+            }
+        }
+
+        @Override
+        public void complete(Throwable error) {
+            if (client != null) {
+                client.shutdown();
+            }
+        }
+
+        @Override @Nonnull
+        public List<Processor> get(int count) {
+            return Stream.generate(() -> new TransactionalMapWriterP(instance, name))
+                         .limit(count)
+                         .collect(toList());
+        }
+    }
 }
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.connector;
+
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.core.CloseableProcessorSupplier;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.core.processor.SourceProcessors;
+import com.hazelcast.jet.datamodel.Schema;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.hazelcast.jet.Traversers.traverseIterable;
+import static com.hazelcast.jet.impl.util.ExceptionUtil.sneakyThrow;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Private API, use {@link SourceProcessors#readCsvFilesP} or {@link
+ * SourceProcessors#readColumnChunkFilesP}.
+ * <p>
+ * Reads the rows of tabular files as {@code Object[]}, containing only the
+ * projected columns. The files are assigned to the processors the same way
+ * as in {@link ReadFilesP}, any one file is read by one processor.
+ */
+public final class ReadColumnarFilesP extends AbstractProcessor implements Closeable {
+
+    private final Path directory;
+    private final String glob;
+    private final RowReaderFactory readerFactory;
+    private final int parallelism;
+    private final int id;
+
+    private Traverser<Object[]> outputTraverser;
+    private RowReader currentReader;
+
+    private ReadColumnarFilesP(String directory, String glob, RowReaderFactory readerFactory,
+                               int parallelism, int id) {
+        this.directory = Paths.get(directory);
+        this.glob = glob;
+        this.readerFactory = readerFactory;
+        this.parallelism = parallelism;
+        this.id = id;
+    }
+
+    @Override
+    protected void init(@Nonnull Context context) throws Exception {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory, glob)) {
+            for (Path file : directoryStream) {
+                if (shouldProcessFile(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        outputTraverser = traverseIterable(files).flatMap(this::processFile);
+    }
+
+    @Override
+    public boolean complete() {
+        return emitFromTraverser(outputTraverser);
+    }
+
+    private boolean shouldProcessFile(Path file) {
+        if (Files.isDirectory(file)) {
+            return false;
+        }
+        int hashCode = file.hashCode();
+        return ((hashCode & Integer.MAX_VALUE) % parallelism) == id;
+    }
+
+    private Traverser<Object[]> processFile(Path file) {
+        if (getLogger().isFinestEnabled()) {
+            getLogger().finest("Processing file " + file);
+        }
+        try {
+            assert currentReader == null : "currentReader != null";
+            currentReader = readerFactory.open(file);
+            return () -> {
+                try {
+                    Object[] row = currentReader.next();
+                    if (row == null) {
+                        currentReader.close();
+                        currentReader = null;
+                    }
+                    return row;
+                } catch (IOException e) {
+                    throw sneakyThrow(e);
+                }
+            };
+        } catch (IOException e) {
+            throw sneakyThrow(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (currentReader != null) {
+            currentReader.close();
+        }
+    }
+
+    @Override
+    public boolean isCooperative() {
+        return false;
+    }
+
+    /**
+     * Private API. Use {@link SourceProcessors#readCsvFilesP} instead.
+     */
+    public static ProcessorMetaSupplier csvMetaSupplier(
+            @Nonnull String directory, @Nonnull String charset, @Nonnull String glob,
+            @Nonnull Schema schema, boolean hasHeader, @Nonnull String[] columns
+    ) {
+        int[] outputIndexes = outputIndexes(schema, columns);
+        int outputLength = columns.length == 0 ? schema.columnCount() : columns.length;
+        return metaSupplier(directory, glob, file -> {
+            BufferedReader reader = Files.newBufferedReader(file, Charset.forName(charset));
+            if (hasHeader) {
+                CsvFormat.readRow(reader);
+            }
+            return new RowReader() {
+                @Override
+                public Object[] next() throws IOException {
+                    for (String line; (line = CsvFormat.readRow(reader)) != null; ) {
+                        if (!line.isEmpty()) {
+                            return CsvFormat.parseRow(line, schema, outputIndexes, outputLength);
+                        }
+                    }
+                    return null;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    reader.close();
+                }
+            };
+        });
+    }
+
+    /**
+     * Private API. Use {@link SourceProcessors#readColumnChunkFilesP} instead.
+     */
+    public static ProcessorMetaSupplier columnChunkMetaSupplier(
+            @Nonnull String directory, @Nonnull String glob, @Nonnull String[] columns
+    ) {
+        return metaSupplier(directory, glob, file -> {
+            ColumnChunkFormat.Reader reader = new ColumnChunkFormat.Reader(Files.newInputStream(file), columns);
+            return new RowReader() {
+                @Override
+                public Object[] next() throws IOException {
+                    return reader.next();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    reader.close();
+                }
+            };
+        });
+    }
+
+    private static ProcessorMetaSupplier metaSupplier(String directory, String glob, RowReaderFactory readerFactory) {
+        return ProcessorMetaSupplier.of(new CloseableProcessorSupplier<>(
+                count -> IntStream.range(0, count)
+                                  .mapToObj(i -> new ReadColumnarFilesP(directory, glob, readerFactory, count, i))
+                                  .collect(toList())),
+                2);
+    }
+
+    /**
+     * Returns, for each column of the schema, the index of its value in the
+     * projected row or -1, if the column isn't projected. If {@code columns}
+     * is empty, all the columns are projected.
+     */
+    static int[] outputIndexes(Schema schema, String[] columns) {
+        int[] outputIndexes = new int[schema.columnCount()];
+        if (columns.length == 0) {
+            Arrays.setAll(outputIndexes, i -> i);
+            return outputIndexes;
+        }
+        Arrays.fill(outputIndexes, -1);
+        for (int i = 0; i < columns.length; i++) {
+            int column = schema.columnIndex(columns[i]);
+            if (outputIndexes[column] >= 0) {
+                throw new IllegalArgumentException("Column '" + columns[i] + "' projected twice");
+            }
+            outputIndexes[column] = i;
+        }
+        return outputIndexes;
+    }
+
+    @FunctionalInterface
+    private interface RowReaderFactory extends Serializable {
+        RowReader open(Path file) throws IOException;
+    }
+
+    private interface RowReader extends Closeable {
+        /**
+         * Returns the next row or {@code null} at the end of the file.
+         */
+        Object[] next() throws IOException;
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.connector;
+
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.core.CloseableProcessorSupplier;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.core.ProcessorSupplier;
+import com.hazelcast.jet.core.processor.SourceProcessors;
+import com.hazelcast.nio.Address;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static com.hazelcast.jet.Traversers.traverseIterable;
+import static com.hazelcast.jet.impl.util.ExceptionUtil.sneakyThrow;
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Private API, use {@link SourceProcessors#readFileRangesP(String, Charset,
+ * String, boolean)}.
+ * <p>
+ * All the matching files are treated as one sequence of bytes, ordered by
+ * file name, which is divided into equal byte ranges, one for each
+ * processor. A processor reads the lines which start in its range: if the
+ * range doesn't start at the beginning of a file, the partial line is left
+ * for the processor of the previous range, and the line crossing the end
+ * of the range is read to its end. The files are read using positional
+ * {@link FileChannel} reads, so even a single file is read by all the
+ * processors in parallel.
+ * <p>
+ * The lines are split on the {@code '\n'} byte and a trailing {@code '\r'}
+ * is removed, therefore the charset must encode these characters as single
+ * bytes, like UTF-8 or ISO-8859-1 do.
+ */
+public final class ReadFileRangesP extends AbstractProcessor implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path directory;
+    private final String glob;
+    private final Charset charset;
+    private final int parallelism;
+    private final int id;
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private byte[] lineBytes = new byte[BUFFER_SIZE];
+    private Traverser<String> outputTraverser;
+    private FileChannel currentChannel;
+
+    private ReadFileRangesP(String directory, Charset charset, String glob, int parallelism, int id) {
+        this.directory = Paths.get(directory);
+        this.glob = glob;
+        this.charset = charset;
+        this.parallelism = parallelism;
+        this.id = id;
+    }
+
+    @Override
+    protected void init(@Nonnull Context context) throws Exception {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory, glob)) {
+            for (Path file : directoryStream) {
+                if (!Files.isDirectory(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        // all the processors must see the files in the same order
+        files.sort(comparing(Path::toString));
+        outputTraverser = traverseIterable(assignRanges(files))
+                .flatMap(this::readRange);
+    }
+
+    private List<FileRange> assignRanges(List<Path> files) throws IOException {
+        long[] sizes = new long[files.size()];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = Files.size(files.get(i));
+        }
+        long totalSize = Arrays.stream(sizes).sum();
+        long from = rangeBoundary(totalSize, id);
+        long to = rangeBoundary(totalSize, id + 1);
+
+        List<FileRange> ranges = new ArrayList<>();
+        long fileOffset = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            long start = Math.max(from, fileOffset) - fileOffset;
+            long end = Math.min(to, fileOffset + sizes[i]) - fileOffset;
+            if (start < end) {
+                ranges.add(new FileRange(files.get(i), start, end));
+            }
+            fileOffset += sizes[i];
+        }
+        return ranges;
+    }
+
+    private long rangeBoundary(long totalSize, int index) {
+        // split the division to avoid overflowing on large sizes
+        return totalSize / parallelism * index + totalSize % parallelism * index / parallelism;
+    }
+
+    @Override
+    public boolean complete() {
+        return emitFromTraverser(outputTraverser);
+    }
+
+    private Traverser<String> readRange(FileRange range) {
+        if (getLogger().isFinestEnabled()) {
+            getLogger().finest("Processing " + range);
+        }
+        try {
+            assert currentChannel == null : "currentChannel != null";
+            currentChannel = FileChannel.open(range.file, StandardOpenOption.READ);
+            LineReader reader = new LineReader(currentChannel, range.start, range.end);
+            return () -> {
+                try {
+                    String line = reader.readLine();
+                    if (line == null) {
+                        currentChannel.close();
+                        currentChannel = null;
+                    }
+                    return line;
+                } catch (IOException e) {
+                    throw sneakyThrow(e);
+                }
+            };
+        } catch (IOException e) {
+            throw sneakyThrow(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (currentChannel != null) {
+            currentChannel.close();
+        }
+    }
+
+    @Override
+    public boolean isCooperative() {
+        return false;
+    }
+
+    /**
+     * Private API. Use {@link SourceProcessors#readFileRangesP(String, Charset,
+     * String, boolean)} instead.
+     */
+    public static ProcessorMetaSupplier metaSupplier(
+            @Nonnull String directory, @Nonnull String charset, @Nonnull String glob, boolean sharedFileSystem
+    ) {
+        return new MetaSupplier(directory, charset, glob, sharedFileSystem);
+    }
+
+    /**
+     * Reads the lines starting in the given byte range of the file.
+     */
+    private final class LineReader {
+
+        private final FileChannel channel;
+        private final long end;
+        // the position of the first byte in the buffer which wasn't consumed
+        private long position;
+        private long readPosition;
+
+        LineReader(FileChannel channel, long start, long end) throws IOException {
+            this.channel = channel;
+            this.end = end;
+            buffer.clear().flip();
+            if (start > 0) {
+                // the line is ours only if the previous byte is the end of a line
+                position = readPosition = start - 1;
+                if (!skipLine()) {
+                    position = end;
+                }
+            }
+        }
+
+        String readLine() throws IOException {
+            if (position >= end) {
+                return null;
+            }
+            int lineLength = 0;
+            while (true) {
+                if (!buffer.hasRemaining() && !fillBuffer()) {
+                    // the last line in the file has no line terminator
+                    position = end;
+                    return lineLength > 0 ? decode(lineBytes, 0, lineLength) : null;
+                }
+                byte[] array = buffer.array();
+                int lineStart = buffer.position();
+                int lineEnd = indexOfNewLine(array, lineStart, buffer.limit());
+                int chunkEnd = lineEnd >= 0 ? lineEnd : buffer.limit();
+                int chunkLength = chunkEnd - lineStart;
+                if (lineEnd >= 0 && lineLength == 0) {
+                    // the whole line is in the buffer, decode it in place
+                    consume(chunkLength + 1);
+                    return decode(array, lineStart, chunkLength);
+                }
+                if (lineBytes.length < lineLength + chunkLength) {
+                    lineBytes = Arrays.copyOf(lineBytes, Math.max(lineBytes.length * 2, lineLength + chunkLength));
+                }
+                System.arraycopy(array, lineStart, lineBytes, lineLength, chunkLength);
+                lineLength += chunkLength;
+                if (lineEnd >= 0) {
+                    consume(chunkLength + 1);
+                    return decode(lineBytes, 0, lineLength);
+                }
+                consume(chunkLength);
+            }
+        }
+
+        /**
+         * Consumes the bytes up to and including the next line terminator.
+         * Returns false if there's none.
+         */
+        private boolean skipLine() throws IOException {
+            while (buffer.hasRemaining() || fillBuffer()) {
+                int lineEnd = indexOfNewLine(buffer.array(), buffer.position(), buffer.limit());
+                if (lineEnd >= 0) {
+                    consume(lineEnd - buffer.position() + 1);
+                    return true;
+                }
+                consume(buffer.remaining());
+            }
+            return false;
+        }
+
+        private boolean fillBuffer() throws IOException {
+            buffer.clear();
+            int bytesRead;
+            do {
+                bytesRead = channel.read(buffer, readPosition);
+            } while (bytesRead == 0);
+            buffer.flip();
+            if (bytesRead < 0) {
+                return false;
+            }
+            readPosition += bytesRead;
+            return true;
+        }
+
+        private void consume(int length) {
+            buffer.position(buffer.position() + length);
+            position += length;
+        }
+
+        private String decode(byte[] bytes, int offset, int length) {
+            if (length > 0 && bytes[offset + length - 1] == '\r') {
+                length--;
+            }
+            return new String(bytes, offset, length, charset);
+        }
+    }
+
+    private static int indexOfNewLine(byte[] array, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (array[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static final class FileRange {
+        final Path file;
+        final long start;
+        final long end;
+
+        FileRange(Path file, long start, long end) {
+            this.file = file;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public String toString() {
+            return file + "[" + start + ", " + end + ')';
+        }
+    }
+
+    private static final class MetaSupplier implements ProcessorMetaSupplier {
+
+        static final long serialVersionUID = 1L;
+
+        private final String directory;
+        private final String charset;
+        private final String glob;
+        private final boolean sharedFileSystem;
+
+        private int localParallelism;
+
+        MetaSupplier(String directory, String charset, String glob, boolean sharedFileSystem) {
+            this.directory = directory;
+            this.charset = charset;
+            this.glob = glob;
+            this.sharedFileSystem = sharedFileSystem;
+        }
+
+        @Override
+        public int preferredLocalParallelism() {
+            return 2;
+        }
+
+        @Override
+        public void init(@Nonnull Context context) {
+            localParallelism = context.localParallelism();
+        }
+
+        @Nonnull @Override
+        public Function<Address, ProcessorSupplier> get(@Nonnull List<Address> addresses) {
+            if (!sharedFileSystem) {
+                // each member reads its own files
+                return address -> supplier(1, 0);
+            }
+            return address -> supplier(addresses.size(), addresses.indexOf(address));
+        }
+
+        private ProcessorSupplier supplier(int memberCount, int memberIndex) {
+            String directory = this.directory;
+            String charset = this.charset;
+            String glob = this.glob;
+            int parallelism = memberCount * localParallelism;
+            int firstId = memberIndex * localParallelism;
+            return new CloseableProcessorSupplier<>(
+                    count -> IntStream.range(0, count)
+                                      .mapToObj(i -> new ReadFileRangesP(directory, Charset.forName(charset), glob,
+                                              parallelism, firstId + i))
+                                      .collect(toList()));
+        }
+    }
+}
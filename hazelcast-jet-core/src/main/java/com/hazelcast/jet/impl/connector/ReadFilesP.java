@@ -16,6 +16,7 @@
 
 package com.hazelcast.jet.impl.connector;
 
+import com.hazelcast.jet.FileCompression;
 import com.hazelcast.jet.Traverser;
 import com.hazelcast.jet.Traversers;
 import com.hazelcast.jet.core.AbstractProcessor;
@@ -40,7 +41,7 @@ import static com.hazelcast.jet.impl.util.Util.uncheckRun;
 import static java.util.stream.Collectors.toList;
 
 /**
- * Private API, use {@link SourceProcessors#readFilesP(String, Charset, String)}.
+ * Private API, use {@link SourceProcessors#readFilesP(String, Charset, String, FileCompression)}.
  * <p>
  * Since the work of this vertex is file IO-intensive, its {@link
  * com.hazelcast.jet.core.Vertex#localParallelism(int) local parallelism}
@@ -58,13 +59,16 @@ public final class ReadFilesP extends AbstractProcessor implements Closeable {
     private final int id;
     private final Path directory;
     private final String glob;
+    private final FileCompression compression;
     private DirectoryStream<Path> directoryStream;
     private Traverser<String> outputTraverser;
     private Stream<String> currentFileLines;
 
-    private ReadFilesP(String directory, Charset charset, String glob, int parallelism, int id) {
+    private ReadFilesP(String directory, Charset charset, String glob, FileCompression compression,
+                       int parallelism, int id) {
         this.directory = Paths.get(directory);
         this.glob = glob;
+        this.compression = compression;
         this.charset = charset;
         this.parallelism = parallelism;
         this.id = id;
@@ -101,7 +105,7 @@ public final class ReadFilesP extends AbstractProcessor implements Closeable {
         }
         try {
             assert currentFileLines == null : "currentFileLines != null";
-            currentFileLines = Files.lines(file, charset);
+            currentFileLines = CompressedFiles.lines(file, charset, compression);
             return traverseStream(currentFileLines)
                     .onFirstNull(() -> {
                         currentFileLines.close();
@@ -136,15 +140,17 @@ public final class ReadFilesP extends AbstractProcessor implements Closeable {
     }
 
     /**
-     * Private API. Use {@link SourceProcessors#readFilesP(String, Charset, String)}
+     * Private API. Use {@link SourceProcessors#readFilesP(String, Charset, String, FileCompression)}
      * instead.
      */
     public static ProcessorMetaSupplier metaSupplier(
-            @Nonnull String directory, @Nonnull String charset, @Nonnull String glob
+            @Nonnull String directory, @Nonnull String charset, @Nonnull String glob,
+            @Nonnull FileCompression compression
     ) {
         return ProcessorMetaSupplier.of(new CloseableProcessorSupplier<>(
                 count -> IntStream.range(0, count)
-                                  .mapToObj(i -> new ReadFilesP(directory, Charset.forName(charset), glob, count, i))
+                                  .mapToObj(i -> new ReadFilesP(directory, Charset.forName(charset), glob,
+                                          compression, count, i))
                                   .collect(toList())),
                 2);
     }
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.connector;
+
+import com.hazelcast.instance.HazelcastInstanceImpl;
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.core.ProcessorSupplier;
+import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.jet.impl.execution.LocalDiskSnapshotStore;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.NodeEngine;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.stream.IntStream;
+
+import static com.hazelcast.jet.Traversers.empty;
+import static com.hazelcast.jet.Traversers.traverseIterable;
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.impl.execution.LocalDiskSnapshotStore.listChunkFiles;
+import static com.hazelcast.jet.impl.execution.LocalDiskSnapshotStore.mapChunk;
+import static com.hazelcast.jet.impl.execution.LocalDiskSnapshotStore.readEntry;
+import static com.hazelcast.jet.impl.execution.LocalDiskSnapshotStore.readHeader;
+import static com.hazelcast.jet.impl.execution.LocalDiskSnapshotStore.vertexDir;
+import static com.hazelcast.jet.impl.util.ExceptionUtil.sneakyThrow;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Reads the snapshot data stored by {@link LocalDiskSnapshotStore} from the
+ * files of the local member. Each chunk file is read by one member only:
+ * the first one holding a copy of it which is still in the cluster. The
+ * entries must be routed to the restored processors by a distributed
+ * partitioned edge.
+ */
+public final class ReadLocalSnapshotP<T> extends AbstractProcessor {
+
+    private final long jobId;
+    private final long snapshotId;
+    private final String vertexName;
+    private final DistributedFunction<Entry<Object, Object>, T> projection;
+    private final int parallelism;
+    private final int id;
+
+    private NodeEngine nodeEngine;
+    private Traverser<T> outputTraverser;
+
+    private ReadLocalSnapshotP(long jobId, long snapshotId, String vertexName,
+                               DistributedFunction<Entry<Object, Object>, T> projection, int parallelism, int id) {
+        this.jobId = jobId;
+        this.snapshotId = snapshotId;
+        this.vertexName = vertexName;
+        this.projection = projection;
+        this.parallelism = parallelism;
+        this.id = id;
+    }
+
+    @Override
+    protected void init(@Nonnull Context context) throws Exception {
+        nodeEngine = ((HazelcastInstanceImpl) context.jetInstance().getHazelcastInstance()).node.nodeEngine;
+        List<Path> files = listChunkFiles(vertexDir(nodeEngine, jobId, snapshotId, vertexName));
+        outputTraverser = traverseIterable(files)
+                .filter(this::shouldProcessFile)
+                .flatMap(this::processFile);
+    }
+
+    @Override
+    public boolean complete() {
+        return emitFromTraverser(outputTraverser);
+    }
+
+    private boolean shouldProcessFile(Path file) {
+        int hashCode = file.hashCode();
+        return ((hashCode & Integer.MAX_VALUE) % parallelism) == id;
+    }
+
+    private Traverser<T> processFile(Path file) {
+        ByteBuffer chunk;
+        try {
+            chunk = mapChunk(file);
+        } catch (IOException e) {
+            throw sneakyThrow(e);
+        }
+        String localUuid = nodeEngine.getLocalMember().getUuid();
+        String readerUuid = readHeader(chunk).stream()
+                                             .filter(uuid -> nodeEngine.getClusterService().getMember(uuid) != null)
+                                             .findFirst()
+                                             .orElse(localUuid);
+        if (!readerUuid.equals(localUuid)) {
+            // another member holding a copy of the chunk reads it
+            return empty();
+        }
+        if (getLogger().isFinestEnabled()) {
+            getLogger().finest("Processing snapshot chunk " + file);
+        }
+        return () -> {
+            Entry<Data, Data> e = readEntry(chunk);
+            return e == null ? null : projection.apply(entry(
+                    nodeEngine.toObject(e.getKey()), nodeEngine.toObject(e.getValue())));
+        };
+    }
+
+    @Override
+    public boolean isCooperative() {
+        return false;
+    }
+
+    /**
+     * Returns a supplier of processors reading the local files of the given
+     * snapshot for the given vertex.
+     */
+    public static <T> ProcessorMetaSupplier readLocalSnapshotP(
+            long jobId, long snapshotId, @Nonnull String vertexName,
+            @Nonnull DistributedFunction<Entry<Object, Object>, T> projection
+    ) {
+        return ProcessorMetaSupplier.of((ProcessorSupplier) count ->
+                IntStream.range(0, count)
+                         .mapToObj(i -> new ReadLocalSnapshotP<>(jobId, snapshotId, vertexName, projection, count, i))
+                         .collect(toList()));
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.connector;
+
+import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.core.CloseableProcessorSupplier;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.core.processor.SourceProcessors;
+import com.hazelcast.jet.function.DistributedFunction;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.hazelcast.jet.Traversers.traverseIterable;
+import static com.hazelcast.jet.impl.util.ExceptionUtil.sneakyThrow;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Private API, use {@link SourceProcessors#readMappedFilesP(String, String,
+ * DistributedFunction)}.
+ * <p>
+ * Each file is memory-mapped and the records are parsed directly from the
+ * mapped buffer by the user-supplied function, without decoding the
+ * contents to strings. Files larger than 2 GB are mapped in several
+ * regions: when a record crosses the end of the region, the function fails
+ * with a {@link BufferUnderflowException} and the file is mapped again
+ * from the start of that record.
+ * <p>
+ * The files are assigned to the processors the same way as in {@link
+ * ReadFilesP}, any one file is read by one processor.
+ */
+public final class ReadMappedFilesP<T> extends AbstractProcessor implements Closeable {
+
+    private static final int MAX_MAPPING_SIZE = Integer.MAX_VALUE;
+
+    private final Path directory;
+    private final String glob;
+    private final DistributedFunction<? super ByteBuffer, T> parseFn;
+    private final int parallelism;
+    private final int id;
+
+    private Traverser<T> outputTraverser;
+    private FileChannel currentChannel;
+
+    private ReadMappedFilesP(String directory, String glob, DistributedFunction<? super ByteBuffer, T> parseFn,
+                             int parallelism, int id) {
+        this.directory = Paths.get(directory);
+        this.glob = glob;
+        this.parseFn = parseFn;
+        this.parallelism = parallelism;
+        this.id = id;
+    }
+
+    @Override
+    protected void init(@Nonnull Context context) throws Exception {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory, glob)) {
+            for (Path file : directoryStream) {
+                if (shouldProcessFile(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        outputTraverser = traverseIterable(files).flatMap(this::processFile);
+    }
+
+    @Override
+    public boolean complete() {
+        return emitFromTraverser(outputTraverser);
+    }
+
+    private boolean shouldProcessFile(Path file) {
+        if (Files.isDirectory(file)) {
+            return false;
+        }
+        int hashCode = file.hashCode();
+        return ((hashCode & Integer.MAX_VALUE) % parallelism) == id;
+    }
+
+    private Traverser<T> processFile(Path file) {
+        if (getLogger().isFinestEnabled()) {
+            getLogger().finest("Processing file " + file);
+        }
+        try {
+            assert currentChannel == null : "currentChannel != null";
+            currentChannel = FileChannel.open(file, StandardOpenOption.READ);
+            return new MappedFileTraverser(file, currentChannel.size());
+        } catch (IOException e) {
+            throw sneakyThrow(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (currentChannel != null) {
+            currentChannel.close();
+        }
+    }
+
+    @Override
+    public boolean isCooperative() {
+        return false;
+    }
+
+    /**
+     * Private API. Use {@link SourceProcessors#readMappedFilesP(String,
+     * String, DistributedFunction)} instead.
+     */
+    public static <T> ProcessorMetaSupplier metaSupplier(
+            @Nonnull String directory, @Nonnull String glob,
+            @Nonnull DistributedFunction<? super ByteBuffer, T> parseFn
+    ) {
+        return ProcessorMetaSupplier.of(new CloseableProcessorSupplier<>(
+                count -> IntStream.range(0, count)
+                                  .mapToObj(i -> new ReadMappedFilesP<>(directory, glob, parseFn, count, i))
+                                  .collect(toList())),
+                2);
+    }
+
+    private final class MappedFileTraverser implements Traverser<T> {
+
+        private final Path file;
+        private final long fileSize;
+        // the position of the mapped region in the file
+        private long mappingStart;
+        private MappedByteBuffer buffer;
+
+        MappedFileTraverser(Path file, long fileSize) {
+            this.file = file;
+            this.fileSize = fileSize;
+        }
+
+        @Override
+        public T next() {
+            try {
+                while (true) {
+                    if (buffer == null || !buffer.hasRemaining()) {
+                        long position = buffer == null ? 0 : mappingStart + buffer.limit();
+                        if (position >= fileSize) {
+                            // the mapping stays valid after the channel is closed
+                            currentChannel.close();
+                            currentChannel = null;
+                            return null;
+                        }
+                        map(position);
+                    }
+                    T item = parseRecord();
+                    if (item != null) {
+                        return item;
+                    }
+                }
+            } catch (IOException e) {
+                throw sneakyThrow(e);
+            }
+        }
+
+        private T parseRecord() throws IOException {
+            int recordStart = buffer.position();
+            T item;
+            try {
+                item = parseFn.apply(buffer);
+            } catch (BufferUnderflowException e) {
+                if (mappingStart + buffer.limit() >= fileSize) {
+                    throw new JetException("Incomplete record at the end of " + file
+                            + ", position " + (mappingStart + recordStart), e);
+                }
+                if (recordStart == 0) {
+                    throw new JetException("Record in " + file + " at position " + mappingStart
+                            + " is larger than the maximum mapped region of " + MAX_MAPPING_SIZE + " bytes", e);
+                }
+                map(mappingStart + recordStart);
+                return null;
+            }
+            if (buffer.position() == recordStart) {
+                throw new JetException("parseFn didn't consume any bytes from " + file
+                        + " at position " + (mappingStart + recordStart));
+            }
+            return item;
+        }
+
+        private void map(long position) throws IOException {
+            long size = Math.min(fileSize - position, MAX_MAPPING_SIZE);
+            buffer = currentChannel.map(MapMode.READ_ONLY, position, size);
+            mappingStart = position;
+        }
+    }
+}
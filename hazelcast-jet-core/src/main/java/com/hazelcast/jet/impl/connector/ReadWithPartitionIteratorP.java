@@ -30,22 +30,36 @@ import com.hazelcast.jet.core.ProcessorMetaSupplier;
 import com.hazelcast.jet.core.ProcessorSupplier;
 import com.hazelcast.jet.core.processor.Processors;
 import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.jet.impl.execution.PartitionedEntry;
+import com.hazelcast.jet.impl.execution.SnapshotChunk;
+import com.hazelcast.jet.impl.execution.SnapshotTombstone;
 import com.hazelcast.jet.impl.util.CircularListCursor;
+import com.hazelcast.map.impl.MapService;
 import com.hazelcast.map.impl.proxy.MapProxyImpl;
 import com.hazelcast.nio.Address;
 import com.hazelcast.projection.Projection;
 import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.spi.partition.IPartitionService;
+import com.hazelcast.spi.serialization.SerializationService;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.IntStream;
 
 import static com.hazelcast.client.HazelcastClient.newHazelcastClient;
+import static com.hazelcast.jet.Util.entry;
 import static com.hazelcast.jet.impl.util.Util.processorToPartitions;
 import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.mapping;
@@ -125,6 +139,61 @@ public final class ReadWithPartitionIteratorP<T> extends AbstractProcessor {
                         .iterator(FETCH_SIZE, partition, projection, predicate));
     }
 
+    /**
+     * Like {@link #readMapP(String, Predicate, Projection)}, but if an index
+     * of the map can evaluate the predicate, the matching entries are looked
+     * up in the index once per member instead of scanning the partitions.
+     * The member's matches are grouped by partition and each processor
+     * emits those of its partitions. If no index applies, the partitions are
+     * scanned.
+     */
+    public static <K, V, T> ProcessorMetaSupplier readMapIndexedP(
+            @Nonnull String mapName,
+            @Nonnull Predicate<K, V> predicate,
+            @Nonnull Projection<Entry<K, V>, T> projection
+    ) {
+        return new LocalClusterMetaSupplier<T>(instance -> {
+            MapProxyImpl<K, V> map = (MapProxyImpl<K, V>) instance.<K, V>getMap(mapName);
+            Map<Integer, List<QueryableEntry>> matchesByPartition = queryIndexes(map, predicate);
+            if (matchesByPartition == null) {
+                return partition -> map.<T>iterator(FETCH_SIZE, partition, projection, predicate);
+            }
+            return partition -> matchesByPartition
+                    .getOrDefault(partition, Collections.emptyList())
+                    .stream()
+                    .map(e -> projection.transform((Entry<K, V>) e))
+                    .iterator();
+        });
+    }
+
+    /**
+     * Reads the snapshot data of one vertex stored in a chain of maps, see
+     * {@link com.hazelcast.jet.config.JobConfig#setMaxIncrementalSnapshots(int)}.
+     * Each key is emitted with the value from the newest map it occurs in,
+     * keys removed by a {@link SnapshotTombstone} are skipped. The maps are
+     * partitioned in the same way, so each partition is merged locally. The
+     * projection receives {@link PartitionedEntry}s.
+     *
+     * @param mapNames names of the snapshot data maps, oldest first
+     */
+    public static <T> ProcessorMetaSupplier readSnapshotChainP(
+            @Nonnull List<String> mapNames,
+            @Nonnull DistributedFunction<Entry<Object, Object>, T> projection
+    ) {
+        return new LocalClusterMetaSupplier<T>(instance -> {
+            // newest first, up to the first map which contains the full state
+            List<MapProxyImpl<Object, Object>> maps = new ArrayList<>();
+            for (int i = mapNames.size() - 1; i >= 0; i--) {
+                MapProxyImpl<Object, Object> map = (MapProxyImpl<Object, Object>) instance.getMap(mapNames.get(i));
+                maps.add(map);
+                if (!map.containsKey(SnapshotTombstone.TOMBSTONE)) {
+                    break;
+                }
+            }
+            return partition -> new SnapshotChainIterator<>(maps.iterator(), partition, projection);
+        });
+    }
+
     public static ProcessorMetaSupplier readCacheP(@Nonnull String cacheName) {
         return new LocalClusterMetaSupplier<>(
                 instance -> partition -> ((CacheProxy) instance.getCacheManager().getCache(cacheName))
@@ -137,6 +206,24 @@ public final class ReadWithPartitionIteratorP<T> extends AbstractProcessor {
                         .iterator(FETCH_SIZE, partition, PREFETCH_VALUES));
     }
 
+    /**
+     * Queries the indexes of the map on the local member. Returns the
+     * matching entries grouped by partition, or {@code null} if no index
+     * can evaluate the predicate.
+     */
+    @Nullable
+    static Map<Integer, List<QueryableEntry>> queryIndexes(MapProxyImpl<?, ?> map, Predicate<?, ?> predicate) {
+        MapService mapService = map.getService();
+        Indexes indexes = mapService.getMapServiceContext().getMapContainer(map.getName()).getIndexes();
+        Set<QueryableEntry> matches = indexes.query(predicate);
+        if (matches == null) {
+            return null;
+        }
+        IPartitionService partitionService = map.getNodeEngine().getPartitionService();
+        return matches.stream()
+                      .collect(groupingBy(e -> partitionService.getPartitionId(e.getKeyData())));
+    }
+
     @Override
     public boolean complete() {
         return emitFromTraverser(outputTraverser);
@@ -245,6 +332,89 @@ public final class ReadWithPartitionIteratorP<T> extends AbstractProcessor {
         }
     }
 
+    /**
+     * Merges one partition of a chain of snapshot data maps, see {@link
+     * #readSnapshotChainP}. Values that are {@link SnapshotChunk}s are
+     * expanded in place into the entries they contain.
+     */
+    private static final class SnapshotChainIterator<T> implements Iterator<T> {
+
+        private final Iterator<MapProxyImpl<Object, Object>> newestFirstMaps;
+        private final int partition;
+        private final Function<Entry<Object, Object>, T> projection;
+        private final Set<Object> seenKeys = new HashSet<>();
+
+        private Iterator<Entry<Object, Object>> currIterator = Collections.emptyIterator();
+        // the entries of the last chunk read from currIterator, they are read before continuing with it
+        private Iterator<Entry<Object, Object>> chunkEntries = Collections.emptyIterator();
+        private SerializationService serializationService;
+        private boolean isOldestMap;
+        private T next;
+
+        SnapshotChainIterator(Iterator<MapProxyImpl<Object, Object>> newestFirstMaps, int partition,
+                              Function<Entry<Object, Object>, T> projection) {
+            this.newestFirstMaps = newestFirstMaps;
+            this.partition = partition;
+            this.projection = projection;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                Entry<Object, Object> e;
+                if (chunkEntries.hasNext()) {
+                    e = chunkEntries.next();
+                } else if (!currIterator.hasNext()) {
+                    if (!newestFirstMaps.hasNext()) {
+                        return false;
+                    }
+                    MapProxyImpl<Object, Object> map = newestFirstMaps.next();
+                    serializationService = map.getNodeEngine().getSerializationService();
+                    currIterator = map.iterator(FETCH_SIZE, partition, PREFETCH_VALUES);
+                    isOldestMap = !newestFirstMaps.hasNext();
+                    continue;
+                } else {
+                    e = currIterator.next();
+                    if (e.getValue() instanceof SnapshotChunk) {
+                        // a chunk of a compressed snapshot, continue with its entries
+                        chunkEntries = chunkEntries((SnapshotChunk) e.getValue());
+                        continue;
+                    }
+                }
+                if (e.getKey() instanceof SnapshotTombstone) {
+                    // the marker of a delta map
+                    continue;
+                }
+                // keys of the oldest map don't need to be remembered, nothing is read after it
+                boolean isNewest = isOldestMap ? !seenKeys.contains(e.getKey()) : seenKeys.add(e.getKey());
+                if (isNewest && !(e.getValue() instanceof SnapshotTombstone)) {
+                    next = projection.apply(new PartitionedEntry<>(partition, e.getKey(), e.getValue()));
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T result = next;
+            next = null;
+            return result;
+        }
+
+        /**
+         * Returns an iterator over the deserialized entries of the chunk.
+         */
+        private Iterator<Entry<Object, Object>> chunkEntries(SnapshotChunk chunk) {
+            return chunk.entries().stream()
+                        .map(e -> entry(serializationService.toObject(e.getKey()),
+                                serializationService.<Object>toObject(e.getValue())))
+                        .iterator();
+        }
+    }
+
     private static class LocalClusterMetaSupplier<T> implements ProcessorMetaSupplier {
 
         static final long serialVersionUID = 1L;
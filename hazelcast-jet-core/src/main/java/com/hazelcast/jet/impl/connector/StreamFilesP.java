@@ -17,23 +17,24 @@
 package com.hazelcast.jet.impl.connector;
 
 import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.Traverser;
 import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.core.BroadcastKey;
 import com.hazelcast.jet.core.CloseableProcessorSupplier;
 import com.hazelcast.jet.core.ProcessorMetaSupplier;
 import com.hazelcast.jet.impl.util.ReflectionUtils;
 import com.hazelcast.logging.ILogger;
 
 import javax.annotation.Nonnull;
-import java.io.BufferedReader;
 import java.io.Closeable;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
@@ -43,12 +44,17 @@ import java.nio.file.WatchService;
 import java.util.ArrayDeque;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Queue;
 import java.util.stream.IntStream;
 
+import static com.hazelcast.jet.Traversers.traverseIterable;
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.core.BroadcastKey.broadcastKey;
 import static com.hazelcast.jet.impl.util.ExceptionUtil.sneakyThrow;
 import static com.hazelcast.jet.impl.util.LoggingUtil.logFine;
 import static com.hazelcast.jet.impl.util.LoggingUtil.logFinest;
+import static java.nio.file.StandardOpenOption.READ;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
@@ -68,6 +74,10 @@ import static java.util.stream.Collectors.toList;
  * vertex, the optimal value would be in the range of 4-8. Note that any
  * one file is only read by one thread, so extra parallelism won't improve
  * performance if there aren't enough files to read.
+ * <p>
+ * The file offsets of the emitted lines are saved to the snapshot. The
+ * lines are split on the {@code '\r'} and {@code '\n'} bytes, therefore
+ * the charset must encode them as single bytes, as ASCII does.
  */
 public class StreamFilesP extends AbstractProcessor implements Closeable {
 
@@ -75,10 +85,11 @@ public class StreamFilesP extends AbstractProcessor implements Closeable {
      * The amount of data read from one file at once must be limited
      * in order to prevent a possible {@link java.nio.file.StandardWatchEventKinds#OVERFLOW
      * OVERFLOW} if too many Watcher events accumulate in the queue. This
-     * constant specifies the number of lines to read at once, before going
-     * back to polling the event queue.
+     * constant specifies the number of bytes to read at once, before going
+     * back to polling the event queue. The buffer grows if a single line
+     * doesn't fit.
      */
-    private static final int LINES_IN_ONE_BATCH = 64;
+    private static final int BATCH_SIZE = 1 << 16;
     private static final String SENSITIVITY_MODIFIER_CLASSNAME = "com.sun.nio.file.SensitivityWatchEventModifier";
     private static final WatchEvent.Kind[] WATCH_EVENT_KINDS = {ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE};
     private static final WatchEvent.Modifier[] WATCH_EVENT_MODIFIERS = getHighSensitivityModifiers();
@@ -95,10 +106,17 @@ public class StreamFilesP extends AbstractProcessor implements Closeable {
     private final Queue<Path> eventQueue = new ArrayDeque<>();
 
     private WatchService watcher;
-    private StringBuilder lineBuilder = new StringBuilder();
     private Path currentFile;
-    private FileInputStream currentInputStream;
-    private Reader currentReader;
+    private FileChannel currentChannel;
+    private ByteBuffer buffer = emptyBuffer(BATCH_SIZE);
+    // file offset of the start of the buffer
+    private long bufferOffset;
+    // the last line ended with '\r', skip the following '\n'
+    private boolean skipLF;
+    private String pendingLine;
+
+    private Traverser<Entry<BroadcastKey<String>, Long>> snapshotTraverser;
+    private Map<String, Long> restoredOffsets = new HashMap<>();
 
     StreamFilesP(@Nonnull String watchedDirectory, @Nonnull Charset charset, @Nonnull String glob,
                  int parallelism, int id
@@ -113,10 +131,12 @@ public class StreamFilesP extends AbstractProcessor implements Closeable {
 
     @Override
     protected void init(@Nonnull Context context) throws Exception {
-        for (Path file : Files.newDirectoryStream(watchedDirectory)) {
-            if (Files.isRegularFile(file)) {
-                // Negative offset means "initial offset", needed to skip the first line
-                fileOffsets.put(file, -Files.size(file));
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(watchedDirectory)) {
+            for (Path file : stream) {
+                if (isWatched(file)) {
+                    // Negative offset means "initial offset", needed to skip the first line
+                    fileOffsets.put(file, -Files.size(file));
+                }
             }
         }
         watcher = FileSystems.getDefault().newWatchService();
@@ -161,6 +181,49 @@ public class StreamFilesP extends AbstractProcessor implements Closeable {
         }
     }
 
+    @Override
+    public boolean saveToSnapshot() {
+        if (snapshotTraverser == null) {
+            snapshotTraverser = traverseIterable(fileOffsets.entrySet())
+                    .map(e -> entry(broadcastKey(e.getKey().getFileName().toString()), e.getValue()))
+                    .onFirstNull(() -> snapshotTraverser = null);
+        }
+        boolean done = emitFromTraverserToSnapshot(snapshotTraverser);
+        if (done) {
+            logFinest(getLogger(), "Saved snapshot. Offsets: %s", fileOffsets);
+        }
+        return done;
+    }
+
+    @Override
+    protected void restoreFromSnapshot(@Nonnull Object key, @Nonnull Object value) {
+        String fileName = ((BroadcastKey<String>) key).key();
+        if (belongsToThisProcessor(Paths.get(fileName))) {
+            restoredOffsets.put(fileName, (Long) value);
+        }
+    }
+
+    @Override
+    public boolean finishSnapshotRestore() {
+        // Replace the offsets found in init(). The files created after the
+        // snapshot was taken are read from the beginning, all files are
+        // checked for the content appended while the job was down.
+        fileOffsets.clear();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(watchedDirectory)) {
+            for (Path file : stream) {
+                if (isWatched(file)) {
+                    fileOffsets.put(file, restoredOffsets.getOrDefault(file.getFileName().toString(), 0L));
+                    eventQueue.add(file);
+                }
+            }
+        } catch (IOException e) {
+            throw sneakyThrow(e);
+        }
+        logFinest(getLogger(), "Restored snapshot. Offsets: %s", fileOffsets);
+        restoredOffsets = null;
+        return true;
+    }
+
     private void drainWatcherEvents() throws InterruptedException {
         final ILogger logger = getLogger();
         // poll with blocking only when there is no other work to do
@@ -198,25 +261,48 @@ public class StreamFilesP extends AbstractProcessor implements Closeable {
         }
     }
 
+    private boolean isWatched(Path file) {
+        Path fileName = file.getFileName();
+        return glob.matches(fileName) && belongsToThisProcessor(fileName) && Files.isRegularFile(file);
+    }
+
     private boolean belongsToThisProcessor(Path path) {
         return ((path.hashCode() & Integer.MAX_VALUE) % parallelism) == id;
     }
 
+    /**
+     * Emits the complete lines in the buffer, reading at most one batch
+     * from the file. The file offset is advanced only after the line is
+     * emitted.
+     */
     private void processFile() {
         try {
             if (!ensureFileOpen()) {
                 return;
             }
-            for (int i = 0; i < LINES_IN_ONE_BATCH; i++) {
-                String line = readCompleteLine(currentReader);
-                if (line == null) {
-                    fileOffsets.put(currentFile, currentInputStream.getChannel().position());
-                    closeCurrentFile();
-                    break;
+            boolean batchRead = false;
+            while (true) {
+                if (pendingLine == null) {
+                    pendingLine = readCompleteLine(buffer);
                 }
-                if (!tryEmit(line)) {
-                    break;
+                if (pendingLine == null) {
+                    if (batchRead) {
+                        return;
+                    }
+                    if (!readBatch()) {
+                        // EOF, the offset is at the start of the incomplete line
+                        fileOffsets.put(currentFile, bufferOffset + buffer.position());
+                        closeCurrentFile();
+                        return;
+                    }
+                    batchRead = true;
+                    continue;
                 }
+                if (!tryEmit(pendingLine)) {
+                    return;
+                }
+                pendingLine = null;
+                fileOffsets.put(currentFile, bufferOffset + buffer.position());
             }
         } catch (IOException e) {
             close();
@@ -225,99 +311,139 @@ public class StreamFilesP extends AbstractProcessor implements Closeable {
     }
 
     private boolean ensureFileOpen() throws IOException {
-        if (currentReader != null) {
+        if (currentChannel != null) {
             return true;
         }
         long offset = fileOffsets.getOrDefault(currentFile, 0L);
         logFinest(getLogger(), "Processing file %s, previous offset: %,d", currentFile, offset);
         try {
-            FileInputStream fis = new FileInputStream(currentFile.toFile());
-            // Negative offset means we're reading the file for the first time.
-            // We recover the actual offset by negating, then we subtract one
-            // so as not to miss a preceding newline.
-            fis.getChannel().position(offset >= 0 ? offset : -offset - 1);
-            BufferedReader r = new BufferedReader(new InputStreamReader(fis, charset));
-            if (offset < 0 && !findNextLine(r, offset)) {
-                closeCurrentFile();
-                return false;
-            }
-            currentReader = r;
-            currentInputStream = fis;
-            return true;
-        } catch (FileNotFoundException ignored) {
+            currentChannel = FileChannel.open(currentFile, READ);
+        } catch (NoSuchFileException ignored) {
             // This could be caused by ENTRY_MODIFY emitted on file deletion
             // just before ENTRY_DELETE
             closeCurrentFile();
             return false;
         }
+        // Negative offset means we're reading the file for the first time.
+        // We recover the actual offset by negating, then we subtract one
+        // so as not to miss a preceding newline.
+        long position = offset >= 0 ? offset : -offset - 1;
+        if (position > currentChannel.size()) {
+            getLogger().info("File " + currentFile + " was truncated, reading it from the beginning");
+            position = 0;
+            offset = 0;
+        }
+        bufferOffset = position;
+        buffer.limit(0);
+        skipLF = offset > 0 && precededByCR(offset);
+        if (offset < 0 && !findNextLine()) {
+            closeCurrentFile();
+            return false;
+        }
+        return true;
+    }
+
+    private boolean precededByCR(long offset) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(1);
+        return currentChannel.read(b, offset - 1) == 1 && b.get(0) == '\r';
     }
 
-    private boolean findNextLine(Reader in, long offset) throws IOException {
+    private boolean findNextLine() throws IOException {
         while (true) {
-            int ch = in.read();
-            if (ch < 0) {
-                // we've hit EOF before finding the end of current line
-                fileOffsets.put(currentFile, offset);
-                return false;
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                if (b == '\n' || b == '\r') {
+                    skipLF = b == '\r';
+                    fileOffsets.put(currentFile, bufferOffset + buffer.position());
+                    return true;
+                }
             }
-            if (ch == '\n' || ch == '\r') {
-                maybeSkipLF(in, ch);
-                return true;
+            if (!readBatch()) {
+                // we've hit EOF before finding the end of current line,
+                // continue the search from here next time
+                fileOffsets.put(currentFile, -(bufferOffset + buffer.position()) - 1);
+                return false;
             }
         }
     }
 
     /**
-     * Reads a line from the input only if it is terminated by CR or LF or
-     * CRLF. If it detects EOF before the newline character, returns
-     * {@code null}.
+     * Reads the next batch from the current file after the data remaining
+     * in the buffer, growing the buffer if it's full. Returns {@code false}
+     * if there was no new data.
+     */
+    private boolean readBatch() throws IOException {
+        if (buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+            ByteBuffer grown = ByteBuffer.allocate(buffer.capacity() * 2);
+            grown.put(buffer);
+            buffer = grown;
+        } else {
+            bufferOffset += buffer.position();
+            buffer.compact();
+        }
+        int count = currentChannel.read(buffer, bufferOffset + buffer.position());
+        buffer.flip();
+        return count > 0;
+    }
+
+    /**
+     * Reads a line from the buffer only if it is terminated by CR or LF or
+     * CRLF. If it detects the end of the buffer before the newline
+     * character, returns {@code null} and leaves the buffer position
+     * unchanged.
      *
-     * @return The line (possibly zero-length) or null on EOF.
+     * @return The line (possibly zero-length) or null on end of buffer.
      */
     // package-visible for testing
-    String readCompleteLine(Reader reader) throws IOException {
-        int ch;
-        while ((ch = reader.read()) >= 0) {
-            if (ch < 0) {
-                break;
+    String readCompleteLine(ByteBuffer buf) {
+        if (skipLF && buf.hasRemaining()) {
+            if (buf.get(buf.position()) == '\n') {
+                buf.position(buf.position() + 1);
             }
-            if (ch == '\r' || ch == '\n') {
-                maybeSkipLF(reader, ch);
-                try {
-                    return lineBuilder.toString();
-                } finally {
-                    lineBuilder.setLength(0);
+            skipLF = false;
+        }
+        for (int i = buf.position(); i < buf.limit(); i++) {
+            byte b = buf.get(i);
+            if (b != '\n' && b != '\r') {
+                continue;
+            }
+            String line = new String(buf.array(), buf.arrayOffset() + buf.position(), i - buf.position(), charset);
+            int next = i + 1;
+            if (b == '\r') {
+                // look ahead for possible '\n' after '\r' (windows end-line style)
+                if (next == buf.limit()) {
+                    skipLF = true;
+                } else if (buf.get(next) == '\n') {
+                    next++;
                 }
-            } else {
-                lineBuilder.append((char) ch);
             }
+            buf.position(next);
+            return line;
         }
-        // EOF
         return null;
     }
 
-    private static void maybeSkipLF(Reader reader, int ch) throws IOException {
-        // look ahead for possible '\n' after '\r' (windows end-line style)
-        if (ch == '\r') {
-            reader.mark(1);
-            int ch2 = reader.read();
-            if (ch2 != '\n') {
-                reader.reset();
-            }
-        }
-    }
-
     private void closeCurrentFile() {
-        if (currentReader != null) {
+        if (currentChannel != null) {
             try {
-                currentReader.close();
+                currentChannel.close();
             } catch (IOException e) {
                 throw sneakyThrow(e);
             }
         }
         currentFile = null;
-        currentReader = null;
-        currentInputStream = null;
+        currentChannel = null;
+        pendingLine = null;
+        skipLF = false;
+        if (buffer.capacity() > BATCH_SIZE) {
+            buffer = emptyBuffer(BATCH_SIZE);
+        }
+    }
+
+    private static ByteBuffer emptyBuffer(int capacity) {
+        ByteBuffer b = ByteBuffer.allocate(capacity);
+        b.flip();
+        return b;
     }
 
     private boolean isClosed() {
@@ -0,0 +1,459 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.connector;
+
+import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.SocketFraming;
+import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.core.CloseableProcessorSupplier;
+import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.core.ProcessorSupplier;
+import com.hazelcast.jet.core.processor.SourceProcessors;
+import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.Address;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static com.hazelcast.jet.SocketFraming.LENGTH_PREFIX_SIZE;
+import static com.hazelcast.jet.impl.util.ExceptionUtil.sneakyThrow;
+import static com.hazelcast.jet.impl.util.LoggingUtil.logFine;
+import static com.hazelcast.jet.impl.util.Util.processorToPartitions;
+import static com.hazelcast.jet.impl.util.Util.uncheckCall;
+import static java.nio.channels.SelectionKey.OP_ACCEPT;
+import static java.nio.channels.SelectionKey.OP_CONNECT;
+import static java.nio.channels.SelectionKey.OP_READ;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Reads frames from many TCP connections multiplexed on a single {@link
+ * Selector}. The connections are either opened by the processor or
+ * accepted from a server socket shared by the processors on the member.
+ * Each connection has a direct buffer the frames are parsed from without
+ * copying. The processor never blocks, it is cooperative.
+ *
+ * @see SourceProcessors#streamSocketsP(List, SocketFraming, DistributedFunction)
+ * @see SourceProcessors#streamServerSocketP(int, SocketFraming, DistributedFunction)
+ */
+public final class StreamSocketsP<T> extends AbstractProcessor implements Closeable {
+
+    private static final int PREFERRED_LOCAL_PARALLELISM = 2;
+
+    private final List<InetSocketAddress> addresses;
+    private final ServerSocketChannel serverChannel;
+    private final SocketFraming framing;
+    private final DistributedFunction<? super ByteBuffer, T> parseFn;
+
+    // connections with received data that wasn't parsed yet
+    private final Queue<Connection> readyConnections = new ArrayDeque<>();
+    private Selector selector;
+    private int openConnections;
+    private T pendingItem;
+
+    private StreamSocketsP(
+            @Nonnull List<InetSocketAddress> addresses,
+            ServerSocketChannel serverChannel,
+            @Nonnull SocketFraming framing,
+            @Nonnull DistributedFunction<? super ByteBuffer, T> parseFn
+    ) {
+        this.addresses = addresses;
+        this.serverChannel = serverChannel;
+        this.framing = framing;
+        this.parseFn = parseFn;
+    }
+
+    @Override
+    protected void init(@Nonnull Context context) throws Exception {
+        selector = Selector.open();
+        for (InetSocketAddress address : addresses) {
+            // resolve on the member, the address could have been created elsewhere
+            InetSocketAddress resolved = new InetSocketAddress(address.getHostString(), address.getPort());
+            getLogger().info("Connecting to socket " + resolved);
+            SocketChannel channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            boolean connected = channel.connect(resolved);
+            channel.register(selector, connected ? OP_READ : OP_CONNECT, new Connection(channel, resolved));
+            openConnections++;
+        }
+        if (serverChannel != null) {
+            serverChannel.register(selector, OP_ACCEPT);
+        }
+    }
+
+    @Override
+    public boolean complete() {
+        return uncheckCall(this::tryComplete);
+    }
+
+    private boolean tryComplete() throws IOException {
+        if (!emitFromReadyConnections()) {
+            return false;
+        }
+        selector.selectNow();
+        for (Iterator<SelectionKey> it = selector.selectedKeys().iterator(); it.hasNext(); ) {
+            SelectionKey key = it.next();
+            it.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            if (key.isAcceptable()) {
+                accept();
+                continue;
+            }
+            Connection connection = (Connection) key.attachment();
+            if (key.isConnectable()) {
+                connection.finishConnect(key);
+            } else if (key.isReadable() && connection.read()) {
+                readyConnections.add(connection);
+            }
+        }
+        return emitFromReadyConnections() && serverChannel == null && openConnections == 0;
+    }
+
+    private boolean emitFromReadyConnections() {
+        if (pendingItem != null) {
+            if (!tryEmit(pendingItem)) {
+                return false;
+            }
+            pendingItem = null;
+        }
+        for (Connection connection; (connection = readyConnections.peek()) != null; ) {
+            for (ByteBuffer frame; (frame = connection.nextFrame()) != null; ) {
+                T item = parseFn.apply(frame);
+                if (item != null && !tryEmit(item)) {
+                    pendingItem = item;
+                    return false;
+                }
+            }
+            readyConnections.remove();
+        }
+        return true;
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            // another processor accepted the connection
+            return;
+        }
+        channel.configureBlocking(false);
+        Connection connection = new Connection(channel, channel.getRemoteAddress());
+        channel.register(selector, OP_READ, connection);
+        openConnections++;
+        logFine(getLogger(), "Accepted connection from %s", connection.remoteAddress);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (selector == null) {
+            return;
+        }
+        IOException error = null;
+        for (SelectionKey key : selector.keys()) {
+            // the server channel is closed by the supplier
+            if (key.attachment() != null) {
+                try {
+                    key.channel().close();
+                } catch (IOException e) {
+                    error = e;
+                }
+            }
+        }
+        selector.close();
+        selector = null;
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Internal API, use {@link SourceProcessors#streamSocketsP(List, SocketFraming, DistributedFunction)}.
+     */
+    @Nonnull
+    public static <T> ProcessorMetaSupplier connectingSupplier(
+            @Nonnull List<InetSocketAddress> addresses,
+            @Nonnull SocketFraming framing,
+            @Nonnull DistributedFunction<? super ByteBuffer, T> parseFn
+    ) {
+        return new ConnectingMetaSupplier<>(new ArrayList<>(addresses), framing, parseFn);
+    }
+
+    /**
+     * Internal API, use {@link SourceProcessors#streamServerSocketP(int, SocketFraming, DistributedFunction)}.
+     */
+    @Nonnull
+    public static <T> ProcessorMetaSupplier listeningSupplier(
+            int port,
+            @Nonnull SocketFraming framing,
+            @Nonnull DistributedFunction<? super ByteBuffer, T> parseFn
+    ) {
+        return ProcessorMetaSupplier.of(new ListeningSupplier<>(port, framing, parseFn), PREFERRED_LOCAL_PARALLELISM);
+    }
+
+    /**
+     * A TCP connection and its buffer. Between the reads the buffer is in
+     * the read mode: the position is at the start of the next frame and
+     * the limit at the end of the received data.
+     */
+    private final class Connection {
+
+        private final SocketChannel channel;
+        private final Object remoteAddress;
+        private final ByteBuffer buffer;
+        // a read-only view of the buffer positioned at the current frame
+        private final ByteBuffer frameView;
+        // index in the buffer up to which there's no delimiter
+        private int scanPosition;
+
+        Connection(SocketChannel channel, Object remoteAddress) {
+            this.channel = channel;
+            this.remoteAddress = remoteAddress;
+            this.buffer = ByteBuffer.allocateDirect(framing.maxFrameLength() + framing.overhead());
+            this.buffer.limit(0);
+            this.frameView = buffer.asReadOnlyBuffer();
+        }
+
+        void finishConnect(SelectionKey key) throws IOException {
+            if (channel.finishConnect()) {
+                key.interestOps(OP_READ);
+                getLogger().info("Connected to socket " + remoteAddress);
+            }
+        }
+
+        /**
+         * Reads the available data after the unparsed data in the buffer.
+         * Returns {@code true} if anything was read. Closes the connection
+         * when the peer closed it.
+         */
+        boolean read() throws IOException {
+            scanPosition -= buffer.position();
+            buffer.compact();
+            int count;
+            try {
+                count = channel.read(buffer);
+            } finally {
+                buffer.flip();
+            }
+            if (count < 0) {
+                if (buffer.hasRemaining()) {
+                    getLogger().warning("Connection from " + remoteAddress + " closed with an incomplete frame of "
+                            + buffer.remaining() + " bytes");
+                }
+                logFine(getLogger(), "Connection %s closed", remoteAddress);
+                channel.close();
+                openConnections--;
+            }
+            return count > 0;
+        }
+
+        /**
+         * Returns a view of the next complete frame in the buffer or {@code
+         * null}, if there's none. The view is only valid until the next call.
+         */
+        ByteBuffer nextFrame() {
+            int start = buffer.position();
+            int end;
+            int next;
+            if (framing.isLengthPrefixed()) {
+                if (buffer.remaining() < LENGTH_PREFIX_SIZE) {
+                    return null;
+                }
+                int length = buffer.getInt(start);
+                if (length < 0 || length > framing.maxFrameLength()) {
+                    throw new JetException("Invalid frame length " + length + " received from " + remoteAddress
+                            + ", the maximum is " + framing.maxFrameLength());
+                }
+                if (buffer.remaining() < LENGTH_PREFIX_SIZE + length) {
+                    return null;
+                }
+                start += LENGTH_PREFIX_SIZE;
+                end = start + length;
+                next = end;
+            } else {
+                end = findDelimiter(Math.max(start, scanPosition));
+                if (end < 0) {
+                    scanPosition = buffer.limit();
+                    if (buffer.remaining() > framing.maxFrameLength()) {
+                        throw new JetException("Frame received from " + remoteAddress
+                                + " is longer than the maximum of " + framing.maxFrameLength() + " bytes");
+                    }
+                    return null;
+                }
+                next = end + 1;
+            }
+            buffer.position(next);
+            frameView.limit(end);
+            frameView.position(start);
+            return frameView;
+        }
+
+        private int findDelimiter(int from) {
+            byte delimiter = framing.delimiter();
+            for (int i = from; i < buffer.limit(); i++) {
+                if (buffer.get(i) == delimiter) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Assigns the addresses to the members, the member connects to its
+     * addresses from its processors.
+     */
+    private static final class ConnectingMetaSupplier<T> implements ProcessorMetaSupplier {
+
+        static final long serialVersionUID = 1L;
+
+        private final List<InetSocketAddress> addresses;
+        private final SocketFraming framing;
+        private final DistributedFunction<? super ByteBuffer, T> parseFn;
+
+        ConnectingMetaSupplier(
+                List<InetSocketAddress> addresses,
+                SocketFraming framing,
+                DistributedFunction<? super ByteBuffer, T> parseFn
+        ) {
+            this.addresses = addresses;
+            this.framing = framing;
+            this.parseFn = parseFn;
+        }
+
+        @Override
+        public int preferredLocalParallelism() {
+            return PREFERRED_LOCAL_PARALLELISM;
+        }
+
+        @Override @Nonnull
+        public Function<Address, ProcessorSupplier> get(@Nonnull List<Address> members) {
+            Map<Address, List<Integer>> memberToAddresses = IntStream.range(0, addresses.size()).boxed()
+                    .collect(groupingBy(i -> members.get(i % members.size())));
+            return member -> {
+                List<InetSocketAddress> memberAddresses = memberToAddresses.getOrDefault(member, new ArrayList<>())
+                        .stream()
+                        .map(addresses::get)
+                        .collect(toList());
+                return new CloseableProcessorSupplier<>(count -> processorsFor(count, memberAddresses));
+            };
+        }
+
+        private List<StreamSocketsP<T>> processorsFor(int count, List<InetSocketAddress> memberAddresses) {
+            List<Integer> indexes = IntStream.range(0, memberAddresses.size()).boxed().collect(toList());
+            return processorToPartitions(count, indexes)
+                    .values().stream()
+                    .map(processorIndexes -> processorIndexes.stream().map(memberAddresses::get).collect(toList()))
+                    .map(processorAddresses -> new StreamSocketsP<>(processorAddresses, null, framing, parseFn))
+                    .collect(toList());
+        }
+    }
+
+    /**
+     * Opens the server socket on the member and closes it when the job
+     * completes. The processors accept the connections from it.
+     */
+    private static final class ListeningSupplier<T> implements ProcessorSupplier {
+
+        static final long serialVersionUID = 1L;
+
+        private final int port;
+        private final SocketFraming framing;
+        private final DistributedFunction<? super ByteBuffer, T> parseFn;
+
+        private transient ILogger logger;
+        private transient ServerSocketChannel serverChannel;
+        private transient List<StreamSocketsP<T>> processors;
+
+        ListeningSupplier(int port, SocketFraming framing, DistributedFunction<? super ByteBuffer, T> parseFn) {
+            this.port = port;
+            this.framing = framing;
+            this.parseFn = parseFn;
+        }
+
+        @Override
+        public void init(@Nonnull Context context) {
+            logger = context.logger();
+            try {
+                serverChannel = ServerSocketChannel.open();
+                serverChannel.configureBlocking(false);
+                serverChannel.bind(new InetSocketAddress(port));
+            } catch (IOException e) {
+                throw new JetException("Failed to listen on port " + port, e);
+            }
+            logger.info("Listening on port " + port);
+        }
+
+        @Override @Nonnull
+        public Collection<? extends Processor> get(int count) {
+            processors = IntStream.range(0, count)
+                                  .mapToObj(i -> new StreamSocketsP<>(new ArrayList<>(), serverChannel, framing, parseFn))
+                                  .collect(toList());
+            return processors;
+        }
+
+        @Override
+        public void complete(Throwable error) {
+            Throwable firstError = null;
+            if (processors != null) {
+                for (StreamSocketsP<T> p : processors) {
+                    try {
+                        p.close();
+                    } catch (Throwable e) {
+                        if (firstError == null) {
+                            firstError = e;
+                        } else {
+                            logger.severe(e);
+                        }
+                    }
+                }
+            }
+            try {
+                if (serverChannel != null) {
+                    serverChannel.close();
+                }
+            } catch (IOException e) {
+                if (firstError == null) {
+                    firstError = e;
+                } else {
+                    logger.severe(e);
+                }
+            }
+            if (firstError != null) {
+                throw sneakyThrow(firstError);
+            }
+        }
+    }
+}
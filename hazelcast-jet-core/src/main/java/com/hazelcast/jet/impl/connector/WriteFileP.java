@@ -16,17 +16,26 @@
 
 package com.hazelcast.jet.impl.connector;
 
+import com.hazelcast.jet.FileCompression;
 import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.core.ProcessorSupplier;
+import com.hazelcast.jet.core.TwoPhaseCommitProcessor;
 import com.hazelcast.jet.core.processor.SinkProcessors;
+import com.hazelcast.jet.datamodel.Schema;
 import com.hazelcast.jet.function.DistributedFunction;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import javax.annotation.Nonnull;
 import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 
 import static com.hazelcast.jet.core.ProcessorMetaSupplier.dontParallelize;
@@ -35,7 +44,7 @@ import static com.hazelcast.jet.impl.util.Util.uncheckCall;
 import static com.hazelcast.jet.impl.util.Util.uncheckRun;
 
 /**
- * See {@link SinkProcessors#writeFileP(String, DistributedFunction, Charset, boolean)}.
+ * See {@link SinkProcessors#writeFileP(String, DistributedFunction, Charset, boolean, FileCompression)}.
  * <p>
  * Since the work of this sink is file IO-intensive, {@link
  * com.hazelcast.jet.core.Vertex#localParallelism(int) local parallelism} of
@@ -48,17 +57,21 @@ public final class WriteFileP {
     private WriteFileP() { }
 
     /**
-     * Use {@link SinkProcessors#writeFileP(String, DistributedFunction, Charset, boolean)}
+     * Use {@link SinkProcessors#writeFileP(String, DistributedFunction, Charset, boolean, FileCompression)}
      */
     public static <T> ProcessorMetaSupplier metaSupplier(
             @Nonnull String directoryName,
             @Nonnull DistributedFunction<T, String> toStringFn,
             @Nonnull String charset,
-            boolean append) {
+            boolean append,
+            @Nonnull FileCompression compression) {
 
+        if (compression == FileCompression.AUTO) {
+            throw new IllegalArgumentException(compression + " compression is only valid for sources");
+        }
         return dontParallelize(writeBufferedP(
                 globalIndex -> createBufferedWriter(Paths.get(directoryName), globalIndex,
-                        charset, append),
+                        charset, append, compression),
                 (fileWriter, item) -> uncheckRun(() -> {
                     fileWriter.write(toStringFn.apply((T) item));
                     fileWriter.newLine();
@@ -68,18 +81,167 @@ public final class WriteFileP {
         ));
     }
 
+    /**
+     * Use {@link SinkProcessors#writeFileTransactionalP(String, DistributedFunction, Charset)}
+     */
+    public static <T> ProcessorMetaSupplier transactionalMetaSupplier(
+            @Nonnull String directoryName,
+            @Nonnull DistributedFunction<T, String> toStringFn,
+            @Nonnull String charset) {
+
+        return dontParallelize(ProcessorSupplier.of(() ->
+                new TransactionalFileWriterP<>(directoryName, toStringFn, charset)));
+    }
+
+    /**
+     * Use {@link SinkProcessors#writeCsvFileP(String, Schema, Charset)}
+     */
+    public static ProcessorMetaSupplier csvMetaSupplier(
+            @Nonnull String directoryName,
+            @Nonnull Schema schema,
+            @Nonnull String charset) {
+
+        return metaSupplier(directoryName, (Object[] row) -> CsvFormat.formatRow(schema, row), charset, false,
+                FileCompression.NONE);
+    }
+
+    /**
+     * Use {@link SinkProcessors#writeColumnChunkFileP(String, Schema)}
+     * <p>
+     * A row group is written to the file when it's full and when the
+     * processor completes, the flush only flushes the already written row
+     * groups.
+     */
+    public static ProcessorMetaSupplier columnChunkMetaSupplier(
+            @Nonnull String directoryName,
+            @Nonnull Schema schema,
+            int rowGroupSize) {
+
+        return dontParallelize(writeBufferedP(
+                globalIndex -> createColumnChunkWriter(Paths.get(directoryName), globalIndex, schema, rowGroupSize),
+                (writer, item) -> uncheckRun(() -> writer.add((Object[]) item)),
+                writer -> uncheckRun(writer::flush),
+                writer -> uncheckRun(writer::close)
+        ));
+    }
+
+    @SuppressFBWarnings(value = "RV_RETURN_VALUE_IGNORED_BAD_PRACTICE",
+            justification = "mkdirs() returns false if the directory already existed")
+    private static ColumnChunkFormat.Writer createColumnChunkWriter(
+            Path directory, int globalIndex, Schema schema, int rowGroupSize
+    ) {
+        directory.toFile().mkdirs();
+
+        Path file = directory.resolve(String.valueOf(globalIndex));
+
+        return uncheckCall(() -> new ColumnChunkFormat.Writer(Files.newOutputStream(file), schema, rowGroupSize));
+    }
+
     @SuppressFBWarnings(value = "RV_RETURN_VALUE_IGNORED_BAD_PRACTICE",
             justification = "mkdirs() returns false if the directory already existed, which is good. "
                     + "We don't care even if it didn't exist and we failed to create it, "
                     + "because we'll fail later when trying to create the file.")
-    private static BufferedWriter createBufferedWriter(Path directory, int globalIndex, String charset, boolean append) {
+    private static BufferedWriter createBufferedWriter(
+            Path directory, int globalIndex, String charset, boolean append, FileCompression compression
+    ) {
         directory.toFile().mkdirs();
 
-        Path file = directory.resolve(String.valueOf(globalIndex));
+        Path file = directory.resolve(CompressedFiles.fileName(globalIndex, compression));
+        StandardOpenOption[] options = {StandardOpenOption.CREATE,
+                append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING};
 
-        return uncheckCall(() -> Files.newBufferedWriter(file,
-                Charset.forName(charset), StandardOpenOption.CREATE,
-                append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING));
+        if (compression == FileCompression.NONE) {
+            return uncheckCall(() -> Files.newBufferedWriter(file, Charset.forName(charset), options));
+        }
+        // appending to a compressed file adds a new gzip member, which the readers concatenate
+        return uncheckCall(() -> new BufferedWriter(new OutputStreamWriter(
+                CompressedFiles.newOutputStream(file, compression, options), Charset.forName(charset))));
     }
 
+    /**
+     * A file writer with the two-phase commit. Each transaction writes to a
+     * new temporary file named {@code <globalIndex>.<sequence>.tmp}. The
+     * commit renames it to {@code <globalIndex>.<sequence>}, so the readers
+     * never see the output of a transaction which was rolled back.
+     */
+    static final class TransactionalFileWriterP<T> extends TwoPhaseCommitProcessor<T, String> {
+
+        private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+        private final Path directory;
+        private final DistributedFunction<T, String> toStringFn;
+        private final Charset charset;
+
+        private String filePrefix;
+        private long nextSequence;
+        private BufferedWriter writer;
+
+        TransactionalFileWriterP(String directoryName, DistributedFunction<T, String> toStringFn, String charset) {
+            this.directory = Paths.get(directoryName);
+            this.toStringFn = toStringFn;
+            this.charset = Charset.forName(charset);
+            setCooperative(false);
+        }
+
+        @Override
+        @SuppressFBWarnings(value = "RV_RETURN_VALUE_IGNORED_BAD_PRACTICE",
+                justification = "mkdirs() returns false if the directory already existed")
+        protected void init(@Nonnull Context context) throws Exception {
+            super.init(context);
+            filePrefix = context.globalProcessorIndex() + ".";
+            directory.toFile().mkdirs();
+        }
+
+        @Nonnull @Override
+        protected String beginTransaction() throws IOException {
+            String tempFileName = filePrefix + nextSequence++ + TEMP_FILE_SUFFIX;
+            writer = Files.newBufferedWriter(directory.resolve(tempFileName), charset,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            return tempFileName;
+        }
+
+        @Override
+        protected void write(@Nonnull String txn, @Nonnull T item) throws IOException {
+            writer.write(toStringFn.apply(item));
+            writer.newLine();
+        }
+
+        @Override
+        protected void preCommit(@Nonnull String txn) throws IOException {
+            writer.close();
+            writer = null;
+        }
+
+        @Override
+        protected void commit(@Nonnull String txn) throws IOException {
+            Path tempFile = directory.resolve(txn);
+            Path file = directory.resolve(txn.substring(0, txn.length() - TEMP_FILE_SUFFIX.length()));
+            try {
+                Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (NoSuchFileException ignored) {
+                // already committed by another processor or before the restart
+            }
+        }
+
+        @Override
+        protected void abortStaleTransactions() throws IOException {
+            // continue after the highest sequence used by the previous executions
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, filePrefix + '*')) {
+                for (Path path : stream) {
+                    String fileName = path.getFileName().toString();
+                    boolean isTemp = fileName.endsWith(TEMP_FILE_SUFFIX);
+                    String sequence = fileName.substring(filePrefix.length(),
+                            fileName.length() - (isTemp ? TEMP_FILE_SUFFIX.length() : 0));
+                    try {
+                        nextSequence = Math.max(nextSequence, Long.parseLong(sequence) + 1);
+                    } catch (NumberFormatException e) {
+                        continue;
+                    }
+                    if (isTemp) {
+                        Files.delete(path);
+                    }
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,466 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.connector;
+
+import com.hazelcast.jet.FileCompression;
+import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.core.CloseableProcessorSupplier;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.core.Watermark;
+import com.hazelcast.jet.core.processor.SinkProcessors;
+import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.jet.function.DistributedToLongFunction;
+import com.hazelcast.jet.impl.util.Util.RunnableExc;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.hazelcast.jet.core.ProcessorMetaSupplier.dontParallelize;
+
+/**
+ * See {@link SinkProcessors#writeRollingFileP}.
+ * <p>
+ * The processor only encodes the items to a buffer, the file IO is done by
+ * a background thread owned by the processor. There are two buffers: while
+ * the background thread writes one of them, the processor fills the other
+ * one. If the processor fills its buffer before the other one is written,
+ * it stops taking items from the inbox until it is, so the processor never
+ * blocks and is cooperative.
+ * <p>
+ * A file is written with the {@value #IN_PROGRESS_SUFFIX} suffix. When it
+ * is rolled, it's synced to the disk and renamed to its final name. When
+ * bucketing by time, there's an open file for each bucket which received
+ * items and wasn't yet passed by the watermark, so that late items go to
+ * the file of their bucket. If the job is cancelled or fails, the files
+ * are left with the suffix and the processor deletes them when it starts
+ * again.
+ */
+public final class WriteRollingFileP<T> extends AbstractProcessor implements Closeable {
+
+    static final String IN_PROGRESS_SUFFIX = ".inprogress";
+
+    private static final int BUFFER_SIZE = 1 << 18;
+    private static final Pattern FILE_NAME_PATTERN = Pattern.compile("(?:.+_)?(\\d+)_(\\d+)(?:\\..*)?");
+    private static final DateTimeFormatter BUCKET_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH-mm-ss'Z'").withZone(ZoneOffset.UTC);
+    private static final long NO_BUCKET = Long.MIN_VALUE;
+
+    private final Path directory;
+    private final DistributedFunction<? super T, String> toStringFn;
+    private final Charset charset;
+    private final long maxFileSize;
+    private final DistributedToLongFunction<? super T> timestampFn;
+    private final long bucketSize;
+    private final FileCompression compression;
+    private final byte[] lineSeparator;
+
+    private String filePrefix;
+    private long nextSequence;
+    private ExecutorService ioExecutor;
+    private BackgroundWriter writer;
+    private volatile Throwable ioFailure;
+
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private byte[] spareBuffer = new byte[BUFFER_SIZE];
+    private int bufferLength;
+    private long bufferBucket = NO_BUCKET;
+    private Future<?> inFlightWrite;
+    private Future<?> closeFuture;
+
+    // the size of the open file of each bucket, ordered by the bucket start
+    private final TreeMap<Long, Long> fileSizes = new TreeMap<>();
+
+    private WriteRollingFileP(
+            String directoryName, DistributedFunction<? super T, String> toStringFn, String charset,
+            long maxFileSize, DistributedToLongFunction<? super T> timestampFn, long bucketSize,
+            FileCompression compression
+    ) {
+        this.directory = Paths.get(directoryName);
+        this.toStringFn = toStringFn;
+        this.charset = Charset.forName(charset);
+        this.maxFileSize = maxFileSize;
+        this.timestampFn = timestampFn;
+        this.bucketSize = bucketSize;
+        this.compression = compression;
+        this.lineSeparator = System.lineSeparator().getBytes(this.charset);
+    }
+
+    /**
+     * Private API, use {@link SinkProcessors#writeRollingFileP} instead.
+     *
+     * @param maxFileSize the uncompressed size to roll the file at, or
+     *                    {@code Long.MAX_VALUE}
+     * @param timestampFn the function to extract the event time from the
+     *                    item, or {@code null}, if not bucketing by time
+     */
+    public static <T> ProcessorMetaSupplier metaSupplier(
+            @Nonnull String directoryName,
+            @Nonnull DistributedFunction<? super T, String> toStringFn,
+            @Nonnull String charset,
+            long maxFileSize,
+            DistributedToLongFunction<? super T> timestampFn,
+            long bucketSize,
+            @Nonnull FileCompression compression
+    ) {
+        if (compression == FileCompression.AUTO) {
+            throw new IllegalArgumentException(compression + " compression is only valid for sources");
+        }
+        return dontParallelize(new CloseableProcessorSupplier<>(() -> new WriteRollingFileP<>(
+                directoryName, toStringFn, charset, maxFileSize, timestampFn, bucketSize, compression)));
+    }
+
+    @Override
+    @SuppressFBWarnings(value = "RV_RETURN_VALUE_IGNORED_BAD_PRACTICE",
+            justification = "mkdirs() returns false if the directory already existed")
+    protected void init(@Nonnull Context context) throws Exception {
+        directory.toFile().mkdirs();
+        int globalIndex = context.globalProcessorIndex();
+        filePrefix = globalIndex + "_";
+        deleteInProgressFiles(globalIndex);
+        nextSequence = findNextSequence(globalIndex);
+        String threadName = "jet-rolling-file-writer-" + context.vertexName() + '-' + globalIndex;
+        ioExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer = new BackgroundWriter(compression);
+    }
+
+    @Override
+    protected boolean tryProcess(int ordinal, @Nonnull Object item) throws Exception {
+        checkIoFailure();
+        @SuppressWarnings("unchecked")
+        T t = (T) item;
+        byte[] bytes = toBytes(toStringFn.apply(t));
+        long bucket = timestampFn == null ? NO_BUCKET : bucketStart(timestampFn.applyAsLong(t));
+        Long fileSize = fileSizes.get(bucket);
+        boolean needsNewFile = fileSize == null || fileSize > 0 && fileSize + bytes.length > maxFileSize;
+        // the buffer holds data of a single bucket only
+        boolean otherBucketBuffered = bufferLength > 0 && bufferBucket != bucket;
+        if ((needsNewFile || otherBucketBuffered || bufferLength + bytes.length > buffer.length)
+                && !tryHandOffBuffer()) {
+            return false;
+        }
+        if (needsNewFile) {
+            Path file = directory.resolve(nextFileName(bucket));
+            submit(() -> writer.roll(bucket, file));
+            fileSize = 0L;
+        }
+        if (bytes.length > buffer.length) {
+            buffer = new byte[bytes.length];
+        }
+        System.arraycopy(bytes, 0, buffer, bufferLength, bytes.length);
+        bufferLength += bytes.length;
+        bufferBucket = bucket;
+        fileSizes.put(bucket, fileSize + bytes.length);
+        return true;
+    }
+
+    @Override
+    public boolean tryProcess() {
+        checkIoFailure();
+        // the inbox is exhausted, write what we have if the background thread is idle
+        tryHandOffBuffer();
+        return true;
+    }
+
+    @Override
+    public boolean tryProcessWatermark(@Nonnull Watermark watermark) {
+        checkIoFailure();
+        if (timestampFn == null) {
+            return true;
+        }
+        // no more items are expected for the buckets the watermark passed, complete their files
+        for (Iterator<Long> it = fileSizes.keySet().iterator(); it.hasNext(); ) {
+            long bucket = it.next();
+            if (watermark.timestamp() < bucket + bucketSize) {
+                break;
+            }
+            if (bufferBucket == bucket && !tryHandOffBuffer()) {
+                return false;
+            }
+            submit(() -> writer.close(bucket));
+            it.remove();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean saveToSnapshot() {
+        return flushBuffer();
+    }
+
+    @Override
+    public boolean complete() {
+        if (!flushBuffer()) {
+            return false;
+        }
+        if (closeFuture == null) {
+            closeFuture = submit(writer::closeAll);
+            ioExecutor.shutdown();
+        }
+        if (!closeFuture.isDone()) {
+            return false;
+        }
+        checkIoFailure();
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (ioExecutor != null && !ioExecutor.isShutdown()) {
+            // the job was cancelled or failed, close the files in the background, but leave them
+            // in progress: they might be incomplete
+            ioExecutor.submit(writer::abandon);
+            ioExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Hands off the buffer to the background thread, if it isn't writing
+     * the other one. Returns {@code true} if the buffer is empty after the
+     * call.
+     */
+    private boolean tryHandOffBuffer() {
+        if (bufferLength == 0) {
+            return true;
+        }
+        if (inFlightWrite != null && !inFlightWrite.isDone()) {
+            return false;
+        }
+        byte[] data = buffer;
+        int length = bufferLength;
+        long bucket = bufferBucket;
+        inFlightWrite = submit(() -> writer.write(bucket, data, length));
+        buffer = spareBuffer;
+        spareBuffer = data;
+        bufferLength = 0;
+        return true;
+    }
+
+    /**
+     * Returns {@code true} when all the buffered data was written to the
+     * file.
+     */
+    private boolean flushBuffer() {
+        checkIoFailure();
+        return tryHandOffBuffer() && (inFlightWrite == null || inFlightWrite.isDone());
+    }
+
+    private Future<?> submit(RunnableExc action) {
+        return ioExecutor.submit(() -> {
+            if (ioFailure != null) {
+                return;
+            }
+            try {
+                action.run();
+            } catch (Throwable e) {
+                ioFailure = e;
+            }
+        });
+    }
+
+    private void checkIoFailure() {
+        Throwable failure = ioFailure;
+        if (failure != null) {
+            throw new JetException("Writing to " + directory + " failed: " + failure, failure);
+        }
+    }
+
+    private byte[] toBytes(String line) {
+        byte[] bytes = line.getBytes(charset);
+        byte[] result = Arrays.copyOf(bytes, bytes.length + lineSeparator.length);
+        System.arraycopy(lineSeparator, 0, result, bytes.length, lineSeparator.length);
+        return result;
+    }
+
+    private long bucketStart(long timestamp) {
+        return Math.floorDiv(timestamp, bucketSize) * bucketSize;
+    }
+
+    private String nextFileName(long bucket) {
+        String bucketPrefix = bucket == NO_BUCKET ? "" : BUCKET_FORMATTER.format(Instant.ofEpochMilli(bucket)) + '_';
+        return bucketPrefix + filePrefix + nextSequence++ + CompressedFiles.extension(compression);
+    }
+
+    /**
+     * Deletes the in-progress files left by this processor when the job was
+     * cancelled or failed before.
+     */
+    private void deleteInProgressFiles(int globalIndex) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + IN_PROGRESS_SUFFIX)) {
+            for (Path file : stream) {
+                Matcher matcher = FILE_NAME_PATTERN.matcher(file.getFileName().toString());
+                if (matcher.matches() && Integer.parseInt(matcher.group(1)) == globalIndex) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the sequence after the highest one among the files written by
+     * this processor before, so that a restarted job doesn't overwrite them.
+     */
+    private long findNextSequence(int globalIndex) throws IOException {
+        long next = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                Matcher matcher = FILE_NAME_PATTERN.matcher(file.getFileName().toString());
+                if (matcher.matches() && Integer.parseInt(matcher.group(1)) == globalIndex) {
+                    next = Math.max(next, Long.parseLong(matcher.group(2)) + 1);
+                }
+            }
+        }
+        return next;
+    }
+
+    /**
+     * The state of the open files, only accessed by the background thread.
+     */
+    private static final class BackgroundWriter {
+
+        private final FileCompression compression;
+        private final Map<Long, OpenFile> files = new HashMap<>();
+
+        BackgroundWriter(FileCompression compression) {
+            this.compression = compression;
+        }
+
+        void roll(long bucket, Path newFile) throws IOException {
+            close(bucket);
+            files.put(bucket, new OpenFile(newFile, compression));
+        }
+
+        void write(long bucket, byte[] data, int length) throws IOException {
+            files.get(bucket).out.write(data, 0, length);
+        }
+
+        void close(long bucket) throws IOException {
+            OpenFile file = files.remove(bucket);
+            if (file != null) {
+                file.complete();
+            }
+        }
+
+        void closeAll() throws IOException {
+            for (Iterator<OpenFile> it = files.values().iterator(); it.hasNext(); ) {
+                OpenFile file = it.next();
+                it.remove();
+                file.complete();
+            }
+        }
+
+        /**
+         * Closes the files without renaming them.
+         */
+        void abandon() {
+            for (OpenFile file : files.values()) {
+                try {
+                    file.out.close();
+                } catch (IOException ignored) {
+                    // the file stays in progress anyway
+                }
+            }
+            files.clear();
+        }
+    }
+
+    private static final class OpenFile {
+
+        private final Path file;
+        private final Path inProgressFile;
+        private final OutputStream out;
+
+        OpenFile(Path file, FileCompression compression) throws IOException {
+            this.file = file;
+            this.inProgressFile = file.resolveSibling(file.getFileName() + IN_PROGRESS_SUFFIX);
+            FileChannel channel = FileChannel.open(inProgressFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            this.out = CompressedFiles.compress(new SyncingChannelOutputStream(channel), compression);
+        }
+
+        /**
+         * Syncs the file to the disk and renames it to its final name.
+         */
+        void complete() throws IOException {
+            out.close();
+            Files.move(inProgressFile, file, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * Writes to a file channel and syncs it to the disk on close.
+     */
+    private static final class SyncingChannelOutputStream extends OutputStream {
+
+        private final FileChannel channel;
+
+        SyncingChannelOutputStream(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ByteBuffer buf = ByteBuffer.wrap(b, off, len);
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                channel.force(false);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
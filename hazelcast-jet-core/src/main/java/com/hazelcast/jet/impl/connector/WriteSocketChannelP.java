@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.connector;
+
+import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.SocketFraming;
+import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.core.CloseableProcessorSupplier;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.core.processor.SinkProcessors;
+import com.hazelcast.jet.function.DistributedFunction;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.hazelcast.jet.SocketFraming.LENGTH_PREFIX_SIZE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Writes the items as frames to a TCP connection. The frames are batched
+ * into a few direct buffers and written to the non-blocking channel with a
+ * gathering write. When the socket's send buffer is full, the processor
+ * stops accepting items until the batch is written, so it never blocks
+ * and is cooperative.
+ *
+ * @see SinkProcessors#writeSocketChannelP(String, int, SocketFraming, DistributedFunction)
+ */
+public final class WriteSocketChannelP<T> extends AbstractProcessor implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MIN_BUFFER_COUNT = 4;
+
+    private final String host;
+    private final int port;
+    private final SocketFraming framing;
+    private final DistributedFunction<? super T, byte[]> toBytesFn;
+
+    private final ByteBuffer[] buffers;
+    // holds the length prefix or the delimiter
+    private final byte[] scratch = new byte[LENGTH_PREFIX_SIZE];
+    private SocketChannel channel;
+    // index of the buffer being filled, the previous ones are full
+    private int fillIndex;
+    private int freeBytes;
+    private boolean writing;
+    // the serialized item which didn't fit into the buffers
+    private byte[] pendingBytes;
+
+    private WriteSocketChannelP(String host, int port, SocketFraming framing,
+                                DistributedFunction<? super T, byte[]> toBytesFn
+    ) {
+        this.host = host;
+        this.port = port;
+        this.framing = framing;
+        this.toBytesFn = toBytesFn;
+        // the largest frame must fit into the buffers
+        int maxFrameSize = framing.maxFrameLength() + framing.overhead();
+        int bufferCount = Math.max(MIN_BUFFER_COUNT, (maxFrameSize + BUFFER_SIZE - 1) / BUFFER_SIZE);
+        this.buffers = new ByteBuffer[bufferCount];
+        for (int i = 0; i < bufferCount; i++) {
+            buffers[i] = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+        this.freeBytes = bufferCount * BUFFER_SIZE;
+    }
+
+    @Override
+    protected void init(@Nonnull Context context) throws Exception {
+        getLogger().info("Connecting to socket " + hostAndPort());
+        channel = SocketChannel.open();
+        channel.configureBlocking(false);
+        channel.connect(new InetSocketAddress(host, port));
+        // block until connection is finished
+        while (!channel.finishConnect()) {
+            LockSupport.parkNanos(MILLISECONDS.toNanos(1));
+        }
+        getLogger().info("Connected to socket " + hostAndPort());
+    }
+
+    @Override
+    protected boolean tryProcess(int ordinal, @Nonnull Object item) throws Exception {
+        if (writing && !tryWrite()) {
+            return false;
+        }
+        byte[] bytes = pendingBytes;
+        if (bytes == null) {
+            @SuppressWarnings("unchecked")
+            T t = (T) item;
+            bytes = toBytesFn.apply(t);
+            if (bytes.length > framing.maxFrameLength()) {
+                throw new JetException("Item serialized to " + bytes.length + " bytes, the maximum frame length is "
+                        + framing.maxFrameLength());
+            }
+        }
+        if (bytes.length + framing.overhead() > freeBytes) {
+            // the buffers are full, write them and retry the item when done
+            pendingBytes = bytes;
+            if (!tryWrite()) {
+                return false;
+            }
+        }
+        pendingBytes = null;
+        putFrame(bytes);
+        return true;
+    }
+
+    @Override
+    public boolean tryProcess() {
+        // the inbox is exhausted, write what we have without waiting for it
+        if (writing || hasData()) {
+            tryWrite();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean saveToSnapshot() {
+        return tryWrite();
+    }
+
+    @Override
+    public boolean complete() {
+        return tryWrite();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            getLogger().info("Closing socket " + hostAndPort());
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes the buffered frames with a gathering write. Returns {@code
+     * true}, if everything was written and the buffers are empty again.
+     */
+    private boolean tryWrite() {
+        if (!writing) {
+            if (!hasData()) {
+                return true;
+            }
+            for (int i = 0; i <= fillIndex; i++) {
+                buffers[i].flip();
+            }
+            writing = true;
+        }
+        try {
+            channel.write(buffers, 0, fillIndex + 1);
+        } catch (IOException e) {
+            throw new JetException("Failed to write to " + hostAndPort() + ": " + e, e);
+        }
+        if (buffers[fillIndex].hasRemaining()) {
+            // the socket's send buffer is full
+            return false;
+        }
+        for (int i = 0; i <= fillIndex; i++) {
+            buffers[i].clear();
+        }
+        fillIndex = 0;
+        freeBytes = buffers.length * BUFFER_SIZE;
+        writing = false;
+        return true;
+    }
+
+    private boolean hasData() {
+        return fillIndex > 0 || buffers[0].position() > 0;
+    }
+
+    private void putFrame(byte[] bytes) {
+        if (framing.isLengthPrefixed()) {
+            int length = bytes.length;
+            for (int i = LENGTH_PREFIX_SIZE - 1; i >= 0; i--) {
+                scratch[i] = (byte) length;
+                length >>>= Byte.SIZE;
+            }
+            put(scratch, LENGTH_PREFIX_SIZE);
+            put(bytes, bytes.length);
+        } else {
+            put(bytes, bytes.length);
+            scratch[0] = framing.delimiter();
+            put(scratch, 1);
+        }
+    }
+
+    /**
+     * Copies the bytes to the buffers, continuing in the next buffer when
+     * the current one is full. The caller ensures there is enough space.
+     */
+    private void put(byte[] bytes, int length) {
+        int offset = 0;
+        while (offset < length) {
+            ByteBuffer buffer = buffers[fillIndex];
+            if (!buffer.hasRemaining()) {
+                fillIndex++;
+                continue;
+            }
+            int count = Math.min(length - offset, buffer.remaining());
+            buffer.put(bytes, offset, count);
+            offset += count;
+        }
+        freeBytes -= length;
+    }
+
+    private String hostAndPort() {
+        return host + ':' + port;
+    }
+
+    /**
+     * Internal API, use {@link SinkProcessors#writeSocketChannelP(String, int, SocketFraming, DistributedFunction)}.
+     */
+    @Nonnull
+    public static <T> ProcessorMetaSupplier metaSupplier(
+            @Nonnull String host,
+            int port,
+            @Nonnull SocketFraming framing,
+            @Nonnull DistributedFunction<? super T, byte[]> toBytesFn
+    ) {
+        return ProcessorMetaSupplier.of(new CloseableProcessorSupplier<>(
+                () -> new WriteSocketChannelP<>(host, port, framing, toBytesFn)), 1);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.jet.impl.util.AsyncMapWriter;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.partition.IPartitionService;
+import com.hazelcast.util.UuidUtil;
+
+import java.util.Arrays;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.Deflater;
+
+import static com.hazelcast.jet.impl.SnapshotRepository.snapshotDataMapName;
+
+/**
+ * Buffers the entries of each partition and writes them to the snapshot
+ * data map as {@link SnapshotChunk}s, see {@link
+ * com.hazelcast.jet.config.JobConfig#setSnapshotCompressionEnabled(boolean)}.
+ */
+class ChunkingSnapshotWriter implements SnapshotWriter {
+
+    /**
+     * The size of the buffered entries of a partition at which a chunk is
+     * written before the end of the snapshot.
+     */
+    static final int CHUNK_SIZE = 1 << 16;
+
+    private static final int INITIAL_BUFFER_SIZE = CHUNK_SIZE / 8;
+
+    private final AsyncMapWriter mapWriter;
+    private final IPartitionService partitionService;
+    private final long jobId;
+    private final String vertexName;
+    // there can be multiple writers of the vertex on the member
+    private final String writerUuid;
+    private final Data deltaMarker;
+
+    // the encoded entries of each partition, see SnapshotChunk
+    private final byte[][] buffers;
+    private final int[] bufferedBytes;
+    private final Data[] partitionKeys;
+    private long chunkSequence;
+
+    ChunkingSnapshotWriter(NodeEngine nodeEngine, long jobId, String vertexName) {
+        this.mapWriter = new AsyncMapWriter(nodeEngine);
+        this.partitionService = nodeEngine.getPartitionService();
+        this.jobId = jobId;
+        this.vertexName = vertexName;
+        this.writerUuid = UuidUtil.newUnsecureUuidString();
+        this.deltaMarker = nodeEngine.toData(SnapshotTombstone.TOMBSTONE);
+        int partitionCount = partitionService.getPartitionCount();
+        this.buffers = new byte[partitionCount][];
+        this.bufferedBytes = new int[partitionCount];
+        this.partitionKeys = new Data[partitionCount];
+    }
+
+    @Override
+    public void setSnapshotId(long snapshotId) {
+        mapWriter.setMapName(snapshotDataMapName(jobId, snapshotId, vertexName));
+    }
+
+    @Override
+    public void put(Entry<Data, Data> entry) {
+        if (entry.getKey().equals(deltaMarker)) {
+            // the restore looks the marker up by its key
+            mapWriter.put(entry);
+            return;
+        }
+        int partitionId = partitionService.getPartitionId(entry.getKey());
+        int size = SnapshotChunk.entrySize(entry);
+        byte[] buffer = buffers[partitionId];
+        if (buffer == null) {
+            buffer = buffers[partitionId] = new byte[Math.max(size, INITIAL_BUFFER_SIZE)];
+            partitionKeys[partitionId] = entry.getKey();
+        } else if (buffer.length - bufferedBytes[partitionId] < size) {
+            buffer = buffers[partitionId] =
+                    Arrays.copyOf(buffer, Math.max(buffer.length * 2, bufferedBytes[partitionId] + size));
+        }
+        bufferedBytes[partitionId] = SnapshotChunk.writeEntry(buffer, bufferedBytes[partitionId], entry);
+    }
+
+    @Override
+    public boolean tryFlushAsync(CompletableFuture<Void> completionFuture, boolean isLastFlush) {
+        // the deflater holds native memory, so it's released before returning:
+        // the writer isn't notified when the tasklet is done or the job is cancelled
+        Deflater deflater = null;
+        try {
+            for (int partitionId = 0; partitionId < buffers.length; partitionId++) {
+                if (bufferedBytes[partitionId] > 0 && (isLastFlush || bufferedBytes[partitionId] >= CHUNK_SIZE)) {
+                    if (deflater == null) {
+                        deflater = new Deflater(Deflater.BEST_SPEED);
+                    }
+                    SnapshotChunk chunk =
+                            SnapshotChunk.compress(buffers[partitionId], bufferedBytes[partitionId], deflater);
+                    SnapshotChunkKey key =
+                            new SnapshotChunkKey(partitionKeys[partitionId], writerUuid, chunkSequence++);
+                    mapWriter.put(key, chunk);
+                    buffers[partitionId] = null;
+                    bufferedBytes[partitionId] = 0;
+                    partitionKeys[partitionId] = null;
+                }
+            }
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+        // the chunks already put are retried with the next flush
+        return mapWriter.tryFlushAsync(completionFuture);
+    }
+}
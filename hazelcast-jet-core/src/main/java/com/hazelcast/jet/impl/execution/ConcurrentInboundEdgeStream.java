@@ -21,12 +21,14 @@ import com.hazelcast.internal.util.concurrent.Pipe;
 import com.hazelcast.internal.util.concurrent.QueuedPipe;
 import com.hazelcast.jet.JetException;
 import com.hazelcast.jet.core.Watermark;
+import com.hazelcast.jet.impl.util.ObjectWithPartitionId;
 import com.hazelcast.jet.impl.util.ProgressState;
 import com.hazelcast.jet.impl.util.ProgressTracker;
 import com.hazelcast.util.function.Predicate;
 
 import java.util.BitSet;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 import static com.hazelcast.jet.impl.execution.DoneItem.DONE_ITEM;
 import static com.hazelcast.jet.impl.util.ProgressState.MADE_PROGRESS;
@@ -41,15 +43,26 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
     private final int ordinal;
     private final int priority;
     private final boolean waitForSnapshot;
+    private final boolean unalignedSnapshots;
+    private final Function<Object, Object> partitionKeyFn;
     private final ConcurrentConveyor<Object> conveyor;
     private final ProgressTracker tracker = new ProgressTracker();
-    private final ItemDetector itemDetector = new ItemDetector();
+    private final ItemDetector itemDetector;
 
     private final WatermarkCoalescer watermarkCoalescer;
     private final BitSet receivedBarriers; // indicates if current snapshot is received on the queue
     private long pendingSnapshotId; // next snapshot barrier to emit
+    private boolean pendingSnapshotIncremental;
     private long numActiveQueues; // number of active queues remaining
 
+    // unaligned snapshots: the queues which delivered the SnapshotEnd of the
+    // current snapshot and the queues which delivered the barrier of the next
+    // snapshot before the current one ended
+    private final BitSet receivedEnds;
+    private final BitSet blockedQueues;
+    private boolean snapshotInProgress; // the barrier was forwarded, the SnapshotEnd not yet
+    private boolean blockedBarrierIncremental;
+
     /**
      * @param waitForSnapshot If true, queues won't be drained until the same
      *                        barrier is received from all of them. This will enforce exactly-once
@@ -57,15 +70,39 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
      */
     public ConcurrentInboundEdgeStream(ConcurrentConveyor<Object> conveyor, int ordinal, int priority,
                                        long lastSnapshotId, boolean waitForSnapshot, int maxWatermarkRetainMillis) {
+        this(conveyor, ordinal, priority, lastSnapshotId, waitForSnapshot, false, maxWatermarkRetainMillis, null);
+    }
+
+    /**
+     * @param unalignedSnapshots If true, the first barrier received from any
+     *                           queue is forwarded immediately. The items received
+     *                           after it on the queues which didn't deliver the
+     *                           barrier yet are wrapped in {@link InFlightItem}. When
+     *                           all queues delivered the {@link SnapshotEnd}, it's
+     *                           forwarded too. Overrides {@code waitForSnapshot}.
+     * @param partitionKeyFn     Returns a key which the default partitioning routes
+     *                           to the same partition as the edge routes the item, see
+     *                           {@link #partitionKey(Object)}. Null, if the edge isn't
+     *                           partitioned.
+     */
+    public ConcurrentInboundEdgeStream(ConcurrentConveyor<Object> conveyor, int ordinal, int priority,
+                                       long lastSnapshotId, boolean waitForSnapshot, boolean unalignedSnapshots,
+                                       int maxWatermarkRetainMillis, Function<Object, Object> partitionKeyFn) {
         this.conveyor = conveyor;
         this.ordinal = ordinal;
         this.priority = priority;
-        this.waitForSnapshot = waitForSnapshot;
+        this.waitForSnapshot = waitForSnapshot && !unalignedSnapshots;
+        this.unalignedSnapshots = unalignedSnapshots;
+        this.partitionKeyFn = partitionKeyFn;
+        // the SnapshotEnd only matters when the barriers aren't aligned
+        this.itemDetector = new ItemDetector(!unalignedSnapshots);
 
         watermarkCoalescer = WatermarkCoalescer.create(maxWatermarkRetainMillis, conveyor.queueCount());
 
         numActiveQueues = conveyor.queueCount();
         receivedBarriers = new BitSet(conveyor.queueCount());
+        receivedEnds = new BitSet(conveyor.queueCount());
+        blockedQueues = new BitSet(conveyor.queueCount());
         pendingSnapshotId = lastSnapshotId + 1;
     }
 
@@ -79,6 +116,11 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
         return priority;
     }
 
+    @Override
+    public Object partitionKey(Object item) {
+        return partitionKeyFn != null ? partitionKeyFn.apply(item) : null;
+    }
+
     @Override
     public ProgressState drainTo(Consumer<Object> dest) {
         return drainTo(watermarkCoalescer.getTime(), dest);
@@ -87,6 +129,9 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
     // package-visible for testing
     ProgressState drainTo(long now, Consumer<Object> dest) {
         tracker.reset();
+        if (unalignedSnapshots && (maybeEndUnalignedSnapshot(dest) || maybeStartBlockedSnapshot(dest))) {
+            return MADE_PROGRESS;
+        }
         for (int queueIndex = 0; queueIndex < conveyor.queueCount(); queueIndex++) {
             final QueuedPipe<Object> q = conveyor.queue(queueIndex);
             if (q == null) {
@@ -97,12 +142,19 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
             if (waitForSnapshot && receivedBarriers.get(queueIndex)) {
                 continue;
             }
+            // skip queues where the next snapshot's barrier was received before the current snapshot ended
+            if (blockedQueues.get(queueIndex)) {
+                continue;
+            }
 
-            drainQueue(q, dest);
+            drainQueue(q, dest, snapshotInProgress && !receivedBarriers.get(queueIndex));
+            boolean forwardedBarrier = false;
 
             if (itemDetector.item == DONE_ITEM) {
                 conveyor.removeQueue(queueIndex);
                 receivedBarriers.clear(queueIndex);
+                receivedEnds.clear(queueIndex);
+                blockedQueues.clear(queueIndex);
                 numActiveQueues--;
                 if (maybeEmitWm(watermarkCoalescer.queueDone(queueIndex), dest)) {
                     return MADE_PROGRESS;
@@ -113,17 +165,27 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
                     return MADE_PROGRESS;
                 }
             } else if (itemDetector.item instanceof SnapshotBarrier) {
-                observeBarrier(queueIndex, ((SnapshotBarrier) itemDetector.item).snapshotId());
+                if (!unalignedSnapshots) {
+                    observeBarrier(queueIndex, (SnapshotBarrier) itemDetector.item);
+                } else {
+                    forwardedBarrier = observeUnalignedBarrier(queueIndex, (SnapshotBarrier) itemDetector.item, dest);
+                }
+            } else if (itemDetector.item instanceof SnapshotEnd) {
+                observeEnd(queueIndex, (SnapshotEnd) itemDetector.item);
+            }
+
+            if (unalignedSnapshots && (forwardedBarrier || maybeEndUnalignedSnapshot(dest))) {
+                return MADE_PROGRESS;
             }
 
             if (numActiveQueues == 0) {
                 return tracker.toProgressState();
             }
 
-            if (itemDetector.item != null) {
+            if (!unalignedSnapshots && itemDetector.item != null) {
                 // if we have received the current snapshot from all active queues, forward it
                 if (receivedBarriers.cardinality() == numActiveQueues) {
-                    dest.accept(new SnapshotBarrier(pendingSnapshotId));
+                    dest.accept(new SnapshotBarrier(pendingSnapshotId, pendingSnapshotIncremental));
                     pendingSnapshotId++;
                     receivedBarriers.clear();
                     return MADE_PROGRESS;
@@ -160,8 +222,8 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
      * {@link Watermark} or {@link SnapshotBarrier}. Also updates the {@code tracker} with new status.
      *
      */
-    private void drainQueue(Pipe<Object> queue, Consumer<Object> dest) {
-        itemDetector.reset(dest);
+    private void drainQueue(Pipe<Object> queue, Consumer<Object> dest, boolean wrapInFlight) {
+        itemDetector.reset(dest, wrapInFlight);
 
         int drainedCount = queue.drain(itemDetector);
         tracker.mergeWith(ProgressState.valueOf(drainedCount > 0, itemDetector.item == DONE_ITEM));
@@ -169,37 +231,110 @@ public class ConcurrentInboundEdgeStream implements InboundEdgeStream {
         itemDetector.dest = null;
     }
 
-    private void observeBarrier(int queueIndex, long snapshotId) {
-        if (snapshotId != pendingSnapshotId) {
+    private void observeBarrier(int queueIndex, SnapshotBarrier barrier) {
+        if (barrier.snapshotId() != pendingSnapshotId) {
             throw new JetException("Unexpected snapshot barrier "
-                    + snapshotId + ", expected " + pendingSnapshotId);
+                    + barrier.snapshotId() + ", expected " + pendingSnapshotId);
         }
+        pendingSnapshotIncremental = barrier.isIncremental();
         receivedBarriers.set(queueIndex);
     }
 
     /**
-     * Drains a concurrent conveyor's queue while watching for {@link Watermark}s
-     * and {@link SnapshotBarrier}s.
+     * Returns true, if the barrier started a snapshot and was forwarded.
+     */
+    private boolean observeUnalignedBarrier(int queueIndex, SnapshotBarrier barrier, Consumer<Object> dest) {
+        if (snapshotInProgress && barrier.snapshotId() == pendingSnapshotId + 1) {
+            // The queue is done with the current snapshot, but the others aren't. We
+            // hold the queue back, otherwise we'd have to track two snapshots at once.
+            assert receivedEnds.get(queueIndex) : "next barrier before the SnapshotEnd on queue " + queueIndex;
+            blockedQueues.set(queueIndex);
+            blockedBarrierIncremental = barrier.isIncremental();
+            return false;
+        }
+        observeBarrier(queueIndex, barrier);
+        if (snapshotInProgress) {
+            return false;
+        }
+        snapshotInProgress = true;
+        dest.accept(new SnapshotBarrier(pendingSnapshotId, pendingSnapshotIncremental));
+        return true;
+    }
+
+    private void observeEnd(int queueIndex, SnapshotEnd end) {
+        if (end.snapshotId() != pendingSnapshotId || !receivedBarriers.get(queueIndex)) {
+            throw new JetException("Unexpected snapshot end " + end.snapshotId() + ", expected " + pendingSnapshotId);
+        }
+        receivedEnds.set(queueIndex);
+    }
+
+    private boolean maybeEndUnalignedSnapshot(Consumer<Object> dest) {
+        if (!snapshotInProgress || receivedEnds.cardinality() != numActiveQueues) {
+            return false;
+        }
+        dest.accept(new SnapshotEnd(pendingSnapshotId));
+        snapshotInProgress = false;
+        pendingSnapshotId++;
+        receivedBarriers.clear();
+        receivedEnds.clear();
+        return true;
+    }
+
+    private boolean maybeStartBlockedSnapshot(Consumer<Object> dest) {
+        if (snapshotInProgress || blockedQueues.isEmpty()) {
+            return false;
+        }
+        receivedBarriers.or(blockedQueues);
+        blockedQueues.clear();
+        pendingSnapshotIncremental = blockedBarrierIncremental;
+        snapshotInProgress = true;
+        dest.accept(new SnapshotBarrier(pendingSnapshotId, pendingSnapshotIncremental));
+        return true;
+    }
+
+    /**
+     * Drains a concurrent conveyor's queue while watching for {@link Watermark}s,
+     * {@link SnapshotBarrier}s and {@link SnapshotEnd}s.
      * When encountering either of them it prevents draining more items.
      */
     private static final class ItemDetector implements Predicate<Object> {
+        final boolean dropSnapshotEnds;
         Consumer<Object> dest;
         BroadcastItem item;
+        boolean wrapInFlight;
+
+        ItemDetector(boolean dropSnapshotEnds) {
+            this.dropSnapshotEnds = dropSnapshotEnds;
+        }
 
-        void reset(Consumer<Object> newDest) {
+        void reset(Consumer<Object> newDest, boolean newWrapInFlight) {
             dest = newDest;
             item = null;
+            wrapInFlight = newWrapInFlight;
         }
 
         @Override
         public boolean test(Object o) {
-            if (o instanceof Watermark || o instanceof SnapshotBarrier || o == DONE_ITEM) {
+            if (o instanceof SnapshotEnd && dropSnapshotEnds) {
+                return true;
+            }
+            if (o instanceof Watermark || o instanceof SnapshotBarrier || o instanceof SnapshotEnd
+                    || o == DONE_ITEM) {
                 assert item == null : "Received multiple special items without a call to reset(): " + item;
                 item = (BroadcastItem) o;
                 return false;
             }
-            dest.accept(o);
+            dest.accept(wrapInFlight ? inFlightItem(o) : o);
             return true;
         }
+
+        private static Object inFlightItem(Object o) {
+            if (o instanceof ObjectWithPartitionId) {
+                // the item goes to a SenderTasklet, keep the partition
+                ObjectWithPartitionId itemWithPid = (ObjectWithPartitionId) o;
+                return new ObjectWithPartitionId(inFlightItem(itemWithPid.getItem()), itemWithPid.getPartitionId());
+            }
+            return o instanceof InFlightItem ? o : new InFlightItem(o);
+        }
     }
 }
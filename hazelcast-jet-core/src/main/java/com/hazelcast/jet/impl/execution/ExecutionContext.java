@@ -165,15 +165,22 @@ public class ExecutionContext {
     /**
      * Starts a new snapshot by incrementing the current snapshot id
      */
-    public CompletionStage<Void> beginSnapshot(long snapshotId) {
+    public CompletionStage<SnapshotStats> beginSnapshot(long snapshotId, boolean isIncremental) {
         synchronized (executionLock) {
             if (cancellationFuture.isDone() || executionFuture != null && executionFuture.isDone()) {
                 throw new CancellationException();
             }
-            return snapshotContext.startNewSnapshot(snapshotId);
+            return snapshotContext.startNewSnapshot(snapshotId, isIncremental);
         }
     }
 
+    /**
+     * Notifies the processors that the given snapshot was committed.
+     */
+    public void snapshotCommitted(long snapshotId) {
+        snapshotContext.snapshotCommitted(snapshotId);
+    }
+
     public void handlePacket(int vertexId, int ordinal, Address sender, BufferObjectDataInput in) {
         receiverMap.get(vertexId)
                    .get(ordinal)
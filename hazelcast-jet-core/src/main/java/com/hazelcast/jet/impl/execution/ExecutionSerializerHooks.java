@@ -53,11 +53,12 @@ class ExecutionSerializerHooks {
                 @Override
                 public void write(ObjectDataOutput out, SnapshotBarrier object) throws IOException {
                     out.writeLong(object.snapshotId());
+                    out.writeBoolean(object.isIncremental());
                 }
 
                 @Override
                 public SnapshotBarrier read(ObjectDataInput in) throws IOException {
-                    return new SnapshotBarrier(in.readLong());
+                    return new SnapshotBarrier(in.readLong(), in.readBoolean());
                 }
             };
         }
@@ -145,4 +146,117 @@ class ExecutionSerializerHooks {
             return true;
         }
     }
+
+    public static final class SnapshotEndHook implements SerializerHook<SnapshotEnd> {
+
+        @Override
+        public Class<SnapshotEnd> getSerializationType() {
+            return SnapshotEnd.class;
+        }
+
+        @Override
+        public Serializer createSerializer() {
+            return new StreamSerializer<SnapshotEnd>() {
+                @Override
+                public int getTypeId() {
+                    return SerializerHookConstants.SNAPSHOT_END;
+                }
+
+                @Override
+                public void destroy() {
+                }
+
+                @Override
+                public void write(ObjectDataOutput out, SnapshotEnd object) throws IOException {
+                    out.writeLong(object.snapshotId());
+                }
+
+                @Override
+                public SnapshotEnd read(ObjectDataInput in) throws IOException {
+                    return new SnapshotEnd(in.readLong());
+                }
+            };
+        }
+
+        @Override
+        public boolean isOverwritable() {
+            return true;
+        }
+    }
+
+    public static final class InFlightItemHook implements SerializerHook<InFlightItem> {
+
+        @Override
+        public Class<InFlightItem> getSerializationType() {
+            return InFlightItem.class;
+        }
+
+        @Override
+        public Serializer createSerializer() {
+            return new StreamSerializer<InFlightItem>() {
+                @Override
+                public int getTypeId() {
+                    return SerializerHookConstants.IN_FLIGHT_ITEM;
+                }
+
+                @Override
+                public void destroy() {
+                }
+
+                @Override
+                public void write(ObjectDataOutput out, InFlightItem object) throws IOException {
+                    out.writeObject(object.item());
+                }
+
+                @Override
+                public InFlightItem read(ObjectDataInput in) throws IOException {
+                    return new InFlightItem(in.readObject());
+                }
+            };
+        }
+
+        @Override
+        public boolean isOverwritable() {
+            return true;
+        }
+    }
+
+    public static final class PartitionedEntryHook implements SerializerHook<PartitionedEntry> {
+
+        @Override
+        public Class<PartitionedEntry> getSerializationType() {
+            return PartitionedEntry.class;
+        }
+
+        @Override
+        public Serializer createSerializer() {
+            return new StreamSerializer<PartitionedEntry>() {
+                @Override
+                public int getTypeId() {
+                    return SerializerHookConstants.PARTITIONED_ENTRY;
+                }
+
+                @Override
+                public void destroy() {
+                }
+
+                @Override
+                public void write(ObjectDataOutput out, PartitionedEntry object) throws IOException {
+                    out.writeInt(object.partitionId());
+                    out.writeObject(object.getKey());
+                    out.writeObject(object.getValue());
+                }
+
+                @Override
+                public PartitionedEntry read(ObjectDataInput in) throws IOException {
+                    return new PartitionedEntry<>(in.readInt(), in.readObject(), in.readObject());
+                }
+            };
+        }
+
+        @Override
+        public boolean isOverwritable() {
+            return true;
+        }
+    }
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.jet.JetInstance;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.jet.impl.util.AsyncMapWriter;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.NodeEngine;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+
+import static com.hazelcast.jet.impl.SnapshotRepository.snapshotDataMapName;
+import static com.hazelcast.jet.impl.connector.ReadWithPartitionIteratorP.readSnapshotChainP;
+import static com.hazelcast.jet.impl.util.LoggingUtil.logFine;
+import static com.hazelcast.jet.impl.util.Util.getJetInstance;
+import static com.hazelcast.jet.impl.util.Util.idToString;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Stores the snapshot data in IMaps, one for each snapshot and vertex, see
+ * {@link com.hazelcast.jet.config.SnapshotStorage#IMAP}. With compression,
+ * the entries are stored in {@link SnapshotChunk}s.
+ */
+public final class IMapSnapshotStore implements SnapshotStore {
+
+    static final IMapSnapshotStore INSTANCE = new IMapSnapshotStore(false);
+    static final IMapSnapshotStore COMPRESSED_INSTANCE = new IMapSnapshotStore(true);
+
+    private final boolean compressed;
+
+    private IMapSnapshotStore(boolean compressed) {
+        this.compressed = compressed;
+    }
+
+    @Nonnull @Override
+    public SnapshotWriter newWriter(@Nonnull NodeEngine nodeEngine, long jobId, @Nonnull String vertexName) {
+        if (compressed) {
+            return new ChunkingSnapshotWriter(nodeEngine, jobId, vertexName);
+        }
+        AsyncMapWriter mapWriter = new AsyncMapWriter(nodeEngine);
+        return new SnapshotWriter() {
+            @Override
+            public void setSnapshotId(long snapshotId) {
+                mapWriter.setMapName(snapshotDataMapName(jobId, snapshotId, vertexName));
+            }
+
+            @Override
+            public void put(Entry<Data, Data> entry) {
+                mapWriter.put(entry);
+            }
+
+            @Override
+            public boolean tryFlushAsync(CompletableFuture<Void> completionFuture, boolean isLastFlush) {
+                return mapWriter.tryFlushAsync(completionFuture);
+            }
+        };
+    }
+
+    @Nonnull @Override
+    public ProcessorMetaSupplier readSnapshotP(
+            long jobId,
+            @Nonnull List<Long> snapshotChain,
+            @Nonnull String vertexName,
+            @Nonnull DistributedFunction<Entry<Object, Object>, ?> projection
+    ) {
+        // also used for a single map: it reads the partitions locally and
+        // passes each entry to the projection with its partition
+        List<String> mapNames = snapshotChain.stream()
+                                             .map(id -> snapshotDataMapName(jobId, id, vertexName))
+                                             .collect(toList());
+        return readSnapshotChainP(mapNames, projection);
+    }
+
+    @Override
+    public void deleteSnapshotData(@Nonnull NodeEngine nodeEngine, long jobId, long snapshotId,
+                                   @Nonnull Collection<String> vertexNames) {
+        JetInstance instance = getJetInstance(nodeEngine);
+        ILogger logger = nodeEngine.getLogger(getClass());
+        for (String vertexName : vertexNames) {
+            instance.getMap(snapshotDataMapName(jobId, snapshotId, vertexName)).destroy();
+            logFine(logger, "Deleted snapshot data for snapshot %d for job %s and vertex '%s'",
+                    snapshotId, idToString(jobId), vertexName);
+        }
+    }
+}
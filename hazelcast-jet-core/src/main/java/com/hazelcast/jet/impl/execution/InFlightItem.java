@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import java.util.Objects;
+
+/**
+ * Wraps an item which was received on a queue after the {@link
+ * SnapshotBarrier} of an unaligned snapshot was forwarded, but before the
+ * barrier arrived on that queue. The receiving processor saves such items
+ * to the snapshot and replays them after restoring from it.
+ */
+public final class InFlightItem {
+    private final Object item;
+
+    public InFlightItem(Object item) {
+        this.item = item;
+    }
+
+    public Object item() {
+        return item;
+    }
+
+    @Override
+    public String toString() {
+        return "InFlightItem{" + item + '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof InFlightItem && Objects.equals(item, ((InFlightItem) o).item);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(item);
+    }
+}
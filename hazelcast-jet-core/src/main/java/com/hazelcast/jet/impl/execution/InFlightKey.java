@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.core.PartitionAware;
+import com.hazelcast.jet.impl.execution.init.JetInitDataSerializerHook;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+
+/**
+ * The snapshot key of an in-flight item of an unaligned snapshot, see
+ * {@link InFlightItem}. The {@code processorIndex} and {@code sequence}
+ * make the key unique and keep the order of the items saved by one
+ * processor. The partition key routes the item on restore to the processor
+ * the edge would route it to. The {@code snapshotId} tells the items of
+ * the restored snapshot from the stale items of the previous snapshots
+ * kept by the incremental snapshots.
+ */
+public final class InFlightKey implements PartitionAware<Object>, IdentifiedDataSerializable {
+
+    private long snapshotId;
+    private int ordinal;
+    private int processorIndex;
+    private long sequence;
+    private Object partitionKey;
+
+    // for deserialization
+    public InFlightKey() {
+    }
+
+    public InFlightKey(long snapshotId, int ordinal, int processorIndex, long sequence, Object partitionKey) {
+        this.snapshotId = snapshotId;
+        this.ordinal = ordinal;
+        this.processorIndex = processorIndex;
+        this.sequence = sequence;
+        this.partitionKey = partitionKey;
+    }
+
+    /**
+     * Returns the ID of the snapshot the item was saved to.
+     */
+    public long snapshotId() {
+        return snapshotId;
+    }
+
+    /**
+     * Returns the ordinal of the edge the item was received from.
+     */
+    public int ordinal() {
+        return ordinal;
+    }
+
+    public int processorIndex() {
+        return processorIndex;
+    }
+
+    public long sequence() {
+        return sequence;
+    }
+
+    @Override
+    public Object getPartitionKey() {
+        return partitionKey;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return JetInitDataSerializerHook.FACTORY_ID;
+    }
+
+    @Override
+    public int getId() {
+        return JetInitDataSerializerHook.IN_FLIGHT_KEY;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeLong(snapshotId);
+        out.writeInt(ordinal);
+        out.writeInt(processorIndex);
+        out.writeLong(sequence);
+        out.writeObject(partitionKey);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        snapshotId = in.readLong();
+        ordinal = in.readInt();
+        processorIndex = in.readInt();
+        sequence = in.readLong();
+        partitionKey = in.readObject();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        InFlightKey that = (InFlightKey) o;
+        return snapshotId == that.snapshotId
+                && ordinal == that.ordinal
+                && processorIndex == that.processorIndex
+                && sequence == that.sequence;
+    }
+
+    @Override
+    public int hashCode() {
+        int hc = 17;
+        hc = 73 * hc + Long.hashCode(snapshotId);
+        hc = 73 * hc + ordinal;
+        hc = 73 * hc + processorIndex;
+        hc = 73 * hc + Long.hashCode(sequence);
+        return hc;
+    }
+
+    @Override
+    public String toString() {
+        return "InFlightKey{snapshotId=" + snapshotId + ", ordinal=" + ordinal + ", processorIndex=" + processorIndex
+                + ", sequence=" + sequence + '}';
+    }
+}
@@ -34,4 +34,14 @@ public interface InboundEdgeStream {
     ProgressState drainTo(Consumer<Object> dest);
 
     boolean isDone();
+
+    /**
+     * Returns a key which the default partitioning routes to the same
+     * partition as this edge routes the given item, or {@code null}, if the
+     * edge isn't partitioned. Used to restore the in-flight items of an
+     * unaligned snapshot to the right processor, see {@link InFlightKey}.
+     */
+    default Object partitionKey(Object item) {
+        return null;
+    }
 }
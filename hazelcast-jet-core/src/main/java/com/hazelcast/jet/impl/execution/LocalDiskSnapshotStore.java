@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.core.Member;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.jet.impl.JetService;
+import com.hazelcast.jet.impl.connector.ReadLocalSnapshotP;
+import com.hazelcast.jet.impl.operation.DeleteSnapshotFilesOperation;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.IOUtil;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.NodeEngine;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.stream.Stream;
+
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.impl.util.ExceptionUtil.rethrow;
+import static com.hazelcast.jet.impl.util.Util.callbackOf;
+import static com.hazelcast.jet.impl.util.Util.getJetInstance;
+import static com.hazelcast.jet.impl.util.Util.idToString;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Stores the snapshot data in memory-mapped files on the members, see
+ * {@link com.hazelcast.jet.config.SnapshotStorage#LOCAL_DISK}.
+ * <p>
+ * The files of a member are stored in the following directory:
+ * <pre>tempDir/jet-snapshots/memberUuid/jobId/snapshotId/vertexName</pre>
+ * Each file is a chunk of the data written by one member. The chunk starts
+ * with the UUIDs of the members holding a copy of it, the writing member
+ * first, and continues with the entries. When the snapshot is restored, a
+ * chunk is read by the first member in this list which is still in the
+ * cluster.
+ */
+public final class LocalDiskSnapshotStore implements SnapshotStore {
+
+    static final LocalDiskSnapshotStore INSTANCE = new LocalDiskSnapshotStore();
+
+    private static final String SNAPSHOTS_DIR_NAME = "jet-snapshots";
+    private static final String CHUNK_FILE_SUFFIX = ".chunk";
+
+    private LocalDiskSnapshotStore() {
+    }
+
+    @Nonnull @Override
+    public SnapshotWriter newWriter(@Nonnull NodeEngine nodeEngine, long jobId, @Nonnull String vertexName) {
+        return new LocalDiskSnapshotWriter(nodeEngine, jobId, vertexName);
+    }
+
+    @Nonnull @Override
+    public ProcessorMetaSupplier readSnapshotP(
+            long jobId,
+            @Nonnull List<Long> snapshotChain,
+            @Nonnull String vertexName,
+            @Nonnull DistributedFunction<Entry<Object, Object>, ?> projection
+    ) {
+        if (snapshotChain.size() != 1) {
+            throw new IllegalArgumentException("Incremental snapshots are not supported, snapshotChain="
+                    + snapshotChain);
+        }
+        return ReadLocalSnapshotP.readLocalSnapshotP(jobId, snapshotChain.get(0), vertexName, projection);
+    }
+
+    @Override
+    public void deleteSnapshotData(@Nonnull NodeEngine nodeEngine, long jobId, long snapshotId,
+                                   @Nonnull Collection<String> vertexNames) {
+        ILogger logger = nodeEngine.getLogger(getClass());
+        for (Member member : nodeEngine.getClusterService().getMembers()) {
+            nodeEngine.getOperationService()
+                      .invokeOnTarget(JetService.SERVICE_NAME,
+                              new DeleteSnapshotFilesOperation(jobId, snapshotId), member.getAddress())
+                      .andThen(callbackOf(r -> { }, e -> logger.warning("Failed to delete files of snapshot "
+                              + snapshotId + " for job " + idToString(jobId) + " on " + member, e)));
+        }
+    }
+
+    /**
+     * Returns the directory holding the local files of all snapshots of the
+     * given job.
+     */
+    @Nonnull
+    public static Path jobDir(@Nonnull NodeEngine nodeEngine, long jobId) {
+        String tempDir = getJetInstance(nodeEngine).getConfig().getInstanceConfig().getTempDir();
+        return Paths.get(tempDir, SNAPSHOTS_DIR_NAME, nodeEngine.getLocalMember().getUuid(), idToString(jobId));
+    }
+
+    /**
+     * Returns the directory holding the local files of the given snapshot
+     * for the given vertex.
+     */
+    @Nonnull
+    public static Path vertexDir(@Nonnull NodeEngine nodeEngine, long jobId, long snapshotId,
+                                 @Nonnull String vertexName) {
+        try {
+            // the vertex name can contain any character, also '.', which we escape to prevent ".." names
+            String dirName = URLEncoder.encode(vertexName, UTF_8.name()).replace(".", "%2E");
+            return jobDir(nodeEngine, jobId).resolve(Long.toString(snapshotId)).resolve(dirName);
+        } catch (UnsupportedEncodingException e) {
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * Returns the name of the chunk file with the given sequence number
+     * written by the given member.
+     */
+    @Nonnull
+    static String chunkFileName(@Nonnull String ownerUuid, long chunkSequence) {
+        return ownerUuid + '-' + chunkSequence + CHUNK_FILE_SUFFIX;
+    }
+
+    /**
+     * Returns the chunk files in the given directory, sorted by name. Returns
+     * an empty list, if there is no such directory.
+     */
+    @Nonnull
+    public static List<Path> listChunkFiles(@Nonnull Path dir) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (Files.isDirectory(dir)) {
+            try (Stream<Path> stream = Files.list(dir)) {
+                stream.filter(f -> f.getFileName().toString().endsWith(CHUNK_FILE_SUFFIX))
+                      .sorted()
+                      .forEach(files::add);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Writes the chunk to a new memory-mapped file in the given directory.
+     */
+    public static void writeChunk(@Nonnull Path dir, @Nonnull String fileName, @Nonnull byte[] chunk)
+            throws IOException {
+        Files.createDirectories(dir);
+        try (FileChannel channel = FileChannel.open(dir.resolve(fileName), CREATE_NEW, READ, WRITE)) {
+            MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0, chunk.length);
+            buffer.put(chunk);
+        }
+    }
+
+    /**
+     * Maps the chunk file to memory for reading.
+     */
+    @Nonnull
+    public static ByteBuffer mapChunk(@Nonnull Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            return channel.map(MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Returns the size of the chunk header listing the given members.
+     */
+    static int headerSize(@Nonnull List<String> replicaUuids) {
+        int size = Integer.BYTES;
+        for (String uuid : replicaUuids) {
+            size += Integer.BYTES + uuid.getBytes(UTF_8).length;
+        }
+        return size;
+    }
+
+    /**
+     * Returns the serialized size of the entry in the chunk.
+     */
+    static int entrySize(@Nonnull Entry<Data, Data> entry) {
+        return 2 * Integer.BYTES + entry.getKey().totalSize() + entry.getValue().totalSize();
+    }
+
+    static void writeHeader(@Nonnull ByteBuffer chunk, @Nonnull List<String> replicaUuids) {
+        chunk.putInt(replicaUuids.size());
+        for (String uuid : replicaUuids) {
+            writeBytes(chunk, uuid.getBytes(UTF_8));
+        }
+    }
+
+    static void writeEntry(@Nonnull ByteBuffer chunk, @Nonnull Entry<Data, Data> entry) {
+        writeBytes(chunk, entry.getKey().toByteArray());
+        writeBytes(chunk, entry.getValue().toByteArray());
+    }
+
+    /**
+     * Reads the UUIDs of the members holding a copy of the chunk, the member
+     * which wrote it first. Leaves the buffer positioned at the first entry.
+     */
+    @Nonnull
+    public static List<String> readHeader(@Nonnull ByteBuffer chunk) {
+        int count = chunk.getInt();
+        List<String> replicaUuids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            replicaUuids.add(new String(readBytes(chunk), UTF_8));
+        }
+        return replicaUuids;
+    }
+
+    /**
+     * Reads the next entry of the chunk or returns {@code null}, if there are
+     * no more entries.
+     */
+    @Nullable
+    public static Entry<Data, Data> readEntry(@Nonnull ByteBuffer chunk) {
+        if (!chunk.hasRemaining()) {
+            return null;
+        }
+        Data key = new HeapData(readBytes(chunk));
+        Data value = new HeapData(readBytes(chunk));
+        return entry(key, value);
+    }
+
+    /**
+     * Deletes the local files of the given snapshot. Also deletes the
+     * directory of the job, if it remains empty.
+     */
+    public static void deleteSnapshotFiles(@Nonnull NodeEngine nodeEngine, long jobId, long snapshotId)
+            throws IOException {
+        Path jobDir = jobDir(nodeEngine, jobId);
+        IOUtil.delete(jobDir.resolve(Long.toString(snapshotId)).toFile());
+        try {
+            Files.deleteIfExists(jobDir);
+        } catch (DirectoryNotEmptyException ignored) {
+            // there are other snapshots of the job
+        }
+    }
+
+    private static void writeBytes(ByteBuffer chunk, byte[] bytes) {
+        chunk.putInt(bytes.length);
+        chunk.put(bytes);
+    }
+
+    private static byte[] readBytes(ByteBuffer chunk) {
+        byte[] bytes = new byte[chunk.getInt()];
+        chunk.get(bytes);
+        return bytes;
+    }
+}
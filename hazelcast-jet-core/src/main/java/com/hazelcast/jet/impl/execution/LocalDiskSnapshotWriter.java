@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.core.Member;
+import com.hazelcast.jet.impl.JetService;
+import com.hazelcast.jet.impl.operation.SaveSnapshotChunkOperation;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.ExecutionService;
+import com.hazelcast.spi.NodeEngine;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static com.hazelcast.jet.impl.execution.LocalDiskSnapshotStore.chunkFileName;
+import static com.hazelcast.jet.impl.execution.LocalDiskSnapshotStore.entrySize;
+import static com.hazelcast.jet.impl.execution.LocalDiskSnapshotStore.headerSize;
+import static com.hazelcast.jet.impl.execution.LocalDiskSnapshotStore.vertexDir;
+import static com.hazelcast.jet.impl.execution.LocalDiskSnapshotStore.writeChunk;
+import static com.hazelcast.jet.impl.execution.LocalDiskSnapshotStore.writeEntry;
+import static com.hazelcast.jet.impl.execution.LocalDiskSnapshotStore.writeHeader;
+import static com.hazelcast.jet.impl.util.Util.callbackOf;
+import static com.hazelcast.jet.impl.util.Util.completeVoidFuture;
+import static com.hazelcast.jet.impl.util.Util.getJetInstance;
+import static com.hazelcast.jet.impl.util.Util.uncheckRun;
+import static java.lang.Math.min;
+
+/**
+ * Buffers the entries into chunks and writes each chunk to a file on the
+ * local member and to the backup members, see {@link LocalDiskSnapshotStore}.
+ */
+class LocalDiskSnapshotWriter implements SnapshotWriter {
+
+    /**
+     * The size of the buffered entries at which a chunk is written before
+     * the end of the snapshot.
+     */
+    static final int CHUNK_SIZE = 1 << 22;
+
+    private final NodeEngine nodeEngine;
+    private final long jobId;
+    private final String vertexName;
+    private final int backupCount;
+    private final Executor ioExecutor;
+
+    private final List<Entry<Data, Data>> buffer = new ArrayList<>();
+    private int bufferedBytes;
+    private long snapshotId;
+    private long chunkSequence;
+
+    LocalDiskSnapshotWriter(NodeEngine nodeEngine, long jobId, String vertexName) {
+        this.nodeEngine = nodeEngine;
+        this.jobId = jobId;
+        this.vertexName = vertexName;
+        this.backupCount = getJetInstance(nodeEngine).getConfig().getInstanceConfig().getBackupCount();
+        this.ioExecutor = nodeEngine.getExecutionService().getExecutor(ExecutionService.IO_EXECUTOR);
+    }
+
+    @Override
+    public void setSnapshotId(long snapshotId) {
+        this.snapshotId = snapshotId;
+    }
+
+    @Override
+    public void put(Entry<Data, Data> entry) {
+        buffer.add(entry);
+        bufferedBytes += entrySize(entry);
+    }
+
+    @Override
+    public boolean tryFlushAsync(CompletableFuture<Void> completionFuture, boolean isLastFlush) {
+        if (buffer.isEmpty() || !isLastFlush && bufferedBytes < CHUNK_SIZE) {
+            completeVoidFuture(completionFuture);
+            return true;
+        }
+        List<Member> replicas = replicas();
+        List<String> replicaUuids = new ArrayList<>(replicas.size());
+        for (Member member : replicas) {
+            replicaUuids.add(member.getUuid());
+        }
+        ByteBuffer chunk = ByteBuffer.allocate(headerSize(replicaUuids) + bufferedBytes);
+        writeHeader(chunk, replicaUuids);
+        for (Entry<Data, Data> entry : buffer) {
+            writeEntry(chunk, entry);
+        }
+        buffer.clear();
+        bufferedBytes = 0;
+
+        String fileName = chunkFileName(replicaUuids.get(0), chunkSequence++);
+        Path dir = vertexDir(nodeEngine, jobId, snapshotId, vertexName);
+        List<CompletableFuture<Void>> futures = new ArrayList<>(replicas.size());
+        futures.add(CompletableFuture.runAsync(() -> uncheckRun(() -> writeChunk(dir, fileName, chunk.array())),
+                ioExecutor));
+        for (Member backup : replicas.subList(1, replicas.size())) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            nodeEngine.getOperationService()
+                      .invokeOnTarget(JetService.SERVICE_NAME, new SaveSnapshotChunkOperation(
+                              jobId, snapshotId, vertexName, fileName, chunk.array()), backup.getAddress())
+                      .andThen(callbackOf(r -> completeVoidFuture(future), future::completeExceptionally));
+            futures.add(future);
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                         .whenComplete((r, e) -> {
+                             if (e != null) {
+                                 completionFuture.completeExceptionally(e);
+                             } else {
+                                 completeVoidFuture(completionFuture);
+                             }
+                         });
+        return true;
+    }
+
+    /**
+     * Returns the members to store the chunk on: the local member followed
+     * by the members after it in the member list.
+     */
+    private List<Member> replicas() {
+        List<Member> members = new ArrayList<>(nodeEngine.getClusterService().getMembers());
+        int localIndex = members.indexOf(nodeEngine.getLocalMember());
+        int count = 1 + min(backupCount, members.size() - 1);
+        List<Member> replicas = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            replicas.add(members.get((localIndex + i) % members.size()));
+        }
+        return replicas;
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.hazelcast.jet.impl.execution;
 
+import com.hazelcast.jet.Traverser;
 import com.hazelcast.jet.core.Outbox;
 import com.hazelcast.jet.impl.util.ProgressState;
 import com.hazelcast.jet.impl.util.ProgressTracker;
@@ -45,6 +46,8 @@ public class OutboxImpl implements Outbox {
     private final BitSet broadcastTracker;
     private Entry<Data, Data> pendingSnapshotEntry;
     private int numRemainingInBatch;
+    private boolean snapshotIncremental;
+    private long snapshotId = -1;
 
     /**
      * @param outstreams The output queues
@@ -143,6 +146,45 @@ public class OutboxImpl implements Outbox {
         return success;
     }
 
+    @Override
+    public final boolean offerRemovalToSnapshot(@Nonnull Object key) {
+        return offerToSnapshot(key, SnapshotTombstone.TOMBSTONE);
+    }
+
+    @Override
+    public final boolean offerSnapshotView(@Nonnull Traverser<? extends Entry<?, ?>> view) {
+        if (snapshotEdge == null) {
+            throw new IllegalStateException("Outbox does not have snapshot queue");
+        }
+        // the view is serialized by the StoreSnapshotTasklet
+        return offer(snapshotEdge, new SnapshotView(view));
+    }
+
+    @Override
+    public final boolean isSnapshotIncremental() {
+        return snapshotIncremental;
+    }
+
+    /**
+     * Sets whether the snapshot being saved is incremental, see {@link
+     * #isSnapshotIncremental()}.
+     */
+    public void setSnapshotIncremental(boolean snapshotIncremental) {
+        this.snapshotIncremental = snapshotIncremental;
+    }
+
+    @Override
+    public final long snapshotId() {
+        return snapshotId;
+    }
+
+    /**
+     * Sets the ID of the snapshot being saved, see {@link #snapshotId()}.
+     */
+    public void setSnapshotId(long snapshotId) {
+        this.snapshotId = snapshotId;
+    }
+
     public void resetBatch() {
         numRemainingInBatch = batchSize;
     }
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+
+/**
+ * An entry read from the snapshot data, together with the ID of the
+ * partition it was stored in. It's the partition of the entry's key, so
+ * the snapshot restore edge can route the entry to the processor owning
+ * that partition without serializing the key to compute it.
+ */
+@SuppressFBWarnings(value = "EQ_DOESNT_OVERRIDE_EQUALS",
+        justification = "partitionId is derived from the key, equality by key and value is intended")
+public final class PartitionedEntry<K, V> extends SimpleImmutableEntry<K, V> {
+
+    private final int partitionId;
+
+    public PartitionedEntry(int partitionId, K key, V value) {
+        super(key, value);
+        this.partitionId = partitionId;
+    }
+
+    public int partitionId() {
+        return partitionId;
+    }
+
+    @Override
+    public String toString() {
+        return getKey() + "=" + getValue() + " (partition " + partitionId + ')';
+    }
+}
@@ -65,6 +65,11 @@ enum ProcessorState {
      */
     EMIT_BARRIER,
 
+    /**
+     * Waiting for the outbox to accept the {@link SnapshotEnd}.
+     */
+    EMIT_SNAPSHOT_END,
+
     /**
      * Waiting for the outbox to accept the {@code DONE_ITEM}.
      */
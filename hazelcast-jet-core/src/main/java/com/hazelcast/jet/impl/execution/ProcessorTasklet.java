@@ -42,6 +42,7 @@ import static com.hazelcast.jet.impl.execution.ProcessorState.COMPLETE;
 import static com.hazelcast.jet.impl.execution.ProcessorState.COMPLETE_EDGE;
 import static com.hazelcast.jet.impl.execution.ProcessorState.EMIT_BARRIER;
 import static com.hazelcast.jet.impl.execution.ProcessorState.EMIT_DONE_ITEM;
+import static com.hazelcast.jet.impl.execution.ProcessorState.EMIT_SNAPSHOT_END;
 import static com.hazelcast.jet.impl.execution.ProcessorState.EMIT_WATERMARK;
 import static com.hazelcast.jet.impl.execution.ProcessorState.END;
 import static com.hazelcast.jet.impl.execution.ProcessorState.PROCESS_INBOX;
@@ -64,6 +65,20 @@ public class ProcessorTasklet implements Tasklet {
     private final SnapshotContext ssContext;
     private final BitSet receivedBarriers; // indicates if current snapshot is received on the ordinal
 
+    // unaligned snapshots: see JobConfig.setUnalignedSnapshotsEnabled()
+    private final boolean unalignedSnapshots; // this processor doesn't align the barriers
+    private final boolean emitSnapshotEnd; // the job takes unaligned snapshots
+    private final BitSet receivedEnds; // indicates if the SnapshotEnd of current snapshot is received on the ordinal
+    private final BitSet blockedOrdinals; // ordinals which delivered the next barrier before current snapshot ended
+    private boolean blockedBarrierIncremental;
+    private boolean snapshotInProgress; // a barrier was received, the SnapshotEnd not yet emitted
+    private boolean snapshotStateSaved;
+    private final Queue<Object> inFlightItems = new ArrayDeque<>(); // to be saved before processing the inbox
+    private long inFlightSequence;
+    private final List<Entry<InFlightKey, Object>> restoredInFlightItems = new ArrayList<>();
+    private final Queue<Entry<InFlightKey, Object>> inFlightItemsToReprocess = new ArrayDeque<>();
+    private int inboxOrdinal;
+
     private final ArrayDequeInbox inbox = new ArrayDequeInbox(progTracker);
     private final Queue<ArrayList<InboundEdgeStream>> instreamGroupQueue;
     private final WatermarkCoalescer watermarkCoalescer;
@@ -73,7 +88,12 @@ public class ProcessorTasklet implements Tasklet {
     private InboundEdgeStream currInstream;
     private ProcessorState state;
     private long pendingSnapshotId;
+    private boolean pendingSnapshotIncremental;
     private Watermark pendingWatermark;
+    // the metrics of the pending snapshot, see SnapshotStats
+    private long firstBarrierNanos;
+    private long saveStartNanos = -1;
+    private long notifiedCommittedSnapshotId = SnapshotContext.NO_SNAPSHOT;
 
     public ProcessorTasklet(@Nonnull ProcCtx context,
                             @Nonnull Processor processor,
@@ -82,7 +102,29 @@ public class ProcessorTasklet implements Tasklet {
                             @Nonnull SnapshotContext ssContext,
                             @Nonnull OutboundCollector ssCollector,
                             int maxWatermarkRetainMillis) {
+        this(context, processor, instreams, outstreams, ssContext, ssCollector, maxWatermarkRetainMillis, false, false);
+    }
+
+    /**
+     * @param unalignedSnapshots if true, the processor saves its state as soon
+     *                           as it receives the first barrier and saves the
+     *                           items received on other ordinals until their barrier
+     *                           as in-flight items of the snapshot
+     * @param emitSnapshotEnd if true, the processor emits the {@link
+     *                        SnapshotEnd} after the barrier; it's true for all
+     *                        processors of a job taking unaligned snapshots
+     */
+    public ProcessorTasklet(@Nonnull ProcCtx context,
+                            @Nonnull Processor processor,
+                            @Nonnull List<? extends InboundEdgeStream> instreams,
+                            @Nonnull List<? extends OutboundEdgeStream> outstreams,
+                            @Nonnull SnapshotContext ssContext,
+                            @Nonnull OutboundCollector ssCollector,
+                            int maxWatermarkRetainMillis,
+                            boolean unalignedSnapshots,
+                            boolean emitSnapshotEnd) {
         Preconditions.checkNotNull(processor, "processor");
+        Preconditions.checkTrue(!unalignedSnapshots || emitSnapshotEnd, "unaligned snapshots must emit SnapshotEnd");
         this.context = context;
         this.processor = processor;
         this.numActiveOrdinals = instreams.size();
@@ -102,6 +144,10 @@ public class ProcessorTasklet implements Tasklet {
         currInstream = instreamCursor != null ? instreamCursor.value() : null;
         outbox = createOutbox(ssCollector);
         receivedBarriers = new BitSet(instreams.size());
+        receivedEnds = new BitSet(instreams.size());
+        blockedOrdinals = new BitSet(instreams.size());
+        this.unalignedSnapshots = unalignedSnapshots;
+        this.emitSnapshotEnd = emitSnapshotEnd;
         state = initialProcessingState();
         pendingSnapshotId = ssContext.lastSnapshotId() + 1;
 
@@ -170,14 +216,25 @@ public class ProcessorTasklet implements Tasklet {
 
             case PROCESS_INBOX:
                 progTracker.notDone();
+                if (inbox.isEmpty() && !isSnapshotInbox() && !notifySnapshotCommitted()) {
+                    return;
+                }
                 if (inbox.isEmpty() && (isSnapshotInbox() || processor.tryProcess())) {
-                    fillInbox(now);
+                    if (!inFlightItemsToReprocess.isEmpty()) {
+                        fillInboxFromRestoredInFlightItems();
+                    } else {
+                        fillInbox(now);
+                    }
+                }
+                if (!inFlightItems.isEmpty() && !saveInFlightItems()) {
+                    // the in-flight items must be in the snapshot before they affect the state
+                    return;
                 }
                 if (!inbox.isEmpty()) {
                     if (isSnapshotInbox()) {
                         processor.restoreFromSnapshot(inbox);
                     } else {
-                        processor.process(currInstream.ordinal(), inbox);
+                        processor.process(inboxOrdinal, inbox);
                     }
                 }
 
@@ -187,12 +244,29 @@ public class ProcessorTasklet implements Tasklet {
                         state = COMPLETE_EDGE;
                         progTracker.madeProgress();
                         return;
-                    } else if (context.snapshottingEnabled()
+                    } else if (unalignedSnapshots && snapshotInProgress && !snapshotStateSaved) {
+                        // we have an empty inbox and received the first barrier of the current snapshot
+                        state = SAVE_SNAPSHOT;
+                        return;
+                    } else if (!unalignedSnapshots
+                            && context.snapshottingEnabled()
                             && numActiveOrdinals > 0
                             && receivedBarriers.cardinality() == numActiveOrdinals) {
                         // we have an empty inbox and received the current snapshot barrier from all active ordinals
                         state = SAVE_SNAPSHOT;
                         return;
+                    } else if (unalignedSnapshots && snapshotInProgress
+                            && receivedEnds.cardinality() == numActiveOrdinals) {
+                        // all in-flight items of the current snapshot were saved
+                        state = EMIT_SNAPSHOT_END;
+                        return;
+                    } else if (unalignedSnapshots && !snapshotInProgress && !blockedOrdinals.isEmpty()) {
+                        // the next snapshot started on some ordinals while the current one was in progress
+                        receivedBarriers.or(blockedOrdinals);
+                        blockedOrdinals.clear();
+                        startUnalignedSnapshot(blockedBarrierIncremental);
+                        state = SAVE_SNAPSHOT;
+                        return;
                     } else if (numActiveOrdinals == 0) {
                         progTracker.madeProgress();
                         state = COMPLETE;
@@ -207,6 +281,12 @@ public class ProcessorTasklet implements Tasklet {
                 if (isSnapshotInbox()
                         ? processor.finishSnapshotRestore() : processor.completeEdge(currInstream.ordinal())) {
                     progTracker.madeProgress();
+                    if (isSnapshotInbox()) {
+                        restoredInFlightItems.sort(comparing((Entry<InFlightKey, Object> e) -> e.getKey().processorIndex())
+                                .thenComparing(e -> e.getKey().sequence()));
+                        inFlightItemsToReprocess.addAll(restoredInFlightItems);
+                        restoredInFlightItems.clear();
+                    }
                     state = initialProcessingState();
                 }
                 return;
@@ -215,7 +295,13 @@ public class ProcessorTasklet implements Tasklet {
                 assert context.snapshottingEnabled() : "Snapshotting is not enabled";
 
                 progTracker.notDone();
+                outbox.setSnapshotIncremental(pendingSnapshotIncremental && processor.supportsIncrementalSnapshot());
+                outbox.setSnapshotId(pendingSnapshotId);
+                if (saveStartNanos < 0) {
+                    saveStartNanos = System.nanoTime();
+                }
                 if (processor.saveToSnapshot()) {
+                    recordSnapshotStats();
                     progTracker.madeProgress();
                     state = EMIT_BARRIER;
                 }
@@ -225,8 +311,32 @@ public class ProcessorTasklet implements Tasklet {
                 assert context.snapshottingEnabled() : "Snapshotting is not enabled";
 
                 progTracker.notDone();
-                if (outbox.offerToEdgesAndSnapshot(new SnapshotBarrier(pendingSnapshotId))) {
+                if (outbox.offerToEdgesAndSnapshot(new SnapshotBarrier(pendingSnapshotId, pendingSnapshotIncremental))) {
+                    if (unalignedSnapshots) {
+                        // keep processing, the in-flight items are saved until the SnapshotEnd is received
+                        // from all ordinals
+                        snapshotStateSaved = true;
+                        state = receivedEnds.cardinality() == numActiveOrdinals
+                                ? EMIT_SNAPSHOT_END : initialProcessingState();
+                    } else if (emitSnapshotEnd) {
+                        state = EMIT_SNAPSHOT_END;
+                    } else {
+                        receivedBarriers.clear();
+                        pendingSnapshotId++;
+                        state = initialProcessingState();
+                    }
+                }
+                return;
+
+            case EMIT_SNAPSHOT_END:
+                assert emitSnapshotEnd : "Unaligned snapshots are not enabled";
+
+                progTracker.notDone();
+                if (outbox.offerToEdgesAndSnapshot(new SnapshotEnd(pendingSnapshotId))) {
+                    progTracker.madeProgress();
                     receivedBarriers.clear();
+                    receivedEnds.clear();
+                    snapshotInProgress = false;
                     pendingSnapshotId++;
                     state = initialProcessingState();
                 }
@@ -240,12 +350,18 @@ public class ProcessorTasklet implements Tasklet {
                     assert currSnapshotId <= pendingSnapshotId : "Unexpected new snapshot id " + currSnapshotId
                             + ", current was" + pendingSnapshotId;
                     if (currSnapshotId == pendingSnapshotId) {
+                        if (unalignedSnapshots) {
+                            startUnalignedSnapshot(ssContext.isCurrentSnapshotIncremental());
+                        } else {
+                            pendingSnapshotIncremental = ssContext.isCurrentSnapshotIncremental();
+                            firstBarrierNanos = System.nanoTime();
+                        }
                         state = SAVE_SNAPSHOT;
                         progTracker.madeProgress();
                         return;
                     }
                 }
-                if (processor.complete()) {
+                if (notifySnapshotCommitted() && processor.complete()) {
                     progTracker.madeProgress();
                     state = EMIT_DONE_ITEM;
                 }
@@ -277,15 +393,21 @@ public class ProcessorTasklet implements Tasklet {
 
             // skip ordinals where a snapshot barrier has already been received
             if (ssContext != null && ssContext.processingGuarantee() == ProcessingGuarantee.EXACTLY_ONCE
-                    && receivedBarriers.get(currInstream.ordinal())) {
+                    && !unalignedSnapshots && receivedBarriers.get(currInstream.ordinal())
+                    || blockedOrdinals.get(currInstream.ordinal())) {
                 instreamCursor.advance();
                 continue;
             }
-            result = currInstream.drainTo(inbox::add);
+            inboxOrdinal = currInstream.ordinal();
+            result = currInstream.drainTo(isSnapshotInbox() ? this::addRestoredItem
+                    : unalignedSnapshots ? this::addItemUnaligned
+                    : inbox::add);
             progTracker.madeProgress(result.isMadeProgress());
 
             if (result.isDone()) {
                 receivedBarriers.clear(currInstream.ordinal());
+                receivedEnds.clear(currInstream.ordinal());
+                blockedOrdinals.clear(currInstream.ordinal());
                 watermarkCoalescer.queueDone(currInstream.ordinal());
                 instreamCursor.remove();
                 numActiveOrdinals--;
@@ -302,7 +424,14 @@ public class ProcessorTasklet implements Tasklet {
                 }
             } else if (lastItem instanceof SnapshotBarrier) {
                 SnapshotBarrier barrier = (SnapshotBarrier) inbox.removeLast();
-                observeSnapshot(currInstream.ordinal(), barrier.snapshotId());
+                if (unalignedSnapshots) {
+                    observeUnalignedSnapshot(currInstream.ordinal(), barrier);
+                } else {
+                    observeSnapshot(currInstream.ordinal(), barrier);
+                }
+            } else if (lastItem instanceof SnapshotEnd) {
+                SnapshotEnd end = (SnapshotEnd) inbox.removeLast();
+                observeSnapshotEnd(currInstream.ordinal(), end);
             }
 
             // pop current priority group
@@ -313,6 +442,60 @@ public class ProcessorTasklet implements Tasklet {
         } while (!result.isMadeProgress() && instreamCursor.value() != first);
     }
 
+    private void addItemUnaligned(Object item) {
+        if (item instanceof InFlightItem) {
+            item = ((InFlightItem) item).item();
+            inFlightItems.add(item);
+        } else if (snapshotInProgress && !receivedBarriers.get(inboxOrdinal) && !(item instanceof BroadcastItem)) {
+            // received before the barrier on this ordinal, but after the state was saved
+            assert snapshotStateSaved : "in-flight item before the state was saved";
+            inFlightItems.add(item);
+        }
+        inbox.add(item);
+    }
+
+    private void addRestoredItem(Object item) {
+        if (item instanceof Entry && ((Entry) item).getKey() instanceof InFlightKey) {
+            Entry<InFlightKey, Object> entry = (Entry<InFlightKey, Object>) item;
+            // skip the stale items of the previous snapshots kept by the incremental snapshots
+            if (entry.getKey().snapshotId() == pendingSnapshotId - 1) {
+                restoredInFlightItems.add(entry);
+            }
+        } else {
+            inbox.add(item);
+        }
+    }
+
+    private boolean saveInFlightItems() {
+        for (Object item; (item = inFlightItems.peek()) != null; ) {
+            Object partitionKey = currInstream.partitionKey(item);
+            InFlightKey key = new InFlightKey(pendingSnapshotId, inboxOrdinal, context.globalProcessorIndex(),
+                    inFlightSequence, partitionKey != null ? partitionKey : context.globalProcessorIndex());
+            if (!outbox.offerToSnapshot(key, item)) {
+                return false;
+            }
+            inFlightItems.remove();
+            inFlightSequence++;
+        }
+        return true;
+    }
+
+    /**
+     * Fills the inbox with the restored in-flight items received on the same
+     * ordinal. They are processed after the state is restored and before any
+     * new item.
+     */
+    private void fillInboxFromRestoredInFlightItems() {
+        int ordinal = inFlightItemsToReprocess.peek().getKey().ordinal();
+        while (!inFlightItemsToReprocess.isEmpty() && inFlightItemsToReprocess.peek().getKey().ordinal() == ordinal) {
+            inbox.add(inFlightItemsToReprocess.remove().getValue());
+        }
+        inboxOrdinal = ordinal;
+        // the inbox doesn't come from any instream
+        currInstream = null;
+        progTracker.madeProgress();
+    }
+
     private CircularListCursor<InboundEdgeStream> popInstreamGroup() {
         return Optional.ofNullable(instreamGroupQueue.poll())
                        .map(CircularListCursor::new)
@@ -324,12 +507,75 @@ public class ProcessorTasklet implements Tasklet {
         return "ProcessorTasklet{vertex=" + context.vertexName() + ", processor=" + processor + '}';
     }
 
-    private void observeSnapshot(int ordinal, long snapshotId) {
-        if (snapshotId != pendingSnapshotId) {
-            throw new JetException("Unexpected snapshot barrier " + snapshotId + " from ordinal " + ordinal +
+    private void observeSnapshot(int ordinal, SnapshotBarrier barrier) {
+        if (barrier.snapshotId() != pendingSnapshotId) {
+            throw new JetException("Unexpected snapshot barrier " + barrier.snapshotId() + " from ordinal " + ordinal +
+                    " expected " + pendingSnapshotId);
+        }
+        pendingSnapshotIncremental = barrier.isIncremental();
+        if (receivedBarriers.isEmpty()) {
+            firstBarrierNanos = System.nanoTime();
+        }
+        receivedBarriers.set(ordinal);
+    }
+
+    private void observeUnalignedSnapshot(int ordinal, SnapshotBarrier barrier) {
+        if (snapshotInProgress && barrier.snapshotId() == pendingSnapshotId + 1) {
+            // The ordinal is done with the current snapshot, but the others
+            // aren't. We hold the ordinal back until the current snapshot ends.
+            assert receivedEnds.get(ordinal) : "next barrier before the SnapshotEnd on ordinal " + ordinal;
+            blockedOrdinals.set(ordinal);
+            blockedBarrierIncremental = barrier.isIncremental();
+            return;
+        }
+        if (barrier.snapshotId() != pendingSnapshotId || receivedBarriers.get(ordinal)) {
+            throw new JetException("Unexpected snapshot barrier " + barrier.snapshotId() + " from ordinal " + ordinal +
                     " expected " + pendingSnapshotId);
         }
         receivedBarriers.set(ordinal);
+        if (!snapshotInProgress) {
+            startUnalignedSnapshot(barrier.isIncremental());
+        }
+    }
+
+    private void observeSnapshotEnd(int ordinal, SnapshotEnd end) {
+        if (end.snapshotId() != pendingSnapshotId || !receivedBarriers.get(ordinal)) {
+            throw new JetException("Unexpected snapshot end " + end.snapshotId() + " from ordinal " + ordinal +
+                    " expected " + pendingSnapshotId);
+        }
+        receivedEnds.set(ordinal);
+    }
+
+    private void startUnalignedSnapshot(boolean isIncremental) {
+        pendingSnapshotIncremental = isIncremental;
+        snapshotInProgress = true;
+        snapshotStateSaved = false;
+        firstBarrierNanos = System.nanoTime();
+    }
+
+    /**
+     * Calls {@link Processor#onSnapshotCommitted(long)}, if a snapshot was
+     * committed since the last call. Returns false, if the processor didn't
+     * finish handling it.
+     */
+    private boolean notifySnapshotCommitted() {
+        long committedId = ssContext.lastCommittedSnapshotId();
+        if (committedId <= notifiedCommittedSnapshotId) {
+            return true;
+        }
+        if (!processor.onSnapshotCommitted(committedId)) {
+            return false;
+        }
+        notifiedCommittedSnapshotId = committedId;
+        progTracker.madeProgress();
+        return true;
+    }
+
+    private void recordSnapshotStats() {
+        long now = System.nanoTime();
+        ssContext.stats(pendingSnapshotId).vertex(context.vertexName())
+                 .recordProcessor(saveStartNanos - firstBarrierNanos, now - saveStartNanos);
+        saveStartNanos = -1;
     }
 
     /**
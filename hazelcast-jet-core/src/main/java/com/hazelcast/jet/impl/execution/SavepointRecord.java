@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.jet.config.SnapshotStorage;
+import com.hazelcast.jet.impl.execution.init.JetInitDataSerializerHook;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static com.hazelcast.jet.impl.util.Util.idToString;
+import static com.hazelcast.jet.impl.util.Util.toLocalDateTime;
+
+/**
+ * A record stored in the {@link
+ * com.hazelcast.jet.impl.SnapshotRepository#SAVEPOINTS_MAP_NAME} map. It
+ * points to the snapshot a terminated job exported under a name, see
+ * {@link com.hazelcast.jet.config.JobConfig#setSavepointName(String)}. The
+ * snapshot data stays where the job stored it.
+ */
+public class SavepointRecord implements IdentifiedDataSerializable {
+
+    private String name;
+    private long jobId;
+    private List<Long> snapshotChain;
+    private Collection<String> vertices;
+    private SnapshotStorage storage;
+    private long creationTime;
+    private SnapshotStats stats;
+
+    public SavepointRecord() {
+    }
+
+    public SavepointRecord(String name, List<Long> snapshotChain, SnapshotRecord snapshot) {
+        this.name = name;
+        this.jobId = snapshot.jobId();
+        this.snapshotChain = new ArrayList<>(snapshotChain);
+        this.vertices = snapshot.vertices();
+        this.storage = snapshot.storage();
+        this.creationTime = System.currentTimeMillis();
+        this.stats = snapshot.stats();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Returns the ID of the job which exported the savepoint. The snapshot
+     * data is stored under this ID.
+     */
+    public long jobId() {
+        return jobId;
+    }
+
+    /**
+     * Returns the IDs of the snapshots holding the state, oldest first, see
+     * {@link com.hazelcast.jet.impl.SnapshotRepository#snapshotChain}.
+     */
+    public List<Long> snapshotChain() {
+        return snapshotChain;
+    }
+
+    public Collection<String> vertices() {
+        return vertices;
+    }
+
+    public SnapshotStorage storage() {
+        return storage;
+    }
+
+    public long creationTime() {
+        return creationTime;
+    }
+
+    @Nullable
+    public SnapshotStats stats() {
+        return stats;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return JetInitDataSerializerHook.FACTORY_ID;
+    }
+
+    @Override
+    public int getId() {
+        return JetInitDataSerializerHook.SAVEPOINT_RECORD;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeUTF(name);
+        out.writeLong(jobId);
+        out.writeObject(snapshotChain);
+        out.writeObject(vertices);
+        out.writeUTF(storage.name());
+        out.writeLong(creationTime);
+        out.writeObject(stats);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        name = in.readUTF();
+        jobId = in.readLong();
+        snapshotChain = in.readObject();
+        vertices = in.readObject();
+        storage = SnapshotStorage.valueOf(in.readUTF());
+        creationTime = in.readLong();
+        stats = in.readObject();
+    }
+
+    @Override
+    public String toString() {
+        return "SavepointRecord{" +
+                "name=" + name +
+                ", jobId=" + idToString(jobId) +
+                ", snapshotChain=" + snapshotChain +
+                ", vertices=" + vertices +
+                ", storage=" + storage +
+                ", creationTime=" + toLocalDateTime(creationTime) +
+                '}';
+    }
+}
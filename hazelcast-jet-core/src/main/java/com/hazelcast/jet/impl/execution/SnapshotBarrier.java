@@ -22,19 +22,33 @@ package com.hazelcast.jet.impl.execution;
  */
 public class SnapshotBarrier implements BroadcastItem {
     private final long snapshotId;
+    private final boolean isIncremental;
 
     public SnapshotBarrier(long snapshotId) {
+        this(snapshotId, false);
+    }
+
+    public SnapshotBarrier(long snapshotId, boolean isIncremental) {
         assert snapshotId >= 0; // snapshot ID starts at 0 and is only incremented
         this.snapshotId = snapshotId;
+        this.isIncremental = isIncremental;
     }
 
     public long snapshotId() {
         return snapshotId;
     }
 
+    /**
+     * Returns true, if the snapshot only stores the state changed since the
+     * previous snapshot.
+     */
+    public boolean isIncremental() {
+        return isIncremental;
+    }
+
     @Override
     public String toString() {
-        return "SnapshotBarrier{snapshotId=" + snapshotId + '}';
+        return "SnapshotBarrier{snapshotId=" + snapshotId + (isIncremental ? ", incremental" : "") + '}';
     }
 
     @Override
@@ -48,11 +62,11 @@ public class SnapshotBarrier implements BroadcastItem {
 
         SnapshotBarrier barrier = (SnapshotBarrier) o;
 
-        return snapshotId == barrier.snapshotId;
+        return snapshotId == barrier.snapshotId && isIncremental == barrier.isIncremental;
     }
 
     @Override
     public int hashCode() {
-        return (int) (snapshotId ^ (snapshotId >>> 32));
+        return 31 * (int) (snapshotId ^ (snapshotId >>> 32)) + (isIncremental ? 1 : 0);
     }
 }
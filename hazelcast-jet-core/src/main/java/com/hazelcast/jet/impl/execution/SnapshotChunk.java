@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.impl.execution.init.JetInitDataSerializerHook;
+import com.hazelcast.nio.Bits;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static com.hazelcast.jet.Util.entry;
+
+/**
+ * A compressed batch of snapshot entries of one partition, stored as a
+ * single value of a snapshot data map, see {@link
+ * com.hazelcast.jet.config.JobConfig#setSnapshotCompressionEnabled(boolean)}.
+ * <p>
+ * Before compression, the chunk is a sequence of entries, each as the
+ * length and bytes of the key followed by the length and bytes of the
+ * value.
+ */
+public final class SnapshotChunk implements IdentifiedDataSerializable {
+
+    private int uncompressedSize;
+    private byte[] compressed;
+
+    // for deserialization
+    public SnapshotChunk() {
+    }
+
+    SnapshotChunk(int uncompressedSize, byte[] compressed) {
+        this.uncompressedSize = uncompressedSize;
+        this.compressed = compressed;
+    }
+
+    /**
+     * Compresses the first {@code size} bytes of the given entries.
+     *
+     * @param entries  the entries encoded by {@link #writeEntry}
+     * @param deflater the deflater to use, it's reset after the call
+     */
+    static SnapshotChunk compress(byte[] entries, int size, Deflater deflater) {
+        try {
+            deflater.setInput(entries, 0, size);
+            deflater.finish();
+            byte[] buffer = new byte[Math.max(size / 2, 1)];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            return new SnapshotChunk(size, Arrays.copyOf(buffer, length));
+        } finally {
+            deflater.reset();
+        }
+    }
+
+    /**
+     * Returns the encoded size of the entry.
+     */
+    static int entrySize(Entry<Data, Data> entry) {
+        return 2 * Bits.INT_SIZE_IN_BYTES + entry.getKey().totalSize() + entry.getValue().totalSize();
+    }
+
+    /**
+     * Encodes the entry into the buffer at the given position, which must
+     * have at least {@link #entrySize} bytes remaining. Returns the position
+     * after the entry.
+     */
+    static int writeEntry(byte[] buffer, int position, Entry<Data, Data> entry) {
+        position = writeBytes(buffer, position, entry.getKey().toByteArray());
+        return writeBytes(buffer, position, entry.getValue().toByteArray());
+    }
+
+    /**
+     * Decompresses and decodes the entries of the chunk.
+     */
+    public List<Entry<Data, Data>> entries() {
+        byte[] bytes = new byte[uncompressedSize];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int length = 0;
+            while (length < bytes.length && !inflater.finished()) {
+                int count = inflater.inflate(bytes, length, bytes.length - length);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new JetException("Truncated snapshot chunk, inflated " + length + " of "
+                            + bytes.length + " bytes");
+                }
+                length += count;
+            }
+            if (length < bytes.length) {
+                throw new JetException("Truncated snapshot chunk, inflated " + length + " of "
+                        + bytes.length + " bytes");
+            }
+        } catch (DataFormatException e) {
+            throw new JetException("Corrupted snapshot chunk", e);
+        } finally {
+            inflater.end();
+        }
+        List<Entry<Data, Data>> entries = new ArrayList<>();
+        for (int position = 0; position < bytes.length; ) {
+            byte[] key = readBytes(bytes, position);
+            position += Bits.INT_SIZE_IN_BYTES + key.length;
+            byte[] value = readBytes(bytes, position);
+            position += Bits.INT_SIZE_IN_BYTES + value.length;
+            entries.add(entry(new HeapData(key), new HeapData(value)));
+        }
+        return entries;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return JetInitDataSerializerHook.FACTORY_ID;
+    }
+
+    @Override
+    public int getId() {
+        return JetInitDataSerializerHook.SNAPSHOT_CHUNK;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeInt(uncompressedSize);
+        out.writeByteArray(compressed);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        uncompressedSize = in.readInt();
+        compressed = in.readByteArray();
+    }
+
+    @Override
+    public String toString() {
+        return "SnapshotChunk{uncompressedSize=" + uncompressedSize + ", compressedSize=" + compressed.length + '}';
+    }
+
+    private static int writeBytes(byte[] buffer, int position, byte[] bytes) {
+        Bits.writeIntB(buffer, position, bytes.length);
+        System.arraycopy(bytes, 0, buffer, position + Bits.INT_SIZE_IN_BYTES, bytes.length);
+        return position + Bits.INT_SIZE_IN_BYTES + bytes.length;
+    }
+
+    private static byte[] readBytes(byte[] buffer, int position) {
+        int length = Bits.readIntB(buffer, position);
+        return Arrays.copyOfRange(buffer, position + Bits.INT_SIZE_IN_BYTES,
+                position + Bits.INT_SIZE_IN_BYTES + length);
+    }
+}
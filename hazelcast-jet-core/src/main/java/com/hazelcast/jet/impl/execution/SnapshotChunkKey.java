@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.core.PartitionAware;
+import com.hazelcast.jet.impl.execution.init.JetInitDataSerializerHook;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+
+/**
+ * The key of a {@link SnapshotChunk} in a snapshot data map. The partition
+ * key is the key of one of the entries in the chunk: all entries of a
+ * chunk belong to the same partition, so the chunk is stored in it too.
+ * The identity of the key is the UUID of the writer and the sequence of
+ * the chunk it wrote.
+ */
+public final class SnapshotChunkKey implements PartitionAware<Data>, IdentifiedDataSerializable {
+
+    private Data partitionKey;
+    private String writerUuid;
+    private long sequence;
+
+    // for deserialization
+    public SnapshotChunkKey() {
+    }
+
+    SnapshotChunkKey(Data partitionKey, String writerUuid, long sequence) {
+        this.partitionKey = partitionKey;
+        this.writerUuid = writerUuid;
+        this.sequence = sequence;
+    }
+
+    @Override
+    public Data getPartitionKey() {
+        return partitionKey;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return JetInitDataSerializerHook.FACTORY_ID;
+    }
+
+    @Override
+    public int getId() {
+        return JetInitDataSerializerHook.SNAPSHOT_CHUNK_KEY;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeData(partitionKey);
+        out.writeUTF(writerUuid);
+        out.writeLong(sequence);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        partitionKey = in.readData();
+        writerUuid = in.readUTF();
+        sequence = in.readLong();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        SnapshotChunkKey that = (SnapshotChunkKey) o;
+        return sequence == that.sequence && writerUuid.equals(that.writerUuid);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * writerUuid.hashCode() + (int) (sequence ^ (sequence >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "SnapshotChunkKey{writerUuid=" + writerUuid + ", sequence=" + sequence + '}';
+    }
+}
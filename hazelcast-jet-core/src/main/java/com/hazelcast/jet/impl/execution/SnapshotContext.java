@@ -20,12 +20,12 @@ import com.hazelcast.jet.config.ProcessingGuarantee;
 import com.hazelcast.logging.ILogger;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
-import static com.hazelcast.jet.impl.util.Util.completeVoidFuture;
-import static com.hazelcast.jet.impl.util.Util.completedVoidFuture;
 import static com.hazelcast.jet.impl.util.Util.jobAndExecutionId;
 
 public class SnapshotContext {
@@ -45,6 +45,13 @@ public class SnapshotContext {
      */
     private final AtomicLong lastSnapshotId;
 
+    /**
+     * True, if the snapshot with {@link #lastSnapshotId} is incremental.
+     * Source processors read it when they start the snapshot, the other
+     * processors take it from the barrier.
+     */
+    private volatile boolean currentSnapshotIncremental;
+
     /**
      * Current number of {@link StoreSnapshotTasklet}s in the job. It's
      * decremented as the tasklets complete (this is when they receive
@@ -64,7 +71,7 @@ public class SnapshotContext {
      * snapshot. When it is decremented to 0, the snapshot is complete and new
      * one can start.
      * <p>
-     * It can have negative value in case described in {@link #startNewSnapshot(long)}.
+     * It can have negative value in case described in {@link #startNewSnapshot(long, boolean)}.
      */
     private final AtomicInteger numRemainingTasklets = new AtomicInteger();
 
@@ -81,7 +88,22 @@ public class SnapshotContext {
     private boolean snapshotPostponed;
 
     /** Future which will be completed when the current snapshot completes. */
-    private volatile CompletableFuture<Void> future;
+    private volatile CompletableFuture<SnapshotStats> future;
+
+    /** The ID of the snapshot the {@link #future} belongs to. */
+    private volatile long futureSnapshotId;
+
+    /**
+     * The metrics of the snapshots recorded by the tasklets, see {@link
+     * #stats(long)}. The metrics of a snapshot are removed when it completes.
+     */
+    private final ConcurrentMap<Long, SnapshotStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * The ID of the last snapshot the master marked as successful, see
+     * {@link com.hazelcast.jet.core.Processor#onSnapshotCommitted(long)}.
+     */
+    private final AtomicLong lastCommittedSnapshotId = new AtomicLong(NO_SNAPSHOT);
 
     SnapshotContext(ILogger logger, long jobId, long executionId, long lastSnapshotId,
                     ProcessingGuarantee guarantee
@@ -100,6 +122,28 @@ public class SnapshotContext {
         return lastSnapshotId.get();
     }
 
+    /**
+     * Returns the ID of the last snapshot committed by the master.
+     */
+    long lastCommittedSnapshotId() {
+        return lastCommittedSnapshotId.get();
+    }
+
+    /**
+     * Called when the master marked the snapshot as successful. The
+     * processors are notified as they get to it.
+     */
+    void snapshotCommitted(long snapshotId) {
+        lastCommittedSnapshotId.accumulateAndGet(snapshotId, Math::max);
+    }
+
+    /**
+     * Returns true, if the last started snapshot is incremental.
+     */
+    boolean isCurrentSnapshotIncremental() {
+        return currentSnapshotIncremental;
+    }
+
     ProcessingGuarantee processingGuarantee() {
         return guarantee;
     }
@@ -126,11 +170,13 @@ public class SnapshotContext {
      * {@code SnapshotOperation} and send barriers to such processor before
      * the {@code SnapshotOperation} is called on this member.
      */
-    synchronized CompletableFuture<Void> startNewSnapshot(long snapshotId) {
+    synchronized CompletableFuture<SnapshotStats> startNewSnapshot(long snapshotId, boolean isIncremental) {
         assert snapshotId == lastSnapshotId.get() + 1
                 : "new snapshotId not incremented by 1. Previous=" + lastSnapshotId + ", new=" + snapshotId;
         assert numTasklets >= 0 : "numTasklets=" + numTasklets;
 
+        // must be set before the lastSnapshotId is incremented, which starts the snapshot
+        currentSnapshotIncremental = isIncremental;
         int newNumRemainingTasklets = numRemainingTasklets.addAndGet(numTasklets);
         assert newNumRemainingTasklets - numTasklets <= 0 :
                 "previous snapshot was not finished, numRemainingTasklets=" + (newNumRemainingTasklets - numTasklets);
@@ -145,9 +191,10 @@ public class SnapshotContext {
         }
         if (numTasklets == 0) {
             // member is already done with the job and master didn't know it yet - we are immediately done.
-            return completedVoidFuture();
+            return CompletableFuture.completedFuture(new SnapshotStats());
         }
-        CompletableFuture<Void> res = future = new CompletableFuture<>();
+        futureSnapshotId = snapshotId;
+        CompletableFuture<SnapshotStats> res = future = new CompletableFuture<>();
         if (newNumRemainingTasklets == 0) {
             handleSnapshotDone();
         }
@@ -190,7 +237,7 @@ public class SnapshotContext {
      * operations are done).
      * <p>
      * This method can be called before the snapshot was started with {@link
-     * #startNewSnapshot(long)}. This can happen, if the processor only has
+     * #startNewSnapshot(long, boolean)}. This can happen, if the processor only has
      * input queues from remote members, from which it can possibly receive
      * barriers before {@link com.hazelcast.jet.impl.operation.SnapshotOperation}
      * is handled on this member.
@@ -204,8 +251,9 @@ public class SnapshotContext {
 
     private void handleSnapshotDone() {
         Throwable t = snapshotError.get();
+        SnapshotStats snapshotStats = stats.remove(futureSnapshotId);
         if (t == null) {
-            completeVoidFuture(future);
+            future.complete(snapshotStats != null ? snapshotStats : new SnapshotStats());
         } else {
             future.completeExceptionally(t);
         }
@@ -213,6 +261,15 @@ public class SnapshotContext {
         snapshotError.set(null);
     }
 
+    /**
+     * Returns the metrics of the given snapshot for the tasklets to record
+     * into. The tasklets must record the metrics before they report the
+     * snapshot as done.
+     */
+    SnapshotStats stats(long snapshotId) {
+        return stats.computeIfAbsent(snapshotId, x -> new SnapshotStats());
+    }
+
     void reportError(Throwable ex) {
         snapshotError.compareAndSet(null, ex);
     }
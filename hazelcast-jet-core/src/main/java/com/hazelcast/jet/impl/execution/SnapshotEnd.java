@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+/**
+ * Special item emitted after the {@link SnapshotBarrier} when the job takes
+ * unaligned snapshots, see {@link
+ * com.hazelcast.jet.config.JobConfig#setUnalignedSnapshotsEnabled(boolean)}.
+ * The barrier overtakes the items buffered in the other queues, this item
+ * marks the point after which the queue carries no more in-flight items
+ * belonging to the snapshot.
+ */
+public class SnapshotEnd implements BroadcastItem {
+    private final long snapshotId;
+
+    public SnapshotEnd(long snapshotId) {
+        this.snapshotId = snapshotId;
+    }
+
+    public long snapshotId() {
+        return snapshotId;
+    }
+
+    @Override
+    public String toString() {
+        return "SnapshotEnd{snapshotId=" + snapshotId + '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof SnapshotEnd && snapshotId == ((SnapshotEnd) o).snapshotId;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (snapshotId ^ (snapshotId >>> 32));
+    }
+}
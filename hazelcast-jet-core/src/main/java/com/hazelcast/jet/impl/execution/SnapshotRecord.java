@@ -16,11 +16,13 @@
 
 package com.hazelcast.jet.impl.execution;
 
+import com.hazelcast.jet.config.SnapshotStorage;
 import com.hazelcast.jet.impl.execution.init.JetInitDataSerializerHook;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.Collection;
 
@@ -45,17 +47,27 @@ public class SnapshotRecord implements IdentifiedDataSerializable {
 
     private long jobId;
     private long snapshotId;
+    private long baseSnapshotId;
     private long startTime = System.currentTimeMillis();
     private SnapshotStatus status = ONGOING;
     private Collection<String> vertices;
+    private SnapshotStorage storage = SnapshotStorage.IMAP;
+    private SnapshotStats stats;
 
     public SnapshotRecord() {
     }
 
     public SnapshotRecord(long jobId, long snapshotId, Collection<String> vertices) {
+        this(jobId, snapshotId, snapshotId, vertices, SnapshotStorage.IMAP);
+    }
+
+    public SnapshotRecord(long jobId, long snapshotId, long baseSnapshotId, Collection<String> vertices,
+                          SnapshotStorage storage) {
         this.jobId = jobId;
         this.snapshotId = snapshotId;
+        this.baseSnapshotId = baseSnapshotId;
         this.vertices = vertices;
+        this.storage = storage;
     }
 
     /**
@@ -88,6 +100,42 @@ public class SnapshotRecord implements IdentifiedDataSerializable {
         return snapshotId;
     }
 
+    /**
+     * Returns the ID of the full snapshot this snapshot builds upon. For a
+     * full snapshot, it's equal to {@link #snapshotId()}.
+     */
+    public long baseSnapshotId() {
+        return baseSnapshotId;
+    }
+
+    /**
+     * Returns true, if the snapshot only contains the changes since the
+     * previous snapshot in the chain starting at {@link #baseSnapshotId()}.
+     */
+    public boolean isIncremental() {
+        return baseSnapshotId != snapshotId;
+    }
+
+    /**
+     * Returns where the data of the snapshot is stored.
+     */
+    public SnapshotStorage storage() {
+        return storage;
+    }
+
+    /**
+     * Returns the timing and size metrics of the snapshot. It's null until the
+     * snapshot completes.
+     */
+    @Nullable
+    public SnapshotStats stats() {
+        return stats;
+    }
+
+    public void setStats(SnapshotStats stats) {
+        this.stats = stats;
+    }
+
     public long startTime() {
         return startTime;
     }
@@ -110,18 +158,24 @@ public class SnapshotRecord implements IdentifiedDataSerializable {
     public void writeData(ObjectDataOutput out) throws IOException {
         out.writeLong(jobId);
         out.writeLong(snapshotId);
+        out.writeLong(baseSnapshotId);
         out.writeLong(startTime);
         out.writeUTF(status.toString());
         out.writeObject(vertices);
+        out.writeUTF(storage.name());
+        out.writeObject(stats);
     }
 
     @Override
     public void readData(ObjectDataInput in) throws IOException {
         jobId = in.readLong();
         snapshotId = in.readLong();
+        baseSnapshotId = in.readLong();
         startTime = in.readLong();
         status = SnapshotStatus.valueOf(in.readUTF());
         vertices = in.readObject();
+        storage = SnapshotStorage.valueOf(in.readUTF());
+        stats = in.readObject();
     }
 
     @Override
@@ -129,9 +183,12 @@ public class SnapshotRecord implements IdentifiedDataSerializable {
         return "SnapshotRecord{" +
                 "jobId=" + idToString(jobId) +
                 ", snapshotId=" + snapshotId +
+                ", baseSnapshotId=" + baseSnapshotId +
                 ", startTime=" + toLocalDateTime(startTime) +
                 ", status=" + status +
                 ", vertices=" + vertices +
+                ", storage=" + storage +
+                ", stats=" + stats +
                 '}';
     }
 }
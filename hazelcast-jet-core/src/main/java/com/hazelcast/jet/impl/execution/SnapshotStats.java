@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.jet.impl.execution.init.JetInitDataSerializerHook;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The timing and size metrics of one snapshot, per vertex. Each member
+ * collects the metrics of its processors and snapshot tasklets and sends
+ * them to the master in response to the {@link
+ * com.hazelcast.jet.impl.operation.SnapshotOperation}, the master merges
+ * them and stores them in the {@link SnapshotRecord}.
+ */
+public class SnapshotStats implements IdentifiedDataSerializable, Serializable {
+
+    // Serializable, because it's captured by the entry processor updating the SnapshotRecord
+    private static final long serialVersionUID = 1L;
+
+    private final ConcurrentMap<String, VertexSnapshotStats> vertices = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the metrics of the given vertex, creating them if needed.
+     */
+    VertexSnapshotStats vertex(String vertexName) {
+        return vertices.computeIfAbsent(vertexName, x -> new VertexSnapshotStats());
+    }
+
+    /**
+     * Returns the metrics of each vertex which took part in the snapshot.
+     */
+    public Map<String, VertexSnapshotStats> vertices() {
+        return Collections.unmodifiableMap(vertices);
+    }
+
+    /**
+     * Returns the number of entries written to the snapshot by all vertices.
+     */
+    public long totalEntries() {
+        return vertices.values().stream().mapToLong(VertexSnapshotStats::entries).sum();
+    }
+
+    /**
+     * Returns the number of serialized bytes written to the snapshot by all
+     * vertices.
+     */
+    public long totalBytes() {
+        return vertices.values().stream().mapToLong(VertexSnapshotStats::bytes).sum();
+    }
+
+    /**
+     * Adds the metrics collected on another member to these metrics.
+     */
+    public void merge(SnapshotStats other) {
+        for (Entry<String, VertexSnapshotStats> e : other.vertices.entrySet()) {
+            vertex(e.getKey()).merge(e.getValue());
+        }
+    }
+
+    @Override
+    public int getFactoryId() {
+        return JetInitDataSerializerHook.FACTORY_ID;
+    }
+
+    @Override
+    public int getId() {
+        return JetInitDataSerializerHook.SNAPSHOT_STATS;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeInt(vertices.size());
+        for (Entry<String, VertexSnapshotStats> e : vertices.entrySet()) {
+            out.writeUTF(e.getKey());
+            out.writeObject(e.getValue());
+        }
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            vertices.put(in.readUTF(), in.readObject());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SnapshotStats" + vertices;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.jet.config.SnapshotStorage;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.spi.NodeEngine;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map.Entry;
+
+/**
+ * Stores the snapshot data of the jobs. There's one implementation for each
+ * {@link SnapshotStorage} option. The metadata of the snapshots is kept in
+ * {@link com.hazelcast.jet.impl.SnapshotRepository} regardless of the store.
+ */
+public interface SnapshotStore {
+
+    /**
+     * Returns a new writer for the data of the given vertex, to be used on
+     * the local member.
+     */
+    @Nonnull
+    SnapshotWriter newWriter(@Nonnull NodeEngine nodeEngine, long jobId, @Nonnull String vertexName);
+
+    /**
+     * Returns a source emitting the entries of the given vertex saved to the
+     * snapshot, mapped using the projection. The source must be connected to
+     * the vertex with a distributed partitioned edge. If the partition the
+     * entry was read from is known, the projection receives a {@link
+     * PartitionedEntry}.
+     *
+     * @param snapshotChain the IDs of the snapshot to restore and the
+     *                      snapshots it builds upon, oldest first
+     */
+    @Nonnull
+    ProcessorMetaSupplier readSnapshotP(
+            long jobId,
+            @Nonnull List<Long> snapshotChain,
+            @Nonnull String vertexName,
+            @Nonnull DistributedFunction<Entry<Object, Object>, ?> projection
+    );
+
+    /**
+     * Deletes the data of the given snapshot for the given vertices.
+     */
+    void deleteSnapshotData(@Nonnull NodeEngine nodeEngine, long jobId, long snapshotId,
+                            @Nonnull Collection<String> vertexNames);
+
+    /**
+     * Returns the store for the given storage option.
+     */
+    @Nonnull
+    static SnapshotStore forStorage(@Nonnull SnapshotStorage storage) {
+        return forStorage(storage, false);
+    }
+
+    /**
+     * Returns the store for the given storage option, see {@link
+     * com.hazelcast.jet.config.JobConfig#setSnapshotCompressionEnabled(boolean)}.
+     */
+    @Nonnull
+    static SnapshotStore forStorage(@Nonnull SnapshotStorage storage, boolean compressed) {
+        switch (storage) {
+            case IMAP:
+                return compressed ? IMapSnapshotStore.COMPRESSED_INSTANCE : IMapSnapshotStore.INSTANCE;
+            case LOCAL_DISK:
+                return LocalDiskSnapshotStore.INSTANCE;
+            default:
+                throw new IllegalArgumentException("Unknown snapshot storage: " + storage);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.jet.impl.execution.init.JetInitDataSerializerHook;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+/**
+ * A value saved to an incremental snapshot in place of a key removed from
+ * the processor's state. The restore skips the key, even if an older
+ * snapshot in the chain contains it.
+ * <p>
+ * When used as a key, it marks the snapshot data map of a vertex as a
+ * delta to be applied on top of the previous snapshots. Data maps without
+ * this marker contain the full state of the vertex.
+ */
+public final class SnapshotTombstone implements IdentifiedDataSerializable {
+
+    public static final SnapshotTombstone TOMBSTONE = new SnapshotTombstone();
+
+    // for deserialization
+    public SnapshotTombstone() {
+    }
+
+    @Override
+    public int getFactoryId() {
+        return JetInitDataSerializerHook.FACTORY_ID;
+    }
+
+    @Override
+    public int getId() {
+        return JetInitDataSerializerHook.SNAPSHOT_TOMBSTONE;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) {
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) {
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof SnapshotTombstone;
+    }
+
+    @Override
+    public int hashCode() {
+        return SnapshotTombstone.class.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "SnapshotTombstone";
+    }
+}
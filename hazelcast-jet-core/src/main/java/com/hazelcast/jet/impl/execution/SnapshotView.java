@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.jet.Traverser;
+
+import java.util.Map.Entry;
+
+/**
+ * A view of a processor's state offered to the snapshot queue using {@link
+ * com.hazelcast.jet.core.Outbox#offerSnapshotView(Traverser)}. Unlike the
+ * entries offered to the snapshot one by one, its entries are serialized
+ * by the {@link StoreSnapshotTasklet}, concurrently with the processor.
+ */
+public final class SnapshotView {
+
+    private final Traverser<? extends Entry<?, ?>> entries;
+
+    public SnapshotView(Traverser<? extends Entry<?, ?>> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Returns the traverser over the entries of the view. It can only be
+     * traversed once.
+     */
+    public Traverser<? extends Entry<?, ?>> entries() {
+        return entries;
+    }
+
+    @Override
+    public String toString() {
+        return "SnapshotView";
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Writes the snapshot data of one vertex on one member to a {@link
+ * SnapshotStore}. It's used by {@link StoreSnapshotTasklet} from a single
+ * thread.
+ */
+public interface SnapshotWriter {
+
+    /**
+     * Sets the ID of the snapshot the following entries belong to. No flush
+     * must be in progress when this is called.
+     */
+    void setSnapshotId(long snapshotId);
+
+    /**
+     * Buffers the entry to be written by the next flush.
+     */
+    void put(Entry<Data, Data> entry);
+
+    /**
+     * Writes the buffered entries asynchronously. The future is completed
+     * when the entries are stored, including their backups.
+     *
+     * @param isLastFlush true, if no more entries will be put to the current
+     *                    snapshot. Until then, the writer can keep the entries
+     *                    buffered and complete the future immediately.
+     * @return false, if the writer can't accept the flush now. The call
+     * should be retried later.
+     */
+    boolean tryFlushAsync(CompletableFuture<Void> completionFuture, boolean isLastFlush);
+}
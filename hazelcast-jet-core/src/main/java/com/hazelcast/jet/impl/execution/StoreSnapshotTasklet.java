@@ -17,53 +17,91 @@
 package com.hazelcast.jet.impl.execution;
 
 import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.Traverser;
+import com.hazelcast.jet.config.SnapshotStorage;
 import com.hazelcast.jet.impl.SnapshotRepository;
-import com.hazelcast.jet.impl.util.AsyncMapWriter;
 import com.hazelcast.jet.impl.util.ProgressState;
 import com.hazelcast.jet.impl.util.ProgressTracker;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.serialization.SerializationService;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
 import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static com.hazelcast.jet.Util.entry;
 import static com.hazelcast.jet.impl.execution.StoreSnapshotTasklet.State.DONE;
 import static com.hazelcast.jet.impl.execution.StoreSnapshotTasklet.State.DRAIN;
 import static com.hazelcast.jet.impl.execution.StoreSnapshotTasklet.State.FLUSH;
 import static com.hazelcast.jet.impl.execution.StoreSnapshotTasklet.State.REACHED_BARRIER;
+import static com.hazelcast.jet.impl.execution.StoreSnapshotTasklet.State.SERIALIZE_VIEWS;
 import static com.hazelcast.jet.impl.util.ExceptionUtil.withTryCatch;
 
 public class StoreSnapshotTasklet implements Tasklet {
+    // the number of entries of a snapshot view serialized in one call
+    private static final int VIEW_ENTRIES_PER_CALL = 1024;
+
     long pendingSnapshotId;
 
     private final ProgressTracker progTracker = new ProgressTracker();
     private final long jobId;
     private final InboundEdgeStream inboundEdgeStream;
     private final SnapshotContext snapshotContext;
-    private final AsyncMapWriter mapWriter;
+    private final SnapshotWriter snapshotWriter;
     private final boolean isHigherPrioritySource;
+    private final boolean supportsIncrementalSnapshot;
+    private final boolean unalignedSnapshots;
+    private final Entry<Data, Data> deltaMarkerEntry;
     private final String vertexName;
+    private final SerializationService serializationService;
     private final ILogger logger;
 
+    // views of the processors' state to be serialized, see Outbox.offerSnapshotView()
+    private final Queue<Traverser<? extends Entry<?, ?>>> pendingViews = new ArrayDeque<>();
+
     private final AtomicInteger numActiveFlushes = new AtomicInteger();
     private State state = DRAIN;
     private boolean hasReachedBarrier;
     private boolean inputIsDone;
+    // the metrics of the pending snapshot, see SnapshotStats
+    private long pendingEntries;
+    private long pendingBytes;
+
+    public StoreSnapshotTasklet(SnapshotContext snapshotContext, long jobId, InboundEdgeStream inboundEdgeStream,
+                                NodeEngine nodeEngine, SnapshotStorage snapshotStorage, String vertexName,
+                                boolean isHigherPrioritySource, boolean supportsIncrementalSnapshot) {
+        this(snapshotContext, jobId, inboundEdgeStream, nodeEngine, SnapshotStore.forStorage(snapshotStorage),
+                vertexName, isHigherPrioritySource, supportsIncrementalSnapshot, false);
+    }
 
+    /**
+     * @param unalignedSnapshots if true, the snapshot of the vertex is
+     *                           complete when the {@link SnapshotEnd} is
+     *                           received instead of the barrier
+     */
     public StoreSnapshotTasklet(SnapshotContext snapshotContext, long jobId, InboundEdgeStream inboundEdgeStream,
-                                NodeEngine nodeEngine, String vertexName, boolean isHigherPrioritySource) {
+                                NodeEngine nodeEngine, SnapshotStore snapshotStore, String vertexName,
+                                boolean isHigherPrioritySource, boolean supportsIncrementalSnapshot,
+                                boolean unalignedSnapshots) {
+        this.unalignedSnapshots = unalignedSnapshots;
         this.snapshotContext = snapshotContext;
         this.jobId = jobId;
         this.inboundEdgeStream = inboundEdgeStream;
         this.vertexName = vertexName;
         this.isHigherPrioritySource = isHigherPrioritySource;
+        this.supportsIncrementalSnapshot = supportsIncrementalSnapshot;
+        Data tombstone = nodeEngine.toData(SnapshotTombstone.TOMBSTONE);
+        this.deltaMarkerEntry = entry(tombstone, tombstone);
+        this.serializationService = nodeEngine.getSerializationService();
 
-        this.mapWriter = new AsyncMapWriter(nodeEngine);
+        this.snapshotWriter = snapshotStore.newWriter(nodeEngine, jobId, vertexName);
         this.pendingSnapshotId = snapshotContext.lastSnapshotId() + 1;
-        this.mapWriter.setMapName(currMapName());
+        this.snapshotWriter.setSnapshotId(pendingSnapshotId);
         this.logger = nodeEngine.getLogger(StoreSnapshotTasklet.class + "." + vertexName + "#snapshot");
     }
 
@@ -84,9 +122,27 @@ public class StoreSnapshotTasklet implements Tasklet {
                         SnapshotBarrier barrier = (SnapshotBarrier) o;
                         assert pendingSnapshotId == barrier.snapshotId() : "Unexpected barrier, expected was " +
                                 pendingSnapshotId + ", but barrier was " + barrier.snapshotId() + ", this=" + this;
+                        // with unaligned snapshots, the in-flight items follow the barrier
+                        hasReachedBarrier = !unalignedSnapshots;
+                        if (barrier.isIncremental() && supportsIncrementalSnapshot) {
+                            // the processors only saved the changes, mark the map as a delta
+                            snapshotWriter.put(deltaMarkerEntry);
+                        }
+                    } else if (o instanceof SnapshotEnd) {
+                        assert pendingSnapshotId == ((SnapshotEnd) o).snapshotId() : "Unexpected snapshot end, " +
+                                "expected was " + pendingSnapshotId + ", but end was " + o + ", this=" + this;
                         hasReachedBarrier = true;
+                    } else if (o instanceof SnapshotView) {
+                        pendingViews.add(((SnapshotView) o).entries());
+                    } else if (o instanceof InFlightItem) {
+                        Object item = ((InFlightItem) o).item();
+                        if (item instanceof SnapshotView) {
+                            pendingViews.add(((SnapshotView) item).entries());
+                        } else {
+                            putEntry((Entry<Data, Data>) item);
+                        }
                     } else {
-                        mapWriter.put((Entry<Data, Data>) o);
+                        putEntry((Entry<Data, Data>) o);
                     }
                 });
                 if (result.isDone()) {
@@ -94,36 +150,54 @@ public class StoreSnapshotTasklet implements Tasklet {
                 }
                 if (result.isMadeProgress()) {
                     progTracker.madeProgress();
-                    state = FLUSH;
+                    state = pendingViews.isEmpty() ? FLUSH : SERIALIZE_VIEWS;
                     stateMachineStep();
                 }
                 return;
 
+            case SERIALIZE_VIEWS:
+                // The processors resumed processing after offering the views,
+                // we serialize them in bounded batches between the flushes.
+                progTracker.notDone();
+                progTracker.madeProgress();
+                serializeViews();
+                state = FLUSH;
+                stateMachineStep();
+                return;
+
             case FLUSH:
                 progTracker.notDone();
                 CompletableFuture<Void> future = new CompletableFuture<>();
+                long snapshotId = pendingSnapshotId;
+                long flushStart = System.nanoTime();
                 future.whenComplete(withTryCatch(logger, (r, t) -> {
                     // this callback may be called from a non-tasklet thread
+                    snapshotContext.stats(snapshotId).vertex(vertexName).recordFlush(System.nanoTime() - flushStart);
                     if (t != null) {
-                        logger.severe("Error writing to snapshot map '" + currMapName() + "'", t);
+                        logger.severe("Error writing data of vertex '" + vertexName + "' to snapshot " + snapshotId, t);
                         snapshotContext.reportError(t);
                     }
                     // numActiveFlushes must be decremented last otherwise we may miss the error
                     numActiveFlushes.decrementAndGet();
                 }));
-                if (mapWriter.tryFlushAsync(future)) {
+                boolean isLastFlush = pendingViews.isEmpty() && (hasReachedBarrier || inputIsDone);
+                if (snapshotWriter.tryFlushAsync(future, isLastFlush)) {
                     progTracker.madeProgress();
                     numActiveFlushes.incrementAndGet();
-                    state = inputIsDone ? DONE : hasReachedBarrier ? REACHED_BARRIER : DRAIN;
+                    state = !pendingViews.isEmpty() ? SERIALIZE_VIEWS
+                            : inputIsDone ? DONE
+                            : hasReachedBarrier ? REACHED_BARRIER
+                            : DRAIN;
                 }
                 return;
 
             case REACHED_BARRIER:
                 progTracker.notDone();
                 if (numActiveFlushes.get() == 0) {
+                    recordWrites();
                     snapshotContext.snapshotDoneForTasklet();
                     pendingSnapshotId++;
-                    mapWriter.setMapName(currMapName());
+                    snapshotWriter.setSnapshotId(pendingSnapshotId);
                     state = inputIsDone ? DONE : DRAIN;
                     hasReachedBarrier = false;
                 }
@@ -133,6 +207,7 @@ public class StoreSnapshotTasklet implements Tasklet {
                 if (numActiveFlushes.get() != 0) {
                     progTracker.notDone();
                 }
+                recordWrites();
                 snapshotContext.taskletDone(pendingSnapshotId - 1, isHigherPrioritySource);
                 return;
 
@@ -141,6 +216,32 @@ public class StoreSnapshotTasklet implements Tasklet {
         }
     }
 
+    private void serializeViews() {
+        for (int i = 0; i < VIEW_ENTRIES_PER_CALL && !pendingViews.isEmpty(); ) {
+            Entry<?, ?> e = pendingViews.peek().next();
+            if (e == null) {
+                pendingViews.remove();
+                continue;
+            }
+            putEntry(entry(serializationService.toData(e.getKey()), serializationService.toData(e.getValue())));
+            i++;
+        }
+    }
+
+    private void putEntry(Entry<Data, Data> entry) {
+        snapshotWriter.put(entry);
+        pendingEntries++;
+        pendingBytes += entry.getKey().totalSize() + entry.getValue().totalSize();
+    }
+
+    private void recordWrites() {
+        if (pendingEntries > 0) {
+            snapshotContext.stats(pendingSnapshotId).vertex(vertexName).recordWrite(pendingEntries, pendingBytes);
+            pendingEntries = 0;
+            pendingBytes = 0;
+        }
+    }
+
     String currMapName() {
         return SnapshotRepository.snapshotDataMapName(jobId, pendingSnapshotId, vertexName);
     }
@@ -152,6 +253,7 @@ public class StoreSnapshotTasklet implements Tasklet {
 
     enum State {
         DRAIN,
+        SERIALIZE_VIEWS,
         FLUSH,
         REACHED_BARRIER,
         DONE
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.jet.impl.execution.init.JetInitDataSerializerHook;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * The snapshot metrics of one vertex, see {@link SnapshotStats}. The
+ * metrics are recorded concurrently by the tasklets of the vertex.
+ */
+public class VertexSnapshotStats implements IdentifiedDataSerializable, Serializable {
+
+    // Serializable, because it's captured by the entry processor updating the SnapshotRecord
+    private static final long serialVersionUID = 1L;
+
+    private int numProcessors;
+    private long maxAlignmentNanos;
+    private long maxSaveNanos;
+    private long totalSaveNanos;
+    private long entries;
+    private long bytes;
+    private int numFlushes;
+    private long maxFlushNanos;
+    private long totalFlushNanos;
+
+    /**
+     * Records the snapshot of one processor.
+     *
+     * @param alignmentNanos the time from receiving the first barrier until
+     *                       the processor started saving its state
+     * @param saveNanos      the time it took to save the state
+     */
+    synchronized void recordProcessor(long alignmentNanos, long saveNanos) {
+        numProcessors++;
+        maxAlignmentNanos = Math.max(maxAlignmentNanos, alignmentNanos);
+        maxSaveNanos = Math.max(maxSaveNanos, saveNanos);
+        totalSaveNanos += saveNanos;
+    }
+
+    /**
+     * Records the entries written by a snapshot tasklet.
+     */
+    synchronized void recordWrite(long entries, long bytes) {
+        this.entries += entries;
+        this.bytes += bytes;
+    }
+
+    /**
+     * Records the time from starting a flush to the snapshot storage until
+     * its completion.
+     */
+    synchronized void recordFlush(long latencyNanos) {
+        numFlushes++;
+        maxFlushNanos = Math.max(maxFlushNanos, latencyNanos);
+        totalFlushNanos += latencyNanos;
+    }
+
+    synchronized void merge(VertexSnapshotStats other) {
+        numProcessors += other.numProcessors();
+        maxAlignmentNanos = Math.max(maxAlignmentNanos, other.maxAlignmentNanos());
+        maxSaveNanos = Math.max(maxSaveNanos, other.maxSaveNanos());
+        totalSaveNanos += other.totalSaveNanos();
+        entries += other.entries();
+        bytes += other.bytes();
+        numFlushes += other.numFlushes();
+        maxFlushNanos = Math.max(maxFlushNanos, other.maxFlushNanos());
+        totalFlushNanos += other.totalFlushNanos();
+    }
+
+    /**
+     * Returns the number of processors of the vertex which saved their state.
+     */
+    public synchronized int numProcessors() {
+        return numProcessors;
+    }
+
+    /**
+     * Returns the longest time a processor waited for the barriers on all
+     * its inputs, that is from receiving the first barrier until it started
+     * saving its state.
+     */
+    public synchronized long maxAlignmentNanos() {
+        return maxAlignmentNanos;
+    }
+
+    /**
+     * Returns the longest time a processor took to save its state in {@link
+     * com.hazelcast.jet.core.Processor#saveToSnapshot()}, including the time
+     * waiting for the space in the outbox.
+     */
+    public synchronized long maxSaveNanos() {
+        return maxSaveNanos;
+    }
+
+    /**
+     * Returns the total time the processors took to save their state, see
+     * {@link #maxSaveNanos()}.
+     */
+    public synchronized long totalSaveNanos() {
+        return totalSaveNanos;
+    }
+
+    /**
+     * Returns the number of entries written to the snapshot.
+     */
+    public synchronized long entries() {
+        return entries;
+    }
+
+    /**
+     * Returns the number of serialized bytes of the keys and values written
+     * to the snapshot, before compression.
+     */
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the number of flushes to the snapshot storage.
+     */
+    public synchronized int numFlushes() {
+        return numFlushes;
+    }
+
+    /**
+     * Returns the longest time a flush to the snapshot storage took.
+     */
+    public synchronized long maxFlushNanos() {
+        return maxFlushNanos;
+    }
+
+    /**
+     * Returns the total time of the flushes to the snapshot storage.
+     */
+    public synchronized long totalFlushNanos() {
+        return totalFlushNanos;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return JetInitDataSerializerHook.FACTORY_ID;
+    }
+
+    @Override
+    public int getId() {
+        return JetInitDataSerializerHook.VERTEX_SNAPSHOT_STATS;
+    }
+
+    @Override
+    public synchronized void writeData(ObjectDataOutput out) throws IOException {
+        out.writeInt(numProcessors);
+        out.writeLong(maxAlignmentNanos);
+        out.writeLong(maxSaveNanos);
+        out.writeLong(totalSaveNanos);
+        out.writeLong(entries);
+        out.writeLong(bytes);
+        out.writeInt(numFlushes);
+        out.writeLong(maxFlushNanos);
+        out.writeLong(totalFlushNanos);
+    }
+
+    @Override
+    public synchronized void readData(ObjectDataInput in) throws IOException {
+        numProcessors = in.readInt();
+        maxAlignmentNanos = in.readLong();
+        maxSaveNanos = in.readLong();
+        totalSaveNanos = in.readLong();
+        entries = in.readLong();
+        bytes = in.readLong();
+        numFlushes = in.readInt();
+        maxFlushNanos = in.readLong();
+        totalFlushNanos = in.readLong();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "VertexSnapshotStats{" +
+                "numProcessors=" + numProcessors +
+                ", maxAlignmentMs=" + NANOSECONDS.toMillis(maxAlignmentNanos) +
+                ", maxSaveMs=" + NANOSECONDS.toMillis(maxSaveNanos) +
+                ", totalSaveMs=" + NANOSECONDS.toMillis(totalSaveNanos) +
+                ", entries=" + entries +
+                ", bytes=" + bytes +
+                ", numFlushes=" + numFlushes +
+                ", maxFlushMs=" + NANOSECONDS.toMillis(maxFlushNanos) +
+                ", totalFlushMs=" + NANOSECONDS.toMillis(totalFlushNanos) +
+                '}';
+    }
+}
@@ -39,15 +39,25 @@ public final class Contexts {
         private final int index;
         private final SerializationService serService;
         private final ProcessingGuarantee processingGuarantee;
+        private final boolean incrementalSnapshotsEnabled;
+        private final boolean asyncSnapshotsEnabled;
 
         public ProcCtx(JetInstance instance, SerializationService serService, ILogger logger, String vertexName,
                        int index, ProcessingGuarantee processingGuarantee) {
+            this(instance, serService, logger, vertexName, index, processingGuarantee, false, false);
+        }
+
+        public ProcCtx(JetInstance instance, SerializationService serService, ILogger logger, String vertexName,
+                       int index, ProcessingGuarantee processingGuarantee, boolean incrementalSnapshotsEnabled,
+                       boolean asyncSnapshotsEnabled) {
             this.instance = instance;
             this.serService = serService;
             this.logger = logger;
             this.vertexName = vertexName;
             this.index = index;
             this.processingGuarantee = processingGuarantee;
+            this.incrementalSnapshotsEnabled = incrementalSnapshotsEnabled;
+            this.asyncSnapshotsEnabled = asyncSnapshotsEnabled;
         }
 
         @Nonnull @Override
@@ -75,6 +85,16 @@ public final class Contexts {
             return processingGuarantee;
         }
 
+        @Override
+        public boolean incrementalSnapshotsEnabled() {
+            return incrementalSnapshotsEnabled;
+        }
+
+        @Override
+        public boolean asyncSnapshotsEnabled() {
+            return asyncSnapshotsEnabled;
+        }
+
         public SerializationService getSerializationService() {
             return serService;
         }
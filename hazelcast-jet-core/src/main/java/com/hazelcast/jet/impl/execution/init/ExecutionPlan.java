@@ -38,6 +38,7 @@ import com.hazelcast.jet.impl.execution.ProcessorTasklet;
 import com.hazelcast.jet.impl.execution.ReceiverTasklet;
 import com.hazelcast.jet.impl.execution.SenderTasklet;
 import com.hazelcast.jet.impl.execution.SnapshotContext;
+import com.hazelcast.jet.impl.execution.SnapshotStore;
 import com.hazelcast.jet.impl.execution.StoreSnapshotTasklet;
 import com.hazelcast.jet.impl.execution.Tasklet;
 import com.hazelcast.jet.impl.execution.init.Contexts.ProcCtx;
@@ -60,12 +61,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static com.hazelcast.internal.util.concurrent.ConcurrentConveyor.concurrentConveyor;
 import static com.hazelcast.jet.config.EdgeConfig.DEFAULT_QUEUE_SIZE;
+import static com.hazelcast.jet.impl.MasterContext.SNAPSHOT_RESTORE_EDGE_PRIORITY;
 import static com.hazelcast.jet.impl.execution.OutboundCollector.compositeCollector;
 import static com.hazelcast.jet.impl.util.Util.getJetInstance;
 import static com.hazelcast.jet.impl.util.Util.idToString;
@@ -110,6 +114,20 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
                   .collect(Collectors.toSet())
     );
 
+    // keys which the default partitioning maps to the partition at their index
+    private final Supplier<Integer[]> partitionKeys = memoize(() -> {
+        IPartitionService partitionService = nodeEngine.getPartitionService();
+        Integer[] keys = new Integer[partitionOwners.length];
+        for (int i = 0, found = 0; found < keys.length; i++) {
+            int partitionId = partitionService.getPartitionId(i);
+            if (keys[partitionId] == null) {
+                keys[partitionId] = i;
+                found++;
+            }
+        }
+        return keys;
+    });
+
     ExecutionPlan() {
     }
 
@@ -135,8 +153,13 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
             Arrays.setAll(snapshotQueues, i -> new OneToOneConcurrentArrayQueue<>(SNAPSHOT_QUEUE_SIZE));
             ConcurrentConveyor<Object> ssConveyor = ConcurrentConveyor.concurrentConveyor(null, snapshotQueues);
             StoreSnapshotTasklet ssTasklet = new StoreSnapshotTasklet(snapshotContext, jobId,
-                    new ConcurrentInboundEdgeStream(ssConveyor, 0, 0, lastSnapshotId, true, -1),
-                    nodeEngine, srcVertex.name(), srcVertex.isHigherPriorityUpstream());
+                    new ConcurrentInboundEdgeStream(ssConveyor, 0, 0, lastSnapshotId, true, isUnalignedJob(), -1, null),
+                    nodeEngine, SnapshotStore.forStorage(jobConfig.getSnapshotStorage(),
+                            jobConfig.isSnapshotCompressionEnabled()),
+                    srcVertex.name(), srcVertex.isHigherPriorityUpstream(),
+                    jobConfig.isIncrementalSnapshotsEnabled()
+                            && processors.stream().anyMatch(Processor::supportsIncrementalSnapshot),
+                    isUnalignedJob());
             tasklets.add(ssTasklet);
 
             int localProcessorIdx = 0;
@@ -149,7 +172,9 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
                         nodeEngine.getLogger(loggerName),
                         srcVertex.name(),
                         globalProcessorIndex,
-                        jobConfig.getProcessingGuarantee());
+                        jobConfig.getProcessingGuarantee(),
+                        jobConfig.isIncrementalSnapshotsEnabled(),
+                        jobConfig.isAsyncSnapshotsEnabled());
 
                  String probePrefix = String.format("jet.job.%s.%s#%d", idToString(executionId), srcVertex.name(),
                          localProcessorIdx);
@@ -163,7 +188,8 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
                 OutboundCollector snapshotCollector = new ConveyorCollector(ssConveyor, localProcessorIdx, null);
 
                 ProcessorTasklet processorTasklet = new ProcessorTasklet(context, p, inboundStreams, outboundStreams,
-                        snapshotContext, snapshotCollector, jobConfig.getMaxWatermarkRetainMillis());
+                        snapshotContext, snapshotCollector, jobConfig.getMaxWatermarkRetainMillis(),
+                        isUnaligned(srcVertex), isUnalignedJob());
                 tasklets.add(processorTasklet);
                 this.processors.add(p);
                 localProcessorIdx++;
@@ -260,9 +286,9 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
             v.outboundEdges().forEach(e -> e.initTransientFields(vMap, v, true));
         });
         final IPartitionService partitionService = nodeEngine.getPartitionService();
+        // the partitioners of the inbound edges route the in-flight items of unaligned snapshots
         vertices.stream()
-                .map(VertexDef::outboundEdges)
-                .flatMap(List::stream)
+                .flatMap(v -> Stream.concat(v.outboundEdges().stream(), v.inboundEdges().stream()))
                 .map(EdgeDef::partitioner)
                 .filter(Objects::nonNull)
                 .forEach(p -> p.init(partitionService::getPartitionId));
@@ -453,7 +479,43 @@ public class ExecutionPlan implements IdentifiedDataSerializable {
     private ConcurrentInboundEdgeStream newEdgeStream(EdgeDef inEdge, ConcurrentConveyor<Object> conveyor) {
         return new ConcurrentInboundEdgeStream(conveyor, inEdge.destOrdinal(), inEdge.priority(),
                 lastSnapshotId, jobConfig.getProcessingGuarantee() == ProcessingGuarantee.EXACTLY_ONCE,
-                jobConfig.getMaxWatermarkRetainMillis());
+                isUnaligned(inEdge.destVertex()), jobConfig.getMaxWatermarkRetainMillis(), partitionKeyFn(inEdge));
+    }
+
+    private boolean isUnalignedJob() {
+        return jobConfig.isUnalignedSnapshotsEnabled()
+                && jobConfig.getProcessingGuarantee() == ProcessingGuarantee.EXACTLY_ONCE;
+    }
+
+    /**
+     * Returns true if the vertex takes unaligned snapshots. Broadcast and
+     * isolated edges, and inputs with different priorities fall back to
+     * aligned snapshots: the in-flight items of those can't be restored to the
+     * processor which received them. The snapshot restore edge is ignored, it
+     * completes before the first snapshot is started.
+     */
+    private boolean isUnaligned(VertexDef vertex) {
+        if (!isUnalignedJob()) {
+            return false;
+        }
+        List<EdgeDef> edges = vertex.inboundEdges().stream()
+                                    .filter(e -> e.priority() != SNAPSHOT_RESTORE_EDGE_PRIORITY)
+                                    .collect(toList());
+        return edges.stream().allMatch(e -> e.routingPolicy() == RoutingPolicy.UNICAST
+                        || e.routingPolicy() == RoutingPolicy.PARTITIONED)
+                && edges.stream().mapToInt(EdgeDef::priority).distinct().count() <= 1;
+    }
+
+    /**
+     * Returns a function which maps an item of a partitioned edge to a key in
+     * the same partition, to restore the in-flight items of the edge to the
+     * processor which received them.
+     */
+    private Function<Object, Object> partitionKeyFn(EdgeDef edge) {
+        if (edge.routingPolicy() != RoutingPolicy.PARTITIONED || !isUnaligned(edge.destVertex())) {
+            return null;
+        }
+        return item -> partitionKeys.get()[edge.partitioner().getPartition(item, partitionOwners.length)];
     }
 
     public List<Processor> getProcessors() {
@@ -108,7 +108,10 @@ public final class ExecutionPlanBuilder {
         return vertexIdMap;
     }
 
-    private static int determineParallelism(Vertex vertex, int preferredLocalParallelism, int defaultParallelism) {
+    /**
+     * Returns the local parallelism the vertex will have in the job.
+     */
+    public static int determineParallelism(Vertex vertex, int preferredLocalParallelism, int defaultParallelism) {
         if (!Vertex.isValidLocalParallelism(preferredLocalParallelism)) {
             throw new JetException(String.format(
                     "ProcessorMetaSupplier in vertex %s specifies preferred local parallelism of %d",
@@ -26,10 +26,19 @@ import com.hazelcast.jet.impl.JobRepository.FilterJobRecordByNamePredicate;
 import com.hazelcast.jet.impl.JobRepository.UpdateJobRecordQuorumEntryBackupProcessor;
 import com.hazelcast.jet.impl.JobRepository.UpdateJobRecordQuorumEntryProcessor;
 import com.hazelcast.jet.impl.JobResult;
+import com.hazelcast.jet.impl.execution.InFlightKey;
+import com.hazelcast.jet.impl.execution.SavepointRecord;
+import com.hazelcast.jet.impl.execution.SnapshotChunk;
+import com.hazelcast.jet.impl.execution.SnapshotChunkKey;
 import com.hazelcast.jet.impl.execution.SnapshotRecord;
+import com.hazelcast.jet.impl.execution.SnapshotStats;
+import com.hazelcast.jet.impl.execution.SnapshotTombstone;
+import com.hazelcast.jet.impl.execution.VertexSnapshotStats;
 import com.hazelcast.jet.impl.operation.CancelExecutionOperation;
 import com.hazelcast.jet.impl.operation.CancelJobOperation;
+import com.hazelcast.jet.impl.operation.CommitSnapshotOperation;
 import com.hazelcast.jet.impl.operation.CompleteExecutionOperation;
+import com.hazelcast.jet.impl.operation.DeleteSnapshotFilesOperation;
 import com.hazelcast.jet.impl.operation.GetJobConfigOperation;
 import com.hazelcast.jet.impl.operation.GetJobIdsByNameOperation;
 import com.hazelcast.jet.impl.operation.GetJobSubmissionTimeOperation;
@@ -38,6 +47,7 @@ import com.hazelcast.jet.impl.operation.GetJobIdsOperation;
 import com.hazelcast.jet.impl.operation.GetJobStatusOperation;
 import com.hazelcast.jet.impl.operation.InitExecutionOperation;
 import com.hazelcast.jet.impl.operation.JoinSubmittedJobOperation;
+import com.hazelcast.jet.impl.operation.SaveSnapshotChunkOperation;
 import com.hazelcast.jet.impl.operation.SnapshotOperation;
 import com.hazelcast.jet.impl.operation.SubmitJobOperation;
 import com.hazelcast.jet.impl.processor.SessionWindowP;
@@ -77,6 +87,16 @@ public final class JetInitDataSerializerHook implements DataSerializerHook {
     public static final int GET_JOB_IDS_BY_NAME_OP = 24;
     public static final int GET_JOB_SUBMISSION_TIME_OP = 25;
     public static final int GET_JOB_CONFIG_OP = 26;
+    public static final int SNAPSHOT_TOMBSTONE = 27;
+    public static final int SAVE_SNAPSHOT_CHUNK_OP = 28;
+    public static final int DELETE_SNAPSHOT_FILES_OP = 29;
+    public static final int IN_FLIGHT_KEY = 30;
+    public static final int SNAPSHOT_CHUNK_KEY = 31;
+    public static final int SNAPSHOT_CHUNK = 32;
+    public static final int SNAPSHOT_STATS = 33;
+    public static final int VERTEX_SNAPSHOT_STATS = 34;
+    public static final int SAVEPOINT_RECORD = 35;
+    public static final int COMMIT_SNAPSHOT_OP = 36;
 
     public static final int FACTORY_ID = FactoryIdHelper.getFactoryId(JET_IMPL_DS_FACTORY, JET_IMPL_DS_FACTORY_ID);
 
@@ -150,6 +170,26 @@ public final class JetInitDataSerializerHook implements DataSerializerHook {
                     return new GetJobSubmissionTimeOperation();
                 case GET_JOB_CONFIG_OP:
                     return new GetJobConfigOperation();
+                case SNAPSHOT_TOMBSTONE:
+                    return new SnapshotTombstone();
+                case SAVE_SNAPSHOT_CHUNK_OP:
+                    return new SaveSnapshotChunkOperation();
+                case DELETE_SNAPSHOT_FILES_OP:
+                    return new DeleteSnapshotFilesOperation();
+                case IN_FLIGHT_KEY:
+                    return new InFlightKey();
+                case SNAPSHOT_CHUNK_KEY:
+                    return new SnapshotChunkKey();
+                case SNAPSHOT_CHUNK:
+                    return new SnapshotChunk();
+                case SNAPSHOT_STATS:
+                    return new SnapshotStats();
+                case VERTEX_SNAPSHOT_STATS:
+                    return new VertexSnapshotStats();
+                case SAVEPOINT_RECORD:
+                    return new SavepointRecord();
+                case COMMIT_SNAPSHOT_OP:
+                    return new CommitSnapshotOperation();
                 default:
                     throw new IllegalArgumentException("Unknown type id " + typeId);
             }
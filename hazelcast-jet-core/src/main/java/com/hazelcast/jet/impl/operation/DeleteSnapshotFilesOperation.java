@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.operation;
+
+import com.hazelcast.jet.impl.execution.init.JetInitDataSerializerHook;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import java.io.IOException;
+
+import static com.hazelcast.jet.impl.execution.LocalDiskSnapshotStore.deleteSnapshotFiles;
+
+/**
+ * Deletes the files of a snapshot stored on the target member, see {@link
+ * com.hazelcast.jet.config.SnapshotStorage#LOCAL_DISK}.
+ */
+public class DeleteSnapshotFilesOperation extends AbstractJobOperation {
+
+    private long snapshotId;
+
+    // for deserialization
+    public DeleteSnapshotFilesOperation() {
+    }
+
+    public DeleteSnapshotFilesOperation(long jobId, long snapshotId) {
+        super(jobId);
+        this.snapshotId = snapshotId;
+    }
+
+    @Override
+    public void run() throws Exception {
+        deleteSnapshotFiles(getNodeEngine(), jobId(), snapshotId);
+    }
+
+    @Override
+    public int getId() {
+        return JetInitDataSerializerHook.DELETE_SNAPSHOT_FILES_OP;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeLong(snapshotId);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        snapshotId = in.readLong();
+    }
+}
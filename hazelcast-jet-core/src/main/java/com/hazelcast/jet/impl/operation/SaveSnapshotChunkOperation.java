@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.operation;
+
+import com.hazelcast.jet.impl.execution.init.JetInitDataSerializerHook;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.spi.ExecutionService;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.io.IOException;
+
+import static com.hazelcast.jet.impl.execution.LocalDiskSnapshotStore.vertexDir;
+import static com.hazelcast.jet.impl.execution.LocalDiskSnapshotStore.writeChunk;
+
+/**
+ * Stores a backup copy of a chunk of snapshot data on the target member,
+ * see {@link com.hazelcast.jet.config.SnapshotStorage#LOCAL_DISK}.
+ */
+public class SaveSnapshotChunkOperation extends AsyncOperation {
+
+    private long snapshotId;
+    private String vertexName;
+    private String fileName;
+    private byte[] chunk;
+
+    // for deserialization
+    public SaveSnapshotChunkOperation() {
+    }
+
+    // the chunk isn't modified after it's written by the caller
+    @SuppressFBWarnings("EI_EXPOSE_REP2")
+    public SaveSnapshotChunkOperation(long jobId, long snapshotId, String vertexName, String fileName, byte[] chunk) {
+        super(jobId);
+        this.snapshotId = snapshotId;
+        this.vertexName = vertexName;
+        this.fileName = fileName;
+        this.chunk = chunk;
+    }
+
+    @Override
+    protected void doRun() {
+        getNodeEngine().getExecutionService().execute(ExecutionService.IO_EXECUTOR, () -> {
+            try {
+                writeChunk(vertexDir(getNodeEngine(), jobId(), snapshotId, vertexName), fileName, chunk);
+                doSendResponse(null);
+            } catch (Exception e) {
+                logError(e);
+                doSendResponse(e);
+            }
+        });
+    }
+
+    @Override
+    public int getId() {
+        return JetInitDataSerializerHook.SAVE_SNAPSHOT_CHUNK_OP;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeLong(snapshotId);
+        out.writeUTF(vertexName);
+        out.writeUTF(fileName);
+        out.writeByteArray(chunk);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        snapshotId = in.readLong();
+        vertexName = in.readUTF();
+        fileName = in.readUTF();
+        chunk = in.readByteArray();
+    }
+}
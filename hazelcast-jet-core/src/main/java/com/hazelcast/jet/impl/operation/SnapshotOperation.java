@@ -32,15 +32,17 @@ public class SnapshotOperation extends AsyncOperation {
 
     private long executionId;
     private long snapshotId;
+    private boolean isIncremental;
 
     // for deserialization
     public SnapshotOperation() {
     }
 
-    public SnapshotOperation(long jobId, long executionId, long snapshotId) {
+    public SnapshotOperation(long jobId, long executionId, long snapshotId, boolean isIncremental) {
         super(jobId);
         this.executionId = executionId;
         this.snapshotId = snapshotId;
+        this.isIncremental = isIncremental;
     }
 
     @Override
@@ -49,11 +51,11 @@ public class SnapshotOperation extends AsyncOperation {
         ExecutionContext ctx = service.getJobExecutionService().assertExecutionContext(
                 getCallerAddress(), jobId(), executionId, this
         );
-        ctx.beginSnapshot(snapshotId).thenAccept(r -> {
+        ctx.beginSnapshot(snapshotId, isIncremental).thenAccept(stats -> {
             logFine(getLogger(),
-                    "Snapshot %s for job %s finished successfully on member",
-                    snapshotId, idToString(jobId()));
-            doSendResponse(null);
+                    "Snapshot %s for job %s finished successfully on member: %s",
+                    snapshotId, idToString(jobId()), stats);
+            doSendResponse(stats);
         }).exceptionally(e -> {
             getLogger().warning(String.format("Snapshot %d for job %s finished with error on member",
                     snapshotId, idToString(jobId())), e);
@@ -73,6 +75,7 @@ public class SnapshotOperation extends AsyncOperation {
         super.writeInternal(out);
         out.writeLong(executionId);
         out.writeLong(snapshotId);
+        out.writeBoolean(isIncremental);
     }
 
     @Override
@@ -80,5 +83,6 @@ public class SnapshotOperation extends AsyncOperation {
         super.readInternal(in);
         executionId = in.readLong();
         snapshotId = in.readLong();
+        isIncremental = in.readBoolean();
     }
 }
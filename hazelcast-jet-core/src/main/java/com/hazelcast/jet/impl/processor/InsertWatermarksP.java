@@ -30,6 +30,9 @@ import java.util.function.ToLongFunction;
 
 import static com.hazelcast.jet.core.BroadcastKey.broadcastKey;
 import static com.hazelcast.jet.impl.util.LoggingUtil.logFine;
+import static com.hazelcast.jet.impl.util.Util.subtractClamped;
+import static com.hazelcast.util.Preconditions.checkNotNegative;
+import static com.hazelcast.util.Preconditions.checkTrue;
 
 /**
  * A processor that inserts watermark into a data stream. See
@@ -41,14 +44,26 @@ import static com.hazelcast.jet.impl.util.LoggingUtil.logFine;
  */
 public class InsertWatermarksP<T> extends AbstractProcessor {
 
+    /**
+     * Value of {@code lateEventsOrdinal} that means that late events are
+     * dropped.
+     */
+    public static final int DROP_LATE_EVENTS = -1;
+
     private final ToLongFunction<T> getTimestampF;
     private final WatermarkPolicy wmPolicy;
     private final WatermarkEmissionPolicy wmEmitPolicy;
+    private final long allowedLateness;
+    private final int lateEventsOrdinal;
+    private final int mainOrdinal;
     private final ResettableSingletonTraverser<Object> singletonTraverser;
     private final FlatMapper<Object, Object> flatMapper;
 
     private long currWm = Long.MIN_VALUE;
     private long lastEmittedWm = Long.MIN_VALUE;
+    private Object lateEvent;
+    private Object pendingLateEvent;
+    private long droppedLateEvents;
 
     // value to be used temporarily during snapshot restore
     private long minRestoredWm = Long.MAX_VALUE;
@@ -62,10 +77,35 @@ public class InsertWatermarksP<T> extends AbstractProcessor {
             @Nonnull WatermarkPolicy wmPolicy,
             @Nonnull WatermarkEmissionPolicy wmEmitPolicy
     ) {
+        this(getTimestampF, wmPolicy, wmEmitPolicy, 0, DROP_LATE_EVENTS);
+    }
+
+    /**
+     * @param getTimestampF     function that extracts the timestamp from the item
+     * @param wmPolicy          the watermark policy
+     * @param allowedLateness   how far behind the current watermark an event
+     *                          may be and still be passed on
+     * @param lateEventsOrdinal the ordinal to emit the events that are later
+     *                          than allowed, or {@link #DROP_LATE_EVENTS}
+     */
+    public InsertWatermarksP(
+            @Nonnull DistributedToLongFunction<T> getTimestampF,
+            @Nonnull WatermarkPolicy wmPolicy,
+            @Nonnull WatermarkEmissionPolicy wmEmitPolicy,
+            long allowedLateness,
+            int lateEventsOrdinal
+    ) {
+        checkNotNegative(allowedLateness, "allowedLateness must not be negative");
+        checkTrue(lateEventsOrdinal == DROP_LATE_EVENTS || lateEventsOrdinal == 1,
+                "lateEventsOrdinal must be either 1 or DROP_LATE_EVENTS");
         this.getTimestampF = getTimestampF;
         this.wmPolicy = wmPolicy;
         this.wmEmitPolicy = wmEmitPolicy;
-        this.flatMapper = flatMapper(this::traverser);
+        this.allowedLateness = allowedLateness;
+        this.lateEventsOrdinal = lateEventsOrdinal;
+        // when late events are routed to their own edge, everything else goes to ordinal 0 only
+        this.mainOrdinal = lateEventsOrdinal == DROP_LATE_EVENTS ? -1 : 0;
+        this.flatMapper = flatMapper(mainOrdinal, this::traverser);
         this.singletonTraverser = new ResettableSingletonTraverser<>();
     }
 
@@ -75,7 +115,7 @@ public class InsertWatermarksP<T> extends AbstractProcessor {
         if (!wmEmitPolicy.shouldEmit(currWm, lastEmittedWm)) {
             return true;
         }
-        boolean didEmit = tryEmit(new Watermark(currWm));
+        boolean didEmit = tryEmit(mainOrdinal, new Watermark(currWm));
         if (didEmit) {
             lastEmittedWm = currWm;
         }
@@ -84,7 +124,22 @@ public class InsertWatermarksP<T> extends AbstractProcessor {
 
     @Override
     protected boolean tryProcess(int ordinal, @Nonnull Object item) throws Exception {
-        return flatMapper.tryProcess(item);
+        if (pendingLateEvent == null) {
+            if (!flatMapper.tryProcess(item)) {
+                return false;
+            }
+            if (lateEvent == null) {
+                return true;
+            }
+            // the late event goes out only after the watermark the traverser may have emitted
+            pendingLateEvent = lateEvent;
+            lateEvent = null;
+        }
+        if (!tryEmit(lateEventsOrdinal, pendingLateEvent)) {
+            return false;
+        }
+        pendingLateEvent = null;
+        return true;
     }
 
     @Override
@@ -109,13 +164,14 @@ public class InsertWatermarksP<T> extends AbstractProcessor {
     private Traverser<Object> traverser(Object item) {
         long timestamp = getTimestampF.applyAsLong((T) item);
         currWm = wmPolicy.reportEvent(timestamp);
-        if (timestamp >= currWm) {
-            // only emit non-late events
+        if (timestamp >= subtractClamped(currWm, allowedLateness)) {
+            // only emit events that are not later than allowed
             singletonTraverser.accept(item);
+        } else if (lateEventsOrdinal != DROP_LATE_EVENTS) {
+            lateEvent = item;
         } else {
-            if (getLogger().isInfoEnabled()) {
-                getLogger().info("Dropped late event: " + item);
-            }
+            droppedLateEvents++;
+            logFine(getLogger(), "Dropped late event: %s, %s late events dropped so far", item, droppedLateEvents);
         }
         if (wmEmitPolicy.shouldEmit(currWm, lastEmittedWm)) {
             lastEmittedWm = currWm;
@@ -17,6 +17,7 @@
 package com.hazelcast.jet.impl.processor;
 
 import com.hazelcast.instance.HazelcastInstanceImpl;
+import com.hazelcast.jet.Traverser;
 import com.hazelcast.jet.core.Inbox;
 import com.hazelcast.jet.core.Outbox;
 import com.hazelcast.jet.core.Processor;
@@ -28,6 +29,7 @@ import com.hazelcast.spi.NodeEngine;
 
 import javax.annotation.Nonnull;
 import java.util.BitSet;
+import java.util.Map.Entry;
 import java.util.function.Predicate;
 import java.util.stream.IntStream;
 
@@ -82,7 +84,8 @@ public final class PeekWrappedP<T> implements Processor {
             ILogger newLogger = nodeEngine.getLogger(
                     createLoggerName(wrappedProcessor.getClass().getName(), c.vertexName(), c.globalProcessorIndex()));
             context = new ProcCtx(c.jetInstance(), c.getSerializationService(), newLogger, c.vertexName(),
-                    c.globalProcessorIndex(), c.processingGuarantee());
+                    c.globalProcessorIndex(), c.processingGuarantee(), c.incrementalSnapshotsEnabled(),
+                    c.asyncSnapshotsEnabled());
         }
 
         wrappedProcessor.init(outbox, context);
@@ -131,6 +134,11 @@ public final class PeekWrappedP<T> implements Processor {
         return wrappedProcessor.saveToSnapshot();
     }
 
+    @Override
+    public boolean supportsIncrementalSnapshot() {
+        return wrappedProcessor.supportsIncrementalSnapshot();
+    }
+
     @Override
     public void restoreFromSnapshot(@Nonnull Inbox inbox) {
         wrappedProcessor.restoreFromSnapshot(inbox);
@@ -154,6 +162,11 @@ public final class PeekWrappedP<T> implements Processor {
         return wrappedProcessor.finishSnapshotRestore();
     }
 
+    @Override
+    public boolean onSnapshotCommitted(long snapshotId) {
+        return wrappedProcessor.onSnapshotCommitted(snapshotId);
+    }
+
     private class LoggingInbox implements Inbox {
 
         private Inbox wrappedInbox;
@@ -269,5 +282,34 @@ public final class PeekWrappedP<T> implements Processor {
             }
             return true;
         }
+
+        @Override
+        public boolean offerRemovalToSnapshot(@Nonnull Object key) {
+            if (!wrappedOutbox.offerRemovalToSnapshot(key)) {
+                return false;
+            }
+            if (logSnapshot) {
+                log("Removal from snapshot", (T) entry(key, null));
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isSnapshotIncremental() {
+            return wrappedOutbox.isSnapshotIncremental();
+        }
+
+        @Override
+        public long snapshotId() {
+            return wrappedOutbox.snapshotId();
+        }
+
+        @Override
+        public boolean offerSnapshotView(@Nonnull Traverser<? extends Entry<?, ?>> view) {
+            // the entries are logged as the view is traversed, on the thread saving the snapshot
+            return wrappedOutbox.offerSnapshotView(logSnapshot
+                    ? view.peek(e -> log("Output to snapshot", (T) e))
+                    : view);
+        }
     }
 }
@@ -33,6 +33,7 @@ import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 
 import javax.annotation.Nonnull;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -40,6 +41,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.StringJoiner;
@@ -49,6 +51,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.hazelcast.jet.Traversers.traverseStream;
+import static com.hazelcast.jet.Util.entry;
 import static com.hazelcast.jet.impl.util.Util.toLocalDateTime;
 import static java.lang.Math.min;
 import static java.lang.System.arraycopy;
@@ -81,6 +84,12 @@ public class SessionWindowP<T, K, A, R> extends AbstractProcessor {
     private final FlatMapper<Watermark, Session<K, R>> expiredSessionFlatmapper;
     private Traverser snapshotTraverser;
 
+    // incremental snapshots: see JobConfig.setMaxIncrementalSnapshots()
+    private boolean trackChanges;
+    private Set<K> changedKeys = new HashSet<>();
+    // keys of the closed windows, see Outbox.offerRemovalToSnapshot()
+    private final Queue<K> pendingRemovals = new ArrayDeque<>();
+
     public SessionWindowP(
             long sessionTimeout,
             DistributedToLongFunction<? super T> getTimestampFn,
@@ -97,6 +106,11 @@ public class SessionWindowP<T, K, A, R> extends AbstractProcessor {
         this.expiredSessionFlatmapper = flatMapper(this::expiredSessionTraverser);
     }
 
+    @Override
+    protected void init(@Nonnull Context context) {
+        trackChanges = context.incrementalSnapshotsEnabled();
+    }
+
     @Override
     protected boolean tryProcess(int ordinal, @Nonnull Object item) {
         final T event = (T) item;
@@ -104,6 +118,9 @@ public class SessionWindowP<T, K, A, R> extends AbstractProcessor {
         K key = getKeyFn.apply(event);
         addEvent(keyToWindows.computeIfAbsent(key, k -> new Windows()),
                 key, timestamp, event);
+        if (trackChanges) {
+            changedKeys.add(key);
+        }
         return true;
     }
 
@@ -150,10 +167,40 @@ public class SessionWindowP<T, K, A, R> extends AbstractProcessor {
     @Override
     public boolean saveToSnapshot() {
         if (snapshotTraverser == null) {
-            snapshotTraverser = Traversers.traverseIterable(keyToWindows.entrySet())
-                    .onFirstNull(() -> snapshotTraverser = null);
+            if (getOutbox().isSnapshotIncremental()) {
+                // the windows changed since the previous snapshot and the removals of the closed ones
+                for (K key : changedKeys) {
+                    if (!keyToWindows.containsKey(key)) {
+                        pendingRemovals.add(key);
+                    }
+                }
+                snapshotTraverser = Traversers.traverseIterable(changedKeys)
+                                              .filter(keyToWindows::containsKey)
+                                              .map(key -> entry(key, keyToWindows.get(key)));
+            } else {
+                snapshotTraverser = Traversers.traverseIterable(keyToWindows.entrySet());
+            }
+            snapshotTraverser = snapshotTraverser.onFirstNull(() -> {
+                snapshotTraverser = null;
+                changedKeys = new HashSet<>();
+            });
         }
-        return emitFromTraverserToSnapshot(snapshotTraverser);
+        return offerRemovals() && emitFromTraverserToSnapshot(snapshotTraverser);
+    }
+
+    private boolean offerRemovals() {
+        while (!pendingRemovals.isEmpty()) {
+            if (!getOutbox().offerRemovalToSnapshot(pendingRemovals.peek())) {
+                return false;
+            }
+            pendingRemovals.remove();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean supportsIncrementalSnapshot() {
+        return true;
     }
 
     @Override
@@ -188,6 +235,9 @@ public class SessionWindowP<T, K, A, R> extends AbstractProcessor {
         } else {
             keyToWindows.remove(key);
         }
+        if (trackChanges && i > 0) {
+            changedKeys.add(key);
+        }
         return sessions;
     }
 
@@ -19,7 +19,7 @@ package com.hazelcast.jet.impl.processor;
 import com.hazelcast.jet.JetException;
 import com.hazelcast.jet.Traverser;
 import com.hazelcast.jet.Traversers;
-import com.hazelcast.jet.aggregate.AggregateOperation1;
+import com.hazelcast.jet.aggregate.AggregateOperation;
 import com.hazelcast.jet.config.ProcessingGuarantee;
 import com.hazelcast.jet.core.AbstractProcessor;
 import com.hazelcast.jet.core.BroadcastKey;
@@ -29,11 +29,19 @@ import com.hazelcast.jet.datamodel.TimestampedEntry;
 import com.hazelcast.jet.function.DistributedToLongFunction;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.ToLongFunction;
 import java.util.stream.LongStream;
 
 import static com.hazelcast.jet.Traversers.traverseIterable;
@@ -43,9 +51,13 @@ import static com.hazelcast.jet.core.BroadcastKey.broadcastKey;
 import static com.hazelcast.jet.function.DistributedComparator.naturalOrder;
 import static com.hazelcast.jet.impl.util.LoggingUtil.logFine;
 import static com.hazelcast.util.Preconditions.checkNotNull;
+import static com.hazelcast.util.Preconditions.checkTrue;
 import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 /**
  * Handles various setups of sliding and tumbling window aggregation.
@@ -58,14 +70,14 @@ import static java.util.Collections.emptyMap;
 public class SlidingWindowP<T, A, R> extends AbstractProcessor {
 
     // package-visible for testing
-    final Map<Long, Map<Object, A>> tsToKeyToAcc = new HashMap<>();
+    Map<Long, Map<Object, A>> tsToKeyToAcc = new HashMap<>();
     Map<Object, A> slidingWindow;
     long nextWinToEmit = Long.MIN_VALUE;
 
     private final WindowDefinition wDef;
-    private final DistributedToLongFunction<? super T> getFrameTsFn;
-    private final Function<? super T, ?> getKeyFn;
-    private final AggregateOperation1<? super T, A, R> aggrOp;
+    private final List<? extends ToLongFunction<?>> getFrameTsFns;
+    private final List<? extends Function<?, ?>> getKeyFns;
+    private final AggregateOperation<A, R> aggrOp;
     private final boolean isLastStage;
 
     private final FlatMapper<Watermark, ?> wmFlatMapper;
@@ -74,11 +86,44 @@ public class SlidingWindowP<T, A, R> extends AbstractProcessor {
     private Traverser<Object> flushTraverser;
     private Traverser<Entry> snapshotTraverser;
 
+    // early results: see WindowDefinition.withEarlyResultsPeriod()
+    private final long earlyResultsPeriodNanos;
+    private final long earlyResultsItemCount;
+    private long nextEarlyResultsTime;
+    private long itemsSinceEarlyResults;
+    private Traverser<Object> earlyResultsTraverser;
+
+    // allowed lateness: see WindowDefinition.withAllowedLateness(). Only the
+    // last stage retains the frames of emitted windows, the first stage
+    // forwards the late frames to it.
+    private final long allowedLateness;
+    private SortedMap<Long, Set<Object>> lateWindowKeys = new TreeMap<>();
+    private long lowestLateFrameTs = Long.MAX_VALUE;
+    private long droppedLateEvents;
+    private Traverser<Object> lateResultsTraverser;
+
     // This field tracks the upper bounds for the keyset of
     // tsToKeyToAcc. It serves as an optimization that avoids a full scan
     // over the entire keyset.
     private long topTs = Long.MIN_VALUE;
 
+    // incremental snapshots: see JobConfig.setMaxIncrementalSnapshots(). Only
+    // the last stage saves its frames, the first stage flushes them.
+    private boolean trackChanges;
+    private Map<Long, Set<Object>> changedFrameKeys = new HashMap<>();
+    // keys of the evicted frame accumulators, see Outbox.offerRemovalToSnapshot()
+    private final Queue<SnapshotKey> pendingRemovals = new ArrayDeque<>();
+    // the same key is reused for all snapshots so that the value in a delta
+    // snapshot replaces the one from the previous snapshot in the chain
+    private final BroadcastKey<Keys> nextWinToEmitKey = broadcastKey(Keys.NEXT_WIN_TO_EMIT);
+
+    // asynchronous snapshots: see JobConfig.setAsyncSnapshotsEnabled(). The
+    // frames in sharedFrames are referenced by a view handed over to the
+    // snapshot, they are copied before being modified.
+    private boolean asyncSnapshots;
+    private Set<Long> sharedFrames = emptySet();
+    private Traverser<Entry> pendingSnapshotView;
+
     // value to be used temporarily during snapshot restore
     private long minRestoredNextWinToEmit = Long.MAX_VALUE;
     private ProcessingGuarantee processingGuarantee;
@@ -87,15 +132,37 @@ public class SlidingWindowP<T, A, R> extends AbstractProcessor {
             Function<? super T, ?> getKeyFn,
             DistributedToLongFunction<? super T> getFrameTsFn,
             WindowDefinition winDef,
-            AggregateOperation1<? super T, A, R> aggrOp,
+            AggregateOperation<A, R> aggrOp,
+            boolean isLastStage
+    ) {
+        this(singletonList(getKeyFn), singletonList(getFrameTsFn), winDef, aggrOp, isLastStage);
+    }
+
+    /**
+     * Creates a processor that accepts items on as many inbound edges as
+     * there are functions in {@code getKeyFns}. The functions at index {@code
+     * i} in {@code getKeyFns} and {@code getFrameTsFns} apply to the items
+     * received on ordinal {@code i}, as does the accumulate primitive {@code
+     * aggrOp.accumulateFn(i)}.
+     */
+    public SlidingWindowP(
+            List<? extends Function<?, ?>> getKeyFns,
+            List<? extends ToLongFunction<?>> getFrameTsFns,
+            WindowDefinition winDef,
+            AggregateOperation<A, R> aggrOp,
             boolean isLastStage
     ) {
         if (!winDef.isTumbling()) {
             checkNotNull(aggrOp.combineFn(), "AggregateOperation lacks the combine primitive");
         }
+        if (isLastStage && (winDef.earlyResultsPeriod() > 0 || winDef.earlyResultsItemCount() > 0)) {
+            // the early results are computed from copies of the accumulators
+            checkTrue(aggrOp.combineFn() != null, "Early results require the combine primitive of AggregateOperation");
+        }
+        checkTrue(getKeyFns.size() == getFrameTsFns.size(), "getKeyFns.size() != getFrameTsFns.size()");
         this.wDef = winDef;
-        this.getFrameTsFn = getFrameTsFn;
-        this.getKeyFn = getKeyFn;
+        this.getFrameTsFns = getFrameTsFns;
+        this.getKeyFns = getKeyFns;
         this.aggrOp = aggrOp;
         this.isLastStage = isLastStage;
         this.wmFlatMapper = flatMapper(
@@ -103,53 +170,187 @@ public class SlidingWindowP<T, A, R> extends AbstractProcessor {
                         .onFirstNull(() -> nextWinToEmit = wDef.higherFrameTs(wm.timestamp()))
         );
         this.emptyAcc = aggrOp.createFn().get();
+        this.earlyResultsPeriodNanos = MILLISECONDS.toNanos(winDef.earlyResultsPeriod());
+        this.earlyResultsItemCount = winDef.earlyResultsItemCount();
+        this.allowedLateness = isLastStage ? winDef.allowedLateness() : 0;
     }
 
     @Override
     protected void init(@Nonnull Context context) {
         processingGuarantee = context.processingGuarantee();
+        trackChanges = isLastStage && context.incrementalSnapshotsEnabled();
+        // without the combine primitive we can't copy the accumulators
+        asyncSnapshots = isLastStage && context.asyncSnapshotsEnabled() && aggrOp.combineFn() != null;
+        nextEarlyResultsTime = System.nanoTime() + earlyResultsPeriodNanos;
+    }
+
+    @Override
+    public boolean tryProcess() {
+        if (earlyResultsTraverser == null && isEarlyResultsDue()) {
+            // The first stage flushes its frames to the second stage, which
+            // combines them with the frames it already has. The last stage
+            // emits the current state of all the windows that are still open.
+            earlyResultsTraverser = (isLastStage
+                    ? earlyResultsTraverser()
+                    : windowTraverserAndEvictor(topTs + wDef.windowLength() - wDef.frameLength())
+            ).onFirstNull(() -> earlyResultsTraverser = null);
+        }
+        return emitPendingResults();
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     protected boolean tryProcess(int ordinal, @Nonnull Object item) {
-        @SuppressWarnings("unchecked")
-        T t = (T) item;
-        final long frameTs = getFrameTsFn.applyAsLong(t);
+        final long frameTs = ((ToLongFunction<Object>) getFrameTsFns.get(ordinal)).applyAsLong(item);
         assert frameTs == wDef.floorFrameTs(frameTs) : "getFrameTsFn returned an invalid frame timestamp";
-        assert frameTs + wDef.windowLength() >= nextWinToEmit : "late event received, it should have been filtered out " +
-                "by InsertWatermarksP: item=" + item + ", nextWinToEmit=" + nextWinToEmit;
-        final Object key = getKeyFn.apply(t);
-        A acc = tsToKeyToAcc.computeIfAbsent(frameTs, x -> new HashMap<>())
-                            .computeIfAbsent(key, k -> aggrOp.createFn().get());
-        aggrOp.accumulateFn().accept(acc, t);
+        assert frameTs + wDef.windowLength() + wDef.allowedLateness() >= nextWinToEmit
+                : "late event received, it should have been filtered out by InsertWatermarksP: item=" + item
+                        + ", nextWinToEmit=" + nextWinToEmit;
+        boolean isLate = nextWinToEmit != Long.MIN_VALUE && frameTs < nextWinToEmit;
+        if (isLate && isLastStage && frameTs + wDef.windowLength() + allowedLateness <= nextWinToEmit) {
+            // all the windows the item belongs to were already emitted and are past the allowed lateness
+            droppedLateEvents++;
+            logFine(getLogger(), "Dropped late event: %s, nextWinToEmit=%s, %s late events dropped so far",
+                    item, nextWinToEmit, droppedLateEvents);
+            return true;
+        }
+        final Object key = ((Function<Object, ?>) getKeyFns.get(ordinal)).apply(item);
+        A acc = frameForUpdate(frameTs).computeIfAbsent(key, k -> aggrOp.createFn().get());
+        aggrOp.accumulateFn(ordinal).accept(acc, item);
+        if (trackChanges) {
+            changedFrameKeys.computeIfAbsent(frameTs, x -> new HashSet<>()).add(key);
+        }
+        if (isLate) {
+            onLateItem(frameTs, key);
+        }
         topTs = max(topTs, frameTs);
+        itemsSinceEarlyResults++;
         return true;
     }
 
     @Override
     public boolean tryProcessWatermark(@Nonnull Watermark wm) {
-        return wmFlatMapper.tryProcess(wm);
+        return emitPendingResults() && wmFlatMapper.tryProcess(wm);
     }
 
     @Override
     public boolean complete() {
-        return flushBuffers();
+        return emitPendingResults() && flushBuffers();
     }
 
     @Override
     public boolean saveToSnapshot() {
+        if (!emitPendingResults()) {
+            return false;
+        }
         if (!isLastStage || flushTraverser != null) {
             return flushBuffers();
         }
+        if (asyncSnapshots) {
+            return offerSnapshotView();
+        }
         if (snapshotTraverser == null) {
-            snapshotTraverser = traverseIterable(tsToKeyToAcc.entrySet())
-                    .<Entry>flatMap(e -> traverseIterable(e.getValue().entrySet())
-                            .map(e2 -> entry(new SnapshotKey(e.getKey(), e2.getKey()), e2.getValue()))
-                    )
-                    .append(entry(broadcastKey(Keys.NEXT_WIN_TO_EMIT), nextWinToEmit))
-                    .onFirstNull(() -> snapshotTraverser = null);
-        }
-        return emitFromTraverserToSnapshot(snapshotTraverser);
+            snapshotTraverser = stateTraverser(tsToKeyToAcc, changedFrameKeys)
+                    .onFirstNull(() -> {
+                        snapshotTraverser = null;
+                        changedFrameKeys = new HashMap<>();
+                    });
+        }
+        return offerRemovals() && emitFromTraverserToSnapshot(snapshotTraverser);
+    }
+
+    private boolean offerRemovals() {
+        while (!pendingRemovals.isEmpty()) {
+            if (!getOutbox().offerRemovalToSnapshot(pendingRemovals.peek())) {
+                return false;
+            }
+            pendingRemovals.remove();
+        }
+        return true;
+    }
+
+    /**
+     * Hands the current frames over to the snapshot and continues with a
+     * shallow copy of them. The frames are copied before they are modified,
+     * see {@link #frameForUpdate}.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean offerSnapshotView() {
+        if (pendingSnapshotView == null) {
+            Map<Long, Map<Object, A>> frozenFrames = tsToKeyToAcc;
+            tsToKeyToAcc = new HashMap<>(frozenFrames);
+            sharedFrames = new HashSet<>(frozenFrames.keySet());
+            pendingSnapshotView = stateTraverser(frozenFrames, changedFrameKeys);
+            changedFrameKeys = new HashMap<>();
+        }
+        // the removals are few and offered right away, only the view is saved asynchronously
+        if (!offerRemovals() || !getOutbox().offerSnapshotView((Traverser) pendingSnapshotView)) {
+            return false;
+        }
+        pendingSnapshotView = null;
+        return true;
+    }
+
+    private Traverser<Entry> stateTraverser(Map<Long, Map<Object, A>> frames, Map<Long, Set<Object>> changed) {
+        return (getOutbox().isSnapshotIncremental() ? changedStateTraverser(frames, changed) : fullStateTraverser(frames))
+                .append(entry(nextWinToEmitKey, nextWinToEmit));
+    }
+
+    /**
+     * Returns the frame to be modified. If it's shared with a snapshot view,
+     * replaces it with a copy first.
+     */
+    private Map<Object, A> frameForUpdate(long frameTs) {
+        Map<Object, A> frame = tsToKeyToAcc.get(frameTs);
+        if (frame == null) {
+            frame = new HashMap<>();
+            tsToKeyToAcc.put(frameTs, frame);
+        } else if (!sharedFrames.isEmpty() && sharedFrames.remove(frameTs)) {
+            Map<Object, A> copy = new HashMap<>();
+            for (Entry<Object, A> e : frame.entrySet()) {
+                A acc = aggrOp.createFn().get();
+                aggrOp.combineFn().accept(acc, e.getValue());
+                copy.put(e.getKey(), acc);
+            }
+            frame = copy;
+            tsToKeyToAcc.put(frameTs, frame);
+        }
+        return frame;
+    }
+
+    @Override
+    public boolean supportsIncrementalSnapshot() {
+        return true;
+    }
+
+    private Traverser<Entry> fullStateTraverser(Map<Long, Map<Object, A>> frames) {
+        return traverseIterable(frames.entrySet())
+                .flatMap(e -> traverseIterable(e.getValue().entrySet())
+                        .map(e2 -> entry(new SnapshotKey(e.getKey(), e2.getKey()), e2.getValue())));
+    }
+
+    /**
+     * Returns a traverser over the frame accumulators changed since the
+     * previous snapshot. The keys of the evicted ones are added to {@link
+     * #pendingRemovals}.
+     */
+    private Traverser<Entry> changedStateTraverser(Map<Long, Map<Object, A>> frames,
+                                                   Map<Long, Set<Object>> changed) {
+        for (Entry<Long, Set<Object>> e : changed.entrySet()) {
+            Map<Object, A> frame = frames.getOrDefault(e.getKey(), emptyMap());
+            for (Object key : e.getValue()) {
+                if (!frame.containsKey(key)) {
+                    pendingRemovals.add(new SnapshotKey(e.getKey(), key));
+                }
+            }
+        }
+        return traverseIterable(changed.entrySet())
+                .flatMap(e -> {
+                    Map<Object, A> frame = frames.getOrDefault(e.getKey(), emptyMap());
+                    return traverseIterable(e.getValue())
+                            .filter(frame::containsKey)
+                            .map(key -> entry(new SnapshotKey(e.getKey(), key), frame.get(key)));
+                });
     }
 
     @Override
@@ -186,7 +387,11 @@ public class SlidingWindowP<T, A, R> extends AbstractProcessor {
 
     private Traverser<Object> windowTraverserAndEvictor(long wm) {
         long rangeStart;
-        if (nextWinToEmit != Long.MIN_VALUE) {
+        if (lowestLateFrameTs < nextWinToEmit) {
+            // the first stage also emits the frames recreated by late items
+            rangeStart = lowestLateFrameTs;
+            lowestLateFrameTs = Long.MAX_VALUE;
+        } else if (nextWinToEmit != Long.MIN_VALUE) {
             rangeStart = nextWinToEmit;
         } else {
             if (tsToKeyToAcc.isEmpty()) {
@@ -212,6 +417,90 @@ public class SlidingWindowP<T, A, R> extends AbstractProcessor {
                         .onFirstNull(() -> completeWindow(window)));
     }
 
+    private boolean isEarlyResultsDue() {
+        if (itemsSinceEarlyResults == 0) {
+            // nothing changed since the previous early results
+            return false;
+        }
+        boolean isDue = earlyResultsItemCount > 0 && itemsSinceEarlyResults >= earlyResultsItemCount;
+        if (earlyResultsPeriodNanos > 0) {
+            long now = System.nanoTime();
+            isDue |= now - nextEarlyResultsTime >= 0;
+            if (isDue) {
+                nextEarlyResultsTime = now + earlyResultsPeriodNanos;
+            }
+        }
+        if (isDue) {
+            itemsSinceEarlyResults = 0;
+        }
+        return isDue;
+    }
+
+    private boolean emitPendingResults() {
+        if (lateResultsTraverser == null && !lateWindowKeys.isEmpty()) {
+            lateResultsTraverser = lateResultsTraverser().onFirstNull(() -> lateResultsTraverser = null);
+        }
+        return (lateResultsTraverser == null || emitFromTraverser(lateResultsTraverser))
+                && (earlyResultsTraverser == null || emitFromTraverser(earlyResultsTraverser));
+    }
+
+    /**
+     * Handles an item that was accumulated into a frame whose window was
+     * already emitted. The first stage only remembers to emit the frame again.
+     * The last stage records the emitted windows that are still within the
+     * allowed lateness so that it emits their corrected results for the key.
+     */
+    private void onLateItem(long frameTs, Object key) {
+        if (!isLastStage) {
+            lowestLateFrameTs = min(lowestLateFrameTs, frameTs);
+            return;
+        }
+        // the sliding window no longer matches the frames, recompute it when needed
+        slidingWindow = null;
+        long lastEmittedWin = nextWinToEmit - wDef.frameLength();
+        long rangeStart = max(frameTs, wDef.higherFrameTs(lastEmittedWin - allowedLateness));
+        long rangeEnd = min(frameTs + wDef.windowLength() - wDef.frameLength(), lastEmittedWin);
+        for (long win = rangeStart; win <= rangeEnd; win += wDef.frameLength()) {
+            lateWindowKeys.computeIfAbsent(win, x -> new HashSet<>()).add(key);
+        }
+    }
+
+    /**
+     * Returns a traverser over the corrected results of the emitted windows
+     * that received late items. Each result is computed from the frames on
+     * record when it's emitted.
+     */
+    private Traverser<Object> lateResultsTraverser() {
+        SortedMap<Long, Set<Object>> windowKeys = lateWindowKeys;
+        lateWindowKeys = new TreeMap<>();
+        return traverseIterable(windowKeys.entrySet())
+                .flatMap(e -> traverseIterable(e.getValue())
+                        .map(key -> new TimestampedEntry<>(e.getKey(), key,
+                                aggrOp.finishFn().apply(recomputeWindow(e.getKey(), key)))));
+    }
+
+    /**
+     * Returns a traverser over the current results of all the windows that
+     * contain at least one frame and haven't been emitted yet. Unlike {@link
+     * #windowTraverserAndEvictor}, it doesn't touch the state: each window is
+     * computed into a fresh map from the frames on record, so the finish
+     * function never receives an accumulator which is further updated.
+     */
+    private Traverser<Object> earlyResultsTraverser() {
+        if (tsToKeyToAcc.isEmpty()) {
+            return Traversers.empty();
+        }
+        long rangeStart = nextWinToEmit != Long.MIN_VALUE
+                ? nextWinToEmit
+                : tsToKeyToAcc.keySet().stream()
+                              .min(naturalOrder())
+                              .orElseThrow(() -> new AssertionError("Failed to find the min key in a non-empty map"));
+        return traverseStream(range(rangeStart, topTs + wDef.windowLength() - wDef.frameLength(), wDef.frameLength())
+                .boxed())
+                .flatMap(window -> traverseIterable(recomputeWindow(window).entrySet())
+                        .map(e -> new TimestampedEntry<>(window, e.getKey(), aggrOp.finishFn().apply(e.getValue()))));
+    }
+
     private Map<Object, A> computeWindow(long frameTs) {
         if (wDef.isTumbling()) {
             return tsToKeyToAcc.getOrDefault(frameTs, emptyMap());
@@ -239,6 +528,21 @@ public class SlidingWindowP<T, A, R> extends AbstractProcessor {
         return window;
     }
 
+    private A recomputeWindow(long frameTs, Object key) {
+        if (aggrOp.combineFn() == null) {
+            // tumbling window, the accumulator can't be copied
+            return tsToKeyToAcc.getOrDefault(frameTs, emptyMap()).getOrDefault(key, emptyAcc);
+        }
+        A acc = aggrOp.createFn().get();
+        for (long ts = frameTs - wDef.windowLength() + wDef.frameLength(); ts <= frameTs; ts += wDef.frameLength()) {
+            A frameAcc = tsToKeyToAcc.getOrDefault(ts, emptyMap()).get(key);
+            if (frameAcc != null) {
+                aggrOp.combineFn().accept(acc, frameAcc);
+            }
+        }
+        return acc;
+    }
+
     private void patchSlidingWindow(BiConsumer<? super A, ? super A> patchOp, Map<Object, A> patchingFrame) {
         if (patchingFrame == null) {
             return;
@@ -253,11 +557,20 @@ public class SlidingWindowP<T, A, R> extends AbstractProcessor {
     }
 
     private void completeWindow(long frameTs) {
-        long frameToEvict = frameTs - wDef.windowLength() + wDef.frameLength();
-        Map<Object, A> evictedFrame = tsToKeyToAcc.remove(frameToEvict);
-        if (!wDef.isTumbling() && aggrOp.deductFn() != null) {
+        long trailingFrame = frameTs - wDef.windowLength() + wDef.frameLength();
+        if (slidingWindow != null && !wDef.isTumbling() && aggrOp.deductFn() != null) {
             // deduct trailing-edge frame
-            patchSlidingWindow(aggrOp.deductFn(), evictedFrame);
+            patchSlidingWindow(aggrOp.deductFn(), tsToKeyToAcc.get(trailingFrame));
+        }
+        // With allowed lateness we retain the frame until the last window
+        // containing it is past the lateness. The evicted frame still moves
+        // by one frame per window.
+        long evictedFrameTs = wDef.floorFrameTs(trailingFrame - allowedLateness);
+        Map<Object, A> evictedFrame = tsToKeyToAcc.remove(evictedFrameTs);
+        if (trackChanges && evictedFrame != null) {
+            // All the keys of the frame are removed. The items for the evicted
+            // frame are dropped as too late, so nothing is added to the key set.
+            changedFrameKeys.put(evictedFrameTs, evictedFrame.keySet());
         }
     }
 
@@ -51,6 +51,12 @@ public final class SerializerHookConstants {
     public static final int SESSION = -321;
     public static final int HASH_MAP = -322;
     public static final int HASH_SET = -323;
+    public static final int HYPER_LOG_LOG_ACC = -324;
+    public static final int TOP_K_ACC = -325;
+    public static final int T_DIGEST_ACC = -326;
+    public static final int SNAPSHOT_END = -327;
+    public static final int IN_FLIGHT_ITEM = -328;
+    public static final int PARTITIONED_ENTRY = -329;
 
     // reserved for hadoop module: -380 to -390
 
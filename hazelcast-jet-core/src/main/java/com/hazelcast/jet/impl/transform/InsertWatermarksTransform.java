@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.transform;
+
+import com.hazelcast.jet.core.WatermarkEmissionPolicy;
+import com.hazelcast.jet.core.WatermarkPolicy;
+import com.hazelcast.jet.function.DistributedSupplier;
+import com.hazelcast.jet.function.DistributedToLongFunction;
+
+import javax.annotation.Nonnull;
+
+public class InsertWatermarksTransform<E> implements UnaryTransform<E, E> {
+    @Nonnull private final DistributedToLongFunction<? super E> timestampFn;
+    @Nonnull private final DistributedSupplier<WatermarkPolicy> wmPolicyFn;
+    @Nonnull private final WatermarkEmissionPolicy wmEmitPolicy;
+    private final long allowedLateness;
+
+    public InsertWatermarksTransform(
+            @Nonnull DistributedToLongFunction<? super E> timestampFn,
+            @Nonnull DistributedSupplier<WatermarkPolicy> wmPolicyFn,
+            @Nonnull WatermarkEmissionPolicy wmEmitPolicy,
+            long allowedLateness
+    ) {
+        this.timestampFn = timestampFn;
+        this.wmPolicyFn = wmPolicyFn;
+        this.wmEmitPolicy = wmEmitPolicy;
+        this.allowedLateness = allowedLateness;
+    }
+
+    @Nonnull
+    public DistributedToLongFunction<? super E> timestampFn() {
+        return timestampFn;
+    }
+
+    @Nonnull
+    public DistributedSupplier<WatermarkPolicy> wmPolicyFn() {
+        return wmPolicyFn;
+    }
+
+    @Nonnull
+    public WatermarkEmissionPolicy wmEmitPolicy() {
+        return wmEmitPolicy;
+    }
+
+    public long allowedLateness() {
+        return allowedLateness;
+    }
+
+    @Override
+    public String toString() {
+        return "InsertWatermarks";
+    }
+
+    @Override
+    public String name() {
+        return "insertWatermarks";
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.transform;
+
+import com.hazelcast.jet.aggregate.AggregateOperation;
+import com.hazelcast.jet.core.WindowDefinition;
+import com.hazelcast.jet.datamodel.TimestampedEntry;
+import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.jet.function.DistributedToLongFunction;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * Groups the items from one or more upstream stages by key and by a
+ * sliding (or tumbling) window and applies an aggregate operation to each
+ * group. The functions at index {@code i} of the key- and
+ * timestamp-extracting function lists apply to the items coming from the
+ * upstream stage at index {@code i}.
+ */
+public class SlidingWindowTransform<K, A, R> implements MultiTransform<TimestampedEntry<K, R>> {
+    private final List<DistributedFunction<?, ? extends K>> keyFns;
+    private final List<DistributedToLongFunction<?>> timestampFns;
+    private final WindowDefinition wDef;
+    private final AggregateOperation<A, R> aggrOp;
+
+    public SlidingWindowTransform(
+            @Nonnull List<DistributedFunction<?, ? extends K>> keyFns,
+            @Nonnull List<DistributedToLongFunction<?>> timestampFns,
+            @Nonnull WindowDefinition wDef,
+            @Nonnull AggregateOperation<A, R> aggrOp
+    ) {
+        this.keyFns = keyFns;
+        this.timestampFns = timestampFns;
+        this.wDef = wDef;
+        this.aggrOp = aggrOp;
+    }
+
+    public List<DistributedFunction<?, ? extends K>> keyFns() {
+        return keyFns;
+    }
+
+    public List<DistributedToLongFunction<?>> timestampFns() {
+        return timestampFns;
+    }
+
+    public WindowDefinition windowDefinition() {
+        return wDef;
+    }
+
+    public AggregateOperation<A, R> aggregateOperation() {
+        return aggrOp;
+    }
+
+    @Override
+    public String toString() {
+        return keyFns.size() == 1 ? "SlidingWindow" : keyFns.size() + "-way SlidingWindow";
+    }
+
+    @Override
+    public String name() {
+        return wDef.isTumbling() ? "tumblingWindow" : "slidingWindow";
+    }
+}
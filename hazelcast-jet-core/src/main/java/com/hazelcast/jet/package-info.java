@@ -45,6 +45,22 @@
  * share the same key, separately for each key. It outputs the results of
  * the aggregate operation, one for each observed distinct key.
  *
+ * <h3>Windowing</h3>
+ *
+ * On an infinite stream the data must be split into finite windows before
+ * it can be aggregated. A windowing stage relies on the {@code
+ * insertWatermarks} stage upstream of it to learn how far the event time
+ * has progressed. The {@code slidingWindow} and {@code tumblingWindow}
+ * transformations group items by key and by a window aligned to the event
+ * timeline and emit a timestamped result for each key and window. The
+ * {@code sessionWindow} transformation groups items by key into sessions
+ * of activity separated by a gap of inactivity. The {@code windowCoGroup}
+ * transformation is the windowed counterpart of {@code coGroup}.
+ * <p>
+ * Aligned windows are computed in two stages: the first one accumulates
+ * each frame locally and only the partial results travel over the network
+ * to the second stage, which combines them into windows.
+ *
  * <h3>Hash-join</h3>
  *
  * Hash-join is a special kind of joining transform, specifically tailored
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.stream.impl.processor;
+
+import com.hazelcast.core.Member;
+import com.hazelcast.core.Partition;
+import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.core.Partitioner;
+import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.core.ProcessorSupplier;
+import com.hazelcast.jet.function.DistributedIntFunction;
+import com.hazelcast.nio.Address;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+import static com.hazelcast.jet.Util.entry;
+import static java.util.Comparator.comparing;
+
+/**
+ * One level of a combining tree. Combines all the partial results it
+ * receives and emits the combined result when complete. If the level has
+ * a next level, the result is emitted as an entry keyed by the ID of a
+ * partition owned by the member of the parent processor, so that the next
+ * level's edge can route it there with the {@link #TO_KEY_PARTITION}
+ * partitioner.
+ */
+public class TreeCombineP<T> extends AbstractProcessor {
+
+    /**
+     * Partitioner for the entries emitted by a tree level, the key is the
+     * target partition ID.
+     */
+    public static final Partitioner<Integer> TO_KEY_PARTITION = (partitionId, partitionCount) -> partitionId;
+
+    private final BinaryOperator<T> combiner;
+    private final boolean isInputKeyed;
+    private final int targetPartition;
+    private T result;
+
+    /**
+     * @param combiner        the function that combines two partial results
+     * @param isInputKeyed    whether the received partial results are wrapped
+     *                        in entries emitted by the previous level
+     * @param targetPartition the partition to key the result with, or -1 to
+     *                        emit the bare result
+     */
+    public TreeCombineP(BinaryOperator<T> combiner, boolean isInputKeyed, int targetPartition) {
+        this.combiner = combiner;
+        this.isInputKeyed = isInputKeyed;
+        this.targetPartition = targetPartition;
+    }
+
+    @Override
+    protected boolean tryProcess(int ordinal, @Nonnull Object item) {
+        T partial = isInputKeyed ? ((Entry<?, T>) item).getValue() : (T) item;
+        result = result != null ? combiner.apply(result, partial) : partial;
+        return true;
+    }
+
+    @Override
+    public boolean complete() {
+        return result == null || tryEmit(targetPartition >= 0 ? entry(targetPartition, result) : result);
+    }
+
+    /**
+     * Returns the meta-supplier of a tree level with one processor on each
+     * member. The members are ranked, those which own a partition first. If
+     * {@code fanIn} is positive, the member of rank {@code i} sends its
+     * result to the member of rank {@code i / fanIn}, so each processor of
+     * the next level receives the results of at most {@code fanIn}
+     * processors and the receiving ones are again ranked first. If {@code
+     * fanIn} is 0, the bare result is emitted.
+     *
+     * @param newProcessorFn creates the processor given its target
+     *                       partition, see {@link #TreeCombineP}
+     */
+    @Nonnull
+    public static ProcessorMetaSupplier treeLevel(
+            @Nonnull DistributedIntFunction<? extends Processor> newProcessorFn, int fanIn
+    ) {
+        return new TreeLevelMetaSupplier(newProcessorFn, fanIn);
+    }
+
+    private static final class TreeLevelMetaSupplier implements ProcessorMetaSupplier {
+
+        private static final long serialVersionUID = 1L;
+
+        private final DistributedIntFunction<? extends Processor> newProcessorFn;
+        private final int fanIn;
+
+        private transient Map<Address, Integer> memberToPartition;
+
+        TreeLevelMetaSupplier(DistributedIntFunction<? extends Processor> newProcessorFn, int fanIn) {
+            this.newProcessorFn = newProcessorFn;
+            this.fanIn = fanIn;
+        }
+
+        @Override
+        public int preferredLocalParallelism() {
+            return 1;
+        }
+
+        @Override
+        public void init(@Nonnull Context context) {
+            // any partition owned by the member routes the results to it
+            memberToPartition = new HashMap<>();
+            for (Partition p : context.jetInstance().getHazelcastInstance().getPartitionService().getPartitions()) {
+                // the partition has no owner while it's being migrated
+                Member owner = p.getOwner();
+                if (owner != null) {
+                    memberToPartition.putIfAbsent(owner.getAddress(), p.getPartitionId());
+                }
+            }
+        }
+
+        @Nonnull @Override
+        public Function<Address, ProcessorSupplier> get(@Nonnull List<Address> addresses) {
+            List<Address> ranked = new ArrayList<>(addresses);
+            ranked.sort(comparing(address -> !memberToPartition.containsKey(address)));
+            return address -> {
+                int targetPartition = fanIn > 0 ? targetPartition(ranked, ranked.indexOf(address) / fanIn) : -1;
+                DistributedIntFunction<? extends Processor> newProcessorFn = this.newProcessorFn;
+                return ProcessorSupplier.of(() -> newProcessorFn.apply(targetPartition));
+            };
+        }
+
+        private int targetPartition(List<Address> ranked, int targetRank) {
+            Address target = ranked.get(targetRank);
+            Integer partition = memberToPartition.get(target);
+            if (partition == null) {
+                throw new JetException("Only " + memberToPartition.size() + " of " + ranked.size()
+                        + " members own a partition, too few to combine the results in groups of " + fanIn);
+            }
+            return partition;
+        }
+    }
+}
@@ -29,6 +29,7 @@ import java.util.function.Supplier;
 import static com.hazelcast.jet.stream.impl.reducers.CollectorReducer.buildAccumulator;
 import static com.hazelcast.jet.stream.impl.reducers.CollectorReducer.buildCombiner;
 import static com.hazelcast.jet.stream.impl.reducers.CollectorReducer.execute;
+import static com.hazelcast.jet.stream.impl.reducers.CollectorReducer.memberCount;
 
 /**
  * A variation of {@link CollectorReducer} which has the combiner
@@ -51,7 +52,7 @@ public class BiConsumerCombinerReducer<T, R> implements Reducer<T, R> {
     public R reduce(StreamContext context, Pipe<? extends T> upstream) {
         DAG dag = new DAG();
         Vertex accumulatorVertex = buildAccumulator(dag, upstream, supplier, accumulator);
-        Vertex combinerVertex = buildCombiner(dag, accumulatorVertex, combiner);
+        Vertex combinerVertex = buildCombiner(dag, accumulatorVertex, combiner, memberCount(context));
 
         return execute(context, dag, combinerVertex, DistributedFunction.identity());
     }
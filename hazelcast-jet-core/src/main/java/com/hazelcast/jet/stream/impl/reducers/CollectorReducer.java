@@ -21,13 +21,12 @@ import com.hazelcast.jet.core.DAG;
 import com.hazelcast.jet.core.Processor;
 import com.hazelcast.jet.core.Vertex;
 import com.hazelcast.jet.core.processor.SinkProcessors;
-import com.hazelcast.jet.function.DistributedSupplier;
+import com.hazelcast.jet.function.DistributedIntFunction;
 import com.hazelcast.jet.stream.DistributedCollector.Reducer;
 import com.hazelcast.jet.stream.impl.pipeline.Pipe;
 import com.hazelcast.jet.stream.impl.pipeline.StreamContext;
 import com.hazelcast.jet.stream.impl.processor.CollectorAccumulateP;
-import com.hazelcast.jet.stream.impl.processor.CollectorCombineP;
-import com.hazelcast.jet.stream.impl.processor.CombineP;
+import com.hazelcast.jet.stream.impl.processor.TreeCombineP;
 
 import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
@@ -35,14 +34,23 @@ import java.util.function.Function;
 import java.util.function.Supplier;
 
 import static com.hazelcast.jet.core.Edge.between;
+import static com.hazelcast.jet.function.DistributedFunctions.entryKey;
 import static com.hazelcast.jet.stream.impl.StreamUtil.executeJob;
 import static com.hazelcast.jet.stream.impl.StreamUtil.uniqueListName;
+import static com.hazelcast.jet.stream.impl.processor.TreeCombineP.TO_KEY_PARTITION;
+import static com.hazelcast.jet.stream.impl.processor.TreeCombineP.treeLevel;
 
 /**
  * Performs a reduction using the functions from a {@link java.util.stream.Collector}
  */
 public class CollectorReducer<T, A, R> implements Reducer<T, R> {
 
+    /**
+     * The number of partial results combined by one processor in each level
+     * of the combining tree, except the member-local one.
+     */
+    static final int COMBINE_TREE_FAN_IN = 8;
+
     private final Supplier<A> supplier;
     private final BiConsumer<A, T> accumulator;
     private final BinaryOperator<A> combiner;
@@ -84,32 +92,88 @@ public class CollectorReducer<T, A, R> implements Reducer<T, R> {
         return accumulatorVertex;
     }
 
-    static <A, R> Vertex buildCombiner(DAG dag, Vertex accumulatorVertex, Object combiner) {
-        DistributedSupplier<Processor> processorSupplier = getCombinerSupplier(combiner);
-        Vertex combinerVertex = dag.newVertex("combiner", processorSupplier).localParallelism(1);
-        dag.edge(between(accumulatorVertex, combinerVertex)
+    /**
+     * Builds a combining tree on top of the accumulator vertex. If there are
+     * at most {@link #COMBINE_TREE_FAN_IN} members, the accumulators send
+     * their partial results straight to the single final combiner.
+     * Otherwise each member first combines the partial results of its local
+     * accumulators and the member results are then combined in groups of
+     * that size over as many levels as needed, until a single processor
+     * receives them. That processor is the final combiner, so no processor
+     * receives more than {@link #COMBINE_TREE_FAN_IN} partial results from
+     * other members.
+     */
+    static Vertex buildCombiner(DAG dag, Vertex accumulatorVertex, Object combiner, int memberCount) {
+        if (memberCount <= COMBINE_TREE_FAN_IN) {
+            return addFinalCombiner(dag, accumulatorVertex, combiner);
+        }
+        Vertex localCombiner = dag.newVertex("combiner-local",
+                treeLevel(getCombinerFn(combiner, false), COMBINE_TREE_FAN_IN))
+                                  .localParallelism(1);
+        dag.edge(between(accumulatorVertex, localCombiner));
+
+        Vertex previous = localCombiner;
+        // the number of processors the results of the previous level are sent to
+        int targetCount = ceilDiv(memberCount, COMBINE_TREE_FAN_IN);
+        for (int level = 1; targetCount > 1; level++) {
+            previous = addTreeLevel(dag, previous, "combiner-tree-" + level, combiner, COMBINE_TREE_FAN_IN);
+            targetCount = ceilDiv(targetCount, COMBINE_TREE_FAN_IN);
+        }
+        return addTreeLevel(dag, previous, "combiner", combiner, 0);
+    }
+
+    private static Vertex addTreeLevel(DAG dag, Vertex previous, String name, Object combiner, int fanIn) {
+        Vertex treeCombiner = dag.newVertex(name, treeLevel(getCombinerFn(combiner, true), fanIn))
+                                 .localParallelism(1);
+        dag.edge(between(previous, treeCombiner)
                 .distributed()
-                .allToOne()
+                .partitioned(entryKey(), TO_KEY_PARTITION)
         );
+        return treeCombiner;
+    }
 
+    private static Vertex addFinalCombiner(DAG dag, Vertex previous, Object combiner) {
+        DistributedIntFunction<Processor> combinerFn = getCombinerFn(combiner, false);
+        Vertex combinerVertex = dag.newVertex("combiner", () -> combinerFn.apply(-1))
+                                   .localParallelism(1);
+        dag.edge(between(previous, combinerVertex)
+                .distributed()
+                .allToOne()
+        );
         return combinerVertex;
     }
 
-    private static DistributedSupplier<Processor> getCombinerSupplier(Object combiner) {
+    private static int ceilDiv(int dividend, int divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+
+    static int memberCount(StreamContext context) {
+        return context.getJetInstance().getCluster().getMembers().size();
+    }
+
+    private static DistributedIntFunction<Processor> getCombinerFn(Object combiner, boolean isInputKeyed) {
         if (combiner instanceof BiConsumer) {
-            return () -> new CollectorCombineP((BiConsumer) combiner);
+            return targetPartition -> new TreeCombineP<>(
+                    toBinaryOperator((BiConsumer) combiner), isInputKeyed, targetPartition);
         } else if (combiner instanceof BinaryOperator) {
-            return () -> new CombineP<>((BinaryOperator) combiner);
+            return targetPartition -> new TreeCombineP<>((BinaryOperator) combiner, isInputKeyed, targetPartition);
         } else {
             throw new IllegalArgumentException("combiner is of type " + combiner.getClass());
         }
     }
 
+    private static <A> BinaryOperator<A> toBinaryOperator(BiConsumer<A, A> combiner) {
+        return (left, right) -> {
+            combiner.accept(left, right);
+            return left;
+        };
+    }
+
     @Override
     public R reduce(StreamContext context, Pipe<? extends T> upstream) {
         DAG dag = new DAG();
         Vertex accumulatorVertex = buildAccumulator(dag, upstream, supplier, accumulator);
-        Vertex combinerVertex = buildCombiner(dag, accumulatorVertex, combiner);
+        Vertex combinerVertex = buildCombiner(dag, accumulatorVertex, combiner, memberCount(context));
 
         return execute(context, dag, combinerVertex, finisher);
     }
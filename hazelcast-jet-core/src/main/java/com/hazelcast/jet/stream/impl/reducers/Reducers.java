@@ -18,10 +18,8 @@ package com.hazelcast.jet.stream.impl.reducers;
 
 import com.hazelcast.core.IList;
 import com.hazelcast.jet.core.DAG;
-import com.hazelcast.jet.core.Processor;
 import com.hazelcast.jet.core.Vertex;
 import com.hazelcast.jet.core.processor.SinkProcessors;
-import com.hazelcast.jet.function.DistributedSupplier;
 import com.hazelcast.jet.stream.DistributedCollector.Reducer;
 import com.hazelcast.jet.stream.impl.pipeline.Pipe;
 import com.hazelcast.jet.stream.impl.pipeline.StreamContext;
@@ -36,6 +34,8 @@ import static com.hazelcast.jet.core.Edge.between;
 import static com.hazelcast.jet.function.DistributedFunction.identity;
 import static com.hazelcast.jet.stream.impl.StreamUtil.executeJob;
 import static com.hazelcast.jet.stream.impl.StreamUtil.uniqueListName;
+import static com.hazelcast.jet.stream.impl.reducers.CollectorReducer.buildCombiner;
+import static com.hazelcast.jet.stream.impl.reducers.CollectorReducer.memberCount;
 
 public final class Reducers {
 
@@ -61,7 +61,7 @@ public final class Reducers {
         public U reduce(StreamContext context, Pipe<? extends T> upstream) {
             DAG dag = new DAG();
             Vertex accumulate = buildMappingAccumulator(dag, upstream, identity, accumulator);
-            Vertex combine = buildCombiner(dag, accumulate, combiner);
+            Vertex combine = buildCombiner(dag, accumulate, combiner, memberCount(context));
 
             return Reducers.<U>execute(context, dag, combine).get();
         }
@@ -78,7 +78,7 @@ public final class Reducers {
         public Optional<T> reduce(StreamContext context, Pipe<? extends T> upstream) {
             DAG dag = new DAG();
             Vertex accumulate = buildAccumulator(dag, upstream, accumulator, null);
-            Vertex combine = buildCombiner(dag, accumulate, accumulator);
+            Vertex combine = buildCombiner(dag, accumulate, accumulator, memberCount(context));
             return Reducers.execute(context, dag, combine);
         }
     }
@@ -96,22 +96,12 @@ public final class Reducers {
         public T reduce(StreamContext context, Pipe<? extends T> upstream) {
             DAG dag = new DAG();
             Vertex accumulate = buildAccumulator(dag, upstream, accumulator, identity);
-            Vertex combine = buildCombiner(dag, accumulate, accumulator);
+            Vertex combine = buildCombiner(dag, accumulate, accumulator, memberCount(context));
             return Reducers.<T>execute(context, dag, combine).get();
         }
     }
 
 
-    private static <T> Vertex buildCombiner(DAG dag, Vertex accumulate, BinaryOperator<T> combiner) {
-        DistributedSupplier<Processor> supplier = () -> new CombineP<>(combiner);
-        Vertex combine = dag.newVertex("combine", supplier).localParallelism(1);
-        dag.edge(between(accumulate, combine)
-                .distributed()
-                .allToOne()
-        );
-        return combine;
-    }
-
     private static <T> Optional<T> execute(StreamContext context, DAG dag, Vertex combiner) {
         String listName = uniqueListName();
         Vertex writeList = dag.newVertex("write-" + listName, SinkProcessors.writeListP(listName));
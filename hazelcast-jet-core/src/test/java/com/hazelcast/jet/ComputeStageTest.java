@@ -19,9 +19,12 @@ package com.hazelcast.jet;
 import com.hazelcast.core.IMap;
 import com.hazelcast.jet.accumulator.LongAccumulator;
 import com.hazelcast.jet.aggregate.AggregateOperation;
+import com.hazelcast.jet.core.WindowDefinition;
 import com.hazelcast.jet.core.processor.Processors;
 import com.hazelcast.jet.datamodel.ItemsByTag;
+import com.hazelcast.jet.datamodel.Session;
 import com.hazelcast.jet.datamodel.Tag;
+import com.hazelcast.jet.datamodel.TimestampedEntry;
 import com.hazelcast.jet.datamodel.Tuple2;
 import com.hazelcast.jet.datamodel.Tuple3;
 import org.junit.Before;
@@ -31,12 +34,17 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 import static com.hazelcast.jet.JoinClause.joinMapEntries;
 import static com.hazelcast.jet.Traversers.traverseIterable;
 import static com.hazelcast.jet.Util.entry;
 import static com.hazelcast.jet.aggregate.AggregateOperations.counting;
+import static com.hazelcast.jet.core.WatermarkEmissionPolicy.suppressDuplicates;
+import static com.hazelcast.jet.core.WatermarkPolicies.withFixedLag;
+import static com.hazelcast.jet.core.WindowDefinition.slidingWindowDef;
+import static com.hazelcast.jet.core.WindowDefinition.tumblingWindowDef;
 import static com.hazelcast.jet.datamodel.ItemsByTag.itemsByTag;
 import static com.hazelcast.jet.datamodel.Tuple2.tuple2;
 import static com.hazelcast.jet.datamodel.Tuple3.tuple3;
@@ -355,4 +363,85 @@ public class ComputeStageTest extends PipelineTestSupport {
                                      .collect(toList());
         assertEquals(toBag(expected), sinkToBag());
     }
+
+    @Test
+    public void slidingWindow() {
+        // Given
+        List<Integer> input = sequence(ITEM_COUNT);
+        putToSrcMap(input);
+        WindowDefinition wDef = slidingWindowDef(4, 2);
+
+        // When
+        ComputeStage<TimestampedEntry<Integer, Long>> windowed = srcStage
+                .insertWatermarks(i -> (long) i, withFixedLag(ITEM_COUNT), suppressDuplicates())
+                .slidingWindow(i -> i % 2, i -> (long) i, wDef, counting());
+        windowed.drainTo(sink);
+        execute();
+
+        // Then
+        List<TimestampedEntry<Integer, Long>> expected = LongStream
+                .iterate(wDef.frameLength(), ts -> ts + wDef.frameLength())
+                .limit(ITEM_COUNT / wDef.frameLength() + 1)
+                .boxed()
+                .flatMap(winEnd -> IntStream.range(0, 2).mapToObj(key -> new TimestampedEntry<>(winEnd, key,
+                        input.stream()
+                             .filter(i -> i % 2 == key && i >= winEnd - wDef.windowLength() && i < winEnd)
+                             .count())))
+                .filter(e -> e.getValue() > 0)
+                .collect(toList());
+        assertEquals(toBag(expected), sinkToBag());
+    }
+
+    @Test
+    public void sessionWindow() {
+        // Given
+        List<Integer> input = sequence(ITEM_COUNT);
+        putToSrcMap(input);
+
+        // When
+        ComputeStage<Session<Integer, Long>> sessions = srcStage
+                .insertWatermarks(i -> (long) i, withFixedLag(ITEM_COUNT), suppressDuplicates())
+                .sessionWindow(i -> i % 2, i -> (long) i, 2, counting());
+        sessions.drainTo(sink);
+        execute();
+
+        // Then
+        List<Session<Integer, Long>> expected = asList(
+                new Session<>(0, 0, ITEM_COUNT, ITEM_COUNT / 2L),
+                new Session<>(1, 1, ITEM_COUNT + 1, ITEM_COUNT / 2L));
+        assertEquals(toBag(expected), sinkToBag());
+    }
+
+    @Test
+    public void windowCoGroup() {
+        // Given
+        List<Integer> input = sequence(ITEM_COUNT);
+        putToSrcMap(input);
+        String src1Name = randomName();
+        ComputeStage<Integer> src1 = pipeline.drawFrom(mapValuesSource(src1Name));
+        putToMap(jet().getMap(src1Name), input);
+
+        // When
+        ComputeStage<TimestampedEntry<Integer, Long>> coGrouped = srcStage
+                .insertWatermarks(i -> (long) i, withFixedLag(ITEM_COUNT), suppressDuplicates())
+                .windowCoGroup(i -> i % 2, i -> (long) i,
+                        src1.insertWatermarks(i -> (long) i, withFixedLag(ITEM_COUNT), suppressDuplicates()),
+                        i -> i % 2, i -> (long) i,
+                        tumblingWindowDef(2),
+                        AggregateOperation
+                                .withCreate(LongAccumulator::new)
+                                .andAccumulate0((count, item) -> count.add(1))
+                                .andAccumulate1((count, item) -> count.add(10))
+                                .andCombine(LongAccumulator::add)
+                                .andFinish(LongAccumulator::get));
+        coGrouped.drainTo(sink);
+        execute();
+
+        // Then
+        List<TimestampedEntry<Integer, Long>> expected = input
+                .stream()
+                .map(i -> new TimestampedEntry<>(i - i % 2 + 2L, i % 2, 11L))
+                .collect(toList());
+        assertEquals(toBag(expected), sinkToBag());
+    }
 }
@@ -16,7 +16,11 @@
 
 package com.hazelcast.jet;
 
+import com.hazelcast.jet.core.DAG;
+import com.hazelcast.jet.core.Vertex;
 import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
 import org.junit.Test;
 
 import java.util.List;
@@ -26,6 +30,7 @@ import static com.hazelcast.jet.Util.entry;
 import static com.hazelcast.jet.core.processor.SourceProcessors.readMapP;
 import static com.hazelcast.projection.Projections.singleAttribute;
 import static com.hazelcast.query.TruePredicate.truePredicate;
+import static java.util.Arrays.asList;
 import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
 
@@ -98,6 +103,120 @@ public class SourcesTest extends PipelineTestSupport {
         assertEquals(toBag(input), sinkToBag());
     }
 
+    @Test
+    public void mapIndexed_when_indexMatchesPredicate_then_matchingEntries() {
+        // Given
+        List<Integer> input = sequence(ITEM_COUNT);
+        srcMap.addIndex("this", true);
+        putToSrcMap(input);
+
+        // When
+        pipeline.drawFrom(Sources.mapIndexed(srcName, Predicates.between("this", 3, 6),
+                        (DistributedFunction<Entry<String, Integer>, Integer>) Entry::getValue))
+                .drainTo(sink);
+        execute();
+
+        // Then
+        assertEquals(toBag(asList(3, 4, 5, 6)), sinkToBag());
+    }
+
+    @Test
+    public void mapIndexed_when_andPredicatePartlyIndexed_then_matchingEntries() {
+        // Given
+        List<Integer> input = sequence(ITEM_COUNT);
+        srcMap.addIndex("this", true);
+        putToSrcMap(input);
+
+        // When
+        Predicate<String, Integer> isEven = e -> e.getValue() % 2 == 0;
+        pipeline.drawFrom(Sources.mapIndexed(srcName, Predicates.and(Predicates.between("this", 3, 6), isEven),
+                        (DistributedFunction<Entry<String, Integer>, Integer>) Entry::getValue))
+                .drainTo(sink);
+        execute();
+
+        // Then
+        assertEquals(toBag(asList(4, 6)), sinkToBag());
+    }
+
+    @Test
+    public void mapIndexed_when_noIndex_then_scanned() {
+        // Given
+        List<Integer> input = sequence(ITEM_COUNT);
+        putToSrcMap(input);
+
+        // When
+        pipeline.drawFrom(Sources.mapIndexed(srcName, Predicates.greaterThan("this", 6),
+                        (DistributedFunction<Entry<String, Integer>, Integer>) Entry::getValue))
+                .drainTo(sink);
+        execute();
+
+        // Then
+        assertEquals(toBag(asList(7, 8, 9)), sinkToBag());
+    }
+
+    @Test
+    public void mapWithPushdown_withFilterAndMapStages_then_stagesMergedIntoSource() {
+        // Given
+        List<Integer> input = sequence(ITEM_COUNT);
+        putToSrcMap(input);
+
+        // When
+        pipeline.drawFrom(Sources.<String, Integer>mapWithPushdown(srcName))
+                .filter(e -> e.getValue() % 2 == 0)
+                .map(Entry::getValue)
+                .filter(i -> i > 2)
+                .map(i -> i * 10)
+                .drainTo(sink);
+        DAG dag = pipeline.toDag();
+        execute();
+
+        // Then
+        assertEquals("vertices: source + sink", 2, vertexCount(dag));
+        List<Integer> expected = input.stream()
+                                      .filter(i -> i % 2 == 0 && i > 2)
+                                      .map(i -> i * 10)
+                                      .collect(toList());
+        assertEquals(toBag(expected), sinkToBag());
+    }
+
+    @Test
+    public void map_withFilterAndMapStages_then_notMerged() {
+        // Given
+        List<Integer> input = sequence(ITEM_COUNT);
+        putToSrcMap(input);
+
+        // When
+        pipeline.drawFrom(Sources.<String, Integer>map(srcName))
+                .filter(e -> e.getValue() % 2 == 0)
+                .map(Entry::getValue)
+                .drainTo(sink);
+        DAG dag = pipeline.toDag();
+        execute();
+
+        // Then
+        assertEquals("vertices: source + filter + map + sink", 4, vertexCount(dag));
+        List<Integer> expected = input.stream().filter(i -> i % 2 == 0).collect(toList());
+        assertEquals(toBag(expected), sinkToBag());
+    }
+
+    @Test
+    public void mapWithPushdown_withTwoDownstreamStages_then_notMerged() {
+        // Given
+        List<Integer> input = sequence(ITEM_COUNT);
+        putToSrcMap(input);
+
+        // When
+        ComputeStage<Entry<String, Integer>> source = pipeline.drawFrom(Sources.mapWithPushdown(srcName));
+        source.map(Entry::getValue).drainTo(sink);
+        source.filter(e -> e.getValue() < 0).drainTo(sink);
+        DAG dag = pipeline.toDag();
+        execute();
+
+        // Then
+        assertEquals("vertices: source + map + filter + 2 sinks", 5, vertexCount(dag));
+        assertEquals(toBag(input), sinkToBag());
+    }
+
 //    @Test
 //    public void remoteMap() {
 //    }
@@ -170,4 +289,11 @@ public class SourcesTest extends PipelineTestSupport {
 //    public void fileChangesWithToString() {
 //    }
 
+    private static int vertexCount(DAG dag) {
+        int count = 0;
+        for (Vertex ignored : dag) {
+            count++;
+        }
+        return count;
+    }
 }
@@ -54,7 +54,10 @@ public class AccumulatorSerializerHooksTest {
                 new LinTrendAccumulator(7,
                         BigInteger.valueOf(9), BigInteger.valueOf(11), BigInteger.valueOf(13), BigInteger.valueOf(15)),
                 new LongLongAccumulator(2, 3),
-                new LongDoubleAccumulator(3, 4.5)
+                new LongDoubleAccumulator(3, 4.5),
+                new HyperLogLogAccumulator().accumulate(1).accumulate(-1),
+                new TopKAccumulator<>(2, 4, 2).accumulate("a").accumulate("b").accumulate("a"),
+                new TDigestAccumulator().accumulate(1).accumulate(2.5)
         );
     }
 
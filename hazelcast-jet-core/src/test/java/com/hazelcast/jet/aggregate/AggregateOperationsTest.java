@@ -16,13 +16,18 @@
 
 package com.hazelcast.jet.aggregate;
 
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
 import com.hazelcast.jet.accumulator.DoubleAccumulator;
+import com.hazelcast.jet.accumulator.HyperLogLogAccumulator;
 import com.hazelcast.jet.accumulator.LinTrendAccumulator;
 import com.hazelcast.jet.accumulator.LongAccumulator;
 import com.hazelcast.jet.accumulator.LongDoubleAccumulator;
 import com.hazelcast.jet.accumulator.LongLongAccumulator;
 import com.hazelcast.jet.accumulator.MutableReference;
+import com.hazelcast.jet.accumulator.TDigestAccumulator;
+import com.hazelcast.jet.accumulator.TopKAccumulator;
 import com.hazelcast.jet.function.DistributedFunctions;
+import com.hazelcast.spi.serialization.SerializationService;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import org.junit.Rule;
 import org.junit.Test;
@@ -42,6 +47,9 @@ import java.util.function.Supplier;
 
 import static com.hazelcast.jet.Util.entry;
 import static com.hazelcast.jet.aggregate.AggregateOperations.allOf;
+import static com.hazelcast.jet.aggregate.AggregateOperations.approximateCountDistinct;
+import static com.hazelcast.jet.aggregate.AggregateOperations.approximateQuantile;
+import static com.hazelcast.jet.aggregate.AggregateOperations.approximateTopK;
 import static com.hazelcast.jet.aggregate.AggregateOperations.averagingDouble;
 import static com.hazelcast.jet.aggregate.AggregateOperations.averagingLong;
 import static com.hazelcast.jet.aggregate.AggregateOperations.concatenating;
@@ -227,6 +235,84 @@ public class AggregateOperationsTest {
         assertTrue("NaN expected if all data points have same x value", Double.isNaN(finishFn.apply(acc)));
     }
 
+    @Test
+    public void when_approximateCountDistinct() {
+        AggregateOperation1<Integer, HyperLogLogAccumulator, Long> op = approximateCountDistinct();
+        HyperLogLogAccumulator acc1 = op.createFn().get();
+        HyperLogLogAccumulator acc2 = op.createFn().get();
+        for (int i = 0; i < 100_000; i++) {
+            // the two halves overlap in 25_000 distinct items
+            op.accumulateFn().accept(i % 2 == 0 ? acc1 : acc2, i % 75_000);
+        }
+        assertNull(op.deductFn());
+
+        op.combineFn().accept(acc1, acc2);
+
+        assertEquals(75_000, op.finishFn().apply(acc1), 75_000 * 0.03);
+        assertEquals(0L, (long) op.finishFn().apply(op.createFn().get()));
+    }
+
+    @Test
+    public void when_approximateTopK() {
+        AggregateOperation1<Integer, TopKAccumulator<Integer>, List<Entry<Integer, Long>>> op = approximateTopK(2);
+        TopKAccumulator<Integer> acc1 = op.createFn().get();
+        TopKAccumulator<Integer> acc2 = op.createFn().get();
+        for (int i = 1; i < 1000; i++) {
+            op.accumulateFn().accept(acc1, i);
+            op.accumulateFn().accept(acc2, -i);
+        }
+        for (int i = 0; i < 100; i++) {
+            op.accumulateFn().accept(acc2, 7);
+            if (i % 2 == 0) {
+                op.accumulateFn().accept(acc1, 3);
+            }
+        }
+
+        op.combineFn().accept(acc1, acc2);
+
+        List<Entry<Integer, Long>> result = op.finishFn().apply(acc1);
+        assertEquals(2, result.size());
+        assertEquals(7, (int) result.get(0).getKey());
+        assertTrue(result.get(0).getValue() >= 101);
+        assertEquals(3, (int) result.get(1).getKey());
+        assertTrue(result.get(1).getValue() >= 51);
+    }
+
+    @Test
+    public void when_approximateTopK_then_resultSerializableAndTrimmedToK() {
+        AggregateOperation1<String, TopKAccumulator<String>, List<Entry<String, Long>>> op = approximateTopK(2);
+        Map<String, Long> candidates = new HashMap<>();
+        candidates.put("a", 3L);
+        candidates.put("b", 1L);
+        candidates.put("c", 2L);
+        TopKAccumulator<String> acc = new TopKAccumulator<>(2, 4, 2, new long[8], candidates);
+
+        List<Entry<String, Long>> result = op.finishFn().apply(acc);
+
+        assertEquals(asList(entry("a", 3L), entry("c", 2L)), result);
+        SerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+        assertEquals(result, serializationService.toObject(serializationService.toData(result)));
+    }
+
+    @Test
+    public void when_approximateQuantile() {
+        AggregateOperation1<Integer, TDigestAccumulator, Double> op = approximateQuantile(Integer::doubleValue, 0.99);
+        TDigestAccumulator acc1 = op.createFn().get();
+        TDigestAccumulator acc2 = op.createFn().get();
+        for (int i = 1; i <= 100_000; i++) {
+            op.accumulateFn().accept(i % 2 == 0 ? acc1 : acc2, i);
+        }
+
+        op.combineFn().accept(acc1, acc2);
+
+        assertEquals(99_000, op.finishFn().apply(acc1), 100_000 * 0.001);
+        assertEquals(50_000, acc1.quantile(0.5), 100_000 * 0.01);
+        assertEquals(1, acc1.quantile(0), 0);
+        assertEquals(100_000, acc1.quantile(1), 0);
+        assertTrue(acc1.means().length <= 2 * TDigestAccumulator.DEFAULT_COMPRESSION);
+        assertTrue(Double.isNaN(op.finishFn().apply(op.createFn().get())));
+    }
+
     @Test
     public void when_reducing() {
         validateOp(reducing(0, Integer::intValue, Integer::sum, (x, y) -> x - y),
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.benchmark;
+
+import com.hazelcast.jet.JetInstance;
+import com.hazelcast.jet.core.AbstractProcessor;
+import com.hazelcast.jet.core.DAG;
+import com.hazelcast.jet.core.JetTestSupport;
+import com.hazelcast.jet.core.Vertex;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.IOUtil;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.NightlyTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.jet.core.Edge.between;
+import static com.hazelcast.jet.core.processor.Processors.mapP;
+import static com.hazelcast.jet.core.processor.SourceProcessors.readFilesP;
+import static com.hazelcast.jet.core.processor.SourceProcessors.readMappedFilesP;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares reading fixed-width numeric records with {@code readFilesP},
+ * which decodes them to lines, and with {@code readMappedFilesP}, which
+ * parses them from the mapped bytes.
+ */
+@Category(NightlyTest.class)
+@RunWith(HazelcastSerialClassRunner.class)
+public class FileSourceTest extends JetTestSupport {
+
+    private static final int FILE_COUNT = 4;
+    private static final int RECORDS_PER_FILE = 5_000_000;
+    // 15 digits and a line separator
+    private static final int RECORD_LENGTH = 16;
+    private static final long EXPECTED_SUM = FILE_COUNT * ((long) RECORDS_PER_FILE * (RECORDS_PER_FILE - 1) / 2);
+
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 10;
+
+    private static volatile long sum;
+
+    private JetInstance instance;
+    private ILogger logger;
+    private File directory;
+
+    @Before
+    public void before() throws Exception {
+        instance = createJetMember();
+        logger = instance.getHazelcastInstance().getLoggingService().getLogger(FileSourceTest.class);
+        directory = Files.createTempDirectory("file-source-test").toFile();
+        for (int i = 0; i < FILE_COUNT; i++) {
+            try (BufferedWriter writer = Files.newBufferedWriter(new File(directory, "file" + i).toPath(), US_ASCII)) {
+                for (long value = 0; value < RECORDS_PER_FILE; value++) {
+                    writer.write(String.format("%015d\n", value));
+                }
+            }
+        }
+    }
+
+    @After
+    public void after() {
+        IOUtil.delete(directory);
+    }
+
+    @Test
+    public void testReadFiles() {
+        DAG dag = new DAG();
+        Vertex source = dag.newVertex("source", readFilesP(directory.getPath(), US_ASCII, "*"));
+        Vertex parse = dag.newVertex("parse", mapP((String line) -> Long.parseLong(line)));
+        Vertex sink = dag.newVertex("sink", SumP::new).localParallelism(1);
+        dag.edge(between(source, parse))
+           .edge(between(parse, sink));
+
+        benchmark("readFilesP", dag);
+    }
+
+    @Test
+    public void testReadMappedFiles() {
+        DAG dag = new DAG();
+        Vertex source = dag.newVertex("source",
+                readMappedFilesP(directory.getPath(), "*", FileSourceTest::parseRecord));
+        Vertex sink = dag.newVertex("sink", SumP::new).localParallelism(1);
+        dag.edge(between(source, sink));
+
+        benchmark("readMappedFilesP", dag);
+    }
+
+    private static long parseRecord(ByteBuffer buffer) {
+        long value = 0;
+        for (int i = 0; i < RECORD_LENGTH - 1; i++) {
+            value = value * 10 + buffer.get() - '0';
+        }
+        // skip the line separator
+        buffer.get();
+        return value;
+    }
+
+    private void benchmark(String label, DAG dag) {
+        List<Long> times = new ArrayList<>();
+        for (int i = 0; i < WARMUP_RUNS + MEASURED_RUNS; i++) {
+            sum = 0;
+            long start = System.nanoTime();
+            instance.newJob(dag).join();
+            long time = (System.nanoTime() - start) / 1_000_000;
+            assertEquals(EXPECTED_SUM, sum);
+            logger.info(label + ": totalTime=" + time);
+            if (i >= WARMUP_RUNS) {
+                times.add(time);
+            }
+        }
+        long bytes = (long) FILE_COUNT * RECORDS_PER_FILE * RECORD_LENGTH;
+        double avgTime = times.stream().mapToLong(l -> l).average().orElse(0);
+        logger.info(label + ": " + times.stream().mapToLong(l -> l).summaryStatistics()
+                + ", MB/s=" + String.format("%.1f", bytes / 1e3 / avgTime));
+    }
+
+    private static class SumP extends AbstractProcessor {
+        private long localSum;
+
+        @Override
+        protected boolean tryProcess(int ordinal, @Nonnull Object item) {
+            localSum += (Long) item;
+            return true;
+        }
+
+        @Override
+        public boolean complete() {
+            sum = localSum;
+            return true;
+        }
+    }
+}
@@ -16,6 +16,8 @@
 
 package com.hazelcast.jet.core;
 
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.PartitionService;
 import com.hazelcast.jet.JetInstance;
 import com.hazelcast.jet.JetTestInstanceFactory;
 import com.hazelcast.jet.Job;
@@ -25,6 +27,7 @@ import com.hazelcast.jet.aggregate.AggregateOperation1;
 import com.hazelcast.jet.config.JetConfig;
 import com.hazelcast.jet.config.JobConfig;
 import com.hazelcast.jet.config.ProcessingGuarantee;
+import com.hazelcast.jet.config.SnapshotStorage;
 import com.hazelcast.jet.core.processor.SinkProcessors;
 import com.hazelcast.jet.core.test.TestProcessorMetaSupplierContext;
 import com.hazelcast.jet.core.test.TestSupport;
@@ -32,10 +35,14 @@ import com.hazelcast.jet.datamodel.TimestampedEntry;
 import com.hazelcast.jet.impl.JobRepository;
 import com.hazelcast.jet.impl.SnapshotRepository;
 import com.hazelcast.jet.impl.execution.ExecutionContext;
+import com.hazelcast.jet.impl.execution.LocalDiskSnapshotStore;
 import com.hazelcast.jet.impl.execution.SnapshotContext;
 import com.hazelcast.jet.impl.execution.SnapshotRecord;
+import com.hazelcast.jet.impl.execution.SnapshotStats;
 import com.hazelcast.jet.impl.execution.init.JetInitDataSerializerHook;
 import com.hazelcast.jet.stream.IStreamMap;
+import com.hazelcast.map.listener.EntryAddedListener;
+import com.hazelcast.map.listener.EntryUpdatedListener;
 import com.hazelcast.nio.Address;
 import com.hazelcast.test.HazelcastSerialClassRunner;
 import org.junit.After;
@@ -47,12 +54,17 @@ import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 
 import javax.annotation.Nonnull;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.IntStream;
 
@@ -74,6 +86,7 @@ import static com.hazelcast.jet.function.DistributedFunctions.entryKey;
 import static com.hazelcast.jet.impl.util.Util.arrayIndexOf;
 import static com.hazelcast.test.PacketFiltersUtil.delayOperationsFrom;
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static java.util.Comparator.comparing;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -82,6 +95,7 @@ import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastSerialClassRunner.class)
@@ -114,15 +128,48 @@ public class JobRestartWithSnapshotTest extends JetTestSupport {
 
     @Test
     public void when_nodeDown_then_jobRestartsFromSnapshot_singleStage() throws Exception {
-        when_nodeDown_then_jobRestartsFromSnapshot(false);
+        when_nodeDown_then_jobRestartsFromSnapshot(false, SnapshotStorage.IMAP, false, false, false, 0);
     }
 
     @Test
     public void when_nodeDown_then_jobRestartsFromSnapshot_twoStage() throws Exception {
-        when_nodeDown_then_jobRestartsFromSnapshot(true);
+        when_nodeDown_then_jobRestartsFromSnapshot(true, SnapshotStorage.IMAP, false, false, false, 0);
     }
 
-    public void when_nodeDown_then_jobRestartsFromSnapshot(boolean twoStage) throws Exception {
+    @Test
+    public void when_nodeDown_then_jobRestartsFromSnapshot_asyncSnapshots() throws Exception {
+        when_nodeDown_then_jobRestartsFromSnapshot(true, SnapshotStorage.IMAP, true, false, false, 0);
+    }
+
+    @Test
+    public void when_nodeDown_then_jobRestartsFromSnapshot_unalignedSnapshots() throws Exception {
+        when_nodeDown_then_jobRestartsFromSnapshot(true, SnapshotStorage.IMAP, false, true, false, 0);
+    }
+
+    @Test
+    public void when_nodeDown_then_jobRestartsFromSnapshot_compressedSnapshots() throws Exception {
+        when_nodeDown_then_jobRestartsFromSnapshot(true, SnapshotStorage.IMAP, false, false, true, 0);
+    }
+
+    @Test
+    public void when_nodeDown_then_jobRestartsFromSnapshot_localDiskStorage() throws Exception {
+        when_nodeDown_then_jobRestartsFromSnapshot(false, SnapshotStorage.LOCAL_DISK, false, false, false, 0);
+    }
+
+    @Test
+    public void when_nodeDown_then_jobRestartsFromSnapshot_incrementalSnapshots() throws Exception {
+        when_nodeDown_then_jobRestartsFromSnapshot(true, SnapshotStorage.IMAP, false, false, false, 2);
+    }
+
+    @Test
+    public void when_nodeDown_then_jobRestartsFromSnapshot_incrementalCompressedSnapshots() throws Exception {
+        when_nodeDown_then_jobRestartsFromSnapshot(true, SnapshotStorage.IMAP, false, false, true, 2);
+    }
+
+    public void when_nodeDown_then_jobRestartsFromSnapshot(boolean twoStage, SnapshotStorage storage,
+                                                           boolean asyncSnapshots, boolean unalignedSnapshots,
+                                                           boolean compressedSnapshots, int maxIncrementalSnapshots)
+            throws Exception {
         /* Design of this test:
 
         It uses random partitioned generator of source events. The events are Map.Entry(partitionId, timestamp).
@@ -196,6 +243,11 @@ public class JobRestartWithSnapshotTest extends JetTestSupport {
         JobConfig config = new JobConfig();
         config.setProcessingGuarantee(ProcessingGuarantee.EXACTLY_ONCE);
         config.setSnapshotIntervalMillis(1200);
+        config.setSnapshotStorage(storage);
+        config.setAsyncSnapshotsEnabled(asyncSnapshots);
+        config.setUnalignedSnapshotsEnabled(unalignedSnapshots);
+        config.setSnapshotCompressionEnabled(compressedSnapshots);
+        config.setMaxIncrementalSnapshots(maxIncrementalSnapshots);
         Job job = instance1.newJob(dag, config);
 
         SnapshotRepository snapshotRepository = new SnapshotRepository(instance1);
@@ -207,8 +259,17 @@ public class JobRestartWithSnapshotTest extends JetTestSupport {
         assertTrueEventually(() -> assertTrue("No snapshot produced", snapshotsMap.entrySet().stream()
                 .anyMatch(en -> en.getValue() instanceof SnapshotRecord
                         && ((SnapshotRecord) en.getValue()).isSuccessful())), timeout);
+        SnapshotStats stats = snapshotRepository.latestSnapshotStats(job.getId());
+        assertNotNull("no snapshot stats", stats);
+        assertTrue("no entries in snapshot: " + stats, stats.totalEntries() > 0);
 
         waitForNextSnapshot(snapshotsMap, timeout);
+        if (maxIncrementalSnapshots > 0) {
+            // the job must be restored from a full snapshot with incremental ones applied on top of it
+            assertTrueEventually(() -> assertTrue("No incremental snapshot produced", snapshotsMap.values().stream()
+                    .anyMatch(v -> v instanceof SnapshotRecord
+                            && ((SnapshotRecord) v).isSuccessful() && ((SnapshotRecord) v).isIncremental())), timeout);
+        }
         // wait a little more to emit something, so that it will be overwritten in the sink map
         Thread.sleep(300);
 
@@ -221,21 +282,7 @@ public class JobRestartWithSnapshotTest extends JetTestSupport {
 
         job.join();
 
-        // compute expected result
-        Map<List<Long>, Long> expectedMap = new HashMap<>();
-        for (long partition = 0; partition < sup.numPartitions; partition++) {
-            long cnt = 0;
-            for (long value = 1; value <= sup.elementsInPartition; value++) {
-                cnt++;
-                if (value % wDef.frameLength() == 0) {
-                    expectedMap.put(asList(value, partition), cnt);
-                    cnt = 0;
-                }
-            }
-            if (cnt > 0) {
-                expectedMap.put(asList(wDef.higherFrameTs(sup.elementsInPartition - 1), partition), cnt);
-            }
-        }
+        Map<List<Long>, Long> expectedMap = expectedResult(sup, wDef);
 
         // check expected result
         if (!expectedMap.equals(result)) {
@@ -266,6 +313,170 @@ public class JobRestartWithSnapshotTest extends JetTestSupport {
         }
 
         assertTrue("Snapshots map not empty after job finished", snapshotsMap.isEmpty());
+        if (storage == SnapshotStorage.LOCAL_DISK) {
+            Path jobDir = LocalDiskSnapshotStore.jobDir(getNodeEngineImpl(instance1), job.getId());
+            assertTrueEventually(() -> assertFalse("Snapshot files not deleted after job finished",
+                    Files.exists(jobDir)), 5);
+        }
+    }
+
+    private static Map<List<Long>, Long> expectedResult(SequencesInPartitionsMetaSupplier sup, WindowDefinition wDef) {
+        Map<List<Long>, Long> expectedMap = new HashMap<>();
+        for (long partition = 0; partition < sup.numPartitions; partition++) {
+            long cnt = 0;
+            for (long value = 1; value <= sup.elementsInPartition; value++) {
+                cnt++;
+                if (value % wDef.frameLength() == 0) {
+                    expectedMap.put(asList(value, partition), cnt);
+                    cnt = 0;
+                }
+            }
+            if (cnt > 0) {
+                expectedMap.put(asList(wDef.higherFrameTs(sup.elementsInPartition - 1), partition), cnt);
+            }
+        }
+        return expectedMap;
+    }
+
+    @Test
+    public void when_transactionalMapSinkRestarted_then_eachOutputCommittedOnceInOrder() throws Exception {
+        int elementsInPartition = 60;
+        IStreamMap<Integer, Integer> result = instance1.getMap("txnResult");
+        // the updates of each key, in the order they were committed
+        Map<Integer, List<Integer>> updates = new ConcurrentHashMap<>();
+        result.addEntryListener(new CommitListener(updates), true);
+
+        DAG dag = new DAG();
+        SequencesInPartitionsMetaSupplier sup = new SequencesInPartitionsMetaSupplier(3, elementsInPartition);
+        Vertex generator = dag.newVertex("generator", throttle(sup, 30))
+                              .localParallelism(1);
+        Vertex sink = dag.newVertex("sink", SinkProcessors.writeMapTransactionalP("txnResult"));
+        dag.edge(between(generator, sink).distributed().partitioned(entryKey()));
+
+        JobConfig config = new JobConfig();
+        config.setProcessingGuarantee(ProcessingGuarantee.EXACTLY_ONCE);
+        config.setSnapshotIntervalMillis(500);
+        Job job = instance1.newJob(dag, config);
+
+        IStreamMap<Long, Object> snapshotsMap = new SnapshotRepository(instance1).getSnapshotMap(job.getId());
+        assertTrueEventually(() -> assertNotNull("No snapshot produced", findMaxRecord(snapshotsMap)), 10);
+        waitForNextSnapshot(snapshotsMap, 10);
+        instance2.shutdown();
+        job.join();
+
+        assertTrueEventually(() -> {
+            assertEquals(3, updates.size());
+            for (List<Integer> values : updates.values()) {
+                assertEquals(elementsInPartition - 1, (int) values.get(values.size() - 1));
+            }
+        });
+        for (Entry<Integer, List<Integer>> e : updates.entrySet()) {
+            List<Integer> values = e.getValue();
+            for (int i = 1; i < values.size(); i++) {
+                assertTrue("output for key " + e.getKey() + " committed twice or out of order: " + values,
+                        values.get(i - 1) < values.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void when_jobStartedFromSavepoint_then_stateContinues() throws Exception {
+        WindowDefinition wDef = WindowDefinition.tumblingWindowDef(3);
+        SequencesInPartitionsMetaSupplier sup = new SequencesInPartitionsMetaSupplier(3, 60);
+        Map<List<Long>, Long> result = instance1.getMap("result");
+        result.clear();
+
+        JobConfig config = new JobConfig();
+        config.setProcessingGuarantee(ProcessingGuarantee.EXACTLY_ONCE);
+        config.setSnapshotIntervalMillis(500);
+        config.setSavepointName("savepoint");
+        Job job = instance1.newJob(savepointTestDag(sup, wDef), config);
+
+        SnapshotRepository snapshotRepository = new SnapshotRepository(instance1);
+        IStreamMap<Long, Object> snapshotsMap = snapshotRepository.getSnapshotMap(job.getId());
+        assertTrueEventually(() -> assertNotNull("No snapshot produced", findMaxRecord(snapshotsMap)), 10);
+        job.cancel();
+        assertTrueEventually(() -> assertNotNull("Savepoint not exported", snapshotRepository.savepoint("savepoint")));
+        assertTrue("Snapshots map not empty after job finished", snapshotsMap.isEmpty());
+
+        // the second job has the same vertices and an additional one with no state
+        DAG dag = savepointTestDag(sup, wDef);
+        dag.newVertex("newVertex", noopP());
+        JobConfig config2 = new JobConfig();
+        config2.setProcessingGuarantee(ProcessingGuarantee.EXACTLY_ONCE);
+        config2.setInitialSavepointName("savepoint");
+        instance1.newJob(dag, config2).join();
+
+        assertEquals(expectedResult(sup, wDef), new HashMap<>(result));
+        assertFalse("snapshot data map created for a vertex not in the savepoint",
+                instance1.getHazelcastInstance().getDistributedObjects().stream()
+                         .anyMatch(o -> o.getName().endsWith("newVertex")));
+        assertTrue(snapshotRepository.deleteSavepoint("savepoint"));
+        assertNull(snapshotRepository.savepoint("savepoint"));
+    }
+
+    @Test
+    public void when_snapshotRestored_then_entriesRestoredOnPartitionOwner() throws Exception {
+        PartitionOwnerCheckingP.RESTORED_COUNT.set(0);
+        PartitionOwnerCheckingP.MISROUTED_KEYS.clear();
+
+        DAG dag = new DAG();
+        dag.newVertex("p", () -> new PartitionOwnerCheckingP(false));
+        JobConfig config = new JobConfig();
+        config.setProcessingGuarantee(ProcessingGuarantee.EXACTLY_ONCE);
+        config.setSnapshotIntervalMillis(500);
+        config.setSavepointName("partitionOwner");
+        Job job = instance1.newJob(dag, config);
+
+        SnapshotRepository snapshotRepository = new SnapshotRepository(instance1);
+        IStreamMap<Long, Object> snapshotsMap = snapshotRepository.getSnapshotMap(job.getId());
+        assertTrueEventually(() -> assertNotNull("No snapshot produced", findMaxRecord(snapshotsMap)), 10);
+        job.cancel();
+        assertTrueEventually(() -> assertNotNull("Savepoint not exported",
+                snapshotRepository.savepoint("partitionOwner")));
+
+        DAG dag2 = new DAG();
+        dag2.newVertex("p", () -> new PartitionOwnerCheckingP(true));
+        JobConfig config2 = new JobConfig();
+        config2.setProcessingGuarantee(ProcessingGuarantee.EXACTLY_ONCE);
+        config2.setInitialSavepointName("partitionOwner");
+        instance1.newJob(dag2, config2).join();
+
+        assertEquals(PartitionOwnerCheckingP.KEY_COUNT, PartitionOwnerCheckingP.RESTORED_COUNT.get());
+        assertEquals(emptyList(), PartitionOwnerCheckingP.MISROUTED_KEYS);
+        assertTrue(snapshotRepository.deleteSavepoint("partitionOwner"));
+    }
+
+    @Test
+    public void when_savepointMissing_then_jobFails() throws Exception {
+        DAG dag = new DAG();
+        dag.newVertex("p", noopP());
+        JobConfig config = new JobConfig();
+        config.setInitialSavepointName("missing");
+
+        expectedException.expectMessage("Savepoint 'missing'");
+        instance1.newJob(dag, config).join();
+    }
+
+    private static DAG savepointTestDag(SequencesInPartitionsMetaSupplier sup, WindowDefinition wDef) {
+        DAG dag = new DAG();
+        Vertex generator = dag.newVertex("generator", throttle(sup, 30))
+                              .localParallelism(1);
+        Vertex insWm = dag.newVertex("insWm", insertWatermarksP(entry -> ((Entry<Integer, Integer>) entry).getValue(),
+                withFixedLag(0), emitByFrame(wDef)))
+                          .localParallelism(1);
+        Vertex aggregate = dag.newVertex("aggregate", aggregateToSlidingWindowP(
+                t -> ((Entry<Integer, Integer>) t).getKey(),
+                t -> ((Entry<Integer, Integer>) t).getValue(),
+                TimestampKind.EVENT, wDef, counting()));
+        Vertex map = dag.newVertex("map",
+                mapP((TimestampedEntry e) -> entry(asList(e.getTimestamp(), (long) (int) e.getKey()), e.getValue())));
+        Vertex writeMap = dag.newVertex("writeMap", SinkProcessors.writeMapP("result"));
+        dag.edge(between(generator, insWm))
+           .edge(between(insWm, aggregate).distributed().partitioned(entryKey()))
+           .edge(between(aggregate, map))
+           .edge(between(map, writeMap));
+        return dag;
     }
 
     @Test
@@ -527,6 +738,86 @@ public class JobRestartWithSnapshotTest extends JetTestSupport {
         }
     }
 
+    /**
+     * Records the values added to or updated in a map, in the order of the
+     * events.
+     */
+    private static final class CommitListener
+            implements EntryAddedListener<Integer, Integer>, EntryUpdatedListener<Integer, Integer> {
+
+        private final Map<Integer, List<Integer>> updates;
+
+        CommitListener(Map<Integer, List<Integer>> updates) {
+            this.updates = updates;
+        }
+
+        @Override
+        public void entryAdded(EntryEvent<Integer, Integer> event) {
+            record(event);
+        }
+
+        @Override
+        public void entryUpdated(EntryEvent<Integer, Integer> event) {
+            record(event);
+        }
+
+        private void record(EntryEvent<Integer, Integer> event) {
+            updates.computeIfAbsent(event.getKey(), k -> new CopyOnWriteArrayList<>()).add(event.getValue());
+        }
+    }
+
+    /**
+     * A processor which saves {@link #KEY_COUNT} keys to the snapshot from
+     * the first processor and, when restored, records the keys it receives
+     * whose partition isn't owned by the local member.
+     */
+    private static final class PartitionOwnerCheckingP extends AbstractProcessor {
+        static final int KEY_COUNT = 100;
+        static final AtomicInteger RESTORED_COUNT = new AtomicInteger();
+        static final List<Object> MISROUTED_KEYS = new CopyOnWriteArrayList<>();
+
+        private final boolean completeAfterRestore;
+        private PartitionService partitionService;
+        private Traverser<Entry<Integer, Integer>> snapshotTraverser;
+        private boolean isFirst;
+
+        private PartitionOwnerCheckingP(boolean completeAfterRestore) {
+            this.completeAfterRestore = completeAfterRestore;
+        }
+
+        @Override
+        protected void init(@Nonnull Context context) {
+            partitionService = context.jetInstance().getHazelcastInstance().getPartitionService();
+            isFirst = context.globalProcessorIndex() == 0;
+        }
+
+        @Override
+        public boolean complete() {
+            return completeAfterRestore;
+        }
+
+        @Override
+        public boolean saveToSnapshot() {
+            if (!isFirst) {
+                return true;
+            }
+            if (snapshotTraverser == null) {
+                snapshotTraverser = Traversers.traverseStream(IntStream.range(0, KEY_COUNT).boxed())
+                                              .map(i -> entry(i, i))
+                                              .onFirstNull(() -> snapshotTraverser = null);
+            }
+            return emitFromTraverserToSnapshot(snapshotTraverser);
+        }
+
+        @Override
+        protected void restoreFromSnapshot(@Nonnull Object key, @Nonnull Object value) {
+            RESTORED_COUNT.incrementAndGet();
+            if (!partitionService.getPartition(key).getOwner().localMember()) {
+                MISROUTED_KEYS.add(key);
+            }
+        }
+    }
+
     /**
      * Supplier of processors that emit nothing and complete immediately
      * on designated member and never on others.
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl;
+
+import com.hazelcast.jet.config.JobConfig;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.jet.impl.SnapshotIntervalPolicy.MIN_ADAPTIVE_INTERVAL_MILLIS;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category(ParallelTest.class)
+public class SnapshotIntervalPolicyTest {
+
+    @Test
+    public void when_adaptiveDisabled_then_fixedInterval() {
+        SnapshotIntervalPolicy policy = policy(new JobConfig().setSnapshotIntervalMillis(500));
+        policy.snapshotCompleted(10_000);
+        assertEquals(500, policy.nextIntervalMillis());
+    }
+
+    @Test
+    public void when_noSnapshotCompleted_then_fixedInterval() {
+        SnapshotIntervalPolicy policy = policy(new JobConfig()
+                .setSnapshotIntervalMillis(500)
+                .setMaxSnapshotTimeFraction(0.1));
+        assertEquals(500, policy.nextIntervalMillis());
+    }
+
+    @Test
+    public void when_snapshotsCompleted_then_intervalFollowsAverageDuration() {
+        SnapshotIntervalPolicy policy = policy(new JobConfig().setMaxSnapshotTimeFraction(0.2));
+        policy.snapshotCompleted(1000);
+        // 1000 / (1000 + 4000) == 0.2
+        assertEquals(4000, policy.nextIntervalMillis());
+        policy.snapshotCompleted(3000);
+        // average duration is 2000
+        assertEquals(8000, policy.nextIntervalMillis());
+    }
+
+    @Test
+    public void when_tinySnapshots_then_minimumInterval() {
+        SnapshotIntervalPolicy policy = policy(new JobConfig().setMaxSnapshotTimeFraction(0.5));
+        policy.snapshotCompleted(1);
+        assertEquals(MIN_ADAPTIVE_INTERVAL_MILLIS, policy.nextIntervalMillis());
+    }
+
+    @Test
+    public void when_recoveryWindowLimited_then_intervalShortened() {
+        SnapshotIntervalPolicy policy = policy(new JobConfig()
+                .setMaxSnapshotTimeFraction(0.1)
+                .setMaxRecoveryWindowMillis(5000));
+        policy.snapshotCompleted(1000);
+        assertEquals(4000, policy.nextIntervalMillis());
+    }
+
+    @Test
+    public void when_recoveryWindowShorterThanSnapshots_then_minimumIntervalAndWarning() {
+        ILogger logger = mock(ILogger.class);
+        SnapshotIntervalPolicy policy = new SnapshotIntervalPolicy(new JobConfig()
+                .setMaxSnapshotTimeFraction(0.1)
+                .setMaxRecoveryWindowMillis(5000), logger, 1);
+        policy.snapshotCompleted(6000);
+        assertEquals(MIN_ADAPTIVE_INTERVAL_MILLIS, policy.nextIntervalMillis());
+        assertEquals(MIN_ADAPTIVE_INTERVAL_MILLIS, policy.nextIntervalMillis());
+        // warned only once while the window can't be met
+        verify(logger).warning(anyString());
+    }
+
+    private static SnapshotIntervalPolicy policy(JobConfig config) {
+        return new SnapshotIntervalPolicy(config, mock(ILogger.class), 1);
+    }
+}
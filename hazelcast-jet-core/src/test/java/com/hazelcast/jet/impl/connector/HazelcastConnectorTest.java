@@ -21,6 +21,7 @@ import com.hazelcast.cache.journal.EventJournalCacheEvent;
 import com.hazelcast.config.CacheSimpleConfig;
 import com.hazelcast.config.Config;
 import com.hazelcast.config.EventJournalConfig;
+import com.hazelcast.core.DistributedObject;
 import com.hazelcast.jet.JetInstance;
 import com.hazelcast.jet.Job;
 import com.hazelcast.jet.config.JetConfig;
@@ -41,22 +42,26 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.stream.IntStream;
 
+import static com.hazelcast.jet.Jet.INTERNAL_JET_OBJECTS_PREFIX;
 import static com.hazelcast.jet.JournalInitialPosition.START_FROM_OLDEST;
 import static com.hazelcast.jet.Util.mapPutEvents;
 import static com.hazelcast.jet.core.Edge.between;
 import static com.hazelcast.jet.core.processor.SinkProcessors.writeCacheP;
 import static com.hazelcast.jet.core.processor.SinkProcessors.writeListP;
 import static com.hazelcast.jet.core.processor.SinkProcessors.writeMapP;
+import static com.hazelcast.jet.core.processor.SinkProcessors.writeMapTransactionalP;
 import static com.hazelcast.jet.core.processor.SourceProcessors.readCacheP;
 import static com.hazelcast.jet.core.processor.SourceProcessors.readListP;
 import static com.hazelcast.jet.core.processor.SourceProcessors.readMapP;
 import static com.hazelcast.jet.core.processor.SourceProcessors.streamCacheP;
 import static com.hazelcast.jet.core.processor.SourceProcessors.streamMapP;
 import static com.hazelcast.query.impl.predicates.PredicateTestUtils.entry;
+import static com.hazelcast.util.UuidUtil.newUnsecureUuidString;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.IntStream.range;
@@ -116,6 +121,32 @@ public class HazelcastConnectorTest extends JetTestSupport {
         assertEquals(ENTRY_COUNT, jetInstance.getMap(sinkName).size());
     }
 
+    @Test
+    public void when_writeMapTransactional_then_onlyOwnStaleStagingMapsDestroyed() {
+        IStreamMap<Integer, Integer> sourceMap = jetInstance.getMap(sourceName);
+        range(0, ENTRY_COUNT).forEach(i -> sourceMap.put(i, i));
+        String stagingMapsPrefix = INTERNAL_JET_OBJECTS_PREFIX + "staging.";
+        // left by a previous execution of the sink writing to sinkName
+        String staleStagingMap = stagingMapsPrefix + sinkName + ".0." + newUnsecureUuidString();
+        // used by a sink writing to another map, whose name starts with sinkName
+        String otherStagingMap = stagingMapsPrefix + sinkName + ".1.0." + newUnsecureUuidString();
+        jetInstance.getMap(staleStagingMap).put(1, 1);
+        jetInstance.getMap(otherStagingMap).put(1, 1);
+
+        DAG dag = new DAG();
+        Vertex source = dag.newVertex("source", readMapP(sourceName));
+        Vertex sink = dag.newVertex("sink", writeMapTransactionalP(sinkName));
+        dag.edge(between(source, sink));
+        jetInstance.newJob(dag).join();
+
+        assertEquals(ENTRY_COUNT, jetInstance.getMap(sinkName).size());
+        List<String> objectNames = jetInstance.getHazelcastInstance().getDistributedObjects().stream()
+                                              .map(DistributedObject::getName)
+                                              .collect(toList());
+        assertFalse(objectNames.contains(staleStagingMap));
+        assertTrue(objectNames.contains(otherStagingMap));
+    }
+
     @Test
     public void when_readMap_withNativePredicateAndProjection() {
         IStreamMap<Integer, Integer> sourceMap = jetInstance.getMap(sourceName);
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.connector;
+
+import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.JetInstance;
+import com.hazelcast.jet.core.DAG;
+import com.hazelcast.jet.core.JetTestSupport;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.core.Vertex;
+import com.hazelcast.jet.datamodel.Schema;
+import com.hazelcast.jet.stream.IStreamList;
+import com.hazelcast.nio.IOUtil;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.hazelcast.jet.core.Edge.between;
+import static com.hazelcast.jet.core.processor.Processors.mapP;
+import static com.hazelcast.jet.core.processor.SinkProcessors.writeColumnChunkFileP;
+import static com.hazelcast.jet.core.processor.SinkProcessors.writeCsvFileP;
+import static com.hazelcast.jet.core.processor.SinkProcessors.writeListP;
+import static com.hazelcast.jet.core.processor.SourceProcessors.readColumnChunkFilesP;
+import static com.hazelcast.jet.core.processor.SourceProcessors.readCsvFilesP;
+import static com.hazelcast.jet.core.processor.SourceProcessors.readListP;
+import static com.hazelcast.jet.datamodel.Schema.ColumnType.DOUBLE;
+import static com.hazelcast.jet.datamodel.Schema.ColumnType.INT;
+import static com.hazelcast.jet.datamodel.Schema.ColumnType.STRING;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class ReadColumnarFilesPTest extends JetTestSupport {
+
+    private static final Schema SCHEMA = Schema.schemaBuilder()
+                                               .addColumn("id", INT)
+                                               .addColumn("name", STRING)
+                                               .addColumn("price", DOUBLE)
+                                               .build();
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private JetInstance instance;
+    private File directory;
+
+    @Before
+    public void setup() throws Exception {
+        instance = createJetMember();
+        directory = Files.createTempDirectory("read-columnar-files-p").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        IOUtil.delete(directory);
+    }
+
+    @Test
+    public void when_csvWithHeader_then_projectedColumnsEmitted() throws Exception {
+        Files.write(new File(directory, "file").toPath(), asList(
+                "id,name,price",
+                "1,apple,1.5",
+                "2,\"pear, green\",",
+                "",
+                "3,\"say \"\"hi\"\"\",2"
+        ), UTF_8);
+
+        List<List<Object>> rows = readRows(
+                readCsvFilesP(directory.getPath(), UTF_8, "*", SCHEMA, true, "price", "id"), 1);
+
+        assertEquals(asList(
+                asList(1.5, 1),
+                asList(null, 2),
+                asList(2.0, 3)
+        ), rows);
+    }
+
+    @Test
+    public void when_csvWrittenAndRead_then_sameRows() {
+        List<Object[]> rows = testRows();
+
+        writeRows(rows, writeCsvFileP(directory.getPath(), SCHEMA, UTF_8));
+
+        assertEquals(toLists(rows), readRows(readCsvFilesP(directory.getPath(), UTF_8, "*", SCHEMA, false), 0));
+    }
+
+    @Test
+    public void when_columnChunkWrittenAndRead_then_sameRows() {
+        List<Object[]> rows = testRows();
+
+        writeRows(rows, writeColumnChunkFileP(directory.getPath(), SCHEMA, 7));
+
+        assertEquals(toLists(rows), readRows(readColumnChunkFilesP(directory.getPath(), "*"), 0));
+    }
+
+    @Test
+    public void when_columnChunkProjected_then_onlyProjectedColumnsEmitted() {
+        List<Object[]> rows = testRows();
+
+        writeRows(rows, writeColumnChunkFileP(directory.getPath(), SCHEMA, 7));
+
+        List<List<Object>> expected = rows.stream()
+                                          .map(row -> asList(row[2], row[0]))
+                                          .collect(toList());
+        assertEquals(expected, readRows(readColumnChunkFilesP(directory.getPath(), "*", "price", "id"), 1));
+    }
+
+    @Test
+    public void when_csvFieldNeedsQuoting_then_roundTrips() {
+        Object[] row = {1, "a,\"b\"\nc", null};
+        String line = CsvFormat.formatRow(SCHEMA, row);
+
+        Object[] parsed = CsvFormat.parseRow(line, SCHEMA, ReadColumnarFilesP.outputIndexes(SCHEMA, new String[0]), 3);
+
+        assertArrayEquals(row, parsed);
+    }
+
+    @Test
+    public void when_csvFieldWithLineTerminatorsWrittenAndRead_then_sameRows() {
+        List<Object[]> rows = asList(
+                new Object[]{1, "first\nsecond", 1.0},
+                new Object[]{2, "a\r\n\"b\"\r", 2.0},
+                new Object[]{3, "plain", null}
+        );
+
+        writeRows(rows, writeCsvFileP(directory.getPath(), SCHEMA, UTF_8));
+
+        assertEquals(toLists(rows), readRows(readCsvFilesP(directory.getPath(), UTF_8, "*", SCHEMA, false), 0));
+    }
+
+    @Test
+    public void when_columnChunkHasUnknownColumnType_then_jetException() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x4A43_4331);
+        out.writeInt(1);
+        out.writeUTF("id");
+        out.writeByte(100);
+        out.flush();
+
+        expectedException.expect(JetException.class);
+        expectedException.expectMessage("Unknown type 100 of column 'id'");
+        new ColumnChunkFormat.Reader(new ByteArrayInputStream(bytes.toByteArray()), new String[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void when_unknownColumnProjected_then_fail() {
+        ReadColumnarFilesP.outputIndexes(SCHEMA, new String[]{"id", "missing"});
+    }
+
+    private static List<Object[]> testRows() {
+        return IntStream.range(0, 100)
+                        .mapToObj(i -> new Object[]{i, i % 10 == 0 ? "" : "name-" + i, i % 3 == 0 ? null : i * 0.5})
+                        .collect(toList());
+    }
+
+    private void writeRows(List<Object[]> rows, ProcessorMetaSupplier sinkSupplier) {
+        IStreamList<Object[]> input = instance.getList("input");
+        input.addAll(rows);
+
+        DAG dag = new DAG();
+        Vertex source = dag.newVertex("source", readListP(input.getName())).localParallelism(1);
+        Vertex sink = dag.newVertex("sink", sinkSupplier).localParallelism(1);
+        dag.edge(between(source, sink));
+        instance.newJob(dag).join();
+    }
+
+    private List<List<Object>> readRows(ProcessorMetaSupplier sourceSupplier, int idIndex) {
+        IStreamList<List<Object>> output = instance.getList("output");
+
+        DAG dag = new DAG();
+        Vertex source = dag.newVertex("source", sourceSupplier);
+        Vertex toList = dag.newVertex("toList", mapP((Object[] row) -> asList(row)));
+        Vertex sink = dag.newVertex("sink", writeListP(output.getName())).localParallelism(1);
+        dag.edge(between(source, toList))
+           .edge(between(toList, sink));
+        instance.newJob(dag).join();
+
+        return new ArrayList<>(output).stream()
+                                      .sorted(comparing(row -> (Integer) row.get(idIndex)))
+                                      .collect(toList());
+    }
+
+    private static List<List<Object>> toLists(List<Object[]> rows) {
+        return rows.stream().map(row -> asList(row)).collect(toList());
+    }
+}
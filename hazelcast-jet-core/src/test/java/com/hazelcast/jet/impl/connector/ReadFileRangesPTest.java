@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.connector;
+
+import com.hazelcast.jet.JetInstance;
+import com.hazelcast.jet.core.DAG;
+import com.hazelcast.jet.core.JetTestSupport;
+import com.hazelcast.jet.core.Vertex;
+import com.hazelcast.jet.stream.IStreamList;
+import com.hazelcast.nio.IOUtil;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.hazelcast.jet.core.Edge.between;
+import static com.hazelcast.jet.core.processor.SinkProcessors.writeListP;
+import static com.hazelcast.jet.core.processor.SourceProcessors.readFileRangesP;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class ReadFileRangesPTest extends JetTestSupport {
+
+    private JetInstance instance;
+    private File directory;
+    private IStreamList<String> list;
+
+    @Before
+    public void setup() throws Exception {
+        instance = createJetMember();
+        directory = Files.createTempDirectory("read-file-ranges-p").toFile();
+        list = instance.getList("writer");
+    }
+
+    @After
+    public void tearDown() {
+        IOUtil.delete(directory);
+    }
+
+    @Test
+    public void when_largeFile_then_allLinesReadOnce() throws Exception {
+        List<String> lines = IntStream.range(0, 100_000).mapToObj(i -> "line-" + i).collect(toList());
+        appendToFile(new File(directory, "file.txt"), "\n", lines);
+
+        instance.newJob(buildDag(7, false)).join();
+
+        assertEqualsSorted(lines, list);
+    }
+
+    @Test
+    public void when_moreProcessorsThanLines_then_allLinesReadOnce() throws Exception {
+        List<String> lines = Arrays.asList("a", "bb", "ccc");
+        appendToFile(new File(directory, "file1.txt"), "\n", lines);
+        appendToFile(new File(directory, "file2.txt"), "\n", lines);
+
+        instance.newJob(buildDag(16, false)).join();
+
+        List<String> expected = new ArrayList<>(lines);
+        expected.addAll(lines);
+        assertEqualsSorted(expected, list);
+    }
+
+    @Test
+    public void when_crLfAndNoTrailingNewLine_then_linesWithoutTerminators() throws Exception {
+        List<String> lines = IntStream.range(0, 1000).mapToObj(i -> "line-" + i).collect(toList());
+        File file = new File(directory, "file.txt");
+        appendToFile(file, "\r\n", lines);
+        try (PrintWriter writer = new PrintWriter(new FileOutputStream(file, true))) {
+            writer.write("last");
+        }
+
+        instance.newJob(buildDag(3, false)).join();
+
+        List<String> expected = new ArrayList<>(lines);
+        expected.add("last");
+        assertEqualsSorted(expected, list);
+    }
+
+    @Test
+    public void when_sharedFileSystemWithTwoMembers_then_allLinesReadOnce() throws Exception {
+        createJetMember();
+        List<String> lines = IntStream.range(0, 10_000).mapToObj(i -> "line-" + i).collect(toList());
+        appendToFile(new File(directory, "file.txt"), "\n", lines);
+
+        instance.newJob(buildDag(3, true)).join();
+
+        assertEqualsSorted(lines, list);
+    }
+
+    private DAG buildDag(int localParallelism, boolean sharedFileSystem) {
+        DAG dag = new DAG();
+        Vertex reader = dag.newVertex("reader",
+                readFileRangesP(directory.getPath(), StandardCharsets.UTF_8, "*", sharedFileSystem))
+                           .localParallelism(localParallelism);
+        Vertex writer = dag.newVertex("writer", writeListP(list.getName())).localParallelism(1);
+        dag.edge(between(reader, writer));
+        return dag;
+    }
+
+    private static void assertEqualsSorted(List<String> expected, List<String> actual) {
+        assertEquals(expected.stream().sorted().collect(toList()), actual.stream().sorted().collect(toList()));
+    }
+
+    private static void appendToFile(File file, String lineSeparator, List<String> lines) throws Exception {
+        try (PrintWriter writer = new PrintWriter(new FileOutputStream(file, true))) {
+            for (String line : lines) {
+                writer.write(line + lineSeparator);
+            }
+        }
+    }
+}
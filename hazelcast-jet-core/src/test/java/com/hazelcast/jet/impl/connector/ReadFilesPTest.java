@@ -35,6 +35,7 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
 
 import static com.hazelcast.jet.core.Edge.between;
 import static com.hazelcast.jet.core.processor.SinkProcessors.writeListP;
@@ -101,6 +102,22 @@ public class ReadFilesPTest extends JetTestSupport {
         finishDirectory(file1, file2);
     }
 
+    @Test
+    public void when_gzFile_then_decompressed() throws Exception {
+        DAG dag = buildDag(null);
+
+        File file1 = new File(directory, randomName() + ".gz");
+        try (PrintWriter writer = new PrintWriter(new GZIPOutputStream(new FileOutputStream(file1)))) {
+            writer.write("hello\nworld\n");
+        }
+
+        instance.newJob(dag).join();
+
+        assertEquals(Arrays.asList("hello", "world"), new ArrayList<>(list));
+
+        finishDirectory(file1);
+    }
+
     @Test
     public void when_directory_then_ignore() throws Exception {
         DAG dag = buildDag(null);
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.connector;
+
+import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.JetInstance;
+import com.hazelcast.jet.core.DAG;
+import com.hazelcast.jet.core.JetTestSupport;
+import com.hazelcast.jet.core.Vertex;
+import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.jet.stream.IStreamList;
+import com.hazelcast.nio.IOUtil;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static com.hazelcast.jet.Util.fixedLengthRecords;
+import static com.hazelcast.jet.Util.lengthPrefixedRecords;
+import static com.hazelcast.jet.core.Edge.between;
+import static com.hazelcast.jet.core.processor.SinkProcessors.writeListP;
+import static com.hazelcast.jet.core.processor.SourceProcessors.readMappedFilesP;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class ReadMappedFilesPTest extends JetTestSupport {
+
+    private JetInstance instance;
+    private File directory;
+    private IStreamList<Object> list;
+
+    @Before
+    public void setup() throws Exception {
+        instance = createJetMember();
+        directory = Files.createTempDirectory("read-mapped-files-p").toFile();
+        list = instance.getList("writer");
+    }
+
+    @After
+    public void tearDown() {
+        IOUtil.delete(directory);
+    }
+
+    @Test
+    public void when_parseFnReadsLongs_then_longsEmitted() throws Exception {
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(new File(directory, "file")))) {
+            for (long i = 0; i < 1000; i++) {
+                out.writeLong(i);
+            }
+        }
+
+        instance.newJob(buildDag(ByteBuffer::getLong)).join();
+
+        assertEquals(LongStream.range(0, 1000).boxed().collect(toList()), sorted(list));
+    }
+
+    @Test
+    public void when_fixedLengthRecords_then_slicesEmitted() throws Exception {
+        Files.write(new File(directory, "file").toPath(), "aaabbbccc".getBytes(UTF_8));
+
+        instance.newJob(buildDag(fixedLengthRecords(3).andThen(ReadMappedFilesPTest::decode))).join();
+
+        assertEquals(asList("aaa", "bbb", "ccc"), sorted(list));
+    }
+
+    @Test
+    public void when_lengthPrefixedRecords_then_slicesEmitted() throws Exception {
+        List<String> records = IntStream.range(0, 100).mapToObj(i -> "record-" + i).collect(toList());
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(new File(directory, "file")))) {
+            for (String record : records) {
+                byte[] bytes = record.getBytes(UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        instance.newJob(buildDag(lengthPrefixedRecords().andThen(ReadMappedFilesPTest::decode))).join();
+
+        assertEquals(sorted(records), sorted(list));
+    }
+
+    @Test
+    public void when_incompleteRecord_then_jobFails() throws Exception {
+        Files.write(new File(directory, "file").toPath(), "aaabb".getBytes(UTF_8));
+
+        try {
+            instance.newJob(buildDag(fixedLengthRecords(3).andThen(ReadMappedFilesPTest::decode))).join();
+            fail("job didn't fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.toString(), e.getCause() instanceof JetException);
+            assertTrue(e.toString(), e.getCause().getMessage().contains("Incomplete record"));
+        }
+    }
+
+    private DAG buildDag(DistributedFunction<? super ByteBuffer, ?> parseFn) {
+        DAG dag = new DAG();
+        Vertex reader = dag.newVertex("reader", readMappedFilesP(directory.getPath(), "*", parseFn))
+                           .localParallelism(2);
+        Vertex writer = dag.newVertex("writer", writeListP(list.getName())).localParallelism(1);
+        dag.edge(between(reader, writer));
+        return dag;
+    }
+
+    private static String decode(ByteBuffer record) {
+        byte[] bytes = new byte[record.remaining()];
+        record.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> sorted(List<?> list) {
+        return list.stream().map(o -> (Comparable<Object>) o).sorted().collect(toList());
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.connector;
+
+import com.hazelcast.core.IMap;
+import com.hazelcast.jet.core.JetTestSupport;
+import com.hazelcast.map.impl.proxy.MapProxyImpl;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.hazelcast.jet.impl.connector.ReadWithPartitionIteratorP.queryIndexes;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toSet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class ReadWithPartitionIteratorP_queryIndexesTest extends JetTestSupport {
+
+    private static final int ITEM_COUNT = 10;
+
+    private MapProxyImpl<String, Integer> map;
+
+    @Before
+    public void setup() {
+        IMap<String, Integer> iMap = createJetMember().getHazelcastInstance().getMap(randomName());
+        iMap.addIndex("this", true);
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            iMap.put(String.valueOf(i), i);
+        }
+        map = (MapProxyImpl<String, Integer>) iMap;
+    }
+
+    @Test
+    public void when_predicateIndexed_then_matchesFromIndex() {
+        // When
+        Map<Integer, List<QueryableEntry>> matches = queryIndexes(map, Predicates.between("this", 3, 6));
+
+        // Then
+        assertNotNull("the index wasn't used", matches);
+        assertEquals(set(3, 4, 5, 6), values(matches));
+    }
+
+    @Test
+    public void when_andPredicatePartlyIndexed_then_matchesFromIndexFiltered() {
+        // When
+        Predicate<String, Integer> isEven = e -> e.getValue() % 2 == 0;
+        Map<Integer, List<QueryableEntry>> matches =
+                queryIndexes(map, Predicates.and(Predicates.between("this", 3, 6), isEven));
+
+        // Then
+        assertNotNull("the index wasn't used", matches);
+        assertEquals(set(4, 6), values(matches));
+    }
+
+    @Test
+    public void when_predicateNotIndexed_then_null() {
+        // When
+        Map<Integer, List<QueryableEntry>> matches = queryIndexes(map, Predicates.equal("__key", "3"));
+
+        // Then
+        assertNull(matches);
+    }
+
+    private static Set<Object> values(Map<Integer, List<QueryableEntry>> matches) {
+        return matches.values().stream()
+                      .flatMap(List::stream)
+                      .map(QueryableEntry::getValue)
+                      .collect(toSet());
+    }
+
+    private static Set<Object> set(Object... values) {
+        return new HashSet<>(asList(values));
+    }
+}
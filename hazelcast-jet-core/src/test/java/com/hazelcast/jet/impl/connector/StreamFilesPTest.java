@@ -16,6 +16,7 @@
 
 package com.hazelcast.jet.impl.connector;
 
+import com.hazelcast.jet.core.BroadcastKey;
 import com.hazelcast.jet.core.JetTestSupport;
 import com.hazelcast.jet.core.Outbox;
 import com.hazelcast.jet.core.Processor.Context;
@@ -34,10 +35,15 @@ import org.junit.runner.RunWith;
 
 import java.io.File;
 import java.io.FileWriter;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.RandomAccessFile;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
 
+import static com.hazelcast.jet.core.BroadcastKey.broadcastKey;
 import static com.hazelcast.jet.core.processor.SourceProcessors.streamFilesP;
 import static java.lang.Thread.interrupted;
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -61,6 +67,7 @@ public class StreamFilesPTest extends JetTestSupport {
 
     private Thread driverThread;
     private long emittedCount;
+    private final Map<Object, Object> snapshot = new HashMap<>();
 
     private volatile int fileOffsetsSize;
     private volatile boolean completedNormally;
@@ -230,6 +237,54 @@ public class StreamFilesPTest extends JetTestSupport {
         assertTrueEventually(() -> assertTrue(completedNormally));
     }
 
+    @Test
+    public void when_restoredFromSnapshot_then_continueFromSavedOffsets() throws Exception {
+        // Given
+        writeLines(new File(workDir, "a.txt"), 10);
+        writeLines(new File(workDir, "b.txt"), 10);
+        initializeProcessor(null);
+
+        // When
+        processor.restoreFromSnapshot(broadcastKey("a.txt"), (long) "0\n1\n2\n3\n4\n".length());
+        assertTrue(processor.finishSnapshotRestore());
+        driverThread.start();
+
+        // Then
+        // b.txt isn't in the snapshot, it's read from the beginning
+        assertEmittedCountEventually(5 + 10);
+    }
+
+    @Test
+    public void when_saveToSnapshot_then_offsetsOfEmittedLinesSaved() throws Exception {
+        // Given
+        File file = new File(workDir, "a.txt");
+        writeLines(file, 10);
+        Files.write(file.toPath(), "incomplete line".getBytes(UTF_8), StandardOpenOption.APPEND);
+        initializeProcessor(null);
+        processor.finishSnapshotRestore();
+
+        // When
+        while (emittedCount < 10) {
+            processor.complete();
+        }
+        processor.complete();
+        assertTrue(processor.saveToSnapshot());
+
+        // Then
+        assertEquals(1, snapshot.size());
+        Map.Entry<Object, Object> entry = snapshot.entrySet().iterator().next();
+        assertEquals("a.txt", ((BroadcastKey) entry.getKey()).key());
+        assertEquals(file.length() - "incomplete line".length(), entry.getValue());
+    }
+
+    private static void writeLines(File file, int count) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(i).append('\n');
+        }
+        Files.write(file.toPath(), sb.toString().getBytes(UTF_8));
+    }
+
     private void driveProcessor() {
         while (!completedNormally && !interrupted()) {
             completedNormally = processor.complete();
@@ -252,6 +307,10 @@ public class StreamFilesPTest extends JetTestSupport {
             emittedCount++;
             return true;
         });
+        when(outbox.offerToSnapshot(any(), any())).thenAnswer(invocation -> {
+            snapshot.put(invocation.getArguments()[0], invocation.getArguments()[1]);
+            return true;
+        });
         Context ctx = mock(Context.class);
         when(ctx.logger()).thenReturn(new Log4jFactory().getLogger("testing"));
         processor.init(outbox, ctx);
@@ -20,7 +20,7 @@ import com.hazelcast.test.HazelcastParallelClassRunner;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
-import java.io.StringReader;
+import java.nio.ByteBuffer;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.Assert.assertEquals;
@@ -32,24 +32,24 @@ public class StreamFilesP_readCompleteLineTest {
 
     @Test
     public void when_emptyFile_then_null() throws Exception {
-        assertEquals(null, p.readCompleteLine(new StringReader("")));
+        assertEquals(null, p.readCompleteLine(buffer("")));
     }
 
     @Test
     public void when_nonTerminatedSingleLine_then_null() throws Exception {
-        assertEquals(null, p.readCompleteLine(new StringReader("blabla")));
+        assertEquals(null, p.readCompleteLine(buffer("blabla")));
     }
 
     @Test
     public void when_terminatedSingleLine_then_singleLine() throws Exception {
-        StringReader reader = new StringReader("blabla\n");
+        ByteBuffer reader = buffer("blabla\n");
 
         assertEquals("blabla", p.readCompleteLine(reader));
     }
 
     @Test
     public void when_nonTerminatedSecondLine_then_singleLine() throws Exception {
-        StringReader reader = new StringReader("blabla\nbla");
+        ByteBuffer reader = buffer("blabla\nbla");
 
         assertEquals("blabla", p.readCompleteLine(reader));
         assertEquals(null, p.readCompleteLine(reader));
@@ -57,7 +57,7 @@ public class StreamFilesP_readCompleteLineTest {
 
     @Test
     public void when_terminatedSecondLine_then_twoLines() throws Exception {
-        StringReader reader = new StringReader("blabla\nbla\n");
+        ByteBuffer reader = buffer("blabla\nbla\n");
 
         assertEquals("blabla", p.readCompleteLine(reader));
         assertEquals("bla", p.readCompleteLine(reader));
@@ -65,7 +65,7 @@ public class StreamFilesP_readCompleteLineTest {
 
     @Test
     public void when_emptyLine_then_emptyLine() throws Exception {
-        StringReader reader = new StringReader("\nbla\n");
+        ByteBuffer reader = buffer("\nbla\n");
 
         assertEquals("", p.readCompleteLine(reader));
         assertEquals("bla", p.readCompleteLine(reader));
@@ -73,7 +73,7 @@ public class StreamFilesP_readCompleteLineTest {
 
     @Test
     public void when_twoEmptyLines_then_emptyLine() throws Exception {
-        StringReader reader = new StringReader("\n\nbla\n");
+        ByteBuffer reader = buffer("\n\nbla\n");
 
         assertEquals("", p.readCompleteLine(reader));
         assertEquals("", p.readCompleteLine(reader));
@@ -82,7 +82,7 @@ public class StreamFilesP_readCompleteLineTest {
 
     @Test
     public void test_windowsEndLines() throws Exception {
-        StringReader reader = new StringReader("blabla\r\nbla\r\n");
+        ByteBuffer reader = buffer("blabla\r\nbla\r\n");
 
         assertEquals("blabla", p.readCompleteLine(reader));
         assertEquals("bla", p.readCompleteLine(reader));
@@ -90,9 +90,28 @@ public class StreamFilesP_readCompleteLineTest {
 
     @Test
     public void test_mac9EndLines() throws Exception {
-        StringReader reader = new StringReader("blabla\rbla\r");
+        ByteBuffer reader = buffer("blabla\rbla\r");
 
         assertEquals("blabla", p.readCompleteLine(reader));
         assertEquals("bla", p.readCompleteLine(reader));
     }
+
+    @Test
+    public void when_crAtEndOfBuffer_then_lfSkippedInNextBuffer() throws Exception {
+        assertEquals("blabla", p.readCompleteLine(buffer("blabla\r")));
+        assertEquals("bla", p.readCompleteLine(buffer("\nbla\n")));
+    }
+
+    @Test
+    public void when_nonTerminatedLine_then_positionUnchanged() throws Exception {
+        ByteBuffer reader = buffer("blabla\nbla");
+
+        assertEquals("blabla", p.readCompleteLine(reader));
+        assertEquals(null, p.readCompleteLine(reader));
+        assertEquals(7, reader.position());
+    }
+
+    private static ByteBuffer buffer(String s) {
+        return ByteBuffer.wrap(s.getBytes(UTF_8));
+    }
 }
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.connector;
+
+import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.SocketFraming;
+import com.hazelcast.jet.core.JetTestSupport;
+import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.core.ProcessorSupplier;
+import com.hazelcast.jet.core.test.TestOutbox;
+import com.hazelcast.jet.core.test.TestProcessorContext;
+import com.hazelcast.jet.core.test.TestProcessorSupplierContext;
+import com.hazelcast.jet.function.DistributedFunction;
+import com.hazelcast.nio.Address;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.DataOutputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+
+import static com.hazelcast.jet.core.processor.SourceProcessors.streamServerSocketP;
+import static com.hazelcast.jet.core.processor.SourceProcessors.streamSocketsP;
+import static com.hazelcast.jet.core.test.TestSupport.supplierFrom;
+import static com.hazelcast.jet.impl.util.Util.uncheckRun;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class StreamSocketsPTest extends JetTestSupport {
+
+    private static final DistributedFunction<ByteBuffer, String> DECODE = buf -> UTF_8.decode(buf).toString();
+
+    @Test
+    public void when_multipleServers_then_framesFromAllConnections() throws Exception {
+        List<ServerSocket> servers = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        try {
+            for (int i = 0; i < 3; i++) {
+                ServerSocket server = new ServerSocket(0);
+                servers.add(server);
+                String prefix = i + "-";
+                threads.add(startSending(server, out -> {
+                    for (int j = 0; j < 1000; j++) {
+                        out.write((prefix + j + '\n').getBytes(UTF_8));
+                    }
+                }));
+            }
+            List<InetSocketAddress> addresses = servers.stream()
+                    .map(s -> InetSocketAddress.createUnresolved("localhost", s.getLocalPort()))
+                    .collect(toList());
+            Processor processor = supplierFrom(streamSocketsP(addresses, SocketFraming.delimited((byte) '\n'), DECODE))
+                    .get();
+
+            List<Object> items = runToCompletion(processor);
+
+            assertEquals(3000, items.size());
+            for (int i = 0; i < 3; i++) {
+                String prefix = i + "-";
+                List<Object> fromServer = items.stream().filter(s -> ((String) s).startsWith(prefix)).collect(toList());
+                for (int j = 0; j < 1000; j++) {
+                    assertEquals(prefix + j, fromServer.get(j));
+                }
+            }
+        } finally {
+            for (ServerSocket server : servers) {
+                server.close();
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    @Test
+    public void when_lengthPrefixed_then_framesSplitAtAnyPosition() throws Exception {
+        try (ServerSocket server = new ServerSocket(0)) {
+            Thread thread = startSending(server, out -> {
+                DataOutputStream dataOut = new DataOutputStream(out);
+                for (int j = 0; j < 100; j++) {
+                    byte[] bytes = ("item" + j).getBytes(UTF_8);
+                    dataOut.writeInt(bytes.length);
+                    // flush in the middle of the frame
+                    dataOut.write(bytes, 0, 2);
+                    dataOut.flush();
+                    dataOut.write(bytes, 2, bytes.length - 2);
+                }
+                dataOut.writeInt(0);
+                dataOut.flush();
+            });
+            Processor processor = supplierFrom(streamSocketsP(
+                    singletonList(new InetSocketAddress("localhost", server.getLocalPort())),
+                    SocketFraming.lengthPrefixed(), DECODE)).get();
+
+            List<Object> items = runToCompletion(processor);
+
+            assertEquals(101, items.size());
+            assertEquals("item0", items.get(0));
+            assertEquals("item99", items.get(99));
+            assertEquals("", items.get(100));
+            thread.join();
+        }
+    }
+
+    @Test(expected = JetException.class)
+    public void when_frameTooLong_then_fail() throws Exception {
+        try (ServerSocket server = new ServerSocket(0)) {
+            startSending(server, out -> out.write("12345\n".getBytes(UTF_8)));
+            Processor processor = supplierFrom(streamSocketsP(
+                    singletonList(new InetSocketAddress("localhost", server.getLocalPort())),
+                    SocketFraming.delimited((byte) '\n', 4), DECODE)).get();
+
+            runToCompletion(processor);
+        }
+    }
+
+    @Test
+    public void when_serverSocket_then_connectionsSharedByProcessors() throws Exception {
+        int port;
+        try (ServerSocket s = new ServerSocket(0)) {
+            port = s.getLocalPort();
+        }
+        ProcessorSupplier supplier = streamServerSocketP(port, SocketFraming.delimited((byte) '\n'), DECODE)
+                .get(singletonList(new Address())).apply(new Address());
+        supplier.init(new TestProcessorSupplierContext());
+        Collection<? extends Processor> processors = supplier.get(2);
+        List<TestOutbox> outboxes = new ArrayList<>();
+        for (Processor p : processors) {
+            TestOutbox outbox = new TestOutbox(10);
+            p.init(outbox, new TestProcessorContext());
+            outboxes.add(outbox);
+        }
+        try {
+            for (int i = 0; i < 4; i++) {
+                try (Socket socket = new Socket("localhost", port)) {
+                    OutputStream out = socket.getOutputStream();
+                    for (int j = 0; j < 100; j++) {
+                        out.write((j + "\n").getBytes(UTF_8));
+                    }
+                }
+            }
+
+            List<Object> items = new ArrayList<>();
+            assertTrueEventually(() -> {
+                for (Processor p : processors) {
+                    p.complete();
+                }
+                for (TestOutbox outbox : outboxes) {
+                    drain(outbox.queueWithOrdinal(0), items);
+                }
+                assertEquals(400, items.size());
+            });
+        } finally {
+            supplier.complete(null);
+        }
+    }
+
+    private static Thread startSending(ServerSocket server, SendAction action) {
+        Thread thread = new Thread(() -> uncheckRun(() -> {
+            try (Socket socket = server.accept()) {
+                OutputStream out = socket.getOutputStream();
+                action.send(out);
+                out.flush();
+            }
+        }));
+        thread.start();
+        return thread;
+    }
+
+    private List<Object> runToCompletion(Processor processor) throws Exception {
+        TestOutbox outbox = new TestOutbox(10);
+        processor.init(outbox, new TestProcessorContext());
+        List<Object> items = new ArrayList<>();
+        try {
+            boolean done;
+            do {
+                done = processor.complete();
+                drain(outbox.queueWithOrdinal(0), items);
+            } while (!done);
+        } finally {
+            ((StreamSocketsP) processor).close();
+        }
+        return items;
+    }
+
+    private static void drain(Queue<Object> queue, List<Object> target) {
+        for (Object item; (item = queue.poll()) != null; ) {
+            target.add(item);
+        }
+    }
+
+    private interface SendAction {
+        void send(OutputStream out) throws Exception;
+    }
+}
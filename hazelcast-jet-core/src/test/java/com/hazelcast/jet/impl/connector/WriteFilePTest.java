@@ -16,12 +16,17 @@
 
 package com.hazelcast.jet.impl.connector;
 
+import com.hazelcast.jet.FileCompression;
 import com.hazelcast.jet.JetInstance;
 import com.hazelcast.jet.Job;
 import com.hazelcast.jet.core.AbstractProcessor;
 import com.hazelcast.jet.core.DAG;
 import com.hazelcast.jet.core.JetTestSupport;
 import com.hazelcast.jet.core.Vertex;
+import com.hazelcast.jet.core.test.TestInbox;
+import com.hazelcast.jet.core.test.TestOutbox;
+import com.hazelcast.jet.core.test.TestProcessorContext;
+import com.hazelcast.jet.impl.connector.WriteFileP.TransactionalFileWriterP;
 import com.hazelcast.jet.function.DistributedFunction;
 import com.hazelcast.jet.stream.IStreamList;
 import com.hazelcast.nio.IOUtil;
@@ -32,21 +37,31 @@ import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Semaphore;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
 
+import static com.hazelcast.jet.config.ProcessingGuarantee.EXACTLY_ONCE;
 import static com.hazelcast.jet.core.Edge.between;
 import static com.hazelcast.jet.core.processor.SinkProcessors.writeFileP;
 import static com.hazelcast.jet.core.processor.SourceProcessors.readListP;
 import static com.hazelcast.jet.impl.util.Util.uncheckRun;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastParallelClassRunner.class)
@@ -248,6 +263,94 @@ public class WriteFilePTest extends JetTestSupport {
         checkFileContents(StandardCharsets.UTF_8, 10);
     }
 
+    @Test
+    public void when_gzip_then_fileCompressed() throws Exception {
+        // Given
+        DAG dag = buildCompressedDag(FileCompression.GZIP, false);
+        addItemsToList(0, 10);
+
+        // When
+        instance.newJob(dag).join();
+
+        // Then
+        assertEquals(expectedLines(0, 10), readGzipLines(directory.resolve("0.gz")));
+    }
+
+    @Test
+    public void when_blockGzipAppended_then_allBlocksRead() throws Exception {
+        // Given
+        addItemsToList(0, 50_000);
+        instance.newJob(buildCompressedDag(FileCompression.BLOCK_GZIP, true)).join();
+
+        // When
+        instance.newJob(buildCompressedDag(FileCompression.BLOCK_GZIP, true)).join();
+
+        // Then
+        List<String> expected = expectedLines(0, 50_000);
+        expected.addAll(expectedLines(0, 50_000));
+        assertEquals(expected, readGzipLines(directory.resolve("0.gz")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void when_autoCompression_then_fail() {
+        writeFileP(directory.toString(), Object::toString, StandardCharsets.UTF_8, false, FileCompression.AUTO);
+    }
+
+    @Test
+    public void when_transactional_then_fileRenamedAfterSnapshotCommitted() throws Exception {
+        // Given
+        TestOutbox outbox = new TestOutbox(new int[0], 16);
+        TransactionalFileWriterP<Object> writer = newTransactionalWriter(outbox);
+        TestInbox inbox = new TestInbox();
+        inbox.addAll(asList("a", "b"));
+
+        // When
+        writer.process(0, inbox);
+        outbox.setSnapshotId(1);
+        assertTrue(writer.saveToSnapshot());
+
+        // Then
+        assertFalse(Files.exists(directory.resolve("0.0")));
+        assertTrue(Files.exists(directory.resolve("0.0.tmp")));
+
+        // When
+        assertTrue(writer.onSnapshotCommitted(1));
+
+        // Then
+        assertEquals(asList("a", "b"), Files.readAllLines(directory.resolve("0.0")));
+        assertFalse(Files.exists(directory.resolve("0.0.tmp")));
+    }
+
+    @Test
+    public void when_transactionalRestarted_then_uncommittedFileDeleted() throws Exception {
+        // Given
+        TestOutbox outbox = new TestOutbox(new int[0], 16);
+        TransactionalFileWriterP<Object> writer = newTransactionalWriter(outbox);
+        TestInbox inbox = new TestInbox();
+        inbox.add("a");
+        writer.process(0, inbox);
+        outbox.setSnapshotId(1);
+        assertTrue(writer.saveToSnapshot());
+
+        // When
+        // the job restarts without the snapshot, the items are processed again
+        writer = newTransactionalWriter(new TestOutbox(new int[0], 16));
+        inbox.add("a");
+        writer.process(0, inbox);
+        assertTrue(writer.complete());
+
+        // Then
+        assertFalse(Files.exists(directory.resolve("0.0.tmp")));
+        assertEquals(singletonList("a"), Files.readAllLines(directory.resolve("0.1")));
+    }
+
+    private TransactionalFileWriterP<Object> newTransactionalWriter(TestOutbox outbox) {
+        TransactionalFileWriterP<Object> writer =
+                new TransactionalFileWriterP<>(directory.toString(), Object::toString, "UTF-8");
+        writer.init(outbox, new TestProcessorContext().setProcessingGuarantee(EXACTLY_ONCE));
+        return writer;
+    }
+
     private static class SlowSourceP extends AbstractProcessor {
 
         private final Semaphore semaphore;
@@ -287,6 +390,17 @@ public class WriteFilePTest extends JetTestSupport {
         assertEquals(expected.toString(), actual);
     }
 
+    private static List<String> readGzipLines(Path file) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return reader.lines().collect(toList());
+        }
+    }
+
+    private static List<String> expectedLines(int from, int to) {
+        return IntStream.range(from, to).mapToObj(String::valueOf).collect(toList());
+    }
+
     private void addItemsToList(int from, int to) {
         for (int i = from; i < to; i++) {
             list.add(String.valueOf(i));
@@ -309,4 +423,14 @@ public class WriteFilePTest extends JetTestSupport {
         return dag;
     }
 
+    private DAG buildCompressedDag(FileCompression compression, boolean append) {
+        DAG dag = new DAG();
+        Vertex reader = dag.newVertex("reader", readListP(list.getName()))
+                           .localParallelism(1);
+        Vertex writer = dag.newVertex("writer", writeFileP(directory.toString(), Object::toString,
+                StandardCharsets.UTF_8, append, compression))
+                           .localParallelism(1);
+        dag.edge(between(reader, writer));
+        return dag;
+    }
 }
@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.connector;
+
+import com.hazelcast.jet.FileCompression;
+import com.hazelcast.jet.JetInstance;
+import com.hazelcast.jet.core.DAG;
+import com.hazelcast.jet.core.JetTestSupport;
+import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.core.Vertex;
+import com.hazelcast.jet.core.Watermark;
+import com.hazelcast.jet.core.test.TestInbox;
+import com.hazelcast.jet.core.test.TestOutbox;
+import com.hazelcast.jet.core.test.TestProcessorContext;
+import com.hazelcast.jet.stream.IStreamList;
+import com.hazelcast.nio.IOUtil;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPInputStream;
+
+import static com.hazelcast.jet.core.Edge.between;
+import static com.hazelcast.jet.core.processor.SinkProcessors.writeRollingFileP;
+import static com.hazelcast.jet.core.processor.SourceProcessors.readListP;
+import static com.hazelcast.jet.core.test.TestSupport.supplierFrom;
+import static java.util.Arrays.asList;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class WriteRollingFilePTest extends JetTestSupport {
+
+    private JetInstance instance;
+    private Path directory;
+    private IStreamList<Long> list;
+
+    @Before
+    public void setup() throws IOException {
+        instance = createJetMember();
+        directory = Files.createTempDirectory("write-rolling-file-p");
+        list = instance.getList("sourceList");
+    }
+
+    @After
+    public void tearDown() {
+        IOUtil.delete(directory.toFile());
+    }
+
+    @Test
+    public void when_maxFileSizeExceeded_then_fileRolled() throws Exception {
+        // Given
+        addItemsToList(10_000);
+
+        // When
+        runJob(writeRollingFileP(directory.toString(), Object::toString, UTF_8, 1000, null, 0,
+                FileCompression.NONE));
+
+        // Then
+        List<Path> files = listFiles();
+        assertTrue("too few files: " + files.size(), files.size() > 10);
+        List<String> lines = new ArrayList<>();
+        for (Path file : files) {
+            assertTrue(file + " is too large", Files.size(file) <= 1000);
+            lines.addAll(Files.readAllLines(file));
+        }
+        assertEquals(expectedLines(10_000), lines);
+    }
+
+    @Test
+    public void when_timeBuckets_then_fileForEachBucket() throws Exception {
+        // Given
+        addItemsToList(1000);
+
+        // When
+        runJob(writeRollingFileP(directory.toString(), Object::toString, UTF_8, Long.MAX_VALUE,
+                (Long item) -> item * 10, 1000, FileCompression.NONE));
+
+        // Then
+        List<Path> files = listFiles();
+        assertEquals(10, files.size());
+        assertEquals("1970-01-01T00-00-00Z_0_0", files.get(0).getFileName().toString());
+        assertEquals("1970-01-01T00-00-09Z_0_9", files.get(9).getFileName().toString());
+        assertEquals(expectedLines(100), Files.readAllLines(files.get(0)));
+    }
+
+    @Test
+    public void when_gzip_then_filesCompressed() throws Exception {
+        // Given
+        addItemsToList(10_000);
+
+        // When
+        runJob(writeRollingFileP(directory.toString(), Object::toString, UTF_8, 10_000, null, 0,
+                FileCompression.GZIP));
+
+        // Then
+        List<String> lines = new ArrayList<>();
+        for (Path file : listFiles()) {
+            assertTrue(file.toString(), file.toString().endsWith(".gz"));
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(file)), UTF_8))) {
+                reader.lines().forEach(lines::add);
+            }
+        }
+        assertEquals(expectedLines(10_000), lines);
+    }
+
+    @Test
+    public void when_jobRestarted_then_filesNotOverwritten() throws Exception {
+        // Given
+        addItemsToList(100);
+        ProcessorMetaSupplier sink = writeRollingFileP(directory.toString(), Object::toString, UTF_8, 1000, null, 0,
+                FileCompression.NONE);
+        runJob(sink);
+        int filesAfterFirstRun = listFiles().size();
+
+        // When
+        runJob(sink);
+
+        // Then
+        assertEquals(2 * filesAfterFirstRun, listFiles().size());
+    }
+
+    @Test
+    public void when_bucketsInterleaved_then_fileForEachBucket() throws Exception {
+        // Given
+        addItemsToList(300);
+
+        // When
+        runJob(writeRollingFileP(directory.toString(), Object::toString, UTF_8, Long.MAX_VALUE,
+                (Long item) -> item % 3 * 1000, 1000, FileCompression.NONE));
+
+        // Then
+        List<Path> files = listFiles();
+        assertEquals(3, files.size());
+        for (int i = 0; i < files.size(); i++) {
+            int bucket = i;
+            assertEquals(
+                    LongStream.range(0, 300).filter(n -> n % 3 == bucket).mapToObj(String::valueOf).collect(toList()),
+                    Files.readAllLines(files.get(i)));
+        }
+    }
+
+    @Test
+    public void when_watermarkPassesBucket_then_onlyItsFileCompleted() throws Exception {
+        // Given
+        Processor p = initProcessor();
+        process(p, 0L, 1500L, 500L);
+
+        // When
+        Watermark wm = new Watermark(1000);
+        while (!p.tryProcessWatermark(wm)) {
+            Thread.yield();
+        }
+
+        // Then
+        Path firstBucketFile = directory.resolve("1970-01-01T00-00-00Z_0_0");
+        Path secondBucketFile = directory.resolve("1970-01-01T00-00-01Z_0_1");
+        assertTrueEventually(() -> assertTrue(Files.exists(firstBucketFile)));
+        assertEquals(asList("0", "500"), Files.readAllLines(firstBucketFile));
+        assertFalse(Files.exists(secondBucketFile));
+
+        while (!p.complete()) {
+            Thread.yield();
+        }
+        assertEquals(asList("1500"), Files.readAllLines(secondBucketFile));
+    }
+
+    @Test
+    public void when_cancelled_then_inProgressFilesLeftAndDeletedOnRestart() throws Exception {
+        // Given
+        WriteRollingFileP<?> p = initProcessor();
+        process(p, 0L, 1500L);
+
+        // When
+        p.close();
+
+        // Then
+        assertTrueEventually(() -> {
+            List<Path> files = listAllFiles();
+            assertEquals(2, files.size());
+            for (Path file : files) {
+                assertTrue(file.toString(), file.toString().endsWith(WriteRollingFileP.IN_PROGRESS_SUFFIX));
+            }
+        });
+
+        // When
+        Processor restarted = initProcessor();
+
+        // Then
+        assertEquals(0, listAllFiles().size());
+        process(restarted, 0L);
+        while (!restarted.complete()) {
+            Thread.yield();
+        }
+        assertEquals(1, listFiles().size());
+    }
+
+    private WriteRollingFileP<?> initProcessor() {
+        WriteRollingFileP<?> p = (WriteRollingFileP<?>) supplierFrom(writeRollingFileP(directory.toString(),
+                Object::toString, UTF_8, Long.MAX_VALUE, (Long item) -> item, 1000, FileCompression.NONE)).get();
+        p.init(new TestOutbox(1), new TestProcessorContext());
+        return p;
+    }
+
+    private static void process(Processor p, Long... items) {
+        TestInbox inbox = new TestInbox();
+        inbox.addAll(asList(items));
+        while (!inbox.isEmpty()) {
+            p.process(0, inbox);
+        }
+    }
+
+    private void runJob(ProcessorMetaSupplier sinkSupplier) {
+        DAG dag = new DAG();
+        Vertex source = dag.newVertex("source", readListP(list.getName())).localParallelism(1);
+        Vertex sink = dag.newVertex("sink", sinkSupplier).localParallelism(1);
+        dag.edge(between(source, sink));
+        instance.newJob(dag).join();
+    }
+
+    /**
+     * Returns the files ordered by their sequence number.
+     */
+    private List<Path> listFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                assertFalse(file.toString(), file.toString().endsWith(WriteRollingFileP.IN_PROGRESS_SUFFIX));
+                files.add(file);
+            }
+        }
+        files.sort(comparing(WriteRollingFilePTest::sequence));
+        return files;
+    }
+
+    private List<Path> listAllFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            stream.forEach(files::add);
+        }
+        return files;
+    }
+
+    private static long sequence(Path file) {
+        String name = file.getFileName().toString().replace(".gz", "");
+        return Long.parseLong(name.substring(name.lastIndexOf('_') + 1));
+    }
+
+    private void addItemsToList(int count) {
+        LongStream.range(0, count).forEach(list::add);
+    }
+
+    private static List<String> expectedLines(int count) {
+        return LongStream.range(0, count).mapToObj(String::valueOf).collect(toList());
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.connector;
+
+import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.SocketFraming;
+import com.hazelcast.jet.core.JetTestSupport;
+import com.hazelcast.jet.core.Outbox;
+import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.core.test.TestInbox;
+import com.hazelcast.jet.core.test.TestProcessorContext;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.jet.core.processor.SinkProcessors.writeSocketChannelP;
+import static com.hazelcast.jet.core.test.TestSupport.supplierFrom;
+import static com.hazelcast.jet.impl.util.Util.uncheckRun;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+@RunWith(HazelcastParallelClassRunner.class)
+public class WriteSocketChannelPTest extends JetTestSupport {
+
+    private static final int ITEM_COUNT = 1_000_000;
+
+    @Test
+    public void when_slowReader_then_backpressureAndAllFramesWritten() throws Exception {
+        List<String> received = new ArrayList<>();
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            Thread thread = new Thread(() -> uncheckRun(() -> {
+                try (Socket socket = serverSocket.accept();
+                     DataInputStream in = new DataInputStream(socket.getInputStream())
+                ) {
+                    // let the socket buffers fill up
+                    Thread.sleep(500);
+                    while (true) {
+                        byte[] bytes = new byte[in.readInt()];
+                        in.readFully(bytes);
+                        received.add(new String(bytes, UTF_8));
+                    }
+                } catch (EOFException ignored) {
+                }
+            }));
+            thread.start();
+
+            Processor p = supplierFrom(writeSocketChannelP("localhost", serverSocket.getLocalPort(),
+                    SocketFraming.lengthPrefixed(), (Integer i) -> ("item" + i).getBytes(UTF_8))).get();
+            p.init(mock(Outbox.class), new TestProcessorContext());
+            TestInbox inbox = new TestInbox();
+            range(0, ITEM_COUNT).forEach(inbox::add);
+
+            // When
+            int rejectedCalls = 0;
+            while (!inbox.isEmpty()) {
+                int sizeBefore = inbox.size();
+                p.process(0, inbox);
+                if (inbox.size() == sizeBefore) {
+                    rejectedCalls++;
+                }
+            }
+            while (!p.complete()) {
+                Thread.sleep(1);
+            }
+            ((WriteSocketChannelP) p).close();
+            thread.join();
+
+            // Then
+            assertTrue("no backpressure", rejectedCalls > 0);
+            assertEquals(range(0, ITEM_COUNT).mapToObj(i -> "item" + i).collect(toList()), received);
+        }
+    }
+
+    @Test
+    public void when_delimited_then_linesWritten() throws Exception {
+        List<String> received = new ArrayList<>();
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            Thread thread = new Thread(() -> uncheckRun(() -> {
+                try (Socket socket = serverSocket.accept();
+                     BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), UTF_8))
+                ) {
+                    for (String line; (line = reader.readLine()) != null; ) {
+                        received.add(line);
+                    }
+                }
+            }));
+            thread.start();
+
+            Processor p = supplierFrom(writeSocketChannelP("localhost", serverSocket.getLocalPort(),
+                    SocketFraming.delimited((byte) '\n'), (Integer i) -> String.valueOf(i).getBytes(UTF_8))).get();
+            p.init(mock(Outbox.class), new TestProcessorContext());
+            TestInbox inbox = new TestInbox();
+            range(0, 1000).forEach(inbox::add);
+
+            // When
+            p.process(0, inbox);
+            assertTrueEventually(() -> assertEquals(true, p.complete()));
+            ((WriteSocketChannelP) p).close();
+            thread.join();
+
+            // Then
+            assertEquals(range(0, 1000).mapToObj(String::valueOf).collect(toList()), received);
+        }
+    }
+
+    @Test(expected = JetException.class)
+    public void when_itemLongerThanMaxFrame_then_fail() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            Processor p = supplierFrom(writeSocketChannelP("localhost", serverSocket.getLocalPort(),
+                    SocketFraming.lengthPrefixed(4), (String s) -> s.getBytes(UTF_8))).get();
+            p.init(mock(Outbox.class), new TestProcessorContext());
+            TestInbox inbox = new TestInbox();
+            inbox.add("12345");
+
+            p.process(0, inbox);
+        }
+    }
+}
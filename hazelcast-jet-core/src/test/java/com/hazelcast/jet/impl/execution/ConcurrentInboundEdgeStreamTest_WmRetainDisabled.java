@@ -251,6 +251,55 @@ public class ConcurrentInboundEdgeStreamTest_WmRetainDisabled {
         drainAndAssert(MADE_PROGRESS, wm(1));
     }
 
+    @Test
+    public void when_unalignedBarrier_then_forwardedImmediatelyAndInFlightItemsWrapped() {
+        stream = new ConcurrentInboundEdgeStream(conveyor, 0, 0, -1, true, true, maxWatermarkRetainMillis, null);
+
+        add(q1, 1, barrier(0), 2);
+        add(q2, 3);
+        drainAndAssert(MADE_PROGRESS, 1, barrier(0));
+
+        // q1 isn't blocked and the items from q2 are in-flight until its barrier
+        drainAndAssert(MADE_PROGRESS, 2, new InFlightItem(3));
+
+        add(q2, 4, barrier(0), 5);
+        add(q1, new SnapshotEnd(0), 6);
+        drainAndAssert(MADE_PROGRESS, new InFlightItem(4));
+        drainAndAssert(MADE_PROGRESS, 6, 5);
+
+        add(q2, new SnapshotEnd(0));
+        drainAndAssert(MADE_PROGRESS, new SnapshotEnd(0));
+    }
+
+    @Test
+    public void when_unalignedNextBarrierBeforeEnd_then_queueBlocked() {
+        stream = new ConcurrentInboundEdgeStream(conveyor, 0, 0, -1, true, true, maxWatermarkRetainMillis, null);
+
+        add(q1, barrier(0), new SnapshotEnd(0), barrier(1), 1);
+        drainAndAssert(MADE_PROGRESS, barrier(0));
+        drainAndAssert(MADE_PROGRESS);
+
+        // q1 is blocked until the snapshot 0 ends on q2
+        add(q2, 2);
+        drainAndAssert(MADE_PROGRESS, new InFlightItem(2));
+
+        add(q2, barrier(0), new SnapshotEnd(0));
+        drainAndAssert(MADE_PROGRESS);
+        drainAndAssert(MADE_PROGRESS, new SnapshotEnd(0));
+        drainAndAssert(MADE_PROGRESS, barrier(1));
+        drainAndAssert(MADE_PROGRESS, 1);
+    }
+
+    @Test
+    public void when_alignedAndSnapshotEnd_then_dropped() {
+        stream = new ConcurrentInboundEdgeStream(conveyor, 0, 0, -1, true, maxWatermarkRetainMillis);
+
+        add(q1, barrier(0), new SnapshotEnd(0));
+        add(q2, barrier(0), new SnapshotEnd(0), 1);
+        drainAndAssert(MADE_PROGRESS, barrier(0));
+        drainAndAssert(MADE_PROGRESS, 1);
+    }
+
     private void drainAndAssert(ProgressState expectedState, Object... expectedItems) {
         List<Object> list = new ArrayList<>();
         assertEquals("progressState", expectedState, stream.drainTo(list::add));
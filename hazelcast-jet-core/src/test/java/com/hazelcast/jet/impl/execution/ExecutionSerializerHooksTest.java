@@ -50,7 +50,9 @@ public class ExecutionSerializerHooksTest {
         return Arrays.asList(
                 new SnapshotBarrier(17L),
                 new BroadcastEntry<>("key", "value"),
-                new BroadcastKeyReference<>(17L, "broadcast-key")
+                new BroadcastKeyReference<>(17L, "broadcast-key"),
+                new SnapshotEnd(17L),
+                new InFlightItem("item")
         );
     }
 
@@ -67,7 +67,7 @@ public class MockInboundStream implements InboundEdgeStream {
             if (item == DONE_ITEM) {
                 done = true;
                 break;
-            } else if (item instanceof SnapshotBarrier || item instanceof Watermark) {
+            } else if (item instanceof SnapshotBarrier || item instanceof SnapshotEnd || item instanceof Watermark) {
                 dest.accept(item);
                 dataIndex++;
                 break;
@@ -72,7 +72,7 @@ public class ProcessorTaskletTest_Snapshots {
     public void setUp() {
         this.mockInput = IntStream.range(0, MOCK_INPUT_SIZE).boxed().collect(toList());
         this.processor = new SnapshottableProcessor();
-        this.context = new ProcCtx(null, new MockSerializationService(), null, null, 0,
+        this.context = new ProcCtx(null, new MockSerializationService(), null, "vertex", 0,
                 EXACTLY_ONCE);
         this.instreams = new ArrayList<>();
         this.outstreams = new ArrayList<>();
@@ -156,7 +156,7 @@ public class ProcessorTaskletTest_Snapshots {
         assertEquals(emptyList(), getSnapshotBufferValues());
 
         // When
-        snapshotContext.startNewSnapshot(0);
+        snapshotContext.startNewSnapshot(0, false);
         outstream1.flush();
 
         callUntil(tasklet, NO_PROGRESS);
@@ -189,14 +189,81 @@ public class ProcessorTaskletTest_Snapshots {
         assertEquals(asList(ssEntry1.getValue(), ssEntry2.getValue(), barrier(0), DONE_ITEM), getSnapshotBufferValues());
     }
 
+    @Test
+    public void when_unalignedAndMultipleInbound_then_inFlightItemsSaved() {
+        // Given
+        List<Object> input1 = new ArrayList<>();
+        input1.addAll(mockInput.subList(0, 4));
+        input1.add(barrier(0));
+        input1.add(new SnapshotEnd(0));
+        input1.addAll(mockInput.subList(4, 6));
+
+        MockInboundStream instream1 = new MockInboundStream(0, input1, 1024);
+        MockInboundStream instream2 = new MockInboundStream(0, new ArrayList<>(), 1024);
+        MockOutboundStream outstream1 = new MockOutboundStream(0);
+
+        instreams.add(instream1);
+        instreams.add(instream2);
+        outstreams.add(outstream1);
+
+        Tasklet tasklet = createTasklet(ProcessingGuarantee.EXACTLY_ONCE, true);
+
+        // When
+        callUntil(tasklet, NO_PROGRESS);
+
+        // Then
+        // the barrier is emitted without waiting for instream2 and instream1 isn't blocked
+        assertEquals(asList(0, 1, 2, 3, barrier(0), 4, 5), outstream1.getBuffer());
+        assertEquals(asList(0, 1, 2, 3, barrier(0)), getSnapshotBufferValues());
+
+        // When
+        instream2.push(8, barrier(0), new SnapshotEnd(0));
+        callUntil(tasklet, NO_PROGRESS);
+
+        // Then
+        // the item received on instream2 before its barrier is saved as in-flight
+        assertEquals(asList(0, 1, 2, 3, barrier(0), 4, 5, 8, new SnapshotEnd(0)), outstream1.getBuffer());
+        assertEquals(asList(0, 1, 2, 3, barrier(0), 8, new SnapshotEnd(0)), getSnapshotBufferValues());
+        assertEquals(new InFlightKey(0, 1, 0, 0, 0), ((MockData) ((Entry) snapshotCollector.getBuffer().get(5))
+                .getKey()).getObject());
+    }
+
+    @Test
+    public void when_unalignedSnapshotRestored_then_inFlightItemsProcessedFirst() {
+        Entry<String, String> ssEntry1 = entry("k1", "v1");
+        Entry<InFlightKey, Integer> inFlightEntry1 = entry(new InFlightKey(-1, 0, 0, 1, 0), 11);
+        Entry<InFlightKey, Integer> inFlightEntry2 = entry(new InFlightKey(-1, 0, 0, 0, 0), 10);
+        Entry<InFlightKey, Integer> staleEntry = entry(new InFlightKey(-2, 0, 0, 0, 0), 9);
+        List<Object> restoredSnapshot = asList(ssEntry1, inFlightEntry1, staleEntry, inFlightEntry2, DONE_ITEM);
+        MockInboundStream instream1 = new MockInboundStream(Integer.MIN_VALUE, restoredSnapshot, 1024);
+        MockInboundStream instream2 = new MockInboundStream(0, asList(12, DONE_ITEM), 1024);
+        MockOutboundStream outstream1 = new MockOutboundStream(0);
+
+        instreams.add(instream1);
+        instreams.add(instream2);
+        outstreams.add(outstream1);
+
+        Tasklet tasklet = createTasklet(ProcessingGuarantee.EXACTLY_ONCE, true);
+
+        // When
+        callUntil(tasklet, DONE);
+
+        // Then
+        assertEquals(asList("finishRestore", 10, 11, 12, DONE_ITEM), outstream1.getBuffer());
+    }
+
     private ProcessorTasklet createTasklet(ProcessingGuarantee guarantee) {
+        return createTasklet(guarantee, false);
+    }
+
+    private ProcessorTasklet createTasklet(ProcessingGuarantee guarantee, boolean unalignedSnapshots) {
         for (int i = 0; i < instreams.size(); i++) {
             instreams.get(i).setOrdinal(i);
         }
         snapshotContext = new SnapshotContext(mock(ILogger.class), 0, 0, -1, guarantee);
         snapshotContext.initTaskletCount(1, 0);
         final ProcessorTasklet t = new ProcessorTasklet(context, processor, instreams, outstreams,
-                snapshotContext, snapshotCollector, -1);
+                snapshotContext, snapshotCollector, -1, unalignedSnapshots, unalignedSnapshots);
         t.init();
         return t;
     }
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.execution;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.jet.JetException;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.zip.Deflater;
+
+import static com.hazelcast.jet.Util.entry;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category(ParallelTest.class)
+public class SnapshotChunkTest {
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    private final InternalSerializationService serializationService =
+            new DefaultSerializationServiceBuilder().build();
+
+    @Test
+    public void when_compressAndDecompress_then_sameEntries() {
+        List<Entry<Data, Data>> entries = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            entries.add(entry(serializationService.toData("key" + i), serializationService.toData((long) i)));
+        }
+        byte[] buffer = new byte[entries.stream().mapToInt(SnapshotChunk::entrySize).sum()];
+        int position = 0;
+        for (Entry<Data, Data> e : entries) {
+            position = SnapshotChunk.writeEntry(buffer, position, e);
+        }
+        assertEquals(buffer.length, position);
+
+        SnapshotChunk chunk = SnapshotChunk.compress(buffer, position, new Deflater());
+        SnapshotChunk deserialized = serializationService.toObject(serializationService.toData(chunk));
+
+        assertEquals(entries, deserialized.entries());
+        assertTrue("chunk not compressed: " + chunk, serializationService.toData(chunk).totalSize() < buffer.length);
+    }
+
+    @Test
+    public void when_emptyChunk_then_noEntries() {
+        SnapshotChunk chunk = SnapshotChunk.compress(new byte[0], 0, new Deflater());
+
+        assertEquals(0, chunk.entries().size());
+    }
+
+    @Test
+    public void when_truncatedChunk_then_jetException() {
+        byte[] buffer = new byte[1000];
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = (byte) (i * i);
+        }
+        Deflater deflater = new Deflater();
+        deflater.setInput(buffer);
+        deflater.finish();
+        byte[] compressed = new byte[2 * buffer.length];
+        int length = deflater.deflate(compressed);
+        SnapshotChunk chunk = new SnapshotChunk(buffer.length, Arrays.copyOf(compressed, length / 2));
+
+        exception.expect(JetException.class);
+        exception.expectMessage("Truncated");
+        chunk.entries();
+    }
+}
@@ -75,9 +75,9 @@ public class SnapshotContextTest {
                 new SnapshotContext(mock(ILogger.class), 1, 1, 9, ProcessingGuarantee.EXACTLY_ONCE);
 
         ssContext.initTaskletCount(taskletCount, numHigherPriority);
-        CompletableFuture<Void> future = null;
+        CompletableFuture<SnapshotStats> future = null;
         if (snapshotStarted == SnapshotStarted.BEFORE) {
-            future = ssContext.startNewSnapshot(10);
+            future = ssContext.startNewSnapshot(10, false);
             assertEquals("lastSnapshotId initially", numHigherPriority > 0 ? 9 : 10, ssContext.lastSnapshotId());
         }
 
@@ -91,7 +91,7 @@ public class SnapshotContextTest {
         }
 
         if (snapshotStarted == SnapshotStarted.AFTER) {
-            future = ssContext.startNewSnapshot(10);
+            future = ssContext.startNewSnapshot(10, false);
         }
 
         assertNotNull("future == null", future);
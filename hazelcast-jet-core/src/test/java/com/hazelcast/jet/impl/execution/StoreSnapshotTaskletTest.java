@@ -19,6 +19,7 @@ package com.hazelcast.jet.impl.execution;
 import com.hazelcast.instance.HazelcastInstanceImpl;
 import com.hazelcast.jet.JetInstance;
 import com.hazelcast.jet.config.ProcessingGuarantee;
+import com.hazelcast.jet.config.SnapshotStorage;
 import com.hazelcast.jet.core.JetTestSupport;
 import com.hazelcast.jet.stream.IStreamMap;
 import com.hazelcast.nio.serialization.Data;
@@ -33,11 +34,16 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
 
+import static com.hazelcast.jet.Traversers.traverseIterable;
 import static com.hazelcast.jet.Util.entry;
 import static com.hazelcast.jet.impl.execution.DoneItem.DONE_ITEM;
 import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastParallelClassRunner.class)
@@ -73,7 +79,7 @@ public class StoreSnapshotTaskletTest extends JetTestSupport {
             }
         }
         input = new MockInboundStream(0, inputData, 1);
-        sst = new StoreSnapshotTasklet(ssContext, 1, input, nodeEngine, "myVertex", false);
+        sst = new StoreSnapshotTasklet(ssContext, 1, input, nodeEngine, SnapshotStorage.IMAP, "myVertex", false, false);
     }
 
     @Test
@@ -95,7 +101,7 @@ public class StoreSnapshotTaskletTest extends JetTestSupport {
     @Test
     public void when_barrier_then_snapshotDone() {
         init(Collections.singletonList(new SnapshotBarrier(2)));
-        ssContext.startNewSnapshot(2);
+        ssContext.startNewSnapshot(2, false);
         assertEquals(2, sst.pendingSnapshotId);
         assertTrueEventually(() -> {
             sst.call();
@@ -106,7 +112,7 @@ public class StoreSnapshotTaskletTest extends JetTestSupport {
     @Test
     public void when_itemAndBarrier_then_snapshotDone() {
         init(asList(entry("k", "v"), new SnapshotBarrier(2)));
-        ssContext.startNewSnapshot(2);
+        ssContext.startNewSnapshot(2, false);
         assertEquals(2, sst.pendingSnapshotId);
         IStreamMap<Object, Object> map = instance.getMap(sst.currMapName());
         assertTrueEventually(() -> {
@@ -116,6 +122,38 @@ public class StoreSnapshotTaskletTest extends JetTestSupport {
         }, 3);
     }
 
+    @Test
+    public void when_itemsAndBarrier_then_statsRecorded() throws Exception {
+        init(asList(entry("k1", "v1"), entry("k2", "v2"), new SnapshotBarrier(2)));
+        CompletableFuture<SnapshotStats> future = ssContext.startNewSnapshot(2, false);
+        assertTrueEventually(() -> {
+            sst.call();
+            assertTrue("snapshot not done", future.isDone());
+        }, 3);
+        VertexSnapshotStats stats = future.get().vertices().get("myVertex");
+        assertNotNull(stats);
+        assertEquals(2, stats.entries());
+        assertTrue("bytes=" + stats.bytes(), stats.bytes() > 0);
+        assertTrue("numFlushes=" + stats.numFlushes(), stats.numFlushes() > 0);
+    }
+
+    @Test
+    public void when_snapshotViewAndBarrier_then_viewEntriesStoredBeforeSnapshotDone() {
+        // more entries than serialized in one call
+        List<Entry<String, Integer>> viewEntries = IntStream.range(0, 3000)
+                                                            .mapToObj(i -> entry("k" + i, i))
+                                                            .collect(toList());
+        init(asList(new SnapshotView(traverseIterable(viewEntries)), new SnapshotBarrier(2)));
+        ssContext.startNewSnapshot(2, false);
+        IStreamMap<Object, Object> map = instance.getMap(sst.currMapName());
+        assertTrueEventually(() -> {
+            sst.call();
+            assertEquals(3, sst.pendingSnapshotId);
+        }, 3);
+        assertEquals(viewEntries.size(), map.size());
+        assertEquals(2999, map.get("k2999"));
+    }
+
     private Data serialize(Object o) {
         return nodeEngine.getSerializationService().toData(o);
     }
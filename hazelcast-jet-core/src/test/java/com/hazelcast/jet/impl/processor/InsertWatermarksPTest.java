@@ -63,6 +63,9 @@ public class InsertWatermarksPTest {
     private InsertWatermarksP<Item> p;
     private TestOutbox outbox;
     private List<Object> resultToCheck = new ArrayList<>();
+    private List<Object> lateEvents = new ArrayList<>();
+    private long allowedLateness;
+    private int lateEventsOrdinal = InsertWatermarksP.DROP_LATE_EVENTS;
     private Context context;
     private WatermarkPolicy wmPolicy = withFixedLag(LAG).get();
     private WatermarkEmissionPolicy wmEmissionPolicy = (WatermarkEmissionPolicy) (currentWm, lastEmittedWm) ->
@@ -75,7 +78,6 @@ public class InsertWatermarksPTest {
 
     @Before
     public void setUp() {
-        outbox = new TestOutbox(outboxCapacity);
         context = new TestProcessorContext();
     }
 
@@ -139,6 +141,41 @@ public class InsertWatermarksPTest {
         );
     }
 
+    @Test
+    public void when_lateEventWithinAllowedLateness_then_passed() {
+        allowedLateness = 2;
+        doTest(
+                asList(
+                        item(11),
+                        item(7),
+                        item(5)),
+                asList(
+                        wm(8),
+                        item(11),
+                        item(7))
+        );
+    }
+
+    @Test
+    public void when_lateEventsOrdinal_then_lateEventEmittedToIt() {
+        allowedLateness = 1;
+        lateEventsOrdinal = 1;
+        doTest(
+                asList(
+                        item(11),
+                        item(7),
+                        item(6),
+                        item(12)),
+                asList(
+                        wm(8),
+                        item(11),
+                        item(7),
+                        wm(9),
+                        item(12))
+        );
+        assertEquals(singletonList(item(6)), lateEvents);
+    }
+
     @Test
     public void when_gapBetweenEvents_then_oneWm() {
         doTest(
@@ -267,7 +304,11 @@ public class InsertWatermarksPTest {
     }
 
     private void doTest(List<Object> input, List<Object> expectedOutput) {
-        p = new InsertWatermarksP<>(Item::getTimestamp, wmPolicy, wmEmissionPolicy);
+        p = new InsertWatermarksP<>(Item::getTimestamp, wmPolicy, wmEmissionPolicy,
+                allowedLateness, lateEventsOrdinal);
+        outbox = lateEventsOrdinal == InsertWatermarksP.DROP_LATE_EVENTS
+                ? new TestOutbox(outboxCapacity)
+                : new TestOutbox(outboxCapacity, outboxCapacity);
         p.init(outbox, context);
 
         for (Object inputItem : input) {
@@ -295,6 +336,10 @@ public class InsertWatermarksPTest {
     private void drainOutbox() {
         resultToCheck.addAll(outbox.queueWithOrdinal(0));
         outbox.queueWithOrdinal(0).clear();
+        if (lateEventsOrdinal != InsertWatermarksP.DROP_LATE_EVENTS) {
+            lateEvents.addAll(outbox.queueWithOrdinal(lateEventsOrdinal));
+            outbox.queueWithOrdinal(lateEventsOrdinal).clear();
+        }
     }
 
     private String myToString(Object o) {
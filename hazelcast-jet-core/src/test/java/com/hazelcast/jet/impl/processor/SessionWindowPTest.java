@@ -17,11 +17,14 @@
 package com.hazelcast.jet.impl.processor;
 
 import com.hazelcast.jet.aggregate.AggregateOperations;
+import com.hazelcast.jet.config.ProcessingGuarantee;
 import com.hazelcast.jet.core.Processor;
 import com.hazelcast.jet.core.Watermark;
 import com.hazelcast.jet.core.test.TestOutbox;
+import com.hazelcast.jet.core.test.TestOutbox.MockData;
 import com.hazelcast.jet.core.test.TestProcessorContext;
 import com.hazelcast.jet.datamodel.Session;
+import com.hazelcast.jet.impl.execution.SnapshotTombstone;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import com.hazelcast.test.annotation.Repeat;
 import org.junit.After;
@@ -30,8 +33,10 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
@@ -45,6 +50,7 @@ import static java.util.Arrays.asList;
 import static java.util.Collections.shuffle;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastParallelClassRunner.class)
@@ -122,6 +128,38 @@ public class SessionWindowPTest {
                         new Session("a", 30, 50, 3)));
     }
 
+    @Test
+    public void when_incrementalSnapshot_then_onlyChangedKeysSaved() {
+        TestOutbox outbox = new TestOutbox(new int[] {128}, 128);
+        supplier.get();
+        lastSuppliedProcessor.init(outbox, new TestProcessorContext()
+                .setProcessingGuarantee(ProcessingGuarantee.EXACTLY_ONCE)
+                .setIncrementalSnapshotsEnabled(true));
+        assertTrue(lastSuppliedProcessor.tryProcess(0, entry("a", 1L)));
+        assertTrue(lastSuppliedProcessor.tryProcess(0, entry("b", 30L)));
+        assertTrue(lastSuppliedProcessor.saveToSnapshot());
+        assertEquals(2, outbox.snapshotQueue().size());
+        outbox.snapshotQueue().clear();
+
+        // When
+        assertTrue(lastSuppliedProcessor.tryProcess(0, entry("c", 31L)));
+        assertTrue(lastSuppliedProcessor.tryProcessWatermark(new Watermark(20))); // closes the session of "a"
+        outbox.setSnapshotIncremental(true);
+        assertTrue(lastSuppliedProcessor.saveToSnapshot());
+
+        // Then
+        Map<Object, Object> delta = new HashMap<>();
+        for (Entry<MockData, MockData> e : outbox.snapshotQueue()) {
+            delta.put(e.getKey().getObject(), e.getValue().getObject());
+        }
+        assertEquals(2, delta.size());
+        assertEquals(SnapshotTombstone.TOMBSTONE, delta.get("a"));
+        assertTrue(delta.get("c") instanceof SessionWindowP.Windows);
+
+        // drain the state for the memory leak check
+        assertTrue(lastSuppliedProcessor.tryProcessWatermark(new Watermark(100)));
+    }
+
     private void assertCorrectness(List<Object> events) {
         List<Object> expectedOutput = events.stream()
                                                .map(e -> ((Entry<String, Long>) e).getKey())
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.core.Watermark;
+import com.hazelcast.jet.core.WindowDefinition;
+import com.hazelcast.jet.core.test.TestOutbox;
+import com.hazelcast.jet.core.test.TestProcessorContext;
+import com.hazelcast.jet.datamodel.TimestampedEntry;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Queue;
+
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.aggregate.AggregateOperations.counting;
+import static com.hazelcast.jet.core.TimestampKind.EVENT;
+import static com.hazelcast.jet.core.WindowDefinition.slidingWindowDef;
+import static com.hazelcast.jet.core.WindowDefinition.tumblingWindowDef;
+import static com.hazelcast.jet.core.processor.Processors.accumulateByFrameP;
+import static com.hazelcast.jet.core.processor.Processors.aggregateToSlidingWindowP;
+import static com.hazelcast.jet.function.DistributedFunctions.entryKey;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category(ParallelTest.class)
+public class SlidingWindowP_allowedLatenessTest {
+
+    private SlidingWindowP<Entry<String, Long>, ?, Long> p;
+    private TestOutbox outbox;
+
+    private void init(Processor processor) {
+        p = (SlidingWindowP<Entry<String, Long>, ?, Long>) processor;
+        outbox = new TestOutbox(128);
+        p.init(outbox, new TestProcessorContext());
+    }
+
+    @Test
+    public void when_lateEventWithinAllowedLateness_then_correctedResultEmitted() {
+        WindowDefinition wDef = tumblingWindowDef(10).withAllowedLateness(10);
+        init(aggregateToSlidingWindowP(entryKey(), Entry<String, Long>::getValue, EVENT, wDef, counting()).get());
+
+        p.tryProcess(0, entry("a", 1L));
+        assertTrue(p.tryProcessWatermark(new Watermark(10)));
+        assertEquals(singletonList(new TimestampedEntry<>(10, "a", 1L)), drain());
+
+        p.tryProcess(0, entry("a", 5L));
+        assertTrue(p.tryProcess());
+        assertEquals(singletonList(new TimestampedEntry<>(10, "a", 2L)), drain());
+
+        // the window is now past the allowed lateness
+        assertTrue(p.tryProcessWatermark(new Watermark(20)));
+        p.tryProcess(0, entry("a", 6L));
+        assertTrue(p.tryProcess());
+        assertEquals(emptyList(), drain());
+        assertTrue(p.tsToKeyToAcc.isEmpty());
+    }
+
+    @Test
+    public void when_noAllowedLateness_then_lateEventDropped() {
+        WindowDefinition wDef = tumblingWindowDef(10);
+        init(aggregateToSlidingWindowP(entryKey(), Entry<String, Long>::getValue, EVENT, wDef, counting()).get());
+
+        p.tryProcess(0, entry("a", 1L));
+        assertTrue(p.tryProcessWatermark(new Watermark(10)));
+        assertEquals(singletonList(new TimestampedEntry<>(10, "a", 1L)), drain());
+
+        p.tryProcess(0, entry("a", 5L));
+        assertTrue(p.tryProcess());
+        assertEquals(emptyList(), drain());
+        assertTrue(p.tsToKeyToAcc.isEmpty());
+    }
+
+    @Test
+    public void when_slidingWindowWithDeduct_then_laterWindowsConsistent() {
+        WindowDefinition wDef = slidingWindowDef(10, 5).withAllowedLateness(5);
+        init(aggregateToSlidingWindowP(entryKey(), Entry<String, Long>::getValue, EVENT, wDef, counting()).get());
+
+        p.tryProcess(0, entry("a", 1L));
+        assertTrue(p.tryProcessWatermark(new Watermark(5)));
+        assertEquals(singletonList(new TimestampedEntry<>(5, "a", 1L)), drain());
+
+        p.tryProcess(0, entry("a", 2L));
+        assertTrue(p.tryProcess());
+        assertEquals(singletonList(new TimestampedEntry<>(5, "a", 2L)), drain());
+
+        p.tryProcess(0, entry("a", 11L));
+        assertTrue(p.tryProcessWatermark(new Watermark(15)));
+        assertEquals(asList(
+                new TimestampedEntry<>(10, "a", 2L),
+                new TimestampedEntry<>(15, "a", 1L)
+        ), drain());
+    }
+
+    @Test
+    public void when_firstStage_then_lateFrameEmittedWithNextWatermark() {
+        WindowDefinition wDef = tumblingWindowDef(10).withAllowedLateness(10);
+        init(accumulateByFrameP(entryKey(), Entry<String, Long>::getValue, EVENT, wDef, counting()).get());
+
+        p.tryProcess(0, entry("a", 1L));
+        assertTrue(p.tryProcessWatermark(new Watermark(10)));
+        assertEquals(1, drain().size());
+
+        p.tryProcess(0, entry("a", 5L));
+        assertTrue(p.tryProcessWatermark(new Watermark(20)));
+        List<Object> output = drain();
+        assertEquals(1, output.size());
+        assertEquals(10L, ((TimestampedEntry) output.get(0)).getTimestamp());
+        assertTrue(p.tsToKeyToAcc.isEmpty());
+    }
+
+    private List<Object> drain() {
+        List<Object> result = new ArrayList<>();
+        Queue<Object> queue = outbox.queueWithOrdinal(0);
+        for (Object o; (o = queue.poll()) != null; ) {
+            result.add(o);
+        }
+        return result;
+    }
+}
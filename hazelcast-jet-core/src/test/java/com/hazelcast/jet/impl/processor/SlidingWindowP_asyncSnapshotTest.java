@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.accumulator.LongAccumulator;
+import com.hazelcast.jet.config.ProcessingGuarantee;
+import com.hazelcast.jet.core.TimestampKind;
+import com.hazelcast.jet.core.Watermark;
+import com.hazelcast.jet.core.test.TestInbox;
+import com.hazelcast.jet.core.test.TestOutbox;
+import com.hazelcast.jet.core.test.TestOutbox.MockData;
+import com.hazelcast.jet.core.test.TestProcessorContext;
+import com.hazelcast.jet.impl.execution.SnapshotTombstone;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.aggregate.AggregateOperations.counting;
+import static com.hazelcast.jet.core.WindowDefinition.slidingWindowDef;
+import static com.hazelcast.jet.core.processor.Processors.aggregateToSlidingWindowP;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@Category(ParallelTest.class)
+@RunWith(HazelcastParallelClassRunner.class)
+public class SlidingWindowP_asyncSnapshotTest {
+
+    private TestProcessorContext context;
+    private SlidingWindowP<Entry<Long, String>, ?, ?> processor;
+    private TestOutbox outbox;
+
+    @Before
+    public void before() {
+        context = new TestProcessorContext()
+                .setProcessingGuarantee(ProcessingGuarantee.EXACTLY_ONCE)
+                .setAsyncSnapshotsEnabled(true);
+        processor = newProcessor();
+        outbox = newOutbox();
+        processor.init(outbox, context);
+    }
+
+    @Test
+    public void when_stateModifiedAfterViewOffered_then_viewUnchanged() {
+        process(entry(1L, "a"), entry(1L, "b"), entry(2L, "a"));
+        assertTrue(processor.saveToSnapshot());
+
+        // When
+        process(entry(1L, "a"), entry(2L, "a"), entry(3L, "a"));
+        assertTrue(processor.tryProcessWatermark(new Watermark(2)));
+
+        // Then
+        Map<Object, Object> snapshot = drainSnapshot();
+        assertEquals(4, snapshot.size()); // 3 frame accumulators and nextWinToEmit
+        assertEquals(new LongAccumulator(1), snapshot.get(new SnapshotKey(1L, "a")));
+        assertEquals(new LongAccumulator(1), snapshot.get(new SnapshotKey(2L, "a")));
+        assertFalse(snapshot.containsKey(new SnapshotKey(3L, "a")));
+        assertEquals(new LongAccumulator(2), processor.tsToKeyToAcc.get(2L).get("a"));
+    }
+
+    @Test
+    public void when_asyncSnapshotRestored_then_sameState() {
+        process(entry(1L, "a"), entry(1L, "b"), entry(2L, "a"));
+        assertTrue(processor.tryProcessWatermark(new Watermark(1)));
+        assertTrue(processor.saveToSnapshot());
+        Map<Object, Object> snapshot = drainSnapshot();
+        // modifying the frames after the snapshot must not affect the state at snapshot time
+        Map<Long, Map<Object, Object>> stateAtSnapshot = copyState(processor);
+        long nextWinToEmitAtSnapshot = processor.nextWinToEmit;
+        process(entry(2L, "a"), entry(2L, "b"));
+
+        // When
+        SlidingWindowP<Entry<Long, String>, ?, ?> restored = newProcessor();
+        restored.init(newOutbox(), context);
+        TestInbox inbox = new TestInbox();
+        inbox.addAll(snapshot.entrySet());
+        restored.restoreFromSnapshot(inbox);
+        assertTrue(restored.finishSnapshotRestore());
+
+        // Then
+        assertEquals(stateAtSnapshot, copyState(restored));
+        assertEquals(nextWinToEmitAtSnapshot, restored.nextWinToEmit);
+    }
+
+    @Test
+    public void when_asyncIncrementalSnapshot_then_onlyChangesSaved() {
+        context.setIncrementalSnapshotsEnabled(true);
+        processor = newProcessor();
+        processor.init(outbox, context);
+        process(entry(1L, "a"), entry(1L, "b"), entry(2L, "a"));
+        assertTrue(processor.saveToSnapshot());
+        drainSnapshot();
+
+        // When
+        process(entry(2L, "b"));
+        assertTrue(processor.tryProcessWatermark(new Watermark(2)));
+        outbox.setSnapshotIncremental(true);
+        assertTrue(processor.saveToSnapshot());
+        process(entry(2L, "a"));
+        Map<Object, Object> delta = drainSnapshot();
+
+        // Then
+        assertEquals(4, delta.size()); // 1 frame accumulator, 2 tombstones and nextWinToEmit
+        assertEquals(new LongAccumulator(1), delta.get(new SnapshotKey(2L, "b")));
+        assertEquals(SnapshotTombstone.TOMBSTONE, delta.get(new SnapshotKey(1L, "a")));
+        assertEquals(SnapshotTombstone.TOMBSTONE, delta.get(new SnapshotKey(1L, "b")));
+    }
+
+    private void process(Object... items) {
+        for (Object item : items) {
+            assertTrue(processor.tryProcess(0, item));
+        }
+    }
+
+    private Map<Object, Object> drainSnapshot() {
+        Map<Object, Object> snapshot = new HashMap<>();
+        for (Entry<MockData, MockData> e : outbox.snapshotQueue()) {
+            assertEquals("duplicate key", null, snapshot.put(e.getKey().getObject(), e.getValue().getObject()));
+        }
+        outbox.snapshotQueue().clear();
+        return snapshot;
+    }
+
+    private static Map<Long, Map<Object, Object>> copyState(SlidingWindowP<?, ?, ?> p) {
+        Map<Long, Map<Object, Object>> state = new HashMap<>();
+        p.tsToKeyToAcc.forEach((ts, frame) -> frame.forEach((key, acc) -> state
+                .computeIfAbsent(ts, x -> new HashMap<>())
+                .put(key, new LongAccumulator(((LongAccumulator) acc).get()))));
+        return state;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SlidingWindowP<Entry<Long, String>, ?, ?> newProcessor() {
+        return (SlidingWindowP<Entry<Long, String>, ?, ?>) aggregateToSlidingWindowP(
+                Entry<Long, String>::getValue,
+                Entry::getKey,
+                TimestampKind.FRAME,
+                slidingWindowDef(2, 1),
+                counting()
+        ).get();
+    }
+
+    private static TestOutbox newOutbox() {
+        return new TestOutbox(new int[] {128}, 128);
+    }
+}
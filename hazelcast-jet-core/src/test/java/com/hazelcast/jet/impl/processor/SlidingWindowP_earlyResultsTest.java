@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.accumulator.LongAccumulator;
+import com.hazelcast.jet.aggregate.AggregateOperation;
+import com.hazelcast.jet.aggregate.AggregateOperation1;
+import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.core.Watermark;
+import com.hazelcast.jet.core.WindowDefinition;
+import com.hazelcast.jet.core.test.TestOutbox;
+import com.hazelcast.jet.core.test.TestProcessorContext;
+import com.hazelcast.jet.datamodel.TimestampedEntry;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Queue;
+
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.aggregate.AggregateOperations.counting;
+import static com.hazelcast.jet.core.TimestampKind.EVENT;
+import static com.hazelcast.jet.core.WindowDefinition.slidingWindowDef;
+import static com.hazelcast.jet.core.WindowDefinition.tumblingWindowDef;
+import static com.hazelcast.jet.core.processor.Processors.accumulateByFrameP;
+import static com.hazelcast.jet.core.processor.Processors.aggregateToSlidingWindowP;
+import static com.hazelcast.jet.function.DistributedFunctions.entryKey;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category(ParallelTest.class)
+public class SlidingWindowP_earlyResultsTest {
+
+    private SlidingWindowP<Entry<String, Long>, ?, Long> p;
+    private TestOutbox outbox;
+
+    private void init(Processor processor) {
+        p = (SlidingWindowP<Entry<String, Long>, ?, Long>) processor;
+        outbox = new TestOutbox(128);
+        p.init(outbox, new TestProcessorContext());
+    }
+
+    @Test
+    public void when_itemCountReached_then_earlyResultsEmitted() {
+        WindowDefinition wDef = tumblingWindowDef(10).withEarlyResultsItemCount(2);
+        init(aggregateToSlidingWindowP(entryKey(), Entry<String, Long>::getValue, EVENT, wDef, counting()).get());
+
+        p.tryProcess(0, entry("a", 1L));
+        assertTrue(p.tryProcess());
+        assertEquals(emptyList(), drain());
+
+        p.tryProcess(0, entry("a", 2L));
+        assertTrue(p.tryProcess());
+        assertEquals(asList(new TimestampedEntry<>(10, "a", 2L)), drain());
+
+        // nothing new received, no early results
+        assertTrue(p.tryProcess());
+        assertEquals(emptyList(), drain());
+
+        p.tryProcess(0, entry("a", 3L));
+        p.tryProcess(0, entry("b", 4L));
+        assertTrue(p.tryProcess());
+        assertEquals(asList(new TimestampedEntry<>(10, "a", 3L), new TimestampedEntry<>(10, "b", 1L)), drain());
+
+        // early results must not consume the state
+        assertTrue(p.tryProcessWatermark(new Watermark(10)));
+        assertEquals(asList(new TimestampedEntry<>(10, "a", 3L), new TimestampedEntry<>(10, "b", 1L)), drain());
+        assertTrue(p.tsToKeyToAcc.isEmpty());
+    }
+
+    @Test
+    public void when_slidingWindow_then_allOpenWindowsEmitted() {
+        WindowDefinition wDef = slidingWindowDef(4, 2).withEarlyResultsItemCount(1);
+        init(aggregateToSlidingWindowP(entryKey(), Entry<String, Long>::getValue, EVENT, wDef, counting()).get());
+
+        p.tryProcess(0, entry("a", 1L));
+        assertTrue(p.tryProcess());
+        assertEquals(asList(new TimestampedEntry<>(2, "a", 1L), new TimestampedEntry<>(4, "a", 1L)), drain());
+    }
+
+    @Test
+    public void when_firstStage_then_framesFlushed() {
+        WindowDefinition wDef = tumblingWindowDef(10).withEarlyResultsItemCount(2);
+        init(accumulateByFrameP(entryKey(), Entry<String, Long>::getValue, EVENT, wDef, counting()).get());
+
+        p.tryProcess(0, entry("a", 1L));
+        p.tryProcess(0, entry("a", 2L));
+        assertTrue(p.tryProcess());
+        List<Object> output = drain();
+        assertEquals(1, output.size());
+        assertEquals(10L, ((TimestampedEntry) output.get(0)).getTimestamp());
+        assertTrue(p.tsToKeyToAcc.isEmpty());
+    }
+
+    @Test
+    public void when_identityFinish_then_earlyResultNotUpdatedLater() {
+        AggregateOperation1<Object, LongAccumulator, LongAccumulator> aggrOp = AggregateOperation
+                .withCreate(LongAccumulator::new)
+                .andAccumulate((LongAccumulator acc, Object item) -> acc.add(1))
+                .andCombine(LongAccumulator::add)
+                .andIdentityFinish();
+        WindowDefinition wDef = tumblingWindowDef(10).withEarlyResultsItemCount(1);
+        init(aggregateToSlidingWindowP(entryKey(), Entry<String, Long>::getValue, EVENT, wDef, aggrOp).get());
+
+        p.tryProcess(0, entry("a", 1L));
+        assertTrue(p.tryProcess());
+        List<Object> earlyResults = drain();
+        p.tryProcess(0, entry("a", 2L));
+
+        assertEquals(asList(new TimestampedEntry<>(10, "a", new LongAccumulator(1))), earlyResults);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void when_earlyResultsWithoutCombine_then_fail() {
+        AggregateOperation1<Object, LongAccumulator, Long> aggrOp = AggregateOperation
+                .withCreate(LongAccumulator::new)
+                .andAccumulate((LongAccumulator acc, Object item) -> acc.add(1))
+                .andFinish(LongAccumulator::get);
+        WindowDefinition wDef = tumblingWindowDef(10).withEarlyResultsItemCount(1);
+
+        aggregateToSlidingWindowP(entryKey(), Entry<String, Long>::getValue, EVENT, wDef, aggrOp).get();
+    }
+
+    @Test
+    public void when_noEarlyResultsRequested_then_nothingEmitted() {
+        WindowDefinition wDef = tumblingWindowDef(10);
+        init(aggregateToSlidingWindowP(entryKey(), Entry<String, Long>::getValue, EVENT, wDef, counting()).get());
+
+        p.tryProcess(0, entry("a", 1L));
+        assertTrue(p.tryProcess());
+        assertEquals(emptyList(), drain());
+    }
+
+    private List<Object> drain() {
+        List<Object> result = new ArrayList<>();
+        Queue<Object> queue = outbox.queueWithOrdinal(0);
+        for (Object o; (o = queue.poll()) != null; ) {
+            result.add(o);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.impl.processor;
+
+import com.hazelcast.jet.config.ProcessingGuarantee;
+import com.hazelcast.jet.core.TimestampKind;
+import com.hazelcast.jet.core.Watermark;
+import com.hazelcast.jet.core.test.TestInbox;
+import com.hazelcast.jet.core.test.TestOutbox;
+import com.hazelcast.jet.core.test.TestOutbox.MockData;
+import com.hazelcast.jet.core.test.TestProcessorContext;
+import com.hazelcast.jet.impl.execution.SnapshotTombstone;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.aggregate.AggregateOperations.counting;
+import static com.hazelcast.jet.core.WindowDefinition.slidingWindowDef;
+import static com.hazelcast.jet.core.processor.Processors.aggregateToSlidingWindowP;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@Category(ParallelTest.class)
+@RunWith(HazelcastParallelClassRunner.class)
+public class SlidingWindowP_incrementalSnapshotTest {
+
+    private TestProcessorContext context;
+    private SlidingWindowP<Entry<Long, String>, ?, ?> processor;
+    private TestOutbox outbox;
+
+    @Before
+    public void before() {
+        context = new TestProcessorContext()
+                .setProcessingGuarantee(ProcessingGuarantee.EXACTLY_ONCE)
+                .setIncrementalSnapshotsEnabled(true);
+        processor = newProcessor();
+        outbox = newOutbox();
+        processor.init(outbox, context);
+    }
+
+    @Test
+    public void when_incrementalSnapshot_then_onlyChangesSaved() {
+        process(entry(1L, "a"), entry(1L, "b"), entry(2L, "a"));
+        Map<Object, Object> fullSnapshot = saveSnapshot(false);
+        assertEquals(4, fullSnapshot.size()); // 3 frame accumulators and nextWinToEmit
+
+        // When
+        process(entry(2L, "b"));
+        Map<Object, Object> delta = saveSnapshot(true);
+
+        // Then
+        assertEquals(2, delta.size()); // 1 frame accumulator and nextWinToEmit
+        assertTrue(delta.containsKey(new SnapshotKey(2L, "b")));
+        assertFalse(delta.containsKey(new SnapshotKey(2L, "a")));
+        assertFalse(delta.containsKey(new SnapshotKey(1L, "a")));
+    }
+
+    @Test
+    public void when_frameEvicted_then_tombstonesSaved() {
+        process(entry(1L, "a"), entry(1L, "b"), entry(2L, "a"));
+        saveSnapshot(false);
+
+        // When
+        assertTrue(processor.tryProcessWatermark(new Watermark(2)));
+        Map<Object, Object> delta = saveSnapshot(true);
+
+        // Then
+        assertFalse("frame 1 not evicted", processor.tsToKeyToAcc.containsKey(1L));
+        assertEquals(SnapshotTombstone.TOMBSTONE, delta.get(new SnapshotKey(1L, "a")));
+        assertEquals(SnapshotTombstone.TOMBSTONE, delta.get(new SnapshotKey(1L, "b")));
+        assertFalse(delta.containsKey(new SnapshotKey(2L, "a")));
+    }
+
+    @Test
+    public void when_snapshotChainMerged_then_sameAsFullSnapshot() {
+        process(entry(1L, "a"), entry(1L, "b"), entry(2L, "a"));
+        Map<Object, Object> mergedSnapshot = saveSnapshot(false);
+        process(entry(2L, "b"), entry(3L, "c"));
+        assertTrue(processor.tryProcessWatermark(new Watermark(2)));
+        applyDelta(mergedSnapshot, saveSnapshot(true));
+        process(entry(3L, "a"), entry(4L, "a"));
+        applyDelta(mergedSnapshot, saveSnapshot(true));
+
+        // When
+        Map<Object, Object> fullSnapshot = saveSnapshot(false);
+
+        // Then
+        assertEquals(fullSnapshot, mergedSnapshot);
+
+        // When
+        SlidingWindowP<Entry<Long, String>, ?, ?> restored = newProcessor();
+        restored.init(newOutbox(), context);
+        TestInbox inbox = new TestInbox();
+        inbox.addAll(mergedSnapshot.entrySet());
+        restored.restoreFromSnapshot(inbox);
+        assertTrue(restored.finishSnapshotRestore());
+
+        // Then
+        assertEquals(processor.tsToKeyToAcc, restored.tsToKeyToAcc);
+        assertEquals(processor.nextWinToEmit, restored.nextWinToEmit);
+    }
+
+    private void process(Object... items) {
+        for (Object item : items) {
+            assertTrue(processor.tryProcess(0, item));
+        }
+    }
+
+    private Map<Object, Object> saveSnapshot(boolean isIncremental) {
+        outbox.setSnapshotIncremental(isIncremental);
+        assertTrue(processor.saveToSnapshot());
+        Map<Object, Object> snapshot = new HashMap<>();
+        for (Entry<MockData, MockData> e : outbox.snapshotQueue()) {
+            assertEquals("duplicate key", null, snapshot.put(e.getKey().getObject(), e.getValue().getObject()));
+        }
+        outbox.snapshotQueue().clear();
+        return snapshot;
+    }
+
+    private static void applyDelta(Map<Object, Object> snapshot, Map<Object, Object> delta) {
+        delta.forEach((k, v) -> {
+            if (v instanceof SnapshotTombstone) {
+                snapshot.remove(k);
+            } else {
+                snapshot.put(k, v);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SlidingWindowP<Entry<Long, String>, ?, ?> newProcessor() {
+        return (SlidingWindowP<Entry<Long, String>, ?, ?>) aggregateToSlidingWindowP(
+                Entry<Long, String>::getValue,
+                Entry::getKey,
+                TimestampKind.FRAME,
+                slidingWindowDef(2, 1),
+                counting()
+        ).get();
+    }
+
+    private static TestOutbox newOutbox() {
+        return new TestOutbox(new int[] {128}, 128);
+    }
+}
@@ -17,6 +17,7 @@
 package com.hazelcast.jet.impl.serialization;
 
 import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.jet.impl.execution.PartitionedEntry;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.spi.serialization.SerializationService;
 import com.hazelcast.test.HazelcastParametersRunnerFactory;
@@ -48,7 +49,8 @@ public class SerializerHooksTest {
     public static Collection<Object> data() throws Exception {
         return Arrays.asList(
                 new Object[]{new String[]{"a", "b", "c"}},
-                new SimpleImmutableEntry<>("key", "value")
+                new SimpleImmutableEntry<>("key", "value"),
+                new PartitionedEntry<>(42, "key", "value")
         );
     }
 
@@ -65,6 +67,9 @@ public class SerializerHooksTest {
                     (Object[]) instance, (Object[]) deserialized);
         } else {
             assertEquals("objects are not equal after serialize/deserialize", instance, deserialized);
+            if (instance instanceof PartitionedEntry) {
+                assertEquals(((PartitionedEntry) instance).partitionId(), ((PartitionedEntry) deserialized).partitionId());
+            }
         }
     }
 }
@@ -16,11 +16,13 @@
 
 package com.hazelcast.jet.impl.util;
 
+import com.hazelcast.jet.Traverser;
 import com.hazelcast.jet.core.Inbox;
 import com.hazelcast.jet.core.Outbox;
 import com.hazelcast.jet.core.Processor;
 
 import javax.annotation.Nonnull;
+import java.util.Map.Entry;
 import java.util.concurrent.TimeUnit;
 
 import static com.hazelcast.util.Preconditions.checkNotNull;
@@ -130,5 +132,20 @@ public final class ThrottleWrappedP implements Processor {
         public boolean offerToSnapshot(@Nonnull Object key, @Nonnull Object value) {
             return wrappedOutbox.offerToSnapshot(key, value);
         }
+
+        @Override
+        public boolean offerRemovalToSnapshot(@Nonnull Object key) {
+            return wrappedOutbox.offerRemovalToSnapshot(key);
+        }
+
+        @Override
+        public long snapshotId() {
+            return wrappedOutbox.snapshotId();
+        }
+
+        @Override
+        public boolean offerSnapshotView(@Nonnull Traverser<? extends Entry<?, ?>> view) {
+            return wrappedOutbox.offerSnapshotView(view);
+        }
     }
 }
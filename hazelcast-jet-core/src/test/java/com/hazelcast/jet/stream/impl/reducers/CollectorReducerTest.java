@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.jet.stream.impl.reducers;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.Member;
+import com.hazelcast.core.Partition;
+import com.hazelcast.core.PartitionService;
+import com.hazelcast.jet.JetException;
+import com.hazelcast.jet.JetInstance;
+import com.hazelcast.jet.core.DAG;
+import com.hazelcast.jet.core.Edge;
+import com.hazelcast.jet.core.Partitioner;
+import com.hazelcast.jet.core.Processor;
+import com.hazelcast.jet.core.ProcessorMetaSupplier;
+import com.hazelcast.jet.core.ProcessorSupplier;
+import com.hazelcast.jet.core.Vertex;
+import com.hazelcast.jet.core.test.TestInbox;
+import com.hazelcast.jet.core.test.TestOutbox;
+import com.hazelcast.jet.core.test.TestProcessorContext;
+import com.hazelcast.jet.core.test.TestProcessorMetaSupplierContext;
+import com.hazelcast.jet.function.DistributedBinaryOperator;
+import com.hazelcast.jet.stream.impl.processor.CombineP;
+import com.hazelcast.jet.stream.impl.processor.TreeCombineP;
+import com.hazelcast.nio.Address;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.Function;
+
+import static com.hazelcast.jet.Util.entry;
+import static com.hazelcast.jet.core.Edge.between;
+import static com.hazelcast.jet.stream.impl.reducers.CollectorReducer.COMBINE_TREE_FAN_IN;
+import static com.hazelcast.jet.stream.impl.processor.TreeCombineP.treeLevel;
+import static com.hazelcast.jet.stream.impl.reducers.CollectorReducer.buildCombiner;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category(ParallelTest.class)
+public class CollectorReducerTest {
+
+    private static final DistributedBinaryOperator<Long> SUM = (a, b) -> a + b;
+
+    @Test
+    public void when_fewMembers_then_onlyFinalCombiner() {
+        DAG dag = new DAG();
+        Vertex combiner = buildCombiner(dag, accumulator(dag), SUM, COMBINE_TREE_FAN_IN);
+
+        assertEquals("combiner", combiner.getName());
+        assertNull(dag.getVertex("combiner-local"));
+        Edge finalEdge = single(dag.getInboundEdges("combiner"));
+        assertEquals("accumulator", finalEdge.getSourceName());
+        assertTrue(finalEdge.isDistributed());
+    }
+
+    @Test
+    public void when_moreMembersThanFanIn_then_localTreeAndFinalCombiner() {
+        DAG dag = new DAG();
+        buildCombiner(dag, accumulator(dag), SUM, COMBINE_TREE_FAN_IN + 1);
+
+        Edge localEdge = single(dag.getInboundEdges("combiner-local"));
+        assertFalse(localEdge.isDistributed());
+        // 9 local results go to 2 processors, which send theirs to the final combiner
+        assertTreeEdge(dag, "combiner-local", "combiner-tree-1");
+        assertTreeEdge(dag, "combiner-tree-1", "combiner");
+        assertNull(dag.getVertex("combiner-tree-2"));
+    }
+
+    @Test
+    public void when_fanInSquaredMembers_then_oneTreeLevel() {
+        DAG dag = new DAG();
+        buildCombiner(dag, accumulator(dag), SUM, COMBINE_TREE_FAN_IN * COMBINE_TREE_FAN_IN);
+
+        // 64 local results go to 8 processors, which send theirs to the final combiner
+        assertTreeEdge(dag, "combiner-local", "combiner-tree-1");
+        assertTreeEdge(dag, "combiner-tree-1", "combiner");
+        assertNull(dag.getVertex("combiner-tree-2"));
+    }
+
+    @Test
+    public void when_manyMembers_then_treeOfLogarithmicDepth() {
+        DAG dag = new DAG();
+        buildCombiner(dag, accumulator(dag), SUM, COMBINE_TREE_FAN_IN * COMBINE_TREE_FAN_IN * COMBINE_TREE_FAN_IN);
+
+        // 512 local results go to 64 processors, then to 8, then to the final combiner
+        assertTreeEdge(dag, "combiner-local", "combiner-tree-1");
+        assertTreeEdge(dag, "combiner-tree-1", "combiner-tree-2");
+        assertTreeEdge(dag, "combiner-tree-2", "combiner");
+        assertNull(dag.getVertex("combiner-tree-3"));
+        assertEquals(1, dag.getVertex("combiner-tree-1").getLocalParallelism());
+        assertEquals(1, dag.getVertex("combiner").getLocalParallelism());
+    }
+
+    @Test
+    public void when_treeLevelCombines_then_resultKeyedWithTargetPartition() {
+        TreeCombineP<Long> p = new TreeCombineP<>(SUM, true, 42);
+        TestOutbox outbox = new TestOutbox(1);
+        p.init(outbox, new TestProcessorContext());
+        TestInbox inbox = new TestInbox();
+        inbox.add(entry(0, 1L));
+        inbox.add(entry(0, 2L));
+        p.process(0, inbox);
+        assertTrue(p.complete());
+
+        assertEquals(entry(42, 3L), outbox.queueWithOrdinal(0).poll());
+    }
+
+    @Test
+    public void when_finalCombiner_then_bareResult() {
+        TreeCombineP<Long> p = new TreeCombineP<>(SUM, false, -1);
+        TestOutbox outbox = new TestOutbox(1);
+        p.init(outbox, new TestProcessorContext());
+        TestInbox inbox = new TestInbox();
+        inbox.add(1L);
+        inbox.add(2L);
+        p.process(0, inbox);
+        assertTrue(p.complete());
+
+        assertEquals(3L, outbox.queueWithOrdinal(0).poll());
+    }
+
+    @Test
+    public void when_memberOwnsNoPartition_then_notTargeted() throws Exception {
+        Address a = new Address("127.0.0.1", 5701);
+        Address b = new Address("127.0.0.1", 5702);
+        Address c = new Address("127.0.0.1", 5703);
+        ProcessorMetaSupplier metaSupplier = treeLevel(partition -> new TreeCombineP<>(SUM, false, partition), 2);
+        // partition 1 is being migrated, c owns no partition
+        metaSupplier.init(contextWithPartitionOwners(a, null, b));
+
+        Function<Address, ProcessorSupplier> suppliers = metaSupplier.get(asList(c, a, b));
+
+        // ranked a, b, c: a and b send to a, c sends to b
+        assertEquals(0, targetPartition(suppliers.apply(a)));
+        assertEquals(0, targetPartition(suppliers.apply(b)));
+        assertEquals(2, targetPartition(suppliers.apply(c)));
+    }
+
+    @Test(expected = JetException.class)
+    public void when_tooFewMembersOwnPartitions_then_jetException() throws Exception {
+        Address a = new Address("127.0.0.1", 5701);
+        Address b = new Address("127.0.0.1", 5702);
+        ProcessorMetaSupplier metaSupplier = treeLevel(partition -> new TreeCombineP<>(SUM, false, partition), 1);
+        metaSupplier.init(contextWithPartitionOwners(a));
+
+        metaSupplier.get(asList(a, b)).apply(b);
+    }
+
+    private static TestProcessorMetaSupplierContext contextWithPartitionOwners(Address... owners) {
+        Set<Partition> partitions = new LinkedHashSet<>();
+        for (int i = 0; i < owners.length; i++) {
+            Partition partition = mock(Partition.class);
+            when(partition.getPartitionId()).thenReturn(i);
+            if (owners[i] != null) {
+                Member owner = mock(Member.class);
+                when(owner.getAddress()).thenReturn(owners[i]);
+                when(partition.getOwner()).thenReturn(owner);
+            }
+            partitions.add(partition);
+        }
+        PartitionService partitionService = mock(PartitionService.class);
+        when(partitionService.getPartitions()).thenReturn(partitions);
+        HazelcastInstance hzInstance = mock(HazelcastInstance.class);
+        when(hzInstance.getPartitionService()).thenReturn(partitionService);
+        JetInstance jetInstance = mock(JetInstance.class);
+        when(jetInstance.getHazelcastInstance()).thenReturn(hzInstance);
+        return new TestProcessorMetaSupplierContext().setJetInstance(jetInstance);
+    }
+
+    private static Object targetPartition(ProcessorSupplier supplier) {
+        Processor p = supplier.get(1).iterator().next();
+        TestOutbox outbox = new TestOutbox(1);
+        p.init(outbox, new TestProcessorContext());
+        TestInbox inbox = new TestInbox();
+        inbox.add(1L);
+        p.process(0, inbox);
+        assertTrue(p.complete());
+        return ((Entry<?, ?>) outbox.queueWithOrdinal(0).poll()).getKey();
+    }
+
+    private static void assertTreeEdge(DAG dag, String sourceName, String destName) {
+        Edge edge = single(dag.getInboundEdges(destName));
+        assertEquals(sourceName, edge.getSourceName());
+        assertTrue(edge.isDistributed());
+        Partitioner<Object> partitioner = (Partitioner<Object>) edge.getPartitioner();
+        assertEquals(5, partitioner.getPartition(entry(5, 1L), 271));
+    }
+
+    private static Vertex accumulator(DAG dag) {
+        Vertex accumulator = dag.newVertex("accumulator", () -> new CombineP<>(SUM));
+        dag.edge(between(dag.newVertex("source", () -> new CombineP<>(SUM)), accumulator));
+        return accumulator;
+    }
+
+    private static Edge single(List<Edge> edges) {
+        assertEquals(1, edges.size());
+        return edges.get(0);
+    }
+}